@@ -153,6 +153,22 @@ final class ProjectsExecutionFacade {
                 includeRaw);
     }
 
+    Response getExecutionSnapshot(
+            String projectId,
+            String executionId,
+            boolean includeRaw,
+            int eventsLimit,
+            Integer since) {
+        return ProjectsExecutionQuerySupport.getExecutionSnapshot(
+                projectId,
+                executionId,
+                definitionService,
+                STATUS_UNKNOWN,
+                includeRaw,
+                eventsLimit,
+                since);
+    }
+
     Response getExecutionLineage(
             String projectId,
             String executionId,
@@ -3,11 +3,13 @@ package tech.kayys.wayang.runtime.standalone.resource;
 import jakarta.ws.rs.core.Response;
 import tech.kayys.wayang.control.service.WayangDefinitionService;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.function.Consumer;
 
 final class ProjectsExecutionQuerySupport {
@@ -139,12 +141,7 @@ final class ProjectsExecutionQuerySupport {
 
     static Response listExecutionEvents(String projectId, String executionId) {
         try {
-            final List<Map<String, Object>> events = ProjectsFileStore.readExecutionEvents().stream()
-                    .filter(e -> projectId.equals(String.valueOf(e.get("projectId")))
-                            && executionId.equals(String.valueOf(e.get("executionId"))))
-                    .sorted(Comparator.comparing(e -> String.valueOf(e.getOrDefault("createdAt", ""))))
-                    .toList();
-            return Response.ok(events).build();
+            return Response.ok(readExecutionEvents(projectId, executionId)).build();
         } catch (Exception e) {
             return Response.serverError()
                     .entity(Map.of("error", "Failed to read execution events", "message", e.getMessage()))
@@ -164,22 +161,18 @@ final class ProjectsExecutionQuerySupport {
             Integer limit,
             boolean includeRaw) {
         try {
-            final java.time.Instant fromInstant = ProjectsTelemetrySupport.parseFilterInstant(from);
-            final java.time.Instant toInstant = ProjectsTelemetrySupport.parseFilterInstant(to);
-            final String nodeFilter = optionalStringValue(nodeId);
-            final String typeFilter = optionalStringValue(type);
-            final String groupByValue = optionalStringValue(groupBy);
-            final String sortValue = optionalStringValue(sort);
-            final int limitValue = limit != null ? Math.max(0, limit) : 0;
-            final List<Map<String, Object>> events = ProjectsFileStore.readExecutionEvents().stream()
-                    .filter(e -> projectId.equals(String.valueOf(e.get("projectId")))
-                            && executionId.equals(String.valueOf(e.get("executionId"))))
-                    .filter(e -> ProjectsTelemetrySupport.eventMatchesFilter(e, fromInstant, toInstant, nodeFilter, typeFilter))
-                    .sorted(Comparator.comparing(e -> String.valueOf(e.getOrDefault("createdAt", ""))))
-                    .toList();
-            return Response.ok(ProjectsTelemetrySupport.aggregateTelemetry(
-                    projectId, executionId, events, from, to, nodeFilter, typeFilter,
-                    groupByValue, sortValue, limitValue, includeRaw))
+            if (optionalStringValue(from) == null && optionalStringValue(to) == null
+                    && optionalStringValue(nodeId) == null && optionalStringValue(type) == null && !includeRaw) {
+                // Unfiltered views read the rollup maintained as events are appended
+                return Response.ok(ProjectsTelemetrySupport.renderTelemetry(
+                        projectId, executionId, ProjectsFileStore.readTelemetryRollup(projectId, executionId),
+                        from, to, null, null, optionalStringValue(groupBy), optionalStringValue(sort),
+                        limit != null ? Math.max(0, limit) : 0, null))
+                        .build();
+            }
+            return Response.ok(telemetryPayload(
+                    projectId, executionId, readExecutionEvents(projectId, executionId),
+                    from, to, nodeId, type, groupBy, sort, limit, includeRaw))
                     .build();
         } catch (Exception e) {
             return Response.serverError()
@@ -210,101 +203,204 @@ final class ProjectsExecutionQuerySupport {
                         .entity(Map.of("message", "Execution not found: " + executionId))
                         .build();
             }
+            return Response.ok(lineagePayload(
+                    projectId, executionId, execution, () -> readExecutionEvents(projectId, executionId),
+                    view, nodeId, sort, limit, offset, fields, include))
+                    .build();
+        } catch (Exception e) {
+            return Response.serverError()
+                    .entity(Map.of("error", "Failed to read execution lineage", "message", e.getMessage()))
+                    .build();
+        }
+    }
 
-            Map<String, Object> subWorkflowResolution = mapValue(execution.get("subWorkflowResolution"));
-            if (subWorkflowResolution.isEmpty()) {
-                final List<Map<String, Object>> events = ProjectsFileStore.readExecutionEvents().stream()
-                        .filter(e -> projectId.equals(String.valueOf(e.get("projectId")))
-                                && executionId.equals(String.valueOf(e.get("executionId"))))
-                        .sorted(Comparator.comparing(e -> String.valueOf(e.getOrDefault("createdAt", ""))))
-                        .toList();
-                for (Map<String, Object> event : events) {
-                    final Map<String, Object> metadata = mapValue(event.get("metadata"));
-                    final Map<String, Object> candidate = mapValue(metadata.get("subWorkflowResolution"));
-                    if (!candidate.isEmpty()) {
-                        subWorkflowResolution = candidate;
-                        break;
-                    }
-                }
-            }
+    /**
+     * Build a snapshot of one execution for the debugger from a single read of
+     * the events file: the status, an events page, telemetry and compact
+     * lineage are all derived from that one list.
+     *
+     * <p>
+     * Without {@code since} every event is returned. With
+     * {@code since} (the {@code nextCursor} of a previous snapshot) only the
+     * events after that position are returned, at most {@code eventsLimit} of
+     * them, and telemetry covers just those events so a poller can add it to
+     * what it already has. Events are append-only per execution, so the
+     * position in the ordered list is a stable cursor; if it is beyond the end
+     * (the history was deleted) a full snapshot is returned with
+     * {@code reset=true}.
+     */
+    static Response getExecutionSnapshot(
+            String projectId,
+            String executionId,
+            WayangDefinitionService definitionService,
+            String statusUnknown,
+            boolean includeRaw,
+            int eventsLimit,
+            Integer since) {
+        final Response statusResponse = refreshAndGetExecutionStatus(
+                projectId, executionId, null, definitionService, statusUnknown);
+        if (statusResponse.getStatus() != Response.Status.OK.getStatusCode()) {
+            return statusResponse;
+        }
+        try {
+            final Map<String, Object> execution = mapValue(statusResponse.getEntity());
+            final List<Map<String, Object>> events = readExecutionEvents(projectId, executionId);
+            final int total = events.size();
+            final boolean reset = since != null && (since < 0 || since > total);
+            final boolean delta = since != null && !reset;
 
-            final List<Map<String, Object>> rawTrace = mapListValue(subWorkflowResolution.get("trace"));
-            final String nodeFilter = optionalStringValue(nodeId);
-            final List<Map<String, Object>> trace = rawTrace.stream()
-                    .filter(item -> {
-                        if (nodeFilter == null) {
-                            return true;
-                        }
-                        final String parentNodeId = optionalStringValue(item.get("parentNodeId"));
-                        final String childId = optionalStringValue(item.get("childId"));
-                        return nodeFilter.equals(parentNodeId) || nodeFilter.equals(childId);
-                    })
-                    .toList();
-            final List<Map<String, Object>> sortedTrace = ProjectsLineageSupport.sortTrace(trace, sort);
-            final int safeOffset = Math.max(0, offset != null ? offset : 0);
-            final int safeLimit = limit != null ? Math.max(0, limit) : 0;
-            final int fromIndex = Math.min(safeOffset, sortedTrace.size());
-            final int toIndex = safeLimit > 0
-                    ? Math.min(sortedTrace.size(), fromIndex + safeLimit)
-                    : sortedTrace.size();
-            final List<Map<String, Object>> pagedTrace = sortedTrace.subList(fromIndex, toIndex);
-            final List<String> requestedFields = ProjectsLineageSupport.parseRequestedValues(fields);
-            final List<String> acceptedFields = ProjectsLineageSupport.orderedAcceptedValues(
-                    requestedFields, ProjectsLineageSupport.TRACE_FIELD_ORDER);
-            final List<String> ignoredFields = requestedFields.stream()
-                    .filter(field -> !ProjectsLineageSupport.TRACE_FIELDS.contains(field))
-                    .toList();
-            final List<Map<String, Object>> projectedTrace = ProjectsLineageSupport.projectTrace(pagedTrace, acceptedFields);
+            final List<Map<String, Object>> page;
+            if (delta) {
+                final int toIndex = eventsLimit > 0 ? Math.min(total, since + eventsLimit) : total;
+                page = events.subList(since, toIndex);
+            } else {
+                page = events;
+            }
+            final int nextCursor = delta ? since + page.size() : total;
 
-            final String viewMode = stringValue(view, "full").toLowerCase();
-            final boolean compact = "compact".equals(viewMode);
-            final List<String> requestedIncludes = ProjectsLineageSupport.parseRequestedValues(include);
-            final List<String> defaultIncludes = compact
-                    ? List.of("executionContext")
-                    : List.of("executionContext", "subWorkflowResolution", "status", "updatedAt");
-            final List<String> acceptedIncludes = requestedIncludes.isEmpty()
-                    ? defaultIncludes
-                    : ProjectsLineageSupport.orderedAcceptedValues(
-                            requestedIncludes, ProjectsLineageSupport.INCLUDE_FIELD_ORDER);
-            final List<String> ignoredIncludes = requestedIncludes.stream()
-                    .filter(field -> !ProjectsLineageSupport.INCLUDE_FIELDS.contains(field))
-                    .toList();
             final Map<String, Object> payload = new LinkedHashMap<>();
             payload.put("projectId", projectId);
             payload.put("executionId", executionId);
-            payload.put("view", compact ? "compact" : "full");
-            payload.put("nodeId", nodeFilter);
-            payload.put("sort", optionalStringValue(sort));
-            payload.put("limit", safeLimit);
-            payload.put("offset", safeOffset);
-            payload.put("fields", acceptedFields);
-            payload.put("ignoredFields", ignoredFields);
-            payload.put("include", acceptedIncludes);
-            payload.put("ignoredIncludes", ignoredIncludes);
-            payload.put("traceCount", projectedTrace.size());
-            payload.put("totalTraceCount", rawTrace.size());
-            payload.put("filteredTraceCount", sortedTrace.size());
-            payload.put("trace", projectedTrace);
-            if (acceptedIncludes.contains("executionContext")) {
-                payload.put("executionContext", mapValue(execution.get("executionContext")));
-            }
-            if (acceptedIncludes.contains("subWorkflowResolution")) {
-                payload.put("subWorkflowResolution", subWorkflowResolution);
-            }
-            if (acceptedIncludes.contains("status")) {
-                payload.put("status", optionalStringValue(execution.get("status")));
-            }
-            if (acceptedIncludes.contains("updatedAt")) {
-                payload.put("updatedAt", optionalStringValue(execution.get("updatedAt")));
-            }
+            payload.put("since", delta ? since : null);
+            payload.put("delta", delta);
+            payload.put("reset", reset);
+            payload.put("nextCursor", nextCursor);
+            payload.put("hasMore", nextCursor < total);
+            payload.put("totalEventCount", total);
+            payload.put("status", execution);
+            payload.put("events", page);
+            payload.put("telemetry", telemetryPayload(
+                    projectId, executionId, page, null, null, null, null, null, null, eventsLimit, includeRaw));
+            payload.put("lineage", lineagePayload(
+                    projectId, executionId, execution, () -> events,
+                    "compact", null, null, 25, 0, null, "executionContext,status,updatedAt"));
             return Response.ok(payload).build();
         } catch (Exception e) {
             return Response.serverError()
-                    .entity(Map.of("error", "Failed to read execution lineage", "message", e.getMessage()))
+                    .entity(Map.of("error", "Failed to build execution snapshot", "message", e.getMessage()))
                     .build();
         }
     }
 
+    private static List<Map<String, Object>> readExecutionEvents(String projectId, String executionId)
+            throws IOException {
+        return ProjectsFileStore.readExecutionEvents().stream()
+                .filter(e -> projectId.equals(String.valueOf(e.get("projectId")))
+                        && executionId.equals(String.valueOf(e.get("executionId"))))
+                .sorted(Comparator.comparing(e -> String.valueOf(e.getOrDefault("createdAt", ""))))
+                .toList();
+    }
+
+    private static Map<String, Object> telemetryPayload(
+            String projectId,
+            String executionId,
+            List<Map<String, Object>> executionEvents,
+            String from,
+            String to,
+            String nodeId,
+            String type,
+            String groupBy,
+            String sort,
+            Integer limit,
+            boolean includeRaw) {
+        final Instant fromInstant = ProjectsTelemetrySupport.parseFilterInstant(from);
+        final Instant toInstant = ProjectsTelemetrySupport.parseFilterInstant(to);
+        final String nodeFilter = optionalStringValue(nodeId);
+        final String typeFilter = optionalStringValue(type);
+        final int limitValue = limit != null ? Math.max(0, limit) : 0;
+        final List<Map<String, Object>> events = executionEvents.stream()
+                .filter(e -> ProjectsTelemetrySupport.eventMatchesFilter(e, fromInstant, toInstant, nodeFilter, typeFilter))
+                .toList();
+        return ProjectsTelemetrySupport.aggregateTelemetry(
+                projectId, executionId, events, from, to, nodeFilter, typeFilter,
+                optionalStringValue(groupBy), optionalStringValue(sort), limitValue, includeRaw);
+    }
+
+    /**
+     * @param events loaded only when the execution record has no
+     *               sub-workflow resolution of its own
+     */
+    private static Map<String, Object> lineagePayload(
+            String projectId,
+            String executionId,
+            Map<String, Object> execution,
+            Callable<List<Map<String, Object>>> events,
+            String view,
+            String nodeId,
+            String sort,
+            Integer limit,
+            Integer offset,
+            String fields,
+            String include) throws Exception {
+        Map<String, Object> subWorkflowResolution = mapValue(execution.get("subWorkflowResolution"));
+        if (subWorkflowResolution.isEmpty()) {
+            for (Map<String, Object> event : events.call()) {
+                final Map<String, Object> metadata = mapValue(event.get("metadata"));
+                final Map<String, Object> candidate = mapValue(metadata.get("subWorkflowResolution"));
+                if (!candidate.isEmpty()) {
+                    subWorkflowResolution = candidate;
+                    break;
+                }
+            }
+        }
+
+        final ProjectsLineageIndex traceIndex = ProjectsLineageSupport.traceIndex(
+                projectId, executionId, execution.get("createdAt"), subWorkflowResolution.get("trace"));
+        final String nodeFilter = optionalStringValue(nodeId);
+        final int safeOffset = Math.max(0, offset != null ? offset : 0);
+        final int safeLimit = limit != null ? Math.max(0, limit) : 0;
+        final List<String> requestedFields = ProjectsLineageSupport.parseRequestedValues(fields);
+        final List<String> acceptedFields = ProjectsLineageSupport.orderedAcceptedValues(
+                requestedFields, ProjectsLineageSupport.TRACE_FIELD_ORDER);
+        final List<String> ignoredFields = requestedFields.stream()
+                .filter(field -> !ProjectsLineageSupport.TRACE_FIELDS.contains(field))
+                .toList();
+        final ProjectsLineageIndex.Page page = traceIndex.page(nodeFilter, sort, safeOffset, safeLimit, acceptedFields);
+
+        final String viewMode = stringValue(view, "full").toLowerCase();
+        final boolean compact = "compact".equals(viewMode);
+        final List<String> requestedIncludes = ProjectsLineageSupport.parseRequestedValues(include);
+        final List<String> defaultIncludes = compact
+                ? List.of("executionContext")
+                : List.of("executionContext", "subWorkflowResolution", "status", "updatedAt");
+        final List<String> acceptedIncludes = requestedIncludes.isEmpty()
+                ? defaultIncludes
+                : ProjectsLineageSupport.orderedAcceptedValues(
+                        requestedIncludes, ProjectsLineageSupport.INCLUDE_FIELD_ORDER);
+        final List<String> ignoredIncludes = requestedIncludes.stream()
+                .filter(field -> !ProjectsLineageSupport.INCLUDE_FIELDS.contains(field))
+                .toList();
+        final Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("projectId", projectId);
+        payload.put("executionId", executionId);
+        payload.put("view", compact ? "compact" : "full");
+        payload.put("nodeId", nodeFilter);
+        payload.put("sort", optionalStringValue(sort));
+        payload.put("limit", safeLimit);
+        payload.put("offset", safeOffset);
+        payload.put("fields", acceptedFields);
+        payload.put("ignoredFields", ignoredFields);
+        payload.put("include", acceptedIncludes);
+        payload.put("ignoredIncludes", ignoredIncludes);
+        payload.put("traceCount", page.items().size());
+        payload.put("totalTraceCount", traceIndex.size());
+        payload.put("filteredTraceCount", page.filteredCount());
+        payload.put("trace", page.items());
+        if (acceptedIncludes.contains("executionContext")) {
+            payload.put("executionContext", mapValue(execution.get("executionContext")));
+        }
+        if (acceptedIncludes.contains("subWorkflowResolution")) {
+            payload.put("subWorkflowResolution", subWorkflowResolution);
+        }
+        if (acceptedIncludes.contains("status")) {
+            payload.put("status", optionalStringValue(execution.get("status")));
+        }
+        if (acceptedIncludes.contains("updatedAt")) {
+            payload.put("updatedAt", optionalStringValue(execution.get("updatedAt")));
+        }
+        return payload;
+    }
+
     @SuppressWarnings("unchecked")
     private static Map<String, Object> mapValue(Object value) {
         if (value instanceof Map<?, ?> rawMap) {
@@ -315,13 +411,6 @@ final class ProjectsExecutionQuerySupport {
         return new LinkedHashMap<>();
     }
 
-    private static List<Map<String, Object>> mapListValue(Object raw) {
-        if (!(raw instanceof List<?> list)) {
-            return List.of();
-        }
-        return list.stream().map(ProjectsExecutionQuerySupport::mapValue).toList();
-    }
-
     private static String optionalStringValue(Object raw) {
         if (raw == null) {
             return null;
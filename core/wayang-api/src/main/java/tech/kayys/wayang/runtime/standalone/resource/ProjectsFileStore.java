@@ -17,6 +17,8 @@ import java.util.UUID;
 final class ProjectsFileStore {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final TypeReference<List<Map<String, Object>>> LIST_OF_MAP = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+    private static long projectsGeneration;
 
     private ProjectsFileStore() {
     }
@@ -27,6 +29,19 @@ final class ProjectsFileStore {
 
     static synchronized void writeProjects(List<Map<String, Object>> projects) throws IOException {
         writeList(projectsFile(), projects);
+        projectsGeneration++;
+    }
+
+    /**
+     * Changes whenever the projects file is written, here or by other means
+     * (size or modification time), for caches derived from stored projects.
+     */
+    static synchronized String projectsVersion() throws IOException {
+        final Path file = projectsFile();
+        if (!Files.exists(file)) {
+            return projectsGeneration + ":missing";
+        }
+        return projectsGeneration + ":" + Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
     }
 
     static synchronized List<Map<String, Object>> readExecutions() throws IOException {
@@ -53,6 +68,7 @@ final class ProjectsFileStore {
             String message,
             Map<String, Object> metadata) throws IOException {
         final List<Map<String, Object>> events = readExecutionEvents();
+        final Map<String, Map<String, Object>> rollups = currentTelemetryRollups(events);
         final Map<String, Object> event = new LinkedHashMap<>();
         event.put("eventId", UUID.randomUUID().toString());
         event.put("projectId", projectId);
@@ -64,6 +80,106 @@ final class ProjectsFileStore {
         event.put("metadata", metadata != null ? metadata : Map.of());
         events.add(event);
         writeExecutionEvents(events);
+        final ProjectsTelemetryRollup rollup = rollupOf(rollups, projectId, executionId);
+        rollup.fold(event);
+        rollups.computeIfAbsent(projectId, ignored -> new LinkedHashMap<>()).put(executionId, rollup.toMap());
+        writeTelemetryRollups(rollups);
+    }
+
+    /**
+     * Telemetry rollup of one execution, kept current as events are appended
+     * so telemetry queries need not re-read and re-aggregate the event file.
+     * The rollups record the size and modification time of the events file
+     * they reflect; if it was rewritten by other means they are rebuilt.
+     */
+    static synchronized ProjectsTelemetryRollup readTelemetryRollup(String projectId, String executionId)
+            throws IOException {
+        Map<String, Map<String, Object>> rollups = storedTelemetryRollups();
+        if (rollups == null) {
+            rollups = rebuildTelemetryRollups(readExecutionEvents());
+            writeTelemetryRollups(rollups);
+        }
+        return rollupOf(rollups, projectId, executionId);
+    }
+
+    private static Map<String, Map<String, Object>> currentTelemetryRollups(List<Map<String, Object>> events)
+            throws IOException {
+        final Map<String, Map<String, Object>> rollups = storedTelemetryRollups();
+        return rollups != null ? rollups : rebuildTelemetryRollups(events);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProjectsTelemetryRollup rollupOf(
+            Map<String, Map<String, Object>> rollups, String projectId, String executionId) {
+        final Object stored = rollups.getOrDefault(projectId, Map.of()).get(executionId);
+        return stored instanceof Map<?, ?> map
+                ? ProjectsTelemetryRollup.fromMap((Map<String, Object>) map)
+                : new ProjectsTelemetryRollup();
+    }
+
+    private static Map<String, Map<String, Object>> rebuildTelemetryRollups(List<Map<String, Object>> events) {
+        final Map<String, Map<String, ProjectsTelemetryRollup>> built = new LinkedHashMap<>();
+        for (Map<String, Object> event : events) {
+            if (event == null) {
+                continue;
+            }
+            built.computeIfAbsent(String.valueOf(event.get("projectId")), ignored -> new LinkedHashMap<>())
+                    .computeIfAbsent(String.valueOf(event.get("executionId")), ignored -> new ProjectsTelemetryRollup())
+                    .fold(event);
+        }
+        final Map<String, Map<String, Object>> rollups = new LinkedHashMap<>();
+        built.forEach((projectId, executions) -> {
+            final Map<String, Object> stored = new LinkedHashMap<>();
+            executions.forEach((executionId, rollup) -> stored.put(executionId, rollup.toMap()));
+            rollups.put(projectId, stored);
+        });
+        return rollups;
+    }
+
+    /**
+     * @return stored rollups, or {@code null} if missing or out of date with
+     *         the events file
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Map<String, Object>> storedTelemetryRollups() throws IOException {
+        final Path file = telemetryRollupsFile();
+        if (!Files.exists(file)) {
+            return null;
+        }
+        final Map<String, Object> stored;
+        try {
+            stored = OBJECT_MAPPER.readValue(Files.readString(file), MAP);
+        } catch (IOException e) {
+            // A damaged rollup file is only a cache; rebuild it from the events
+            return null;
+        }
+        if (stored == null || !eventsFileSignature().equals(stored.get("eventsFile"))) {
+            return null;
+        }
+        final Map<String, Map<String, Object>> rollups = new LinkedHashMap<>();
+        if (stored.get("executions") instanceof Map<?, ?> byProject) {
+            byProject.forEach((projectId, executions) -> {
+                if (executions instanceof Map<?, ?> map) {
+                    rollups.put(String.valueOf(projectId), new LinkedHashMap<>((Map<String, Object>) map));
+                }
+            });
+        }
+        return rollups;
+    }
+
+    private static void writeTelemetryRollups(Map<String, Map<String, Object>> rollups) throws IOException {
+        final Map<String, Object> stored = new LinkedHashMap<>();
+        stored.put("eventsFile", eventsFileSignature());
+        stored.put("executions", rollups);
+        Files.writeString(telemetryRollupsFile(), OBJECT_MAPPER.writeValueAsString(stored));
+    }
+
+    private static String eventsFileSignature() throws IOException {
+        final Path file = executionEventsFile();
+        if (!Files.exists(file)) {
+            return "missing";
+        }
+        return Files.size(file) + "@" + Files.getLastModifiedTime(file).toMillis();
     }
 
     private static List<Map<String, Object>> readList(Path file) throws IOException {
@@ -94,6 +210,10 @@ final class ProjectsFileStore {
         return storageDir().resolve("cloud-project-execution-events.json");
     }
 
+    private static Path telemetryRollupsFile() throws IOException {
+        return storageDir().resolve("cloud-project-execution-telemetry.json");
+    }
+
     private static Path storageDir() throws IOException {
         final String userHome = System.getProperty("user.home", ".");
         final Path dir = Paths.get(userHome, ".wayang", "logs", "server");
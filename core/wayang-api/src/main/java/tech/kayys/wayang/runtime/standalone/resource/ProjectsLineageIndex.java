@@ -0,0 +1,207 @@
+package tech.kayys.wayang.runtime.standalone.resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only index over one execution's sub-workflow lineage trace.
+ *
+ * <p>
+ * Items are normalized once and their sort keys are held in columns. The
+ * ordering for each trace field is built on first use and kept, node ids map
+ * straight to the items that mention them, and only the requested page is
+ * projected. A page then costs its own size plus the matches of a node
+ * filter, instead of a sort and copy of the whole trace.
+ */
+final class ProjectsLineageIndex {
+
+    /**
+     * One page of the trace.
+     *
+     * @param filteredCount items matching the node filter, before paging
+     */
+    record Page(List<Map<String, Object>> items, int filteredCount) {
+    }
+
+    private final List<Map<String, Object>> items;
+    private final Map<String, int[]> byNode;
+    private final Map<String, Ordering> orderings = new ConcurrentHashMap<>();
+
+    /**
+     * @param order item indexes by position
+     * @param rank  position by item index
+     */
+    private record Ordering(int[] order, int[] rank) {
+    }
+
+    private ProjectsLineageIndex(List<Map<String, Object>> items) {
+        this.items = items;
+        final Map<String, List<Integer>> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            final String parentNodeId = optionalStringValue(items.get(i).get("parentNodeId"));
+            final String childId = optionalStringValue(items.get(i).get("childId"));
+            if (parentNodeId != null) {
+                nodes.computeIfAbsent(parentNodeId, ignored -> new ArrayList<>()).add(i);
+            }
+            if (childId != null && !childId.equals(parentNodeId)) {
+                nodes.computeIfAbsent(childId, ignored -> new ArrayList<>()).add(i);
+            }
+        }
+        this.byNode = new LinkedHashMap<>();
+        nodes.forEach((node, indexes) -> byNode.put(node,
+                indexes.stream().mapToInt(Integer::intValue).sorted().toArray()));
+    }
+
+    static ProjectsLineageIndex build(Object rawTrace) {
+        if (!(rawTrace instanceof List<?> list)) {
+            return new ProjectsLineageIndex(List.of());
+        }
+        final List<Map<String, Object>> items = new ArrayList<>(list.size());
+        for (Object raw : list) {
+            final Map<String, Object> item = new LinkedHashMap<>();
+            if (raw instanceof Map<?, ?> map) {
+                map.forEach((key, value) -> item.put(String.valueOf(key), value));
+            }
+            items.add(Collections.unmodifiableMap(item));
+        }
+        return new ProjectsLineageIndex(List.copyOf(items));
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    /**
+     * Select, order, page and project the trace.
+     *
+     * @param nodeId items whose parent node or child id equals this, or all
+     *               when {@code null}
+     * @param sort   {@code field[:asc|desc]}; {@code depth} sorts numerically,
+     *               other fields by their string value; ties keep trace order
+     * @param limit  page size, or {@code 0} for everything after the offset
+     * @param fields fields to keep per item, or empty to keep all
+     */
+    Page page(String nodeId, String sort, int offset, int limit, List<String> fields) {
+        final Ordering ordering = ordering(sort);
+        final int[] selected;
+        if (nodeId != null) {
+            selected = byNode.getOrDefault(nodeId, new int[0]).clone();
+            if (ordering != null) {
+                // Reorder just the matches by their position in the full ordering
+                for (int i = 0; i < selected.length; i++) {
+                    selected[i] = ordering.rank()[selected[i]];
+                }
+                Arrays.sort(selected);
+                for (int i = 0; i < selected.length; i++) {
+                    selected[i] = ordering.order()[selected[i]];
+                }
+            }
+        } else {
+            selected = null;
+        }
+        final int filteredCount = selected != null ? selected.length : items.size();
+        final int fromIndex = Math.min(offset, filteredCount);
+        final int toIndex = limit > 0 ? Math.min(filteredCount, fromIndex + limit) : filteredCount;
+
+        final List<Map<String, Object>> page = new ArrayList<>(toIndex - fromIndex);
+        for (int position = fromIndex; position < toIndex; position++) {
+            final int index = selected != null
+                    ? selected[position]
+                    : ordering != null ? ordering.order()[position] : position;
+            page.add(project(items.get(index), fields));
+        }
+        return new Page(page, filteredCount);
+    }
+
+    /**
+     * @return the sort order, or {@code null} for trace order
+     */
+    private Ordering ordering(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        final String[] parts = sort.split(":", 2);
+        final String field = parts[0].trim();
+        final boolean desc = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
+        final String key = field + (desc ? ":desc" : ":asc");
+        final Ordering cached = orderings.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Comparator<Integer> comparator;
+        if ("depth".equals(field)) {
+            final long[] depths = new long[items.size()];
+            for (int i = 0; i < depths.length; i++) {
+                depths[i] = longValue(items.get(i).get("depth"), 0L);
+            }
+            comparator = Comparator.comparingLong(i -> depths[i]);
+        } else {
+            final String[] values = new String[items.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = String.valueOf(items.get(i).getOrDefault(field, ""));
+            }
+            comparator = Comparator.comparing(i -> values[i]);
+        }
+        if (desc) {
+            comparator = comparator.reversed();
+        }
+        final Integer[] boxed = new Integer[items.size()];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        // Object sort is stable, so ties keep trace order
+        Arrays.sort(boxed, comparator);
+        final int[] order = Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+        final int[] rank = new int[order.length];
+        for (int position = 0; position < order.length; position++) {
+            rank[order[position]] = position;
+        }
+        final Ordering ordering = new Ordering(order, rank);
+        if (ProjectsLineageSupport.TRACE_FIELDS.contains(field)) {
+            // Only canonical fields are kept; arbitrary sort keys would grow the cache unbounded
+            orderings.put(key, ordering);
+        }
+        return ordering;
+    }
+
+    private static Map<String, Object> project(Map<String, Object> item, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return item;
+        }
+        final Map<String, Object> projected = new LinkedHashMap<>();
+        for (String field : fields) {
+            if (item.containsKey(field)) {
+                projected.put(field, item.get(field));
+            }
+        }
+        return projected;
+    }
+
+    private static String optionalStringValue(Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        final String value = String.valueOf(raw).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long longValue(Object raw, long fallback) {
+        if (raw == null) {
+            return fallback;
+        }
+        if (raw instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.parseLong(String.valueOf(raw).trim());
+        } catch (Exception ignored) {
+            return fallback;
+        }
+    }
+}
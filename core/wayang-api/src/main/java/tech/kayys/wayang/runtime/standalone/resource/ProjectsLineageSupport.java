@@ -1,7 +1,5 @@
 package tech.kayys.wayang.runtime.standalone.resource;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,27 +23,40 @@ final class ProjectsLineageSupport {
             "status",
             "updatedAt");
     static final Set<String> INCLUDE_FIELDS = Set.copyOf(INCLUDE_FIELD_ORDER);
+    private static final int MAX_TRACE_INDEXES = 256;
+    private static final Map<String, IndexedTrace> TRACE_INDEXES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IndexedTrace> eldest) {
+            return size() > MAX_TRACE_INDEXES;
+        }
+    };
+
+    private record IndexedTrace(String version, ProjectsLineageIndex index) {
+    }
 
     private ProjectsLineageSupport() {
     }
 
-    static List<Map<String, Object>> sortTrace(List<Map<String, Object>> trace, String sort) {
-        if (trace == null || trace.isEmpty() || sort == null || sort.isBlank()) {
-            return trace != null ? trace : List.of();
-        }
-        final String[] parts = sort.split(":", 2);
-        final String field = parts[0].trim();
-        final boolean desc = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
-        Comparator<Map<String, Object>> comparator;
-        if ("depth".equals(field)) {
-            comparator = Comparator.comparingLong(item -> longValue(item.get("depth"), 0L));
-        } else {
-            comparator = Comparator.comparing(item -> String.valueOf(item.getOrDefault(field, "")));
+    /**
+     * Lineage index of an execution's trace, reused across requests. A trace
+     * is fixed once the execution is submitted, so an entry stays valid while
+     * the execution's creation time and trace length are unchanged.
+     */
+    static ProjectsLineageIndex traceIndex(String projectId, String executionId, Object createdAt, Object rawTrace) {
+        final int size = rawTrace instanceof List<?> list ? list.size() : 0;
+        final String key = projectId + "/" + executionId;
+        final String version = createdAt + "#" + size;
+        synchronized (TRACE_INDEXES) {
+            final IndexedTrace cached = TRACE_INDEXES.get(key);
+            if (cached != null && cached.version().equals(version)) {
+                return cached.index();
+            }
         }
-        if (desc) {
-            comparator = comparator.reversed();
+        final ProjectsLineageIndex index = ProjectsLineageIndex.build(rawTrace);
+        synchronized (TRACE_INDEXES) {
+            TRACE_INDEXES.put(key, new IndexedTrace(version, index));
         }
-        return trace.stream().sorted(comparator).toList();
+        return index;
     }
 
     static List<String> parseRequestedValues(String rawValues) {
@@ -60,23 +71,6 @@ final class ProjectsLineageSupport {
                 .toList();
     }
 
-    static List<Map<String, Object>> projectTrace(List<Map<String, Object>> trace, List<String> selectedFields) {
-        if (trace == null || trace.isEmpty() || selectedFields == null || selectedFields.isEmpty()) {
-            return trace != null ? trace : List.of();
-        }
-        final List<Map<String, Object>> projected = new ArrayList<>(trace.size());
-        for (Map<String, Object> item : trace) {
-            final Map<String, Object> projectedItem = new LinkedHashMap<>();
-            for (String field : selectedFields) {
-                if (item.containsKey(field)) {
-                    projectedItem.put(field, item.get(field));
-                }
-            }
-            projected.add(projectedItem);
-        }
-        return projected;
-    }
-
     static List<String> orderedAcceptedValues(List<String> requestedValues, List<String> canonicalOrder) {
         if (requestedValues == null || requestedValues.isEmpty() || canonicalOrder == null || canonicalOrder.isEmpty()) {
             return List.of();
@@ -94,18 +88,4 @@ final class ProjectsLineageSupport {
         final String value = String.valueOf(raw).trim();
         return value.isEmpty() ? null : value;
     }
-
-    private static long longValue(Object raw, long fallback) {
-        if (raw == null) {
-            return fallback;
-        }
-        if (raw instanceof Number number) {
-            return number.longValue();
-        }
-        try {
-            return Long.parseLong(String.valueOf(raw).trim());
-        } catch (Exception ignored) {
-            return fallback;
-        }
-    }
 }
@@ -115,6 +115,20 @@ public class ProjectsService {
         return execution().getExecutionLineage(projectId, executionId, view, nodeId, sort, limit, offset, fields, include);
     }
 
+    /**
+     * Status, events, telemetry and lineage of one execution from a single
+     * read of its event history; {@code since} requests only the events after
+     * a previous snapshot's {@code nextCursor}.
+     */
+    public Response getExecutionSnapshot(
+            String projectId,
+            String executionId,
+            boolean includeRaw,
+            int eventsLimit,
+            Integer since) {
+        return execution().getExecutionSnapshot(projectId, executionId, includeRaw, eventsLimit, since);
+    }
+
     Response getExecutionLineage(String projectId, String executionId) {
         return getExecutionLineage(projectId, executionId, "full", null, null, null, null, null, null);
     }
@@ -2,11 +2,17 @@ package tech.kayys.wayang.runtime.standalone.resource;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +23,15 @@ import java.util.stream.Collectors;
 
 final class ProjectsSubWorkflowSupport {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter CANONICAL_WRITER = OBJECT_MAPPER.writer()
+            .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    private static final int MAX_CACHED_EXPANSIONS = 256;
+    private static final Map<ExpansionKey, Expansion> EXPANSIONS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ExpansionKey, Expansion> eldest) {
+            return size() > MAX_CACHED_EXPANSIONS;
+        }
+    };
 
     private ProjectsSubWorkflowSupport() {
     }
@@ -57,7 +72,8 @@ final class ProjectsSubWorkflowSupport {
                 tenantId,
                 requesterUserId,
                 subWorkflowNodeTypes,
-                childSpecResolver);
+                childSpecResolver,
+                new ArrayList<>());
     }
 
     static Map<String, Object> summarizeBindingSummary(Map<String, Object> configuration) {
@@ -169,7 +185,8 @@ final class ProjectsSubWorkflowSupport {
             String tenantId,
             String requesterUserId,
             Set<String> subWorkflowNodeTypes,
-            ChildSpecResolver childSpecResolver) throws IOException {
+            ChildSpecResolver childSpecResolver,
+            List<Descendant> descendants) throws IOException {
         final Map<String, Object> workflow = mapValue(specPayload.get("workflow"));
         if (workflow.isEmpty()) {
             return specPayload;
@@ -231,13 +248,17 @@ final class ProjectsSubWorkflowSupport {
                         "Sub-workflow cycle detected for projectId '" + resolvedChildProjectId + "' at node '" + nodeId + "'");
             }
             final String nextProjectId = firstNonBlank(resolvedChildProjectId, currentProjectId);
+            if (resolvedChildProjectId != null) {
+                descendants.add(new Descendant(resolvedChildProjectId, nodeId));
+            }
 
             final Set<String> nextAncestry = new HashSet<>(ancestry);
             if (resolvedChildProjectId != null) {
                 nextAncestry.add(resolvedChildProjectId);
             }
-            final Map<String, Object> expandedChildSpec = expandReferencesRecursive(
+            final Map<String, Object> expandedChildSpec = expandChild(
                     childSpec,
+                    resolvedChildProjectId,
                     nextProjectId,
                     depth + 1,
                     maxDepth,
@@ -245,7 +266,8 @@ final class ProjectsSubWorkflowSupport {
                     tenantId,
                     requesterUserId,
                     subWorkflowNodeTypes,
-                    childSpecResolver);
+                    childSpecResolver,
+                    descendants);
 
             final Map<String, Object> childWorkflow = mapValue(expandedChildSpec.get("workflow"));
             final List<Map<String, Object>> childNodes = mapListValue(childWorkflow.get("nodes"));
@@ -345,6 +367,114 @@ final class ProjectsSubWorkflowSupport {
         return specPayload;
     }
 
+    /**
+     * Expand a child spec, reusing an earlier expansion of identical content
+     * in the same context.
+     *
+     * <p>
+     * A child's expansion depends only on its content, the project and depth
+     * it is expanded at, the requester (for access checks on grandchildren)
+     * and the stored projects its references resolve to. Entries are keyed by
+     * the first four and discarded when the projects store changes, so an
+     * edited child is never served stale. An expansion is frozen once, when it
+     * is cached, and then shared by every reference to it; callers copy only
+     * the maps and lists they change, as {@link #expandReferencesRecursive}
+     * does for the nodes and connections it rewrites. The one
+     * ancestry-dependent check, cycles, is re-run against the entry's
+     * recorded descendants.
+     */
+    private static Map<String, Object> expandChild(
+            Map<String, Object> childSpec,
+            String childProjectId,
+            String projectId,
+            int depth,
+            int maxDepth,
+            Set<String> ancestry,
+            String tenantId,
+            String requesterUserId,
+            Set<String> subWorkflowNodeTypes,
+            ChildSpecResolver childSpecResolver,
+            List<Descendant> descendants) throws IOException {
+        final ExpansionKey key = new ExpansionKey(
+                childProjectId,
+                contentHash(childSpec),
+                projectId,
+                depth,
+                maxDepth,
+                tenantId,
+                requesterUserId,
+                Set.copyOf(subWorkflowNodeTypes));
+        final String projectsVersion = ProjectsFileStore.projectsVersion();
+        final Expansion cached;
+        synchronized (EXPANSIONS) {
+            cached = EXPANSIONS.get(key);
+        }
+        if (cached != null && cached.projectsVersion().equals(projectsVersion)) {
+            for (Descendant descendant : cached.descendants()) {
+                if (ancestry.contains(descendant.projectId())) {
+                    throw new IllegalArgumentException(
+                            "Sub-workflow cycle detected for projectId '" + descendant.projectId()
+                                    + "' at node '" + descendant.nodeId() + "'");
+                }
+            }
+            descendants.addAll(cached.descendants());
+            return cached.spec();
+        }
+
+        final List<Descendant> childDescendants = new ArrayList<>();
+        final Map<String, Object> expanded = expandReferencesRecursive(
+                childSpec,
+                projectId,
+                depth,
+                maxDepth,
+                ancestry,
+                tenantId,
+                requesterUserId,
+                subWorkflowNodeTypes,
+                childSpecResolver,
+                childDescendants);
+        descendants.addAll(childDescendants);
+        final Map<String, Object> frozen = freeze(expanded);
+        synchronized (EXPANSIONS) {
+            EXPANSIONS.put(key, new Expansion(projectsVersion, frozen, List.copyOf(childDescendants)));
+        }
+        return frozen;
+    }
+
+    static void clearExpansionCache() {
+        synchronized (EXPANSIONS) {
+            EXPANSIONS.clear();
+        }
+    }
+
+    /**
+     * Unmodifiable at every level. Not {@code Map.copyOf}/{@code List.copyOf}:
+     * specs hold {@code null} values, and key order shows in the output.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T freeze(T value) {
+        if (value instanceof Map<?, ?> map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(key, freeze(item)));
+            return (T) Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            final List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(freeze(item)));
+            return (T) Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static String contentHash(Map<String, Object> spec) throws IOException {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(CANONICAL_WRITER.writeValueAsBytes(spec)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private static boolean isSubWorkflowNodeType(String type, Set<String> subWorkflowNodeTypes) {
         return type != null && subWorkflowNodeTypes.contains(type.trim().toLowerCase());
     }
@@ -480,4 +610,24 @@ final class ProjectsSubWorkflowSupport {
 
     private record ReplacementGraph(List<String> entryNodeIds, List<String> exitNodeIds) {
     }
+
+    /**
+     * A project referenced somewhere below a node, in expansion order.
+     */
+    private record Descendant(String projectId, String nodeId) {
+    }
+
+    private record ExpansionKey(
+            String childProjectId,
+            String contentHash,
+            String projectId,
+            int depth,
+            int maxDepth,
+            String tenantId,
+            String requesterUserId,
+            Set<String> subWorkflowNodeTypes) {
+    }
+
+    private record Expansion(String projectsVersion, Map<String, Object> spec, List<Descendant> descendants) {
+    }
 }
@@ -0,0 +1,267 @@
+package tech.kayys.wayang.runtime.standalone.resource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Running telemetry aggregate of one execution's events, per execution and
+ * grouped by node, by event type and by minute.
+ *
+ * <p>
+ * Folding is order-independent: counters are sums, the execution context is
+ * the one with the earliest {@code createdAt} and the budget the one with the
+ * latest, ties going to the first and last folded respectively. That matches
+ * a stable sort of the events by {@code createdAt}, so a rollup built
+ * incrementally as events are appended equals one rebuilt from the file.
+ */
+final class ProjectsTelemetryRollup {
+    static final List<String> COUNTER_FIELDS = List.of(
+            "tasksExecuted",
+            "delegationAttempts",
+            "delegationRetries",
+            "delegationFailures",
+            "delegationTimeouts");
+
+    private long eventCount;
+    private long telemetryEventCount;
+    private final long[] counters = new long[COUNTER_FIELDS.size()];
+    private final TreeSet<String> orchestrationTypes = new TreeSet<>();
+    private Map<String, Object> executionContext = Map.of();
+    private String executionContextAt;
+    private Map<String, Object> latestBudget = Map.of();
+    private String latestBudgetAt;
+    private final TreeMap<String, long[]> byNode = new TreeMap<>();
+    private final TreeMap<String, long[]> byType = new TreeMap<>();
+    private final TreeMap<String, long[]> byMinute = new TreeMap<>();
+
+    void fold(Map<String, Object> event) {
+        if (event == null) {
+            return;
+        }
+        eventCount++;
+        final String createdAt = String.valueOf(event.getOrDefault("createdAt", ""));
+        final Map<String, Object> metadata = mapValue(event.get("metadata"));
+        final Map<String, Object> ctx = mapValue(metadata.get("executionContext"));
+        if (!ctx.isEmpty() && (executionContextAt == null || createdAt.compareTo(executionContextAt) < 0)) {
+            executionContext = ctx;
+            executionContextAt = createdAt;
+        }
+        final Map<String, Object> telemetry = mapValue(metadata.get("telemetry"));
+        if (telemetry.isEmpty()) {
+            return;
+        }
+        telemetryEventCount++;
+
+        final String orchestrationType = optionalStringValue(telemetry.get("orchestrationType"));
+        if (orchestrationType != null) {
+            orchestrationTypes.add(orchestrationType);
+        }
+        final long[] delta = counterValues(telemetry);
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += delta[i];
+        }
+        final Map<String, Object> budget = mapValue(telemetry.get("budget"));
+        if (!budget.isEmpty() && (latestBudgetAt == null || createdAt.compareTo(latestBudgetAt) >= 0)) {
+            latestBudget = budget;
+            latestBudgetAt = createdAt;
+        }
+
+        final String nodeId = optionalStringValue(event.get("nodeId"));
+        if (nodeId != null) {
+            addToGroup(byNode, nodeId, delta);
+        }
+        final String type = optionalStringValue(event.get("type"));
+        if (type != null) {
+            addToGroup(byType, type, delta);
+        }
+        addToGroup(byMinute, minuteOf(event.get("createdAt")), delta);
+    }
+
+    long eventCount() {
+        return eventCount;
+    }
+
+    long telemetryEventCount() {
+        return telemetryEventCount;
+    }
+
+    Map<String, Object> counters() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < counters.length; i++) {
+            result.put(COUNTER_FIELDS.get(i), counters[i]);
+        }
+        return result;
+    }
+
+    List<String> orchestrationTypes() {
+        return List.copyOf(orchestrationTypes);
+    }
+
+    Map<String, Object> executionContext() {
+        return executionContext;
+    }
+
+    Map<String, Object> latestBudget() {
+        return latestBudget;
+    }
+
+    /**
+     * Grouped counters ordered by group key.
+     *
+     * @param key {@code nodeId}, {@code type} or {@code minute}
+     */
+    List<Map<String, Object>> grouped(String key) {
+        final TreeMap<String, long[]> groups = switch (key) {
+            case "nodeId" -> byNode;
+            case "type" -> byType;
+            default -> byMinute;
+        };
+        return groups.entrySet().stream()
+                .map(entry -> groupedItem(key, entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Plain-map form for JSON storage.
+     */
+    Map<String, Object> toMap() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("eventCount", eventCount);
+        map.put("telemetryEventCount", telemetryEventCount);
+        map.put("counters", counters());
+        map.put("orchestrationTypes", orchestrationTypes());
+        map.put("executionContext", executionContext);
+        map.put("executionContextAt", executionContextAt);
+        map.put("latestBudget", latestBudget);
+        map.put("latestBudgetAt", latestBudgetAt);
+        map.put("byNode", groupsToMap(byNode));
+        map.put("byType", groupsToMap(byType));
+        map.put("byMinute", groupsToMap(byMinute));
+        return map;
+    }
+
+    static ProjectsTelemetryRollup fromMap(Map<String, Object> map) {
+        final ProjectsTelemetryRollup rollup = new ProjectsTelemetryRollup();
+        rollup.eventCount = longValue(map.get("eventCount"), 0L);
+        rollup.telemetryEventCount = longValue(map.get("telemetryEventCount"), 0L);
+        final Map<String, Object> counters = mapValue(map.get("counters"));
+        for (int i = 0; i < rollup.counters.length; i++) {
+            rollup.counters[i] = longValue(counters.get(COUNTER_FIELDS.get(i)), 0L);
+        }
+        if (map.get("orchestrationTypes") instanceof List<?> types) {
+            types.forEach(type -> rollup.orchestrationTypes.add(String.valueOf(type)));
+        }
+        rollup.executionContext = mapValue(map.get("executionContext"));
+        rollup.executionContextAt = map.get("executionContextAt") instanceof String at ? at : null;
+        rollup.latestBudget = mapValue(map.get("latestBudget"));
+        rollup.latestBudgetAt = map.get("latestBudgetAt") instanceof String at ? at : null;
+        groupsFromMap(map.get("byNode"), rollup.byNode);
+        groupsFromMap(map.get("byType"), rollup.byType);
+        groupsFromMap(map.get("byMinute"), rollup.byMinute);
+        return rollup;
+    }
+
+    private static long[] counterValues(Map<String, Object> telemetry) {
+        final Map<String, Object> executorTelemetry = mapValue(telemetry.get("executorTelemetry"));
+        final long[] values = new long[COUNTER_FIELDS.size()];
+        values[0] = longValue(telemetry.get("tasksExecuted"), 0L);
+        for (int i = 1; i < values.length; i++) {
+            values[i] = longValue(executorTelemetry.get(COUNTER_FIELDS.get(i)), 0L);
+        }
+        return values;
+    }
+
+    /**
+     * Group slot 0 is the event count, followed by {@link #COUNTER_FIELDS}.
+     */
+    private static void addToGroup(TreeMap<String, long[]> groups, String key, long[] delta) {
+        final long[] group = groups.computeIfAbsent(key, ignored -> new long[COUNTER_FIELDS.size() + 1]);
+        group[0]++;
+        for (int i = 0; i < delta.length; i++) {
+            group[i + 1] += delta[i];
+        }
+    }
+
+    private static Map<String, Object> groupedItem(String key, String value, long[] group) {
+        final Map<String, Object> item = new LinkedHashMap<>();
+        item.put(key, value);
+        item.putAll(groupCounters(group));
+        return item;
+    }
+
+    private static Map<String, Object> groupCounters(long[] group) {
+        final Map<String, Object> item = new LinkedHashMap<>();
+        item.put("eventCount", group[0]);
+        for (int i = 0; i < COUNTER_FIELDS.size(); i++) {
+            item.put(COUNTER_FIELDS.get(i), group[i + 1]);
+        }
+        return item;
+    }
+
+    private static Map<String, Object> groupsToMap(TreeMap<String, long[]> groups) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        groups.forEach((key, group) -> map.put(key, groupCounters(group)));
+        return map;
+    }
+
+    private static void groupsFromMap(Object raw, TreeMap<String, long[]> groups) {
+        mapValue(raw).forEach((key, value) -> {
+            final Map<String, Object> item = mapValue(value);
+            final long[] group = new long[COUNTER_FIELDS.size() + 1];
+            group[0] = longValue(item.get("eventCount"), 0L);
+            for (int i = 0; i < COUNTER_FIELDS.size(); i++) {
+                group[i + 1] = longValue(item.get(COUNTER_FIELDS.get(i)), 0L);
+            }
+            groups.put(key, group);
+        });
+    }
+
+    private static String minuteOf(Object createdAt) {
+        final String value = optionalStringValue(createdAt);
+        Instant instant = Instant.EPOCH;
+        if (value != null) {
+            try {
+                instant = Instant.parse(value);
+            } catch (Exception ignored) {
+                // Unparseable timestamps fall into the epoch bucket, as in time filtering
+            }
+        }
+        return instant.truncatedTo(ChronoUnit.MINUTES).toString();
+    }
+
+    private static Map<String, Object> mapValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            final Map<String, Object> normalized = new LinkedHashMap<>();
+            map.forEach((key, item) -> normalized.put(String.valueOf(key), item));
+            return normalized;
+        }
+        return Map.of();
+    }
+
+    private static String optionalStringValue(Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        final String value = String.valueOf(raw).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long longValue(Object raw, long fallback) {
+        if (raw == null) {
+            return fallback;
+        }
+        if (raw instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.parseLong(String.valueOf(raw).trim());
+        } catch (Exception ignored) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package tech.kayys.wayang.runtime.standalone.resource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProjectsLineageIndexTest {
+
+    private static final String[] NODES = { "n1", "n2", " n3 ", "n4", "", "  " };
+    private static final String[] SORTS = { null, "", "depth", "depth:desc", "childId", "childId:desc",
+            "parentNodeId:asc", "invokeMode:DESC", "unknownField", " depth : desc" };
+
+    @Test
+    void pagesMatchFullTraversalOfTheTrace() {
+        for (long seed = 1; seed <= 30; seed++) {
+            Random random = new Random(seed);
+            List<Object> trace = randomTrace(random, random.nextInt(60));
+            ProjectsLineageIndex index = ProjectsLineageIndex.build(trace);
+            List<Map<String, Object>> items = normalized(trace);
+
+            // Repeats hit the cached orderings as well as fresh ones
+            for (int query = 0; query < 200; query++) {
+                String nodeId = random.nextInt(4) == 0 ? null : NODES[random.nextInt(NODES.length)].trim();
+                String sort = SORTS[random.nextInt(SORTS.length)];
+                int offset = random.nextInt(items.size() + 3);
+                int limit = random.nextInt(items.size() + 3);
+                List<String> fields = randomFields(random);
+
+                ProjectsLineageIndex.Page page = index.page(nodeId, sort, offset, limit, fields);
+
+                List<Map<String, Object>> expected = naive(items, nodeId, sort);
+                String context = "seed " + seed + " node=" + nodeId + " sort=" + sort + " offset=" + offset
+                        + " limit=" + limit + " fields=" + fields;
+                assertEquals(expected.size(), page.filteredCount(), context);
+                assertEquals(project(slice(expected, offset, limit), fields), page.items(), context);
+            }
+        }
+    }
+
+    @Test
+    void nonListTraceIsEmpty() {
+        ProjectsLineageIndex index = ProjectsLineageIndex.build(Map.of("trace", "missing"));
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.page(null, "depth", 0, 10, List.of()).filteredCount());
+    }
+
+    /**
+     * Filter, stable sort, page and project every item, as the lineage
+     * endpoint did before the index.
+     */
+    private static List<Map<String, Object>> naive(List<Map<String, Object>> items, String nodeId, String sort) {
+        List<Map<String, Object>> filtered = items.stream()
+                .filter(item -> nodeId == null
+                        || nodeId.equals(text(item.get("parentNodeId")))
+                        || nodeId.equals(text(item.get("childId"))))
+                .toList();
+        if (sort == null || sort.isBlank()) {
+            return filtered;
+        }
+        String[] parts = sort.split(":", 2);
+        String field = parts[0].trim();
+        boolean desc = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
+        Comparator<Map<String, Object>> comparator = "depth".equals(field)
+                ? Comparator.comparingLong(item -> depth(item.get("depth")))
+                : Comparator.comparing(item -> String.valueOf(item.getOrDefault(field, "")));
+        return filtered.stream().sorted(desc ? comparator.reversed() : comparator).toList();
+    }
+
+    private static List<Map<String, Object>> slice(List<Map<String, Object>> items, int offset, int limit) {
+        int from = Math.min(offset, items.size());
+        int to = limit > 0 ? Math.min(items.size(), from + limit) : items.size();
+        return items.subList(from, to);
+    }
+
+    private static List<Map<String, Object>> project(List<Map<String, Object>> items, List<String> fields) {
+        if (fields.isEmpty()) {
+            return items;
+        }
+        List<Map<String, Object>> projected = new ArrayList<>();
+        for (Map<String, Object> item : items) {
+            Map<String, Object> kept = new LinkedHashMap<>();
+            for (String field : fields) {
+                if (item.containsKey(field)) {
+                    kept.put(field, item.get(field));
+                }
+            }
+            projected.add(kept);
+        }
+        return projected;
+    }
+
+    private static List<Object> randomTrace(Random random, int size) {
+        List<Object> trace = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(25) == 0) {
+                // Malformed entries become empty items
+                trace.add("not a map");
+                continue;
+            }
+            Map<Object, Object> item = new LinkedHashMap<>();
+            if (random.nextInt(6) != 0) {
+                item.put("parentNodeId", NODES[random.nextInt(NODES.length)]);
+            }
+            if (random.nextInt(6) != 0) {
+                item.put("childId", NODES[random.nextInt(NODES.length)]);
+            }
+            switch (random.nextInt(4)) {
+                case 0 -> item.put("depth", random.nextInt(4));
+                case 1 -> item.put("depth", String.valueOf(random.nextInt(4)));
+                case 2 -> item.put("depth", "deep");
+                default -> {
+                }
+            }
+            item.put("invokeMode", random.nextBoolean() ? "SYNC" : "ASYNC");
+            item.put("childProjectId", "p" + random.nextInt(5));
+            trace.add(item);
+        }
+        return trace;
+    }
+
+    private static List<String> randomFields(Random random) {
+        List<String> fields = new ArrayList<>();
+        for (String field : ProjectsLineageSupport.TRACE_FIELD_ORDER) {
+            if (random.nextInt(4) == 0) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static List<Map<String, Object>> normalized(List<Object> trace) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Object raw : trace) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            if (raw instanceof Map<?, ?> map) {
+                map.forEach((key, value) -> item.put(String.valueOf(key), value));
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String text(Object raw) {
+        if (raw == null) {
+            return null;
+        }
+        String value = String.valueOf(raw).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long depth(Object raw) {
+        if (raw instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return raw == null ? 0L : Long.parseLong(String.valueOf(raw).trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
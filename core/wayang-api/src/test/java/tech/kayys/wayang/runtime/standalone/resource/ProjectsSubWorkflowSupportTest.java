@@ -0,0 +1,188 @@
+package tech.kayys.wayang.runtime.standalone.resource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProjectsSubWorkflowSupportTest {
+
+    private static final Set<String> SUB_WORKFLOW_TYPES = Set.of("sub-workflow");
+
+    @TempDir
+    Path home;
+
+    private String previousHome;
+
+    @BeforeEach
+    void setUp() {
+        // The cache is invalidated against the projects file under user.home
+        previousHome = System.getProperty("user.home");
+        System.setProperty("user.home", home.toString());
+        ProjectsSubWorkflowSupport.clearExpansionCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setProperty("user.home", previousHome);
+        ProjectsSubWorkflowSupport.clearExpansionCache();
+    }
+
+    @Test
+    void cachedExpansionMatchesUncachedExpansion() throws IOException {
+        Map<String, Object> uncached = expand();
+
+        Map<String, Object> warm = expand();
+        Map<String, Object> cached = expand();
+
+        assertEquals(uncached, warm);
+        assertEquals(uncached, cached);
+    }
+
+    @Test
+    void changingAnExpansionDoesNotLeakIntoLaterOnes() throws IOException {
+        Map<String, Object> uncached = expand();
+        ProjectsSubWorkflowSupport.clearExpansionCache();
+
+        tamper(expand());
+        Map<String, Object> afterFirst = expand();
+        tamper(afterFirst);
+        Map<String, Object> afterSecond = expand();
+
+        assertEquals(uncached, afterSecond);
+    }
+
+    @Test
+    void cachedExpansionsAreSharedNotCopied() throws IOException {
+        Map<String, Object> first = expand();
+        Map<String, Object> second = expand();
+
+        // Both references of both expansions point at one frozen child subtree
+        Map<String, Object> params = params(first, "a__c1");
+        assertSame(params, params(first, "b__c1"));
+        assertSame(params, params(second, "a__c1"));
+        assertSame(params(first, "a__c2__g1"), params(second, "b__c2__g1"));
+        assertThrows(UnsupportedOperationException.class, () -> params.put("k", "changed"));
+    }
+
+    private static Map<String, Object> expand() throws IOException {
+        return ProjectsSubWorkflowSupport.expandReferences(
+                parent(),
+                "parent",
+                4,
+                "tenant",
+                "user",
+                SUB_WORKFLOW_TYPES,
+                (projectId, tenantId, requesterUserId, configuration, parentNodeId) -> switch (projectId) {
+                    case "child" -> spec(
+                            List.of(
+                                    node("c1", "task", Map.of("params", Map.of("k", "v"))),
+                                    node("c2", "sub-workflow", Map.of("projectId", "grandchild"))),
+                            List.of(connection("c1", "c2")));
+                    case "grandchild" -> spec(
+                            List.of(
+                                    node("g1", "task", Map.of("params", Map.of("retries", 2))),
+                                    node("g2", "task", Map.of())),
+                            List.of(connection("g1", "g2")));
+                    default -> Map.of();
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> params(Map<String, Object> spec, String nodeId) {
+        Map<String, Object> workflow = (Map<String, Object>) spec.get("workflow");
+        for (Object item : (List<Object>) workflow.get("nodes")) {
+            Map<String, Object> node = (Map<String, Object>) item;
+            if (nodeId.equals(ProjectsNodeGraphSupport.resolveNodeId(node))) {
+                return (Map<String, Object>) ((Map<String, Object>) node.get("configuration")).get("params");
+            }
+        }
+        throw new AssertionError("No node " + nodeId);
+    }
+
+    /**
+     * Two references to the same child at the same depth, so the second is
+     * served from the cache within a single expansion.
+     */
+    private static Map<String, Object> parent() {
+        return spec(
+                List.of(
+                        node("start", "task", Map.of()),
+                        node("a", "sub-workflow", Map.of("projectId", "child")),
+                        node("b", "sub-workflow", Map.of("projectId", "child")),
+                        node("end", "task", Map.of())),
+                List.of(
+                        connection("start", "a"),
+                        connection("start", "b"),
+                        connection("a", "end"),
+                        connection("b", "end")));
+    }
+
+    private static Map<String, Object> spec(List<Map<String, Object>> nodes, List<Map<String, Object>> connections) {
+        Map<String, Object> workflow = new LinkedHashMap<>();
+        workflow.put("nodes", mutable(nodes));
+        workflow.put("connections", mutable(connections));
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put("specVersion", "1.0.0");
+        spec.put("workflow", workflow);
+        return spec;
+    }
+
+    private static Map<String, Object> node(String id, String type, Map<String, Object> configuration) {
+        return Map.of("id", id, "type", type, "configuration", configuration);
+    }
+
+    private static Map<String, Object> connection(String from, String to) {
+        return Map.of("from", from, "to", to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T mutable(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(String.valueOf(key), mutable(item)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>();
+            list.forEach(item -> copy.add(mutable(item)));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * Change every mutable map and list in the result, as a later stage
+     * annotating the expanded spec might.
+     */
+    @SuppressWarnings("unchecked")
+    private static void tamper(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            try {
+                new ArrayList<>(map.values()).forEach(ProjectsSubWorkflowSupportTest::tamper);
+                ((Map<String, Object>) map).put("tampered", true);
+            } catch (UnsupportedOperationException immutable) {
+                // Built fresh by the expansion, never shared
+            }
+        } else if (value instanceof List<?> list) {
+            try {
+                new ArrayList<>(list).forEach(ProjectsSubWorkflowSupportTest::tamper);
+                ((List<Object>) list).add("tampered");
+            } catch (UnsupportedOperationException immutable) {
+                // Built fresh by the expansion, never shared
+            }
+        }
+    }
+}
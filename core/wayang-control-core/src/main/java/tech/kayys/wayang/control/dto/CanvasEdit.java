@@ -0,0 +1,42 @@
+package tech.kayys.wayang.control.dto;
+
+import tech.kayys.wayang.schema.canvas.CanvasEdge;
+import tech.kayys.wayang.schema.canvas.CanvasNode;
+
+/**
+ * A single designer edit, applied to tracked canvas validation state.
+ */
+public sealed interface CanvasEdit {
+
+    record NodeAdded(CanvasNode node) implements CanvasEdit {
+    }
+
+    /**
+     * Label, type or configuration of an existing node changed.
+     */
+    record NodeChanged(CanvasNode node) implements CanvasEdit {
+    }
+
+    record NodeRemoved(String nodeId) implements CanvasEdit {
+    }
+
+    record EdgeAdded(CanvasEdge edge) implements CanvasEdit {
+    }
+
+    /**
+     * Removes the most recently added edge with this id (which may be
+     * {@code null}) and, where given, this source and target, so edges that
+     * share an id can be told apart.
+     */
+    record EdgeRemoved(String edgeId, String source, String target) implements CanvasEdit {
+
+        public EdgeRemoved(String edgeId) {
+            this(edgeId, null, null);
+        }
+
+        public boolean matches(CanvasEdge edge) {
+            return (source == null || source.equals(edge.source))
+                    && (target == null || target.equals(edge.target));
+        }
+    }
+}
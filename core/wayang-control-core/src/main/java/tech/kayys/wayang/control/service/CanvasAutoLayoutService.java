@@ -2,10 +2,9 @@ package tech.kayys.wayang.control.service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.Random;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +19,10 @@ import tech.kayys.wayang.schema.layout.Position;
 
 /**
  * Automatic layout and beautification for the canvas.
+ *
+ * Force-directed layout runs on {@link ForceLayoutEngine} (Barnes-Hut,
+ * multilevel, early stopping); hierarchical layout on
+ * {@link LayeredLayoutEngine} (Sugiyama with crossing minimisation).
  */
 @ApplicationScoped
 public class CanvasAutoLayoutService {
@@ -43,128 +46,51 @@ public class CanvasAutoLayoutService {
     }
 
     private void applyHierarchicalLayout(CanvasData canvas) {
-        Map<String, Integer> ranks = calculateRanks(canvas);
-        Map<Integer, List<CanvasNode>> rankGroups = new HashMap<>();
-
-        canvas.nodes.forEach(node -> {
-            int rank = ranks.getOrDefault(node.id, 0);
-            rankGroups.computeIfAbsent(rank, k -> new ArrayList<>()).add(node);
-        });
+        Map<String, Integer> index = indexNodes(canvas);
+        int[] roots = canvas.nodes.stream()
+                .filter(n -> "START".equalsIgnoreCase(n.type))
+                .mapToInt(n -> index.get(n.id))
+                .toArray();
+        LayeredLayoutEngine.Layers layers = LayeredLayoutEngine.layout(canvas.nodes.size(), edgeIndexes(canvas, index),
+                roots);
+
+        int[] rankSizes = new int[layers.rankCount()];
+        for (int rank : layers.rank()) {
+            rankSizes[rank]++;
+        }
 
         int yOffset = 50;
         int rankSpacing = 150;
         int nodeSpacing = 100;
 
-        for (int rank = 0; rank < rankGroups.size(); rank++) {
-            List<CanvasNode> nodesInRank = rankGroups.get(rank);
-            if (nodesInRank == null)
-                continue;
-
-            int totalWidth = nodesInRank.size() * 200 + (nodesInRank.size() - 1) * nodeSpacing;
+        for (int i = 0; i < canvas.nodes.size(); i++) {
+            CanvasNode node = canvas.nodes.get(i);
+            int rank = layers.rank()[i];
+            int totalWidth = rankSizes[rank] * 200 + (rankSizes[rank] - 1) * nodeSpacing;
             int xOffset = -totalWidth / 2;
-
-            for (int i = 0; i < nodesInRank.size(); i++) {
-                CanvasNode node = nodesInRank.get(i);
-                node.position = new Position(xOffset + i * (200 + nodeSpacing), (double) yOffset + rank * rankSpacing);
-            }
-        }
-    }
-
-    private Map<String, Integer> calculateRanks(CanvasData canvas) {
-        Map<String, Integer> ranks = new HashMap<>();
-        List<String> startNodes = canvas.nodes.stream()
-                .filter(n -> "START".equalsIgnoreCase(n.type))
-                .map(n -> n.id)
-                .toList();
-
-        Queue<String> queue = new LinkedList<>(startNodes);
-        startNodes.forEach(id -> ranks.put(id, 0));
-        Map<String, List<String>> adjacency = buildAdjacencyList(canvas);
-
-        while (!queue.isEmpty()) {
-            String current = queue.poll();
-            int currentRank = ranks.get(current);
-
-            List<String> neighbors = adjacency.getOrDefault(current, List.of());
-            for (String neighbor : neighbors) {
-                int newRank = currentRank + 1;
-                if (!ranks.containsKey(neighbor) || ranks.get(neighbor) < newRank) {
-                    ranks.put(neighbor, newRank);
-                    queue.offer(neighbor);
-                }
-            }
+            node.position = new Position(xOffset + layers.order()[i] * (200 + nodeSpacing),
+                    (double) yOffset + rank * rankSpacing);
         }
-        return ranks;
-    }
-
-    private Map<String, List<String>> buildAdjacencyList(CanvasData canvas) {
-        Map<String, List<String>> adjacency = new HashMap<>();
-        canvas.edges.forEach(edge -> adjacency.computeIfAbsent(edge.source, k -> new ArrayList<>()).add(edge.target));
-        return adjacency;
     }
 
     private void applyForceDirectedLayout(CanvasData canvas) {
-        int iterations = 100;
-        double repulsionForce = 1000;
-        double attractionForce = 0.1;
-        double damping = 0.9;
-
-        Map<String, Velocity> velocities = new HashMap<>();
-        canvas.nodes.forEach(node -> {
-            if (node.position == null) {
-                node.position = new Position(Math.random() * 1000, Math.random() * 1000);
-            }
-            velocities.put(node.id, new Velocity());
-        });
-
-        for (int iter = 0; iter < iterations; iter++) {
-            for (CanvasNode node1 : canvas.nodes) {
-                Velocity v1 = velocities.get(node1.id);
-                for (CanvasNode node2 : canvas.nodes) {
-                    if (node1.id.equals(node2.id))
-                        continue;
-
-                    double dx = node1.position.x - node2.position.x;
-                    double dy = node1.position.y - node2.position.y;
-                    double distance = Math.sqrt(dx * dx + dy * dy);
-                    if (distance < 1)
-                        distance = 1;
-
-                    double force = repulsionForce / (distance * distance);
-                    v1.dx += (dx / distance) * force;
-                    v1.dy += (dy / distance) * force;
-                }
-            }
+        Map<String, Integer> index = indexNodes(canvas);
+        int n = canvas.nodes.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        // Seeded so the same canvas lays out the same way every time
+        Random random = new Random(n);
+        for (int i = 0; i < n; i++) {
+            CanvasNode node = canvas.nodes.get(i);
+            x[i] = node.position != null ? node.position.x : random.nextDouble() * 1000;
+            y[i] = node.position != null ? node.position.y : random.nextDouble() * 1000;
+        }
 
-            for (CanvasEdge edge : canvas.edges) {
-                Velocity v1 = velocities.get(edge.source);
-                Velocity v2 = velocities.get(edge.target);
-                if (v1 == null || v2 == null)
-                    continue;
-
-                CanvasNode n1 = findNode(canvas, edge.source);
-                CanvasNode n2 = findNode(canvas, edge.target);
-
-                double dx = n1.position.x - n2.position.x;
-                double dy = n1.position.y - n2.position.y;
-                double distance = Math.sqrt(dx * dx + dy * dy);
-                if (distance < 1)
-                    distance = 1;
-
-                double force = (distance - 200) * attractionForce;
-                v1.dx -= (dx / distance) * force;
-                v1.dy -= (dy / distance) * force;
-                v2.dx += (dx / distance) * force;
-                v2.dy += (dy / distance) * force;
-            }
+        new ForceLayoutEngine(n).layout(x, y, edgeIndexes(canvas, index));
 
-            canvas.nodes.forEach(node -> {
-                Velocity v = velocities.get(node.id);
-                node.position.x += v.dx;
-                node.position.y += v.dy;
-                v.dx *= damping;
-                v.dy *= damping;
-            });
+        for (int i = 0; i < n; i++) {
+            CanvasNode node = canvas.nodes.get(i);
+            node.position = new Position(x[i], y[i]);
         }
     }
 
@@ -186,12 +112,23 @@ public class CanvasAutoLayoutService {
         }
     }
 
-    private CanvasNode findNode(CanvasData canvas, String id) {
-        return canvas.nodes.stream().filter(n -> n.id.equals(id)).findFirst().orElse(null);
+    private Map<String, Integer> indexNodes(CanvasData canvas) {
+        Map<String, Integer> index = new HashMap<>(canvas.nodes.size() * 2);
+        for (int i = 0; i < canvas.nodes.size(); i++) {
+            index.putIfAbsent(canvas.nodes.get(i).id, i);
+        }
+        return index;
     }
 
-    private static class Velocity {
-        double dx = 0;
-        double dy = 0;
+    private int[][] edgeIndexes(CanvasData canvas, Map<String, Integer> index) {
+        List<int[]> edges = new ArrayList<>(canvas.edges.size());
+        for (CanvasEdge edge : canvas.edges) {
+            Integer source = index.get(edge.source);
+            Integer target = index.get(edge.target);
+            if (source != null && target != null) {
+                edges.add(new int[] { source, target });
+            }
+        }
+        return edges.toArray(int[][]::new);
     }
 }
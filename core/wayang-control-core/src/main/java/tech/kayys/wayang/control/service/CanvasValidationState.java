@@ -0,0 +1,434 @@
+package tech.kayys.wayang.control.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tech.kayys.wayang.control.dto.CanvasEdit;
+import tech.kayys.wayang.schema.canvas.CanvasData;
+import tech.kayys.wayang.schema.canvas.CanvasEdge;
+import tech.kayys.wayang.schema.canvas.CanvasNode;
+import tech.kayys.wayang.schema.canvas.CanvasValidationResult;
+import tech.kayys.wayang.schema.validator.ValidationIssue;
+import tech.kayys.wayang.schema.validator.ValidationSeverity;
+
+/**
+ * Derived validation state for one canvas.
+ *
+ * <p>
+ * Keeps node and edge indexes, per-node and per-edge issues, endpoint
+ * references for the orphan check, node-type counters and an
+ * {@link IncrementalCycleDetector} over the edges whose endpoints both exist
+ * (dangling edges are reported as errors of their own). An edit only
+ * re-checks what it can
+ * affect: the edited node or edge, and the edges attached to a node id that
+ * appeared or disappeared. Building a result walks the recorded issues
+ * only. Edges are tracked under internal keys, since canvas edge ids may be
+ * missing or repeated; removals look edges up by id and endpoints. Not
+ * thread-safe; callers serialize access.
+ */
+final class CanvasValidationState {
+
+    private final Map<String, List<CanvasNode>> nodes = new LinkedHashMap<>();
+    private final Map<String, CanvasEdge> edges = new LinkedHashMap<>();
+    private final Map<String, List<String>> edgeKeysById = new HashMap<>();
+    private final Map<String, Set<String>> edgesByEndpoint = new HashMap<>();
+    private final IncrementalCycleDetector cycles = new IncrementalCycleDetector();
+    private final Set<String> graphEdges = new HashSet<>();
+
+    private final Map<String, Issues> nodeIssues = new LinkedHashMap<>();
+    private final Map<String, Issues> edgeIssues = new LinkedHashMap<>();
+    private final Map<String, List<ValidationIssue>> orphans = new LinkedHashMap<>();
+
+    private int nodeCount;
+    private int startNodes;
+    private int endNodes;
+    private int decisionNodes;
+    private long edgeSequence;
+
+    private record Issues(List<ValidationIssue> errors, List<ValidationIssue> warnings) {
+        boolean isEmpty() {
+            return errors.isEmpty() && warnings.isEmpty();
+        }
+    }
+
+    static CanvasValidationState of(CanvasData canvas) {
+        CanvasValidationState state = new CanvasValidationState();
+        for (CanvasNode node : canvas.nodes) {
+            state.nodes.computeIfAbsent(node.id, ignored -> new ArrayList<>(1)).add(node);
+            state.count(node, 1);
+        }
+        for (CanvasEdge edge : canvas.edges) {
+            String key = state.edgeKey(edge);
+            state.edges.put(key, edge);
+            state.reference(edge.source, key);
+            state.reference(edge.target, key);
+            if (state.nodes.containsKey(edge.source) && state.nodes.containsKey(edge.target)) {
+                state.graphEdges.add(key);
+                state.cycles.load(edge.source, edge.target);
+            }
+        }
+        state.cycles.rebuild();
+        state.nodes.keySet().forEach(state::checkNode);
+        state.edges.keySet().forEach(state::checkEdge);
+        return state;
+    }
+
+    void apply(CanvasEdit edit) {
+        switch (edit) {
+            case CanvasEdit.NodeAdded added -> addNode(added.node());
+            case CanvasEdit.NodeChanged changed -> changeNode(changed.node());
+            case CanvasEdit.NodeRemoved removed -> removeNode(removed.nodeId());
+            case CanvasEdit.EdgeAdded added -> addEdge(added.edge());
+            case CanvasEdit.EdgeRemoved removed -> removeEdge(removed);
+        }
+    }
+
+    CanvasValidationResult result() {
+        CanvasValidationResult result = new CanvasValidationResult();
+        result.validatedAt = Instant.now();
+
+        if (nodeCount == 0) {
+            result.errors.add(new ValidationIssue(
+                    ValidationSeverity.ERROR,
+                    "EMPTY_CANVAS",
+                    "Canvas must contain at least one node",
+                    List.of(),
+                    "Add a start node to begin your workflow"));
+        } else if (startNodes == 0) {
+            result.errors.add(new ValidationIssue(
+                    ValidationSeverity.ERROR,
+                    "NO_START_NODE",
+                    "Canvas must have at least one start node",
+                    List.of(),
+                    "Add a start node to define the entry point"));
+        }
+
+        nodeIssues.values().forEach(issues -> {
+            result.errors.addAll(issues.errors());
+            result.warnings.addAll(issues.warnings());
+        });
+        edgeIssues.values().forEach(issues -> {
+            result.errors.addAll(issues.errors());
+            result.warnings.addAll(issues.warnings());
+        });
+        orphans.values().forEach(result.warnings::addAll);
+
+        if (cycles.hasCycle()) {
+            result.errors.add(new ValidationIssue(
+                    ValidationSeverity.ERROR,
+                    "CIRCULAR_DEPENDENCY",
+                    "Circular dependency detected in workflow",
+                    List.of(),
+                    "Remove circular references or add explicit loop-back edges"));
+        }
+
+        if (endNodes == 0) {
+            result.warnings.add(new ValidationIssue(
+                    ValidationSeverity.WARNING,
+                    "NO_END_NODE",
+                    "Canvas has no explicit end node",
+                    List.of(),
+                    "Consider adding an end node for clarity"));
+        }
+        double complexity = edges.size() - nodeCount + 2 + decisionNodes;
+        result.metrics.put("complexity", complexity);
+        if (complexity > 50) {
+            result.warnings.add(new ValidationIssue(
+                    ValidationSeverity.WARNING,
+                    "HIGH_COMPLEXITY",
+                    String.format("Workflow complexity is high (%.1f)", complexity),
+                    List.of(),
+                    "Consider breaking down into smaller workflows"));
+        }
+
+        result.isValid = result.errors.isEmpty();
+        return result;
+    }
+
+    private void addNode(CanvasNode node) {
+        List<CanvasNode> occurrences = nodes.computeIfAbsent(node.id, ignored -> new ArrayList<>(1));
+        occurrences.add(node);
+        count(node, 1);
+        checkNode(node.id);
+        if (occurrences.size() == 1) {
+            // Edges pointing at this id may have just become valid
+            edgesByEndpoint.getOrDefault(node.id, Set.of()).forEach(this::checkEdge);
+        }
+    }
+
+    private void changeNode(CanvasNode node) {
+        List<CanvasNode> occurrences = nodes.get(node.id);
+        if (occurrences == null) {
+            addNode(node);
+            return;
+        }
+        CanvasNode previous = occurrences.get(0);
+        count(previous, -1);
+        occurrences.set(0, node);
+        count(node, 1);
+        checkNode(node.id);
+    }
+
+    private void removeNode(String nodeId) {
+        List<CanvasNode> occurrences = nodes.get(nodeId);
+        if (occurrences == null) {
+            return;
+        }
+        count(occurrences.remove(occurrences.size() - 1), -1);
+        if (!occurrences.isEmpty()) {
+            checkNode(nodeId);
+            return;
+        }
+        nodes.remove(nodeId);
+        nodeIssues.remove(nodeId);
+        orphans.remove(nodeId);
+        edgesByEndpoint.getOrDefault(nodeId, Set.of()).forEach(this::checkEdge);
+    }
+
+    private void addEdge(CanvasEdge edge) {
+        String key = edgeKey(edge);
+        edges.put(key, edge);
+        reference(edge.source, key);
+        reference(edge.target, key);
+        checkEdge(key);
+    }
+
+    private void removeEdge(CanvasEdit.EdgeRemoved removed) {
+        List<String> keys = edgeKeysById.get(removed.edgeId());
+        if (keys == null) {
+            return;
+        }
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            String key = keys.get(i);
+            CanvasEdge edge = edges.get(key);
+            if (!removed.matches(edge)) {
+                continue;
+            }
+            keys.remove(i);
+            if (keys.isEmpty()) {
+                edgeKeysById.remove(removed.edgeId());
+            }
+            edges.remove(key);
+            edgeIssues.remove(key);
+            if (graphEdges.remove(key)) {
+                cycles.removeEdge(edge.source, edge.target);
+            }
+            unreference(edge.source, key);
+            unreference(edge.target, key);
+            return;
+        }
+    }
+
+    /**
+     * Internal key for a new edge: its id when that is set and free, else a
+     * fresh synthesized one. Never exposed; edits address edges by id.
+     */
+    private String edgeKey(CanvasEdge edge) {
+        String key = edge.id;
+        while (key == null || edges.containsKey(key)) {
+            key = (edge.id != null ? edge.id : "") + "#" + (++edgeSequence);
+        }
+        edgeKeysById.computeIfAbsent(edge.id, ignored -> new ArrayList<>(1)).add(key);
+        return key;
+    }
+
+    private void reference(String nodeId, String edgeKey) {
+        Set<String> keys = edgesByEndpoint.computeIfAbsent(nodeId, ignored -> new LinkedHashSet<>());
+        keys.add(edgeKey);
+        if (keys.size() == 1) {
+            checkOrphan(nodeId);
+        }
+    }
+
+    private void unreference(String nodeId, String edgeKey) {
+        Set<String> keys = edgesByEndpoint.get(nodeId);
+        if (keys == null) {
+            return;
+        }
+        keys.remove(edgeKey);
+        if (keys.isEmpty()) {
+            edgesByEndpoint.remove(nodeId);
+            checkOrphan(nodeId);
+        }
+    }
+
+    private void count(CanvasNode node, int delta) {
+        nodeCount += delta;
+        if ("START".equalsIgnoreCase(node.type)) {
+            startNodes += delta;
+        }
+        if ("END".equalsIgnoreCase(node.type)) {
+            endNodes += delta;
+        }
+        if ("DECISION".equalsIgnoreCase(node.type)) {
+            decisionNodes += delta;
+        }
+    }
+
+    private void checkNode(String nodeId) {
+        List<CanvasNode> occurrences = nodes.get(nodeId);
+        Issues issues = new Issues(new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < occurrences.size(); i++) {
+            CanvasNode node = occurrences.get(i);
+            if (i > 0) {
+                issues.errors().add(new ValidationIssue(
+                        ValidationSeverity.ERROR,
+                        "DUPLICATE_NODE_ID",
+                        "Duplicate node ID: " + node.id,
+                        List.of(node.id),
+                        "Ensure all node IDs are unique"));
+            }
+            if (node.label == null || node.label.isBlank()) {
+                issues.warnings().add(new ValidationIssue(
+                        ValidationSeverity.WARNING,
+                        "MISSING_NODE_LABEL",
+                        "Node missing label: " + node.id,
+                        List.of(node.id),
+                        "Add a descriptive label to the node"));
+            }
+            checkNodeConfig(node, issues);
+        }
+        if (issues.isEmpty()) {
+            nodeIssues.remove(nodeId);
+        } else {
+            nodeIssues.put(nodeId, issues);
+        }
+        checkOrphan(nodeId);
+    }
+
+    private void checkNodeConfig(CanvasNode node, Issues issues) {
+        if (node.config == null || node.config.isEmpty()) {
+            issues.warnings().add(new ValidationIssue(
+                    ValidationSeverity.WARNING,
+                    "EMPTY_NODE_CONFIG",
+                    "Node has no configuration: " + node.id,
+                    List.of(node.id),
+                    "Configure the node settings"));
+            return;
+        }
+
+        switch (node.type.toUpperCase()) {
+            case "DECISION" -> {
+                if (!node.config.containsKey("condition")) {
+                    issues.errors().add(new ValidationIssue(
+                            ValidationSeverity.ERROR,
+                            "MISSING_CONDITION",
+                            "Decision node missing condition: " + node.id,
+                            List.of(node.id),
+                            "Add a condition expression to the decision node"));
+                }
+            }
+            case "HUMAN_TASK" -> {
+                if (!node.config.containsKey("assignee") && !node.config.containsKey("assigneeRole")) {
+                    issues.warnings().add(new ValidationIssue(
+                            ValidationSeverity.WARNING,
+                            "NO_ASSIGNEE",
+                            "Human task without assignee: " + node.id,
+                            List.of(node.id),
+                            "Specify an assignee or role for the task"));
+                }
+            }
+            case "AI_AGENT" -> {
+                if (!node.config.containsKey("agentId") && !node.config.containsKey("llmConfig")) {
+                    issues.errors().add(new ValidationIssue(
+                            ValidationSeverity.ERROR,
+                            "MISSING_AI_CONFIG",
+                            "AI agent node missing configuration: " + node.id,
+                            List.of(node.id),
+                            "Configure the AI agent or LLM settings"));
+                }
+            }
+            case "INTEGRATION" -> {
+                if (!node.config.containsKey("endpointUrl") && !node.config.containsKey("patternType")) {
+                    issues.errors().add(new ValidationIssue(
+                            ValidationSeverity.ERROR,
+                            "MISSING_ENDPOINT",
+                            "Integration node missing endpoint: " + node.id,
+                            List.of(node.id),
+                            "Configure the integration endpoint or pattern"));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void checkOrphan(String nodeId) {
+        List<CanvasNode> occurrences = nodes.get(nodeId);
+        if (occurrences == null || edgesByEndpoint.containsKey(nodeId)) {
+            orphans.remove(nodeId);
+            return;
+        }
+        List<ValidationIssue> issues = new ArrayList<>(1);
+        for (CanvasNode node : occurrences) {
+            if (!"START".equalsIgnoreCase(node.type)) {
+                issues.add(new ValidationIssue(
+                        ValidationSeverity.WARNING,
+                        "ORPHANED_NODE",
+                        "Node not connected to workflow: " + nodeId,
+                        List.of(nodeId),
+                        "Connect the node to the workflow"));
+            }
+        }
+        if (issues.isEmpty()) {
+            orphans.remove(nodeId);
+        } else {
+            orphans.put(nodeId, issues);
+        }
+    }
+
+    private void checkEdge(String key) {
+        CanvasEdge edge = edges.get(key);
+        if (edge == null) {
+            return;
+        }
+        boolean connected = nodes.containsKey(edge.source) && nodes.containsKey(edge.target);
+        if (connected && graphEdges.add(key)) {
+            cycles.addEdge(edge.source, edge.target);
+        } else if (!connected && graphEdges.remove(key)) {
+            cycles.removeEdge(edge.source, edge.target);
+        }
+
+        Issues issues = new Issues(new ArrayList<>(), new ArrayList<>());
+        if (!nodes.containsKey(edge.source)) {
+            issues.errors().add(new ValidationIssue(
+                    ValidationSeverity.ERROR,
+                    "INVALID_SOURCE",
+                    "Edge references non-existent source node: " + edge.source,
+                    affected(edge),
+                    "Remove the edge or fix the source reference"));
+        }
+        if (!nodes.containsKey(edge.target)) {
+            issues.errors().add(new ValidationIssue(
+                    ValidationSeverity.ERROR,
+                    "INVALID_TARGET",
+                    "Edge references non-existent target node: " + edge.target,
+                    affected(edge),
+                    "Remove the edge or fix the target reference"));
+        }
+        if (edge.source.equals(edge.target)) {
+            issues.warnings().add(new ValidationIssue(
+                    ValidationSeverity.WARNING,
+                    "SELF_LOOP",
+                    "Edge creates self-loop: " + edge.id,
+                    affected(edge),
+                    "Consider if self-loop is intentional"));
+        }
+        if (issues.isEmpty()) {
+            edgeIssues.remove(key);
+        } else {
+            edgeIssues.put(key, issues);
+        }
+    }
+
+    private static List<String> affected(CanvasEdge edge) {
+        return edge.id != null ? List.of(edge.id) : List.of();
+    }
+}
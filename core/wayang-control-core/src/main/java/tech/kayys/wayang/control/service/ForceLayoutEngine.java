@@ -0,0 +1,422 @@
+package tech.kayys.wayang.control.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Scalable force-directed layout over an index-based graph.
+ *
+ * <p>
+ * Repulsion is approximated with a Barnes-Hut quadtree, so an iteration costs
+ * O(n log n) instead of O(n^2), and springs only touch actual edges. Large
+ * graphs are first coarsened by repeatedly merging matched neighbours, each
+ * coarse node starting at the centroid of the nodes it merges, so the coarsest
+ * graph is seeded from the current coordinates. It is laid out, then each
+ * finer level starts at its parent's new position plus the node's original
+ * offset from that parent, and only needs a short refinement. Every level
+ * stops early once the largest move falls below {@link #CONVERGED_MOVE}.
+ * Forces alone can leave nodes in dense regions almost on top of each other,
+ * so a final grid-hashed pass pushes apart any closer than
+ * {@link #MIN_SEPARATION}.
+ */
+final class ForceLayoutEngine {
+
+    static final double IDEAL_EDGE_LENGTH = 200.0;
+    static final int MAX_ITERATIONS = 100;
+    static final double MIN_SEPARATION = 100.0;
+
+    private static final int REFINE_ITERATIONS = 30;
+    private static final int COARSEST_SIZE = 100;
+    private static final double MIN_COARSENING = 0.9;
+    private static final double THETA = 1.0;
+    private static final double COOLING = 0.93;
+    private static final double CONVERGED_MOVE = 0.5;
+    private static final double MIN_DISTANCE = 1.0;
+    private static final double MAX_CHILD_OFFSET = IDEAL_EDGE_LENGTH * 0.25;
+    private static final int SEPARATION_PASSES = 50;
+
+    private final Random random;
+
+    ForceLayoutEngine(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Lay out {@code n} nodes in place.
+     *
+     * @param x     initial x per node, overwritten with the result
+     * @param y     initial y per node, overwritten with the result
+     * @param edges pairs of node indexes
+     */
+    void layout(double[] x, double[] y, int[][] edges) {
+        if (x.length < 2) {
+            return;
+        }
+        multilevel(x, y, edges);
+        separate(x, y);
+    }
+
+    private void multilevel(double[] x, double[] y, int[][] edges) {
+        int n = x.length;
+        if (n <= COARSEST_SIZE) {
+            relax(x, y, edges, MAX_ITERATIONS, IDEAL_EDGE_LENGTH);
+            return;
+        }
+        int[] parent = new int[n];
+        int coarseCount = match(n, edges, parent);
+        if (coarseCount > n * MIN_COARSENING) {
+            // Matching barely shrinks the graph (e.g. a star); coarsening would not pay off
+            relax(x, y, edges, MAX_ITERATIONS, IDEAL_EDGE_LENGTH);
+            return;
+        }
+
+        double[] cx = new double[coarseCount];
+        double[] cy = new double[coarseCount];
+        int[] members = new int[coarseCount];
+        for (int i = 0; i < n; i++) {
+            cx[parent[i]] += x[i];
+            cy[parent[i]] += y[i];
+            members[parent[i]]++;
+        }
+        for (int c = 0; c < coarseCount; c++) {
+            cx[c] /= members[c];
+            cy[c] /= members[c];
+        }
+        double[] startX = cx.clone();
+        double[] startY = cy.clone();
+        multilevel(cx, cy, coarsen(edges, parent));
+
+        // Children keep their current offset from the merged parent, capped so
+        // siblings stay close; coincident ones get a small seeded nudge
+        for (int i = 0; i < n; i++) {
+            int p = parent[i];
+            double ox = x[i] - startX[p];
+            double oy = y[i] - startY[p];
+            double length = Math.sqrt(ox * ox + oy * oy);
+            if (length < MIN_DISTANCE) {
+                ox = (random.nextDouble() - 0.5) * MAX_CHILD_OFFSET;
+                oy = (random.nextDouble() - 0.5) * MAX_CHILD_OFFSET;
+            } else if (length > MAX_CHILD_OFFSET) {
+                ox *= MAX_CHILD_OFFSET / length;
+                oy *= MAX_CHILD_OFFSET / length;
+            }
+            x[i] = cx[p] + ox;
+            y[i] = cy[p] + oy;
+        }
+        relax(x, y, edges, REFINE_ITERATIONS, IDEAL_EDGE_LENGTH * 0.5);
+    }
+
+    /**
+     * Move apart every pair closer than {@link #MIN_SEPARATION}, half the
+     * shortfall each, until none is left or the pass budget runs out. Nodes
+     * are bucketed into cells of that size, so only the 3x3 neighbouring
+     * cells are compared and a pass is linear.
+     */
+    private static void separate(double[] x, double[] y) {
+        int n = x.length;
+        Map<Long, List<Integer>> grid = new HashMap<>(n * 2);
+        for (int pass = 0; pass < SEPARATION_PASSES; pass++) {
+            grid.clear();
+            for (int i = 0; i < n; i++) {
+                grid.computeIfAbsent(cell(x[i], y[i], 0, 0), ignored -> new ArrayList<>()).add(i);
+            }
+            boolean moved = false;
+            for (int i = 0; i < n; i++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        List<Integer> bucket = grid.get(cell(x[i], y[i], dx, dy));
+                        if (bucket == null) {
+                            continue;
+                        }
+                        for (int j : bucket) {
+                            if (j > i) {
+                                moved |= pushApart(i, j, x, y);
+                            }
+                        }
+                    }
+                }
+            }
+            if (!moved) {
+                return;
+            }
+        }
+    }
+
+    private static long cell(double px, double py, int dx, int dy) {
+        long cx = (long) Math.floor(px / MIN_SEPARATION) + dx;
+        long cy = (long) Math.floor(py / MIN_SEPARATION) + dy;
+        return (cx << 32) ^ (cy & 0xffffffffL);
+    }
+
+    private static boolean pushApart(int i, int j, double[] x, double[] y) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if (distance >= MIN_SEPARATION) {
+            return false;
+        }
+        if (distance < 1e-9) {
+            // Coincident: split along a stable direction
+            dx = ((i * 31 + j) % 7) - 3 + 0.5;
+            dy = ((i * 17 + j) % 5) - 2 + 0.5;
+            distance = Math.sqrt(dx * dx + dy * dy);
+        }
+        // A hair over the shortfall so rounding cannot leave the pair just inside
+        double shift = (MIN_SEPARATION - Math.min(distance, MIN_SEPARATION)) / 2 + 1e-6;
+        double ux = dx / distance * shift;
+        double uy = dy / distance * shift;
+        x[i] -= ux;
+        y[i] -= uy;
+        x[j] += ux;
+        y[j] += uy;
+        return true;
+    }
+
+    /**
+     * Greedy edge matching: each node merges with at most one unmatched
+     * neighbour.
+     *
+     * @return number of coarse nodes
+     */
+    private static int match(int n, int[][] edges, int[] parent) {
+        Arrays.fill(parent, -1);
+        int next = 0;
+        for (int[] edge : edges) {
+            int a = edge[0];
+            int b = edge[1];
+            if (a != b && parent[a] < 0 && parent[b] < 0) {
+                parent[a] = next;
+                parent[b] = next;
+                next++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (parent[i] < 0) {
+                parent[i] = next++;
+            }
+        }
+        return next;
+    }
+
+    private static int[][] coarsen(int[][] edges, int[] parent) {
+        List<int[]> coarse = new ArrayList<>(edges.length);
+        for (int[] edge : edges) {
+            int a = parent[edge[0]];
+            int b = parent[edge[1]];
+            if (a != b) {
+                coarse.add(new int[] { a, b });
+            }
+        }
+        return coarse.toArray(int[][]::new);
+    }
+
+    /**
+     * Fruchterman-Reingold style relaxation with a cooling step limit.
+     */
+    private void relax(double[] x, double[] y, int[][] edges, int iterations, double initialStep) {
+        int n = x.length;
+        double k = IDEAL_EDGE_LENGTH;
+        double[] fx = new double[n];
+        double[] fy = new double[n];
+        QuadTree tree = new QuadTree(n);
+        double step = initialStep;
+
+        for (int iter = 0; iter < iterations; iter++) {
+            Arrays.fill(fx, 0.0);
+            Arrays.fill(fy, 0.0);
+
+            tree.build(x, y);
+            for (int i = 0; i < n; i++) {
+                tree.repel(i, x[i], y[i], k * k, fx, fy);
+            }
+
+            for (int[] edge : edges) {
+                int a = edge[0];
+                int b = edge[1];
+                if (a == b) {
+                    continue;
+                }
+                double dx = x[a] - x[b];
+                double dy = y[a] - y[b];
+                double distance = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+                double force = distance * distance / k;
+                double ux = dx / distance * force;
+                double uy = dy / distance * force;
+                fx[a] -= ux;
+                fy[a] -= uy;
+                fx[b] += ux;
+                fy[b] += uy;
+            }
+
+            double maxMove = 0.0;
+            for (int i = 0; i < n; i++) {
+                double length = Math.sqrt(fx[i] * fx[i] + fy[i] * fy[i]);
+                if (length < 1e-9) {
+                    continue;
+                }
+                double move = Math.min(length, step);
+                x[i] += fx[i] / length * move;
+                y[i] += fy[i] / length * move;
+                maxMove = Math.max(maxMove, move);
+            }
+            if (maxMove < CONVERGED_MOVE) {
+                return;
+            }
+            step *= COOLING;
+        }
+    }
+
+    /**
+     * Array-backed Barnes-Hut quadtree, rebuilt every iteration.
+     */
+    private static final class QuadTree {
+        private static final int MAX_DEPTH = 32;
+
+        private double[] minX;
+        private double[] minY;
+        private double[] size;
+        private double[] massX;
+        private double[] massY;
+        private int[] mass;
+        private int[] body;
+        private int[] children;
+        private int count;
+        private int[] stack = new int[64];
+
+        QuadTree(int bodies) {
+            allocate(Math.max(16, bodies * 2));
+        }
+
+        void build(double[] x, double[] y) {
+            double lowX = Double.POSITIVE_INFINITY;
+            double lowY = Double.POSITIVE_INFINITY;
+            double highX = Double.NEGATIVE_INFINITY;
+            double highY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                lowX = Math.min(lowX, x[i]);
+                lowY = Math.min(lowY, y[i]);
+                highX = Math.max(highX, x[i]);
+                highY = Math.max(highY, y[i]);
+            }
+            count = 0;
+            newCell(lowX, lowY, Math.max(MIN_DISTANCE, Math.max(highX - lowX, highY - lowY)) * 1.0001);
+            for (int i = 0; i < x.length; i++) {
+                insert(i, x, y);
+            }
+        }
+
+        /**
+         * Add the repulsion {@code kSquared / d} on body {@code i} to
+         * {@code fx}/{@code fy}.
+         */
+        void repel(int i, double xi, double yi, double kSquared, double[] fx, double[] fy) {
+            int top = 0;
+            stack[top++] = 0;
+            while (top > 0) {
+                int cell = stack[--top];
+                if (mass[cell] == 0 || body[cell] == i) {
+                    continue;
+                }
+                double cmx = massX[cell] / mass[cell];
+                double cmy = massY[cell] / mass[cell];
+                double dx = xi - cmx;
+                double dy = yi - cmy;
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                boolean leaf = children[cell * 4] < 0 && children[cell * 4 + 1] < 0
+                        && children[cell * 4 + 2] < 0 && children[cell * 4 + 3] < 0;
+                if (leaf || size[cell] / Math.max(distance, MIN_DISTANCE) < THETA) {
+                    if (distance < MIN_DISTANCE) {
+                        // Coincident bodies: push apart in an arbitrary but stable direction
+                        dx = ((i * 31) % 7) - 3 + 0.5;
+                        dy = ((i * 17) % 5) - 2 + 0.5;
+                        distance = Math.sqrt(dx * dx + dy * dy);
+                    }
+                    double force = kSquared * mass[cell] / distance;
+                    fx[i] += dx / distance * force;
+                    fy[i] += dy / distance * force;
+                    continue;
+                }
+                for (int q = 0; q < 4; q++) {
+                    int child = children[cell * 4 + q];
+                    if (child >= 0) {
+                        if (top == stack.length) {
+                            stack = Arrays.copyOf(stack, top * 2);
+                        }
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+
+        private void insert(int i, double[] x, double[] y) {
+            int cell = 0;
+            for (int depth = 0;; depth++) {
+                massX[cell] += x[i];
+                massY[cell] += y[i];
+                mass[cell]++;
+                if (mass[cell] == 1) {
+                    body[cell] = i;
+                    return;
+                }
+                if (depth >= MAX_DEPTH) {
+                    // Practically coincident bodies share one aggregated leaf
+                    body[cell] = -1;
+                    return;
+                }
+                int resident = body[cell];
+                if (resident >= 0) {
+                    body[cell] = -1;
+                    int child = childFor(cell, x[resident], y[resident]);
+                    massX[child] += x[resident];
+                    massY[child] += y[resident];
+                    mass[child]++;
+                    body[child] = resident;
+                }
+                cell = childFor(cell, x[i], y[i]);
+            }
+        }
+
+        private int childFor(int cell, double px, double py) {
+            double half = size[cell] / 2;
+            int quadrant = (px >= minX[cell] + half ? 1 : 0) + (py >= minY[cell] + half ? 2 : 0);
+            int child = children[cell * 4 + quadrant];
+            if (child < 0) {
+                child = newCell(minX[cell] + ((quadrant & 1) != 0 ? half : 0),
+                        minY[cell] + ((quadrant & 2) != 0 ? half : 0), half);
+                children[cell * 4 + quadrant] = child;
+            }
+            return child;
+        }
+
+        private int newCell(double x, double y, double cellSize) {
+            if (count == mass.length) {
+                allocate(count * 2);
+            }
+            int cell = count++;
+            minX[cell] = x;
+            minY[cell] = y;
+            size[cell] = cellSize;
+            massX[cell] = 0.0;
+            massY[cell] = 0.0;
+            mass[cell] = 0;
+            body[cell] = -1;
+            Arrays.fill(children, cell * 4, cell * 4 + 4, -1);
+            return cell;
+        }
+
+        private void allocate(int capacity) {
+            minX = minX == null ? new double[capacity] : Arrays.copyOf(minX, capacity);
+            minY = minY == null ? new double[capacity] : Arrays.copyOf(minY, capacity);
+            size = size == null ? new double[capacity] : Arrays.copyOf(size, capacity);
+            massX = massX == null ? new double[capacity] : Arrays.copyOf(massX, capacity);
+            massY = massY == null ? new double[capacity] : Arrays.copyOf(massY, capacity);
+            mass = mass == null ? new int[capacity] : Arrays.copyOf(mass, capacity);
+            body = body == null ? new int[capacity] : Arrays.copyOf(body, capacity);
+            children = children == null ? new int[capacity * 4] : Arrays.copyOf(children, capacity * 4);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package tech.kayys.wayang.control.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Directed multigraph that keeps a topological order up to date as edges
+ * come and go, and so knows whether it has a cycle.
+ *
+ * <p>
+ * Inserting an edge that agrees with the current order is O(1); otherwise
+ * only the nodes ordered between its endpoints are searched and reordered
+ * (Pearce-Kelly). Removing an edge never invalidates the order. Only when the
+ * graph is already cyclic does a removal fall back to a full Kahn pass, since
+ * any cycle may have been the one just broken.
+ */
+final class IncrementalCycleDetector {
+
+    private final Map<String, Map<String, Integer>> out = new HashMap<>();
+    private final Map<String, Map<String, Integer>> in = new HashMap<>();
+    private final Map<String, Integer> order = new HashMap<>();
+    private int nextOrder;
+    private boolean cyclic;
+
+    boolean hasCycle() {
+        return cyclic;
+    }
+
+    /**
+     * Add an edge without maintaining the order; call {@link #rebuild()}
+     * afterwards. Used for the initial bulk load.
+     */
+    void load(String source, String target) {
+        link(source, target);
+    }
+
+    void addEdge(String source, String target) {
+        if (!link(source, target) || cyclic) {
+            // A parallel edge changes nothing, and a cyclic graph stays cyclic
+            return;
+        }
+        if (source.equals(target)) {
+            cyclic = true;
+            return;
+        }
+        int lower = order.get(target);
+        int upper = order.get(source);
+        if (upper < lower) {
+            return;
+        }
+        Set<String> forward = new HashSet<>();
+        if (!search(target, out, forward, node -> order.get(node) <= upper, source)) {
+            cyclic = true;
+            return;
+        }
+        Set<String> backward = new HashSet<>();
+        search(source, in, backward, node -> order.get(node) >= lower, null);
+        reorder(backward, forward);
+    }
+
+    void removeEdge(String source, String target) {
+        if (!unlink(source, target)) {
+            return;
+        }
+        if (cyclic) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recompute the order and cycle flag from scratch with Kahn's algorithm.
+     */
+    void rebuild() {
+        Map<String, Integer> indegree = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (String node : order.keySet()) {
+            int degree = in.getOrDefault(node, Map.of()).size();
+            indegree.put(node, degree);
+            if (degree == 0) {
+                ready.add(node);
+            }
+        }
+        nextOrder = 0;
+        int placed = 0;
+        while (!ready.isEmpty()) {
+            String node = ready.poll();
+            order.put(node, nextOrder++);
+            placed++;
+            for (String next : out.getOrDefault(node, Map.of()).keySet()) {
+                if (indegree.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        cyclic = placed < order.size();
+        if (cyclic) {
+            for (Map.Entry<String, Integer> entry : indegree.entrySet()) {
+                if (entry.getValue() > 0) {
+                    order.put(entry.getKey(), nextOrder++);
+                }
+            }
+        }
+    }
+
+    private boolean link(String source, String target) {
+        order.computeIfAbsent(source, ignored -> nextOrder++);
+        order.computeIfAbsent(target, ignored -> nextOrder++);
+        int count = out.computeIfAbsent(source, ignored -> new HashMap<>()).merge(target, 1, Integer::sum);
+        in.computeIfAbsent(target, ignored -> new HashMap<>()).merge(source, 1, Integer::sum);
+        return count == 1;
+    }
+
+    private boolean unlink(String source, String target) {
+        Map<String, Integer> targets = out.get(source);
+        if (targets == null || !targets.containsKey(target)) {
+            return false;
+        }
+        boolean last = targets.merge(target, -1, Integer::sum) == 0;
+        in.get(target).merge(source, -1, Integer::sum);
+        if (!last) {
+            return false;
+        }
+        targets.remove(target);
+        in.get(target).remove(source);
+        forgetIfIsolated(source);
+        forgetIfIsolated(target);
+        return true;
+    }
+
+    private void forgetIfIsolated(String node) {
+        if (out.getOrDefault(node, Map.of()).isEmpty() && in.getOrDefault(node, Map.of()).isEmpty()) {
+            out.remove(node);
+            in.remove(node);
+            order.remove(node);
+        }
+    }
+
+    /**
+     * Depth-first search within the affected band.
+     *
+     * @return {@code false} if {@code stopAt} was reached
+     */
+    private boolean search(String start, Map<String, Map<String, Integer>> edges, Set<String> visited,
+            Predicate<String> inBand, String stopAt) {
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(start);
+        visited.add(start);
+        while (!stack.isEmpty()) {
+            String node = stack.pop();
+            for (String next : edges.getOrDefault(node, Map.of()).keySet()) {
+                if (next.equals(stopAt)) {
+                    return false;
+                }
+                if (inBand.test(next) && visited.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void reorder(Set<String> backward, Set<String> forward) {
+        Comparator<String> byOrder = Comparator.comparingInt(order::get);
+        List<String> nodes = new ArrayList<>(backward.size() + forward.size());
+        backward.stream().sorted(byOrder).forEach(nodes::add);
+        forward.stream().sorted(byOrder).forEach(nodes::add);
+        List<Integer> slots = nodes.stream().map(order::get).sorted().toList();
+        for (int i = 0; i < nodes.size(); i++) {
+            order.put(nodes.get(i), slots.get(i));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package tech.kayys.wayang.control.service;
+
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.control.dto.CanvasEdit;
+import tech.kayys.wayang.schema.canvas.CanvasData;
+import tech.kayys.wayang.schema.canvas.CanvasEdge;
+import tech.kayys.wayang.schema.canvas.CanvasNode;
+import tech.kayys.wayang.schema.canvas.CanvasValidationResult;
+import tech.kayys.wayang.schema.validator.ValidationIssue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanvasValidationStateTest {
+
+    private static final String[] TYPES = { "START", "END", "DECISION", "TASK", "HUMAN_TASK", "AI_AGENT" };
+    private static final String[] EDGE_IDS = { "e0", "e1", "e2", "e3", null };
+
+    @Test
+    void removesEdgesThatShareOrLackAnId() {
+        CanvasData canvas = new CanvasData();
+        canvas.nodes.addAll(List.of(node("a", "START"), node("b", "TASK"), node("c", "TASK")));
+        CanvasValidationState state = CanvasValidationState.of(canvas);
+        state.apply(new CanvasEdit.EdgeAdded(edge("e1", "a", "b")));
+        state.apply(new CanvasEdit.EdgeAdded(edge("e1", "b", "c")));
+        state.apply(new CanvasEdit.EdgeAdded(edge(null, "c", "b")));
+        assertTrue(codes(state.result()).contains("CIRCULAR_DEPENDENCY"));
+
+        state.apply(new CanvasEdit.EdgeRemoved(null, "c", "b"));
+        assertFalse(codes(state.result()).contains("CIRCULAR_DEPENDENCY"));
+
+        // Endpoints pick the older of two edges named e1; b -> c stays
+        state.apply(new CanvasEdit.EdgeRemoved("e1", "a", "b"));
+        assertEquals(0.0, state.result().metrics.get("complexity"));
+        state.apply(new CanvasEdit.EdgeAdded(edge(null, "c", "b")));
+        assertTrue(codes(state.result()).contains("CIRCULAR_DEPENDENCY"));
+
+        // Without endpoints the most recent edge with the id goes
+        state.apply(new CanvasEdit.EdgeRemoved(null));
+        assertFalse(codes(state.result()).contains("CIRCULAR_DEPENDENCY"));
+    }
+
+    @Test
+    void danglingEdgeWithoutIdIsReported() {
+        CanvasData canvas = new CanvasData();
+        canvas.nodes.add(node("a", "START"));
+        canvas.edges.add(edge(null, "a", "ghost"));
+
+        CanvasValidationResult result = CanvasValidationState.of(canvas).result();
+
+        assertTrue(codes(result).contains("INVALID_TARGET"));
+    }
+
+    @Test
+    void matchesFullValidationUnderRandomEdits() {
+        for (long seed = 1; seed <= 40; seed++) {
+            Random random = new Random(seed);
+            CanvasData canvas = new CanvasData();
+            for (int i = 0; i < random.nextInt(6); i++) {
+                canvas.nodes.add(randomNode(random));
+            }
+            CanvasValidationState state = CanvasValidationState.of(copy(canvas));
+
+            for (int step = 0; step < 300; step++) {
+                CanvasEdit edit = randomEdit(random, canvas);
+                applyToCanvas(edit, canvas);
+                state.apply(edit);
+                assertEquals(summary(CanvasValidationState.of(copy(canvas)).result()), summary(state.result()),
+                        "seed " + seed + " step " + step + ": " + edit);
+            }
+        }
+    }
+
+    private static CanvasEdit randomEdit(Random random, CanvasData canvas) {
+        int roll = random.nextInt(100);
+        if (roll < 25) {
+            return new CanvasEdit.NodeAdded(randomNode(random));
+        }
+        if (roll < 35) {
+            CanvasNode changed = randomNode(random);
+            if (!canvas.nodes.isEmpty() && random.nextBoolean()) {
+                changed.id = canvas.nodes.get(random.nextInt(canvas.nodes.size())).id;
+            }
+            return new CanvasEdit.NodeChanged(changed);
+        }
+        if (roll < 50) {
+            return new CanvasEdit.NodeRemoved("n" + random.nextInt(10));
+        }
+        if (roll < 80) {
+            String source = random.nextInt(12) == 0 ? "ghost" : "n" + random.nextInt(10);
+            String target = random.nextInt(12) == 0 ? "ghost" : "n" + random.nextInt(10);
+            return new CanvasEdit.EdgeAdded(edge(EDGE_IDS[random.nextInt(EDGE_IDS.length)], source, target));
+        }
+        if (canvas.edges.isEmpty() || random.nextInt(5) == 0) {
+            return new CanvasEdit.EdgeRemoved(EDGE_IDS[random.nextInt(EDGE_IDS.length)]);
+        }
+        CanvasEdge existing = canvas.edges.get(random.nextInt(canvas.edges.size()));
+        return random.nextBoolean()
+                ? new CanvasEdit.EdgeRemoved(existing.id, existing.source, existing.target)
+                : new CanvasEdit.EdgeRemoved(existing.id);
+    }
+
+    /**
+     * The edit's documented effect on a plain canvas, to validate from scratch.
+     */
+    private static void applyToCanvas(CanvasEdit edit, CanvasData canvas) {
+        switch (edit) {
+            case CanvasEdit.NodeAdded added -> canvas.nodes.add(added.node());
+            case CanvasEdit.NodeChanged changed -> {
+                int first = indexOfNode(canvas, changed.node().id, false);
+                if (first < 0) {
+                    canvas.nodes.add(changed.node());
+                } else {
+                    canvas.nodes.set(first, changed.node());
+                }
+            }
+            case CanvasEdit.NodeRemoved removed -> {
+                int last = indexOfNode(canvas, removed.nodeId(), true);
+                if (last >= 0) {
+                    canvas.nodes.remove(last);
+                }
+            }
+            case CanvasEdit.EdgeAdded added -> canvas.edges.add(added.edge());
+            case CanvasEdit.EdgeRemoved removed -> {
+                for (int i = canvas.edges.size() - 1; i >= 0; i--) {
+                    CanvasEdge edge = canvas.edges.get(i);
+                    if (Objects.equals(edge.id, removed.edgeId()) && removed.matches(edge)) {
+                        canvas.edges.remove(i);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int indexOfNode(CanvasData canvas, String id, boolean last) {
+        int found = -1;
+        for (int i = 0; i < canvas.nodes.size(); i++) {
+            if (canvas.nodes.get(i).id.equals(id)) {
+                found = i;
+                if (!last) {
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Order-insensitive view of a result; incremental and full validation
+     * may list the same issues in a different order.
+     */
+    private static List<String> summary(CanvasValidationResult result) {
+        List<String> lines = new ArrayList<>();
+        for (ValidationIssue issue : result.errors) {
+            lines.add("E " + issue.code + " " + issue.message + " " + issue.affectedFields);
+        }
+        for (ValidationIssue issue : result.warnings) {
+            lines.add("W " + issue.code + " " + issue.message + " " + issue.affectedFields);
+        }
+        lines.sort(null);
+        lines.add("valid=" + result.isValid + " complexity=" + result.metrics.get("complexity"));
+        return lines;
+    }
+
+    private static List<String> codes(CanvasValidationResult result) {
+        List<String> codes = new ArrayList<>();
+        result.errors.forEach(issue -> codes.add(issue.code));
+        result.warnings.forEach(issue -> codes.add(issue.code));
+        return codes;
+    }
+
+    private static CanvasData copy(CanvasData canvas) {
+        CanvasData copy = new CanvasData();
+        copy.nodes = new ArrayList<>(canvas.nodes);
+        copy.edges = new ArrayList<>(canvas.edges);
+        return copy;
+    }
+
+    private static CanvasNode randomNode(Random random) {
+        CanvasNode node = node("n" + random.nextInt(10), TYPES[random.nextInt(TYPES.length)]);
+        if (random.nextInt(4) == 0) {
+            node.label = " ";
+        }
+        if (random.nextInt(3) == 0) {
+            node.config = Map.of();
+        } else if (random.nextBoolean()) {
+            node.config = Map.of("condition", "x > 1", "assignee", "ops", "agentId", "a1");
+        }
+        return node;
+    }
+
+    private static CanvasNode node(String id, String type) {
+        CanvasNode node = new CanvasNode();
+        node.id = id;
+        node.type = type;
+        node.label = id;
+        node.config = new HashMap<>(Map.of("timeout", 30));
+        return node;
+    }
+
+    private static CanvasEdge edge(String id, String source, String target) {
+        CanvasEdge edge = new CanvasEdge();
+        edge.id = id;
+        edge.source = source;
+        edge.target = target;
+        return edge;
+    }
+}
@@ -0,0 +1,139 @@
+package tech.kayys.wayang.control.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForceLayoutEngineTest {
+
+    @Test
+    void sameInputLaysOutTheSameWay() {
+        int[][] edges = randomGraph(400, 7);
+        double[][] first = randomStart(400, 1);
+        double[][] second = randomStart(400, 1);
+
+        new ForceLayoutEngine(400).layout(first[0], first[1], edges);
+        new ForceLayoutEngine(400).layout(second[0], second[1], edges);
+
+        assertArrayEquals(first[0], second[0]);
+        assertArrayEquals(first[1], second[1]);
+    }
+
+    @Test
+    void keepsNodesApartOnBothPaths() {
+        // 60 nodes relax directly; 600 go through coarsening
+        for (int n : new int[] { 60, 600 }) {
+            double[][] position = randomStart(n, n);
+            new ForceLayoutEngine(n).layout(position[0], position[1], randomGraph(n, n));
+
+            double closest = closestPair(position);
+            assertTrue(closest >= ForceLayoutEngine.MIN_SEPARATION - 1e-6, n + " nodes: closest pair " + closest);
+        }
+    }
+
+    @Test
+    void coincidentStartPositionsAreSeparated() {
+        int n = 150;
+        double[] x = new double[n];
+        double[] y = new double[n];
+
+        new ForceLayoutEngine(n).layout(x, y, randomGraph(n, 3));
+
+        assertTrue(closestPair(new double[][] { x, y }) >= ForceLayoutEngine.MIN_SEPARATION - 1e-6);
+    }
+
+    @Test
+    void relayoutStartsFromTheCurrentArrangement() {
+        int n = 800;
+        int[][] edges = randomGraph(n, 11);
+        double[][] position = randomStart(n, 5);
+        new ForceLayoutEngine(n).layout(position[0], position[1], edges);
+        double[] x = position[0].clone();
+        double[] y = position[1].clone();
+
+        new ForceLayoutEngine(n + 1).layout(x, y, edges);
+
+        double moved = 0.0;
+        for (int i = 0; i < n; i++) {
+            moved += Math.hypot(x[i] - position[0][i], y[i] - position[1][i]);
+        }
+        double meanMove = moved / n;
+        double extent = extent(position);
+        assertTrue(meanMove < extent * 0.1, "mean move " + meanMove + " over extent " + extent);
+    }
+
+    @Test
+    void largeGraphLaysOutWithinBound() {
+        int n = 2_000;
+        int[][] edges = randomGraph(n, 13);
+        double[][] position = randomStart(n, 2);
+
+        long start = System.nanoTime();
+        new ForceLayoutEngine(n).layout(position[0], position[1], edges);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        // Pairwise repulsion took minutes at this size; generous for slow CI machines
+        assertTrue(millis < 10_000, "took " + millis + " ms");
+        assertTrue(closestPair(position) >= ForceLayoutEngine.MIN_SEPARATION - 1e-6);
+    }
+
+    /**
+     * Random spanning tree plus half as many extra edges, like a busy canvas.
+     */
+    static int[][] randomGraph(int n, long seed) {
+        Random random = new Random(seed);
+        List<int[]> edges = new ArrayList<>();
+        for (int i = 1; i < n; i++) {
+            edges.add(new int[] { random.nextInt(i), i });
+        }
+        for (int k = 0; k < n / 2; k++) {
+            int a = random.nextInt(n);
+            int b = random.nextInt(n);
+            if (a != b) {
+                edges.add(new int[] { a, b });
+            }
+        }
+        return edges.toArray(int[][]::new);
+    }
+
+    private static double[][] randomStart(int n, long seed) {
+        Random random = new Random(seed);
+        double[][] position = new double[2][n];
+        for (int i = 0; i < n; i++) {
+            position[0][i] = random.nextDouble() * 1000;
+            position[1][i] = random.nextDouble() * 1000;
+        }
+        return position;
+    }
+
+    private static double closestPair(double[][] position) {
+        double closest = Double.POSITIVE_INFINITY;
+        int n = position[0].length;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                closest = Math.min(closest,
+                        Math.hypot(position[0][i] - position[0][j], position[1][i] - position[1][j]));
+            }
+        }
+        return closest;
+    }
+
+    private static double extent(double[][] position) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < position[0].length; i++) {
+            minX = Math.min(minX, position[0][i]);
+            maxX = Math.max(maxX, position[0][i]);
+            minY = Math.min(minY, position[1][i]);
+            maxY = Math.max(maxY, position[1][i]);
+        }
+        return Math.hypot(maxX - minX, maxY - minY);
+    }
+}
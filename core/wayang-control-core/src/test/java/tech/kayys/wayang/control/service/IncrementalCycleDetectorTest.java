@@ -0,0 +1,109 @@
+package tech.kayys.wayang.control.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalCycleDetectorTest {
+
+    @Test
+    void tracksCyclesAsEdgesComeAndGo() {
+        IncrementalCycleDetector detector = new IncrementalCycleDetector();
+        detector.addEdge("a", "b");
+        detector.addEdge("b", "c");
+        assertFalse(detector.hasCycle());
+
+        detector.addEdge("c", "a");
+        assertTrue(detector.hasCycle());
+
+        // A parallel edge keeps the cycle after one copy goes
+        detector.addEdge("c", "a");
+        detector.removeEdge("c", "a");
+        assertTrue(detector.hasCycle());
+        detector.removeEdge("c", "a");
+        assertFalse(detector.hasCycle());
+    }
+
+    @Test
+    void matchesFullRecomputeUnderRandomEdits() {
+        for (long seed = 1; seed <= 30; seed++) {
+            Random random = new Random(seed);
+            IncrementalCycleDetector detector = new IncrementalCycleDetector();
+            List<String[]> edges = new ArrayList<>();
+            // Start some runs from a bulk load, as a tracked canvas does
+            int loaded = random.nextInt(10);
+            for (int i = 0; i < loaded; i++) {
+                String[] edge = randomEdge(random, 8);
+                edges.add(edge);
+                detector.load(edge[0], edge[1]);
+            }
+            detector.rebuild();
+            assertEquals(hasCycle(edges), detector.hasCycle(), "seed " + seed + " after load");
+
+            for (int step = 0; step < 400; step++) {
+                if (edges.isEmpty() || random.nextInt(100) < 55) {
+                    String[] edge = randomEdge(random, 8);
+                    edges.add(edge);
+                    detector.addEdge(edge[0], edge[1]);
+                } else {
+                    String[] edge = edges.remove(random.nextInt(edges.size()));
+                    detector.removeEdge(edge[0], edge[1]);
+                }
+                assertEquals(hasCycle(edges), detector.hasCycle(), "seed " + seed + " step " + step);
+            }
+        }
+    }
+
+    private static String[] randomEdge(Random random, int nodes) {
+        // Self-loops are rare on a canvas but must be handled
+        String source = "n" + random.nextInt(nodes);
+        String target = random.nextInt(40) == 0 ? source : "n" + random.nextInt(nodes);
+        return new String[] { source, target };
+    }
+
+    /**
+     * Reference check: depth-first search for a back edge over the whole graph.
+     */
+    private static boolean hasCycle(List<String[]> edges) {
+        Map<String, List<String>> out = new HashMap<>();
+        for (String[] edge : edges) {
+            out.computeIfAbsent(edge[0], ignored -> new ArrayList<>()).add(edge[1]);
+        }
+        Set<String> done = new HashSet<>();
+        Set<String> onPath = new HashSet<>();
+        for (String node : out.keySet()) {
+            if (reachesPath(node, out, done, onPath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean reachesPath(String node, Map<String, List<String>> out, Set<String> done,
+            Set<String> onPath) {
+        if (onPath.contains(node)) {
+            return true;
+        }
+        if (!done.add(node)) {
+            return false;
+        }
+        onPath.add(node);
+        for (String next : out.getOrDefault(node, List.of())) {
+            if (reachesPath(next, out, done, onPath)) {
+                return true;
+            }
+        }
+        onPath.remove(node);
+        return false;
+    }
+}
@@ -0,0 +1,152 @@
+package tech.kayys.wayang.control.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayeredLayoutEngineTest {
+
+    @Test
+    void sameInputLaysOutTheSameWay() {
+        Dag dag = dag(12, 25, 3);
+
+        LayeredLayoutEngine.Layers first = LayeredLayoutEngine.layout(dag.n(), dag.edges(), new int[0]);
+        LayeredLayoutEngine.Layers second = LayeredLayoutEngine.layout(dag.n(), dag.edges(), new int[0]);
+
+        assertArrayEquals(first.rank(), second.rank());
+        assertArrayEquals(first.order(), second.order());
+    }
+
+    @Test
+    void ranksFollowEdgesAndSlotsDoNotOverlap() {
+        Dag dag = dag(10, 30, 5);
+
+        LayeredLayoutEngine.Layers layers = LayeredLayoutEngine.layout(dag.n(), dag.edges(), new int[0]);
+
+        assertArrayEquals(dag.rank(), layers.rank());
+        for (int[] edge : dag.edges()) {
+            assertTrue(layers.rank()[edge[0]] < layers.rank()[edge[1]]);
+        }
+        Set<Long> slots = new HashSet<>();
+        for (int i = 0; i < dag.n(); i++) {
+            int order = layers.order()[i];
+            assertTrue(order >= 0 && order < dag.width());
+            assertTrue(slots.add(((long) layers.rank()[i] << 32) | order), "two nodes share a slot");
+        }
+    }
+
+    @Test
+    void reducesCrossingsAgainstInputOrder() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Dag dag = dag(15, 20, seed);
+            int[] naiveOrder = new int[dag.n()];
+            int[] fill = new int[dag.rankCount()];
+            for (int i = 0; i < dag.n(); i++) {
+                naiveOrder[i] = fill[dag.rank()[i]]++;
+            }
+
+            LayeredLayoutEngine.Layers layers = LayeredLayoutEngine.layout(dag.n(), dag.edges(), new int[0]);
+
+            long naive = crossings(dag.edges(), naiveOrder);
+            long laidOut = crossings(dag.edges(), layers.order());
+            assertTrue(laidOut * 2 < naive, "seed " + seed + ": " + laidOut + " crossings vs " + naive + " naive");
+        }
+    }
+
+    @Test
+    void cyclesAreRankedFromTheStartNode() {
+        int n = 6;
+        int[][] ring = new int[n][];
+        for (int i = 0; i < n; i++) {
+            ring[i] = new int[] { i, (i + 1) % n };
+        }
+
+        LayeredLayoutEngine.Layers layers = LayeredLayoutEngine.layout(n, ring, new int[] { 2 });
+
+        assertEquals(n, layers.rankCount());
+        for (int i = 0; i < n; i++) {
+            assertEquals(Math.floorMod(i - 2, n), layers.rank()[i]);
+        }
+    }
+
+    @Test
+    void largeGraphLaysOutWithinBound() {
+        Dag dag = dag(40, 50, 9);
+
+        long start = System.nanoTime();
+        LayeredLayoutEngine.layout(dag.n(), dag.edges(), new int[0]);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(millis < 5_000, "took " + millis + " ms");
+    }
+
+    /**
+     * Crossings between edges that join consecutive ranks, all pairs.
+     */
+    private static long crossings(int[][] edges, int[] order) {
+        long crossings = 0;
+        for (int a = 0; a < edges.length; a++) {
+            for (int b = a + 1; b < edges.length; b++) {
+                int[] e = edges[a];
+                int[] f = edges[b];
+                if (e[0] == f[0] || e[1] == f[1]) {
+                    continue;
+                }
+                long upper = Integer.compare(order[e[0]], order[f[0]]);
+                long lower = Integer.compare(order[e[1]], order[f[1]]);
+                if (upper * lower < 0) {
+                    crossings++;
+                }
+            }
+        }
+        return crossings;
+    }
+
+    /**
+     * Random graph of {@code ranks} ranks of {@code width} nodes each, whose
+     * edges only join consecutive ranks and where every node below the first
+     * rank has a parent, so longest-path ranking recovers the ranks. Node
+     * indexes are shuffled so the input order says nothing about the layout.
+     */
+    private static Dag dag(int ranks, int width, long seed) {
+        Random random = new Random(seed);
+        int n = ranks * width;
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ids.add(i);
+        }
+        Collections.shuffle(ids, random);
+        int[] rank = new int[n];
+        List<int[]> edges = new ArrayList<>();
+        for (int r = 0; r < ranks; r++) {
+            for (int k = 0; k < width; k++) {
+                int node = ids.get(r * width + k);
+                rank[node] = r;
+                if (r == 0) {
+                    continue;
+                }
+                int parents = 1 + random.nextInt(2);
+                Set<Integer> chosen = new HashSet<>();
+                while (chosen.size() < parents) {
+                    chosen.add(ids.get((r - 1) * width + random.nextInt(width)));
+                }
+                for (int parent : chosen) {
+                    edges.add(new int[] { parent, node });
+                }
+            }
+        }
+        return new Dag(n, ranks, width, rank, edges.toArray(int[][]::new));
+    }
+
+    private record Dag(int n, int rankCount, int width, int[] rank, int[][] edges) {
+    }
+}
@@ -33,12 +33,34 @@ public class ControlPlaneRealtimeEventObserver {
         outbound.put("metadata", event.metadata());
         outbound.put("timestamp", Instant.now().toString());
 
+        // Serialized once; every room and session shares this string
         String json = toJson(outbound);
+        String topic = topicOf(event);
+        String coalesceKey = topic == null ? null : topic + "|" + outbound.get("type");
         for (String workspaceId : event.workspaceIds()) {
-            broker.broadcast(workspaceId, json, null);
+            broker.broadcast(workspaceId, topic, coalesceKey, json, null);
         }
     }
 
+    /**
+     * Explicit {@code metadata.topic}, else {@code execution:<executionId>}
+     * from the metadata or payload, else none.
+     */
+    private String topicOf(ControlPlaneRealtimeEvent event) {
+        Object topic = event.metadata().get("topic");
+        if (topic != null && !topic.toString().isBlank()) {
+            return topic.toString();
+        }
+        Object executionId = event.metadata().get("executionId");
+        if (executionId == null) {
+            executionId = event.payload().get("executionId");
+        }
+        if (executionId != null && !executionId.toString().isBlank()) {
+            return "execution:" + executionId;
+        }
+        return null;
+    }
+
     private String toJson(Map<String, Object> value) {
         try {
             return objectMapper.writeValueAsString(value);
@@ -0,0 +1,169 @@
+package tech.kayys.wayang.control.websocket;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import jakarta.websocket.Session;
+
+/**
+ * Bounded outbound queue of one WebSocket session.
+ *
+ * <p>
+ * At most one asynchronous send is outstanding per session; frames queued
+ * meanwhile are flushed together as one batch frame. When the queue is full
+ * the overflow policy decides what goes, so a slow client costs at most
+ * {@code capacity} references to payload strings that are shared with every
+ * other subscriber. Replies to the session's own requests are queued in
+ * order with everything else but never dropped or counted against the
+ * capacity; there is one per inbound message, so the client bounds them.
+ */
+final class ControlPlaneSessionOutbox {
+
+    enum OverflowPolicy {
+        /** Replace the queued frame with the same topic and type; otherwise drop the oldest. */
+        COALESCE,
+        DROP_OLDEST,
+        DROP_NEWEST;
+
+        static OverflowPolicy parse(String value) {
+            if (value == null) {
+                return COALESCE;
+            }
+            return switch (value.trim().toLowerCase()) {
+                case "drop-oldest" -> DROP_OLDEST;
+                case "drop-newest" -> DROP_NEWEST;
+                default -> COALESCE;
+            };
+        }
+    }
+
+    /**
+     * An already-serialized message.
+     *
+     * @param coalesceKey frames with equal non-null keys carry successive
+     *                    states of the same thing
+     * @param reply       a direct reply, exempt from the overflow policy
+     */
+    record Frame(String coalesceKey, String json, boolean reply) {
+
+        Frame(String coalesceKey, String json) {
+            this(coalesceKey, json, false);
+        }
+
+        static Frame reply(String json) {
+            return new Frame(null, json, true);
+        }
+    }
+
+    final Session session;
+    final String workspaceId;
+    final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+    private final ArrayDeque<Frame> pending = new ArrayDeque<>();
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private int droppable;
+    private boolean sending;
+    private boolean scheduled;
+    private long dropped;
+
+    ControlPlaneSessionOutbox(Session session, String workspaceId, int capacity, OverflowPolicy policy) {
+        this.session = session;
+        this.workspaceId = workspaceId;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+    }
+
+    /**
+     * Queue a frame, applying the overflow policy when full.
+     *
+     * @return {@code true} if the outbox should be scheduled for flushing
+     */
+    synchronized boolean offer(Frame frame) {
+        if (!frame.reply()) {
+            if (droppable >= capacity && !makeRoom(frame)) {
+                dropped++;
+                return false;
+            }
+            droppable++;
+        }
+        pending.addLast(frame);
+        return markScheduled();
+    }
+
+    /**
+     * Take up to {@code maxFrames} queued frames for one send, or nothing if a
+     * send is still outstanding.
+     */
+    synchronized Frame[] drain(int maxFrames) {
+        scheduled = false;
+        if (sending || pending.isEmpty()) {
+            return null;
+        }
+        final Frame[] frames = new Frame[Math.min(Math.max(1, maxFrames), pending.size())];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = pending.pollFirst();
+            if (!frames[i].reply()) {
+                droppable--;
+            }
+        }
+        sending = true;
+        return frames;
+    }
+
+    /**
+     * Record that the outstanding send finished.
+     *
+     * @return {@code true} if more frames are waiting and the outbox should be
+     *         scheduled again
+     */
+    synchronized boolean sendCompleted() {
+        sending = false;
+        return !pending.isEmpty() && markScheduled();
+    }
+
+    synchronized long droppedCount() {
+        return dropped;
+    }
+
+    private boolean markScheduled() {
+        if (scheduled || sending) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+
+    /**
+     * Remove one queued broadcast frame, never a reply.
+     *
+     * @return {@code true} if {@code incoming} may now be appended
+     */
+    private boolean makeRoom(Frame incoming) {
+        if (policy == OverflowPolicy.DROP_NEWEST) {
+            return false;
+        }
+        // Latest state wins: the oldest superseded frame leaves, the new one goes last
+        final String key = policy == OverflowPolicy.COALESCE ? incoming.coalesceKey() : null;
+        if (key != null && removeFirst(frame -> !frame.reply() && key.equals(frame.coalesceKey()))) {
+            return true;
+        }
+        return removeFirst(frame -> !frame.reply());
+    }
+
+    private boolean removeFirst(Predicate<Frame> match) {
+        final Iterator<Frame> it = pending.iterator();
+        while (it.hasNext()) {
+            if (match.test(it.next())) {
+                it.remove();
+                droppable--;
+                dropped++;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package tech.kayys.wayang.control.websocket;
 
+import java.util.List;
 import java.util.Map;
 
 public class ControlPlaneSocketMessage {
@@ -9,4 +10,5 @@ public class ControlPlaneSocketMessage {
     public String schemaId;
     public Map<String, Object> payload;
     public Map<String, Object> metadata;
+    public List<String> topics;
 }
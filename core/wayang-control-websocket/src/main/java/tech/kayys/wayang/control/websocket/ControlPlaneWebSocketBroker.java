@@ -1,58 +1,299 @@
 package tech.kayys.wayang.control.websocket;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.websocket.Session;
+import tech.kayys.wayang.control.websocket.ControlPlaneSessionOutbox.Frame;
+import tech.kayys.wayang.control.websocket.ControlPlaneSessionOutbox.OverflowPolicy;
 
+/**
+ * Workspace rooms of WebSocket sessions with bounded, batched delivery.
+ *
+ * <p>
+ * Every session gets a {@link ControlPlaneSessionOutbox}. Broadcasting queues
+ * the caller's already-serialized payload, the same string for every
+ * recipient, and a flush tick sends each session's queued frames as one
+ * {@code {"type":"batch","messages":[...]}} frame, or the lone frame itself.
+ * Sessions that subscribe to topics only receive topic events they watch;
+ * sessions that never subscribe keep receiving everything in their room.
+ */
 @ApplicationScoped
 public class ControlPlaneWebSocketBroker {
 
-    private final ConcurrentHashMap<String, Set<Session>> rooms = new ConcurrentHashMap<>();
+    private static final Logger LOG = Logger.getLogger(ControlPlaneWebSocketBroker.class);
+
+    /**
+     * Sessions of one workspace, indexed by subscribed topic.
+     */
+    private static final class Room {
+        final Set<ControlPlaneSessionOutbox> members = ConcurrentHashMap.newKeySet();
+        final Set<ControlPlaneSessionOutbox> unfiltered = ConcurrentHashMap.newKeySet();
+        final ConcurrentHashMap<String, Set<ControlPlaneSessionOutbox>> byTopic = new ConcurrentHashMap<>();
+    }
+
+    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ControlPlaneSessionOutbox> outboxes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ControlPlaneSessionOutbox> ready = new ConcurrentLinkedQueue<>();
+
+    @ConfigProperty(name = "wayang.websocket.outbound.queue-capacity", defaultValue = "256")
+    int queueCapacity;
+
+    @ConfigProperty(name = "wayang.websocket.outbound.overflow", defaultValue = "coalesce")
+    String overflow;
+
+    @ConfigProperty(name = "wayang.websocket.outbound.batch-interval", defaultValue = "50ms")
+    Duration batchInterval;
+
+    @ConfigProperty(name = "wayang.websocket.outbound.max-batch", defaultValue = "64")
+    int maxBatch;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        overflowPolicy = OverflowPolicy.parse(overflow);
+        if (batchInterval != null && !batchInterval.isZero() && !batchInterval.isNegative()) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wayang-ws-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMicros = Math.max(1, batchInterval.toNanos() / 1_000);
+            flusher.scheduleWithFixedDelay(this::flushReady, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+    }
 
     public void join(String workspaceId, Session session) {
-        rooms.computeIfAbsent(workspaceId, ignored -> ConcurrentHashMap.newKeySet()).add(session);
+        ControlPlaneSessionOutbox outbox = new ControlPlaneSessionOutbox(
+                session, workspaceId, queueCapacity, overflowPolicy);
+        outboxes.put(session.getId(), outbox);
+        Room room = rooms.computeIfAbsent(workspaceId, ignored -> new Room());
+        room.members.add(outbox);
+        room.unfiltered.add(outbox);
     }
 
     public void leave(String workspaceId, Session session) {
-        Set<Session> sessions = rooms.get(workspaceId);
-        if (sessions == null) {
+        ControlPlaneSessionOutbox outbox = outboxes.remove(session.getId());
+        if (outbox == null) {
             return;
         }
-        sessions.remove(session);
-        if (sessions.isEmpty()) {
-            rooms.remove(workspaceId);
+        rooms.computeIfPresent(workspaceId, (key, room) -> {
+            room.members.remove(outbox);
+            room.unfiltered.remove(outbox);
+            for (String topic : outbox.topics) {
+                removeSubscriber(room, topic, outbox);
+            }
+            return room.members.isEmpty() ? null : room;
+        });
+        if (outbox.droppedCount() > 0) {
+            LOG.debugf("Session %s left %s after %d dropped or coalesced frames",
+                    session.getId(), workspaceId, outbox.droppedCount());
         }
     }
 
     public int roomSize(String workspaceId) {
-        Set<Session> sessions = rooms.get(workspaceId);
-        return sessions == null ? 0 : sessions.size();
+        Room room = rooms.get(workspaceId);
+        return room == null ? 0 : room.members.size();
     }
 
+    /**
+     * Restrict the session to the given topics, in addition to any it already
+     * watches. Room-wide events without a topic are still delivered.
+     */
+    public void subscribe(Session session, Collection<String> topics) {
+        ControlPlaneSessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null || topics == null) {
+            return;
+        }
+        rooms.computeIfPresent(outbox.workspaceId, (key, room) -> {
+            for (String topic : topics) {
+                if (topic != null && !topic.isBlank() && outbox.topics.add(topic)) {
+                    room.byTopic.computeIfAbsent(topic, ignored -> ConcurrentHashMap.newKeySet()).add(outbox);
+                }
+            }
+            if (!outbox.topics.isEmpty()) {
+                room.unfiltered.remove(outbox);
+            }
+            return room;
+        });
+    }
+
+    /**
+     * Stop watching the given topics; a session left without topics receives
+     * every event in its room again.
+     */
+    public void unsubscribe(Session session, Collection<String> topics) {
+        ControlPlaneSessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null || topics == null) {
+            return;
+        }
+        rooms.computeIfPresent(outbox.workspaceId, (key, room) -> {
+            for (String topic : topics) {
+                if (topic != null && outbox.topics.remove(topic)) {
+                    removeSubscriber(room, topic, outbox);
+                }
+            }
+            if (outbox.topics.isEmpty() && room.members.contains(outbox)) {
+                room.unfiltered.add(outbox);
+            }
+            return room;
+        });
+    }
+
+    public Set<String> topics(Session session) {
+        ControlPlaneSessionOutbox outbox = outboxes.get(session.getId());
+        return outbox == null ? Set.of() : Set.copyOf(outbox.topics);
+    }
+
+    /**
+     * Send a reply to one session, in order with its broadcasts. Replies are
+     * never dropped by the overflow policy. Sessions that never joined a room
+     * are written to directly.
+     */
     public void send(Session session, String payload) throws IOException {
         if (session == null || !session.isOpen()) {
             return;
         }
-        session.getBasicRemote().sendText(payload);
+        ControlPlaneSessionOutbox outbox = outboxes.get(session.getId());
+        if (outbox == null) {
+            session.getBasicRemote().sendText(payload);
+            return;
+        }
+        if (outbox.offer(Frame.reply(payload))) {
+            // Replies are not held for the batch tick
+            flush(outbox);
+        }
     }
 
     public void broadcast(String workspaceId, String payload, Session excludedSession) {
-        for (Session session : roomSessions(workspaceId)) {
-            if (session == excludedSession) {
+        broadcast(workspaceId, null, null, payload, excludedSession);
+    }
+
+    /**
+     * Queue an already-serialized payload for a room.
+     *
+     * @param topic       deliver only to sessions watching this topic and to
+     *                    sessions without subscriptions; {@code null} for all
+     * @param coalesceKey lets a full queue replace an older frame with the
+     *                    same key instead of dropping; {@code null} for none
+     */
+    public void broadcast(String workspaceId, String topic, String coalesceKey, String payload,
+            Session excludedSession) {
+        Room room = rooms.get(workspaceId);
+        if (room == null) {
+            return;
+        }
+        Frame frame = new Frame(coalesceKey, payload);
+        if (topic == null) {
+            enqueue(room.members, frame, excludedSession);
+            return;
+        }
+        enqueue(room.unfiltered, frame, excludedSession);
+        Set<ControlPlaneSessionOutbox> subscribers = room.byTopic.get(topic);
+        if (subscribers != null) {
+            enqueue(subscribers, frame, excludedSession);
+        }
+    }
+
+    private void enqueue(Set<ControlPlaneSessionOutbox> recipients, Frame frame, Session excludedSession) {
+        for (ControlPlaneSessionOutbox outbox : recipients) {
+            if (outbox.session == excludedSession || !outbox.session.isOpen()) {
                 continue;
             }
-            if (!session.isOpen()) {
-                continue;
+            if (outbox.offer(frame)) {
+                schedule(outbox);
+            }
+        }
+    }
+
+    private void schedule(ControlPlaneSessionOutbox outbox) {
+        if (flusher == null) {
+            flush(outbox);
+        } else {
+            ready.add(outbox);
+        }
+    }
+
+    private void flushReady() {
+        try {
+            ControlPlaneSessionOutbox outbox;
+            while ((outbox = ready.poll()) != null) {
+                flush(outbox);
+            }
+        } catch (RuntimeException e) {
+            // Keep the tick alive; the failing session is dropped from this round only
+            LOG.warnf(e, "WebSocket flush failed");
+        }
+    }
+
+    private void flush(ControlPlaneSessionOutbox outbox) {
+        Frame[] frames = outbox.drain(maxBatch);
+        if (frames == null) {
+            return;
+        }
+        if (!outbox.session.isOpen()) {
+            outbox.sendCompleted();
+            return;
+        }
+        try {
+            outbox.session.getAsyncRemote().sendText(frameText(frames), result -> {
+                if (!result.isOK()) {
+                    LOG.debugf(result.getException(), "WebSocket send to %s failed", outbox.session.getId());
+                }
+                if (outbox.sendCompleted()) {
+                    schedule(outbox);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The session closed between the check and the send
+            outbox.sendCompleted();
+        }
+    }
+
+    private static String frameText(Frame[] frames) {
+        if (frames.length == 1) {
+            return frames[0].json();
+        }
+        int length = 32;
+        for (Frame frame : frames) {
+            length += frame.json().length() + 1;
+        }
+        StringBuilder batch = new StringBuilder(length).append("{\"type\":\"batch\",\"messages\":[");
+        for (int i = 0; i < frames.length; i++) {
+            if (i > 0) {
+                batch.append(',');
             }
-            session.getAsyncRemote().sendText(payload);
+            batch.append(frames[i].json());
         }
+        return batch.append("]}").toString();
     }
 
-    private Set<Session> roomSessions(String workspaceId) {
-        return rooms.getOrDefault(workspaceId, Collections.emptySet());
+    private static void removeSubscriber(Room room, String topic, ControlPlaneSessionOutbox outbox) {
+        room.byTopic.computeIfPresent(topic, (key, subscribers) -> {
+            subscribers.remove(outbox);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
     }
 }
@@ -3,6 +3,7 @@ package tech.kayys.wayang.control.websocket;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -29,6 +30,7 @@ import tech.kayys.wayang.schema.validator.ValidationResult;
  * - ping: health ping/pong
  * - validate: validate payload against schemaId/channel mapping
  * - publish: validate (if schemaId/payload are present) and broadcast event to workspace peers
+ * - subscribe / unsubscribe: watch or stop watching topics such as execution:&lt;executionId&gt;
  */
 @ServerEndpoint(value = "/ws/v1/control-plane/{workspaceId}", configurator = ControlPlaneHandshakeConfigurator.class)
 public class ControlPlaneWebSocketEndpoint {
@@ -105,11 +107,16 @@ public class ControlPlaneWebSocketEndpoint {
                 return;
             }
 
+            if ("subscribe".equals(type) || "unsubscribe".equals(type)) {
+                handleSubscription(session, type, incoming);
+                return;
+            }
+
             sendSafe(session, asJson(Map.of(
                     "type", "error",
                     "correlationId", emptySafe(incoming.correlationId),
                     "message", "Unsupported message type: " + type,
-                    "supportedTypes", new String[] {"ping", "validate", "publish"},
+                    "supportedTypes", new String[] {"ping", "validate", "publish", "subscribe", "unsubscribe"},
                     "timestamp", Instant.now().toString())));
         } catch (Exception e) {
             sendSafe(session, asJson(Map.of(
@@ -146,6 +153,20 @@ public class ControlPlaneWebSocketEndpoint {
                 "timestamp", Instant.now().toString())));
     }
 
+    private void handleSubscription(Session session, String type, ControlPlaneSocketMessage incoming) {
+        List<String> topics = incoming.topics == null ? List.of() : incoming.topics;
+        if ("subscribe".equals(type)) {
+            broker.subscribe(session, topics);
+        } else {
+            broker.unsubscribe(session, topics);
+        }
+        sendSafe(session, asJson(Map.of(
+                "type", type + ".ack",
+                "correlationId", emptySafe(incoming.correlationId),
+                "topics", broker.topics(session),
+                "timestamp", Instant.now().toString())));
+    }
+
     private void handlePublish(Session session, String workspaceId, ControlPlaneSocketMessage incoming) {
         String schemaId = resolveSchemaId(incoming.channel, incoming.schemaId);
         if (schemaId == null) {
@@ -186,7 +207,8 @@ public class ControlPlaneWebSocketEndpoint {
         event.put("fromSessionId", session.getId());
 
         String json = asJson(event);
-        broker.broadcast(workspaceId, json, session);
+        Object topic = incoming.metadata == null ? null : incoming.metadata.get("topic");
+        broker.broadcast(workspaceId, topic == null ? null : topic.toString(), null, json, session);
         sendSafe(session, asJson(Map.of(
                 "type", "publish.ack",
                 "correlationId", emptySafe(incoming.correlationId),
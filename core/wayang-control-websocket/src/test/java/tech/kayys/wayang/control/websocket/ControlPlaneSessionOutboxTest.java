@@ -0,0 +1,148 @@
+package tech.kayys.wayang.control.websocket;
+
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.control.websocket.ControlPlaneSessionOutbox.Frame;
+import tech.kayys.wayang.control.websocket.ControlPlaneSessionOutbox.OverflowPolicy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControlPlaneSessionOutboxTest {
+
+    @Test
+    void parsesPolicyNamesAndDefaultsToCoalesce() {
+        assertEquals(OverflowPolicy.DROP_OLDEST, OverflowPolicy.parse(" Drop-Oldest "));
+        assertEquals(OverflowPolicy.DROP_NEWEST, OverflowPolicy.parse("drop-newest"));
+        assertEquals(OverflowPolicy.COALESCE, OverflowPolicy.parse("coalesce"));
+        assertEquals(OverflowPolicy.COALESCE, OverflowPolicy.parse("unknown"));
+        assertEquals(OverflowPolicy.COALESCE, OverflowPolicy.parse(null));
+    }
+
+    @Test
+    void dropNewestKeepsTheQueueAsIs() {
+        ControlPlaneSessionOutbox outbox = outbox(2, OverflowPolicy.DROP_NEWEST);
+        offer(outbox, "a", "b", "c");
+
+        assertEquals(List.of("a", "b"), drain(outbox));
+        assertEquals(1, outbox.droppedCount());
+    }
+
+    @Test
+    void dropOldestMakesRoomAtTheFront() {
+        ControlPlaneSessionOutbox outbox = outbox(2, OverflowPolicy.DROP_OLDEST);
+        offer(outbox, "a", "b", "c");
+
+        assertEquals(List.of("b", "c"), drain(outbox));
+        assertEquals(1, outbox.droppedCount());
+    }
+
+    @Test
+    void coalesceReplacesTheFrameWithTheSameKey() {
+        ControlPlaneSessionOutbox outbox = outbox(2, OverflowPolicy.COALESCE);
+        outbox.offer(new Frame("run-1", "run-1 v1"));
+        outbox.offer(new Frame("run-2", "run-2 v1"));
+        outbox.offer(new Frame("run-1", "run-1 v2"));
+
+        assertEquals(List.of("run-2 v1", "run-1 v2"), drain(outbox));
+        assertEquals(1, outbox.droppedCount());
+    }
+
+    @Test
+    void coalesceWithoutAMatchDropsTheOldest() {
+        ControlPlaneSessionOutbox outbox = outbox(2, OverflowPolicy.COALESCE);
+        outbox.offer(new Frame("run-1", "run-1 v1"));
+        outbox.offer(new Frame("run-2", "run-2 v1"));
+        outbox.offer(new Frame("run-3", "run-3 v1"));
+        outbox.offer(new Frame(null, "untyped"));
+
+        assertEquals(List.of("run-3 v1", "untyped"), drain(outbox));
+        assertEquals(2, outbox.droppedCount());
+    }
+
+    @Test
+    void repliesAreNeverDroppedAndKeepTheirPlace() {
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            ControlPlaneSessionOutbox outbox = outbox(2, policy);
+            outbox.offer(Frame.reply("reply-1"));
+            outbox.offer(new Frame("k", "a"));
+            outbox.offer(Frame.reply("reply-2"));
+            outbox.offer(new Frame("k", "b"));
+            offer(outbox, "c", "d", "e");
+            outbox.offer(Frame.reply("reply-3"));
+
+            List<String> sent = drain(outbox);
+
+            assertEquals(List.of("reply-1", "reply-2", "reply-3"),
+                    sent.stream().filter(json -> json.startsWith("reply")).toList(), policy.name());
+            assertEquals(5, sent.size(), policy.name());
+            assertEquals(3, outbox.droppedCount(), policy.name());
+        }
+    }
+
+    @Test
+    void repliesDoNotUseUpTheCapacity() {
+        ControlPlaneSessionOutbox outbox = outbox(2, OverflowPolicy.DROP_NEWEST);
+        for (int i = 0; i < 10; i++) {
+            outbox.offer(Frame.reply("reply-" + i));
+        }
+        offer(outbox, "a", "b");
+
+        assertEquals(12, drain(outbox).size());
+        assertEquals(0, outbox.droppedCount());
+    }
+
+    @Test
+    void onlyOneSendIsOutstanding() {
+        ControlPlaneSessionOutbox outbox = outbox(8, OverflowPolicy.COALESCE);
+
+        assertTrue(outbox.offer(new Frame(null, "a")));
+        Frame[] first = outbox.drain(64);
+        assertEquals(1, first.length);
+
+        // Queued while sending: not scheduled, and not drained until the send completes
+        assertFalse(outbox.offer(new Frame(null, "b")));
+        assertFalse(outbox.offer(new Frame(null, "c")));
+        assertNull(outbox.drain(64));
+
+        assertTrue(outbox.sendCompleted());
+        assertEquals(List.of("b", "c"), Arrays.stream(outbox.drain(64)).map(Frame::json).toList());
+        assertFalse(outbox.sendCompleted());
+    }
+
+    @Test
+    void batchesAreCappedAtMaxFrames() {
+        ControlPlaneSessionOutbox outbox = outbox(8, OverflowPolicy.COALESCE);
+        offer(outbox, "a", "b", "c", "d", "e");
+
+        assertEquals(2, outbox.drain(2).length);
+        assertTrue(outbox.sendCompleted());
+        assertEquals(2, outbox.drain(2).length);
+        assertTrue(outbox.sendCompleted());
+        assertEquals(1, outbox.drain(2).length);
+        assertFalse(outbox.sendCompleted());
+    }
+
+    private static ControlPlaneSessionOutbox outbox(int capacity, OverflowPolicy policy) {
+        return new ControlPlaneSessionOutbox(null, "workspace", capacity, policy);
+    }
+
+    private static void offer(ControlPlaneSessionOutbox outbox, String... payloads) {
+        for (String payload : payloads) {
+            outbox.offer(new Frame(null, payload));
+        }
+    }
+
+    /**
+     * Everything queued, taken as one batch.
+     */
+    private static List<String> drain(ControlPlaneSessionOutbox outbox) {
+        Frame[] frames = outbox.drain(Integer.MAX_VALUE);
+        outbox.sendCompleted();
+        return frames == null ? List.of() : Arrays.stream(frames).map(Frame::json).toList();
+    }
+}
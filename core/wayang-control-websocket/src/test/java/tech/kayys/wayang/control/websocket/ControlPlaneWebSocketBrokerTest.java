@@ -0,0 +1,285 @@
+package tech.kayys.wayang.control.websocket;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControlPlaneWebSocketBrokerTest {
+
+    private static final String WORKSPACE = "w1";
+
+    private ControlPlaneWebSocketBroker broker;
+
+    @AfterEach
+    void tearDown() {
+        if (broker != null) {
+            broker.stop();
+        }
+    }
+
+    @Test
+    void framesQueuedDuringASendGoOutAsOneBatch() {
+        broker("coalesce", 16);
+        FakeSession client = join("s1");
+        client.holdSends = true;
+
+        broker.broadcast(WORKSPACE, "{\"n\":1}", null);
+        broker.broadcast(WORKSPACE, "{\"n\":2}", null);
+        broker.broadcast(WORKSPACE, "{\"n\":3}", null);
+        assertEquals(List.of("{\"n\":1}"), client.sent);
+
+        client.holdSends = false;
+        client.completeSend();
+
+        assertEquals(List.of("{\"n\":1}", "{\"type\":\"batch\",\"messages\":[{\"n\":2},{\"n\":3}]}"), client.sent);
+    }
+
+    @Test
+    void slowSessionKeepsTheNewestStatePerKey() {
+        broker("coalesce", 2);
+        FakeSession slow = join("slow");
+        FakeSession fast = join("fast");
+        slow.holdSends = true;
+
+        for (int i = 0; i < 10; i++) {
+            String run = "run-" + (i % 2);
+            broker.broadcast(WORKSPACE, null, run, "{\"" + run + "\":" + i + "}", null);
+        }
+        slow.holdSends = false;
+        slow.completeSend();
+
+        assertEquals(10, fast.messages().size());
+        assertEquals(List.of("{\"run-0\":0}", "{\"run-0\":8}", "{\"run-1\":9}"), slow.messages());
+    }
+
+    @Test
+    void dropNewestKeepsTheOldestQueuedFrames() {
+        broker("drop-newest", 2);
+        FakeSession slow = join("slow");
+        slow.holdSends = true;
+
+        for (int i = 0; i < 6; i++) {
+            broker.broadcast(WORKSPACE, "{\"n\":" + i + "}", null);
+        }
+        slow.holdSends = false;
+        slow.completeSend();
+
+        assertEquals(List.of("{\"n\":0}", "{\"n\":1}", "{\"n\":2}"), slow.messages());
+    }
+
+    @Test
+    void dropOldestKeepsTheNewestQueuedFrames() {
+        broker("drop-oldest", 2);
+        FakeSession slow = join("slow");
+        slow.holdSends = true;
+
+        for (int i = 0; i < 6; i++) {
+            broker.broadcast(WORKSPACE, "{\"n\":" + i + "}", null);
+        }
+        slow.holdSends = false;
+        slow.completeSend();
+
+        assertEquals(List.of("{\"n\":0}", "{\"n\":4}", "{\"n\":5}"), slow.messages());
+    }
+
+    @Test
+    void directRepliesSurviveAFullQueue() throws IOException {
+        broker("drop-newest", 2);
+        FakeSession client = join("s1");
+        client.holdSends = true;
+
+        for (int i = 0; i < 6; i++) {
+            broker.broadcast(WORKSPACE, "{\"n\":" + i + "}", null);
+        }
+        broker.send(client.session, "{\"type\":\"pong\"}");
+        broker.broadcast(WORKSPACE, "{\"n\":6}", null);
+        client.holdSends = false;
+        client.completeSend();
+
+        assertEquals(List.of("{\"n\":0}", "{\"n\":1}", "{\"n\":2}", "{\"type\":\"pong\"}"), client.messages());
+    }
+
+    @Test
+    void sessionsOutsideARoomAreRepliedToDirectly() throws IOException {
+        broker("coalesce", 2);
+        FakeSession loner = new FakeSession("loner");
+
+        broker.send(loner.session, "{\"type\":\"pong\"}");
+
+        assertEquals(List.of("{\"type\":\"pong\"}"), loner.sent);
+    }
+
+    @Test
+    void subscribedSessionsOnlyReceiveTheirTopics() {
+        broker("coalesce", 16);
+        FakeSession watcher = join("watcher");
+        FakeSession everything = join("everything");
+        broker.subscribe(watcher.session, List.of("execution:1"));
+
+        broker.broadcast(WORKSPACE, "execution:1", null, "{\"e\":1}", null);
+        broker.broadcast(WORKSPACE, "execution:2", null, "{\"e\":2}", null);
+        broker.broadcast(WORKSPACE, "{\"room\":true}", null);
+
+        assertEquals(List.of("{\"e\":1}", "{\"room\":true}"), watcher.messages());
+        assertEquals(List.of("{\"e\":1}", "{\"e\":2}", "{\"room\":true}"), everything.messages());
+        assertEquals(Set.of("execution:1"), broker.topics(watcher.session));
+    }
+
+    @Test
+    void unsubscribingFromEveryTopicRestoresAllEvents() {
+        broker("coalesce", 16);
+        FakeSession watcher = join("watcher");
+        broker.subscribe(watcher.session, List.of("execution:1", "execution:2"));
+
+        broker.unsubscribe(watcher.session, List.of("execution:1"));
+        broker.broadcast(WORKSPACE, "execution:1", null, "{\"e\":1}", null);
+        broker.broadcast(WORKSPACE, "execution:2", null, "{\"e\":2}", null);
+        broker.unsubscribe(watcher.session, List.of("execution:2"));
+        broker.broadcast(WORKSPACE, "execution:3", null, "{\"e\":3}", null);
+
+        assertEquals(List.of("{\"e\":2}", "{\"e\":3}"), watcher.messages());
+        assertTrue(broker.topics(watcher.session).isEmpty());
+    }
+
+    @Test
+    void excludedAndClosedSessionsAreSkipped() {
+        broker("coalesce", 16);
+        FakeSession sender = join("sender");
+        FakeSession closed = join("closed");
+        FakeSession other = join("other");
+        closed.open = false;
+
+        broker.broadcast(WORKSPACE, "{\"n\":1}", sender.session);
+
+        assertTrue(sender.sent.isEmpty());
+        assertTrue(closed.sent.isEmpty());
+        assertEquals(List.of("{\"n\":1}"), other.sent);
+    }
+
+    @Test
+    void leavingRemovesTheSessionAndItsSubscriptions() {
+        broker("coalesce", 16);
+        FakeSession first = join("first");
+        FakeSession second = join("second");
+        broker.subscribe(first.session, List.of("execution:1"));
+
+        broker.leave(WORKSPACE, first.session);
+        broker.broadcast(WORKSPACE, "execution:1", null, "{\"e\":1}", null);
+
+        assertEquals(1, broker.roomSize(WORKSPACE));
+        assertTrue(first.sent.isEmpty());
+        assertEquals(List.of("{\"e\":1}"), second.sent);
+
+        broker.leave(WORKSPACE, second.session);
+        assertEquals(0, broker.roomSize(WORKSPACE));
+    }
+
+    /**
+     * A broker without a flush tick, so every frame is handed to the session
+     * as soon as its previous send completes.
+     */
+    private void broker(String overflow, int capacity) {
+        broker = new ControlPlaneWebSocketBroker();
+        broker.queueCapacity = capacity;
+        broker.overflow = overflow;
+        broker.batchInterval = Duration.ZERO;
+        broker.maxBatch = 64;
+        broker.start();
+    }
+
+    private FakeSession join(String id) {
+        FakeSession session = new FakeSession(id);
+        broker.join(WORKSPACE, session.session);
+        return session;
+    }
+
+    /**
+     * A session whose async sends complete immediately, or are held until
+     * {@link #completeSend()} while {@code holdSends} is set.
+     */
+    private static final class FakeSession {
+        final List<String> sent = new ArrayList<>();
+        final Session session;
+        boolean open = true;
+        boolean holdSends;
+        private SendHandler held;
+
+        FakeSession(String id) {
+            RemoteEndpoint.Async async = proxy(RemoteEndpoint.Async.class, (method, args) -> {
+                if (method.equals("sendText") && args.length == 2) {
+                    sent.add((String) args[0]);
+                    SendHandler handler = (SendHandler) args[1];
+                    if (holdSends) {
+                        held = handler;
+                    } else {
+                        handler.onResult(new SendResult());
+                    }
+                }
+                return null;
+            });
+            RemoteEndpoint.Basic basic = proxy(RemoteEndpoint.Basic.class, (method, args) -> {
+                if (method.equals("sendText") && args.length == 1) {
+                    sent.add((String) args[0]);
+                }
+                return null;
+            });
+            session = proxy(Session.class, (method, args) -> switch (method) {
+                case "getId" -> id;
+                case "isOpen" -> open;
+                case "getAsyncRemote" -> async;
+                case "getBasicRemote" -> basic;
+                default -> null;
+            });
+        }
+
+        void completeSend() {
+            SendHandler handler = held;
+            held = null;
+            handler.onResult(new SendResult());
+        }
+
+        /**
+         * Sent frames with batches unpacked.
+         */
+        List<String> messages() {
+            String prefix = "{\"type\":\"batch\",\"messages\":[";
+            List<String> messages = new ArrayList<>();
+            for (String frame : sent) {
+                if (frame.startsWith(prefix)) {
+                    String inner = frame.substring(prefix.length(), frame.length() - 2);
+                    messages.addAll(List.of(inner.split("(?<=}),(?=\\{)")));
+                } else {
+                    messages.add(frame);
+                }
+            }
+            return messages;
+        }
+
+        private interface Handler {
+            Object handle(String method, Object[] args);
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    (instance, method, args) -> switch (method.getName()) {
+                        case "equals" -> instance == args[0];
+                        case "hashCode" -> System.identityHashCode(instance);
+                        case "toString" -> type.getSimpleName();
+                        default -> handler.handle(method.getName(), args == null ? new Object[0] : args);
+                    }));
+        }
+    }
+}
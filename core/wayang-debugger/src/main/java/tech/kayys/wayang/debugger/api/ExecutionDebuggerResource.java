@@ -11,10 +11,6 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import tech.kayys.wayang.runtime.standalone.resource.ProjectsService;
 
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
  * Optional debug endpoints that aggregate execution events and telemetry
  * for UI troubleshooting.
@@ -73,42 +69,8 @@ public class ExecutionDebuggerResource {
             @PathParam("projectId") String projectId,
             @PathParam("executionId") String executionId,
             @QueryParam("includeRaw") @DefaultValue("false") boolean includeRaw,
-            @QueryParam("eventsLimit") @DefaultValue("200") int eventsLimit) {
-        final Response statusResponse = projectsService.getExecutionStatus(projectId, executionId, null);
-        final Response eventsResponse = projectsService.listExecutionEvents(projectId, executionId);
-        final Response telemetryResponse = projectsService.getExecutionTelemetry(
-                projectId, executionId, null, null, null, null, null, null, eventsLimit, includeRaw);
-        final Response lineageResponse = projectsService.getExecutionLineage(
-                projectId, executionId, "compact", null, null, 25, 0, null, "executionContext,status,updatedAt");
-
-        final Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("projectId", projectId);
-        payload.put("executionId", executionId);
-        payload.put("status", readEntity(statusResponse));
-        payload.put("events", readEntity(eventsResponse));
-        payload.put("telemetry", readEntity(telemetryResponse));
-        payload.put("lineage", readEntity(lineageResponse));
-        return Response.ok(payload).build();
-    }
-
-    private Object readEntity(Response response) {
-        if (response == null) {
-            return Map.of("error", "no-response");
-        }
-        final int status = response.getStatus();
-        final Object entity = response.getEntity();
-        if (status >= 200 && status < 300) {
-            return entity != null ? entity : Map.of();
-        }
-        final Map<String, Object> error = new LinkedHashMap<>();
-        error.put("status", status);
-        if (entity instanceof Map<?, ?> map) {
-            error.putAll((Map<String, Object>) map);
-        } else if (entity instanceof List<?> list) {
-            error.put("items", list);
-        } else {
-            error.put("message", entity != null ? String.valueOf(entity) : "unknown");
-        }
-        return error;
+            @QueryParam("eventsLimit") @DefaultValue("200") int eventsLimit,
+            @QueryParam("since") Integer since) {
+        return projectsService.getExecutionSnapshot(projectId, executionId, includeRaw, eventsLimit, since);
     }
 }
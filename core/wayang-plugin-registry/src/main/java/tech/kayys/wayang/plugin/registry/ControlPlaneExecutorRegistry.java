@@ -4,14 +4,27 @@
  */
 package tech.kayys.wayang.plugin.registry;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import io.quarkus.scheduler.Scheduled;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.enterprise.context.ApplicationScoped;
 import tech.kayys.wayang.plugin.CommunicationProtocol;
@@ -26,14 +39,47 @@ import tech.kayys.wayang.plugin.registry.executor.ExecutorStatus;
  *   <li>register / unregister / registerInProcess: requires {@code plugin-admin} role.</li>
  *   <li>get / list / resolve: requires {@code plugin-user} role.</li>
  * </ul>
+ *
+ * <p><b>Selection:</b> executors are indexed by supported node type when they
+ * register, so resolving a node type never scans the fleet. Among the
+ * candidates, two are sampled at random and the one with the lower
+ * {@code (inFlight + 1) * latency EWMA} wins (power of two choices). Remote
+ * executors are probed periodically, and an executor that fails
+ * {@code outlier.consecutive-failures} dispatches in a row is ejected from
+ * selection for a doubling backoff period. If every healthy candidate is
+ * ejected, ejection is ignored rather than leaving the node type unserved.
  */
 @ApplicationScoped
 public class ControlPlaneExecutorRegistry {
 
     private static final Logger LOG = Logger.getLogger(ControlPlaneExecutorRegistry.class);
     private static final Logger AUDIT = Logger.getLogger("wayang.plugin.audit");
+    private static final ExecutorRegistration[] NO_CANDIDATES = new ExecutorRegistration[0];
 
     private final Map<String, ExecutorRegistration> executorRegistry = new ConcurrentHashMap<>();
+    private final Map<String, ExecutorRegistration[]> candidatesByNodeType = new ConcurrentHashMap<>();
+    private final Map<String, ExecutorLoad> loads = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+
+    @ConfigProperty(name = "wayang.executor-registry.latency-ewma-alpha", defaultValue = "0.2")
+    double latencyEwmaAlpha;
+
+    @ConfigProperty(name = "wayang.executor-registry.outlier.consecutive-failures", defaultValue = "5")
+    int outlierConsecutiveFailures;
+
+    @ConfigProperty(name = "wayang.executor-registry.outlier.base-ejection", defaultValue = "30s")
+    Duration outlierBaseEjection;
+
+    @ConfigProperty(name = "wayang.executor-registry.outlier.max-ejection", defaultValue = "5m")
+    Duration outlierMaxEjection;
+
+    @ConfigProperty(name = "wayang.executor-registry.health.timeout", defaultValue = "2s")
+    Duration healthTimeout;
+
+    @ConfigProperty(name = "wayang.executor-registry.health.path", defaultValue = "/q/health/live")
+    String healthPath;
+
+    private volatile HttpClient httpClient;
 
     // -------------------------------------------------------------------------
     // Mutating operations — restricted to plugin administrators
@@ -50,7 +96,7 @@ public class ControlPlaneExecutorRegistry {
                 registration.protocol,
                 registration.endpoint);
 
-        executorRegistry.put(registration.executorId, registration);
+        put(registration);
 
         return performHealthCheck(registration)
                 .onItem().invoke(healthy -> {
@@ -88,7 +134,7 @@ public class ControlPlaneExecutorRegistry {
             newReg.inProcess = true;
             newReg.status = ExecutorStatus.HEALTHY;
             newReg.protocol = CommunicationProtocol.GRPC;
-            executorRegistry.put(executorId, newReg);
+            put(newReg);
         }
         AUDIT.infof("EXECUTOR_REGISTRY_REGISTER_INPROCESS id=%s", executorId);
     }
@@ -99,7 +145,14 @@ public class ControlPlaneExecutorRegistry {
      */
     @RolesAllowed("plugin-admin")
     public void unregister(String executorId) {
-        ExecutorRegistration removed = executorRegistry.remove(executorId);
+        ExecutorRegistration removed;
+        synchronized (indexLock) {
+            removed = executorRegistry.remove(executorId);
+            if (removed != null) {
+                unindex(removed);
+                loads.remove(executorId);
+            }
+        }
         if (removed != null) {
             AUDIT.infof("EXECUTOR_REGISTRY_UNREGISTER id=%s", executorId);
             LOG.infof("Unregistered executor: %s", executorId);
@@ -131,24 +184,249 @@ public class ControlPlaneExecutorRegistry {
     }
 
     /**
-     * Resolve the best healthy executor for a given node type.
-     * Executors must be HEALTHY and explicitly declare support for the node type.
+     * Resolve a healthy executor for a given node type.
+     * Executors must be HEALTHY and explicitly declare support for the node type
+     * when they register; the choice between several is load-aware.
      */
     @RolesAllowed({"plugin-admin", "plugin-user"})
     public ExecutorRegistration resolveForNode(String nodeType) {
-        return executorRegistry.values().stream()
-                .filter(e -> e.supportedNodes.contains(nodeType))
-                .filter(e -> e.status == ExecutorStatus.HEALTHY)
-                .findFirst()
-                .orElse(null);
+        ExecutorRegistration[] candidates = candidatesByNodeType.getOrDefault(nodeType, NO_CANDIDATES);
+        long now = System.nanoTime();
+        if (candidates.length <= 2) {
+            return pickEligible(candidates, now);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.length);
+        int second = random.nextInt(candidates.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        boolean firstEligible = isEligible(candidates[first], now);
+        boolean secondEligible = isEligible(candidates[second], now);
+        if (firstEligible && secondEligible) {
+            return cheaper(candidates[first], candidates[second]);
+        }
+        if (firstEligible || secondEligible) {
+            return firstEligible ? candidates[first] : candidates[second];
+        }
+        // Both samples were unavailable; fall back to a pass over this node type only
+        return pickEligible(candidates, now);
+    }
+
+    // -------------------------------------------------------------------------
+    // Dispatch feedback — reported by whoever sends work to the executor
+    // -------------------------------------------------------------------------
+
+    /** Count a dispatch to the executor as in flight. */
+    public void recordDispatchStarted(String executorId) {
+        ExecutorLoad load = loads.get(executorId);
+        if (load != null) {
+            load.dispatchStarted();
+        }
+    }
+
+    /**
+     * Complete a dispatch started with {@link #recordDispatchStarted(String)},
+     * feeding its latency and outcome into selection and outlier ejection.
+     */
+    public void recordDispatchCompleted(String executorId, long latencyMs, boolean success) {
+        ExecutorLoad load = loads.get(executorId);
+        if (load == null) {
+            return;
+        }
+        boolean ejected = load.dispatchCompleted(
+                Math.max(0, latencyMs),
+                success,
+                latencyEwmaAlpha,
+                Math.max(1, outlierConsecutiveFailures),
+                outlierBaseEjection.toNanos(),
+                outlierMaxEjection.toNanos(),
+                System.nanoTime());
+        if (ejected) {
+            AUDIT.warnf("EXECUTOR_REGISTRY_EJECT id=%s consecutiveFailures=%d",
+                    executorId, outlierConsecutiveFailures);
+            LOG.warnf("Executor %s ejected from selection after %d consecutive failures",
+                    executorId, outlierConsecutiveFailures);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Health probing
+    // -------------------------------------------------------------------------
+
+    @Scheduled(every = "${wayang.executor-registry.health.interval:15s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void probeExecutors() {
+        for (ExecutorRegistration registration : executorRegistry.values()) {
+            if (!isProbeable(registration)) {
+                continue;
+            }
+            performHealthCheck(registration).subscribe().with(
+                    healthy -> applyProbeResult(registration, healthy),
+                    failure -> applyProbeResult(registration, false));
+        }
     }
 
     // -------------------------------------------------------------------------
     // Internal helpers
     // -------------------------------------------------------------------------
 
+    private void put(ExecutorRegistration registration) {
+        synchronized (indexLock) {
+            ExecutorRegistration previous = executorRegistry.put(registration.executorId, registration);
+            if (previous != null) {
+                unindex(previous);
+            }
+            loads.computeIfAbsent(registration.executorId, ignored -> new ExecutorLoad());
+            for (String nodeType : List.copyOf(registration.supportedNodes)) {
+                candidatesByNodeType.merge(nodeType, new ExecutorRegistration[] { registration },
+                        (current, added) -> {
+                            ExecutorRegistration[] next = Arrays.copyOf(current, current.length + 1);
+                            next[current.length] = registration;
+                            return next;
+                        });
+            }
+        }
+    }
+
+    private void unindex(ExecutorRegistration registration) {
+        for (String nodeType : List.copyOf(registration.supportedNodes)) {
+            candidatesByNodeType.computeIfPresent(nodeType, (key, current) -> {
+                ExecutorRegistration[] next = Arrays.stream(current)
+                        .filter(candidate -> candidate != registration)
+                        .toArray(ExecutorRegistration[]::new);
+                return next.length == 0 ? null : next;
+            });
+        }
+    }
+
+    private boolean isEligible(ExecutorRegistration registration, long now) {
+        if (registration.status != ExecutorStatus.HEALTHY) {
+            return false;
+        }
+        ExecutorLoad load = loads.get(registration.executorId);
+        return load == null || !load.isEjected(now);
+    }
+
+    private ExecutorRegistration pickEligible(ExecutorRegistration[] candidates, long now) {
+        ExecutorRegistration best = null;
+        ExecutorRegistration bestEjected = null;
+        for (ExecutorRegistration candidate : candidates) {
+            if (candidate.status != ExecutorStatus.HEALTHY) {
+                continue;
+            }
+            if (isEligible(candidate, now)) {
+                best = best == null ? candidate : cheaper(best, candidate);
+            } else {
+                bestEjected = bestEjected == null ? candidate : cheaper(bestEjected, candidate);
+            }
+        }
+        return best != null ? best : bestEjected;
+    }
+
+    private ExecutorRegistration cheaper(ExecutorRegistration a, ExecutorRegistration b) {
+        ExecutorLoad loadA = loads.get(a.executorId);
+        ExecutorLoad loadB = loads.get(b.executorId);
+        double costA = loadA != null ? loadA.cost() : 1;
+        double costB = loadB != null ? loadB.cost() : 1;
+        if (costA == costB) {
+            // Idle executors tie; spread them instead of favouring registration order
+            return ThreadLocalRandom.current().nextBoolean() ? a : b;
+        }
+        return costB < costA ? b : a;
+    }
+
+    private boolean isProbeable(ExecutorRegistration registration) {
+        return !registration.inProcess
+                && registration.endpoint != null
+                && (registration.protocol == CommunicationProtocol.REST
+                        || registration.protocol == CommunicationProtocol.GRPC);
+    }
+
+    private void applyProbeResult(ExecutorRegistration registration, boolean healthy) {
+        if (executorRegistry.get(registration.executorId) != registration) {
+            return;
+        }
+        ExecutorStatus next = healthy ? ExecutorStatus.HEALTHY : ExecutorStatus.UNHEALTHY;
+        ExecutorStatus previous = registration.status;
+        if (previous == next || previous == ExecutorStatus.OFFLINE) {
+            return;
+        }
+        registration.status = next;
+        AUDIT.infof("EXECUTOR_REGISTRY_HEALTH id=%s status=%s", registration.executorId, next);
+        if (healthy) {
+            LOG.infof("Executor %s is healthy again", registration.executorId);
+        } else {
+            LOG.warnf("Executor %s failed its health probe", registration.executorId);
+        }
+    }
+
+    /**
+     * REST executors are probed with an HTTP GET on the health path, gRPC
+     * executors with a TCP connect to their endpoint. Executors that run in
+     * process, or that have no probeable endpoint, are healthy by registration.
+     */
     private Uni<Boolean> performHealthCheck(ExecutorRegistration registration) {
-        // TODO: implement real gRPC / HTTP health probe once protocol is stable
-        return Uni.createFrom().item(true);
+        if (!isProbeable(registration)) {
+            return Uni.createFrom().item(true);
+        }
+        Uni<Boolean> probe = registration.protocol == CommunicationProtocol.REST
+                ? httpProbe(registration.endpoint)
+                : tcpProbe(registration.endpoint);
+        return probe
+                .ifNoItem().after(healthTimeout).recoverWithItem(false)
+                .onFailure().recoverWithItem(false);
+    }
+
+    private Uni<Boolean> httpProbe(URI endpoint) {
+        HttpRequest request = HttpRequest.newBuilder(healthUri(endpoint, healthPath))
+                .timeout(healthTimeout)
+                .GET()
+                .build();
+        return Uni.createFrom()
+                .completionStage(() -> httpClient().sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                .map(response -> response.statusCode() >= 200 && response.statusCode() < 300);
+    }
+
+    /**
+     * The health path appended to the endpoint's own path, so an executor
+     * served under a base path ({@code http://host/executors/a}) is probed
+     * there rather than at the host root.
+     */
+    static URI healthUri(URI endpoint, String healthPath) {
+        String basePath = endpoint.getRawPath() != null ? endpoint.getRawPath() : "";
+        if (basePath.endsWith("/")) {
+            basePath = basePath.substring(0, basePath.length() - 1);
+        }
+        String path = healthPath.startsWith("/") ? healthPath : "/" + healthPath;
+        return URI.create(endpoint.getScheme() + "://" + endpoint.getRawAuthority() + basePath + path);
+    }
+
+    private Uni<Boolean> tcpProbe(URI endpoint) {
+        return Uni.createFrom().item(() -> {
+            int port = endpoint.getPort() > 0
+                    ? endpoint.getPort()
+                    : "http".equalsIgnoreCase(endpoint.getScheme()) ? 80 : 443;
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(endpoint.getHost(), port), (int) healthTimeout.toMillis());
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    private HttpClient httpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClient.newBuilder().connectTimeout(healthTimeout).build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
     }
 }
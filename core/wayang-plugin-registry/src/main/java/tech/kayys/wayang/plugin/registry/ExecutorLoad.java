@@ -0,0 +1,86 @@
+/*
+ * PolyForm Noncommercial License 1.0.0
+ * Copyright (c) 2026 Kayys.tech
+ */
+package tech.kayys.wayang.plugin.registry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live dispatch statistics of one executor: requests in flight, an
+ * exponentially weighted moving average of latency, and passive outlier
+ * ejection after consecutive failures.
+ *
+ * <p>
+ * Ejection time doubles with every ejection that follows another without a
+ * success in between, capped at the configured maximum.
+ */
+final class ExecutorLoad {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double latencyEwmaMs = -1;
+    private volatile long ejectedUntilNanos;
+    private int consecutiveFailures;
+    private int ejections;
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the latency average, or a negative value before the first sample
+     */
+    double latencyEwmaMs() {
+        return latencyEwmaMs;
+    }
+
+    boolean isEjected(long nowNanos) {
+        return ejectedUntilNanos - nowNanos > 0;
+    }
+
+    /**
+     * Selection cost; lower is better. Executors without a latency sample yet
+     * compete on in-flight count alone.
+     */
+    double cost() {
+        final double latency = latencyEwmaMs;
+        return (inFlight.get() + 1) * (latency > 1 ? latency : 1);
+    }
+
+    void dispatchStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * @return {@code true} if this failure ejected the executor
+     */
+    synchronized boolean dispatchCompleted(
+            long latencyMs,
+            boolean success,
+            double alpha,
+            int failureThreshold,
+            long baseEjectionNanos,
+            long maxEjectionNanos,
+            long nowNanos) {
+        inFlight.updateAndGet(current -> current > 0 ? current - 1 : 0);
+        final double previous = latencyEwmaMs;
+        latencyEwmaMs = previous < 0 ? latencyMs : previous + alpha * (latencyMs - previous);
+        if (success) {
+            consecutiveFailures = 0;
+            ejections = 0;
+            return false;
+        }
+        if (++consecutiveFailures < failureThreshold) {
+            return false;
+        }
+        consecutiveFailures = 0;
+        long ejection = baseEjectionNanos;
+        for (int i = 0; i < ejections && ejection < maxEjectionNanos; i++) {
+            ejection *= 2;
+        }
+        ejection = Math.min(ejection, maxEjectionNanos);
+        ejections++;
+        ejectedUntilNanos = nowNanos + ejection;
+        return true;
+    }
+}
@@ -8,16 +8,39 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.kayys.wayang.plugin.spi.node.NodeDefinition;
 import tech.kayys.wayang.plugin.spi.node.NodeProvider;
+import tech.kayys.wayang.plugin.spi.node.PluginIndex;
 import tech.kayys.wayang.schema.catalog.BuiltinSchemaCatalog;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
 
 /**
  * Dynamically loads NodeProvider plugins from the user's ~/.wayang/plugins directory
  * at application startup.
+ *
+ * <p>
+ * JARs are read in parallel. A JAR built with a {@link PluginIndex} is
+ * registered from that index alone, without creating a class loader. JARs
+ * without an index, or with one this host cannot read, fall back to
+ * {@link ServiceLoader} discovery. Registration itself runs on the startup
+ * thread in JAR name order, so a node type declared by two JARs always
+ * resolves to the same one.
  */
 @Startup
 @ApplicationScoped
@@ -28,6 +51,12 @@ public class FileNodePluginLoader {
     @Inject
     ControlPlaneNodeRegistry nodeRegistry;
 
+    /**
+     * What was read from one JAR, ready to register.
+     */
+    private record ScannedPlugin(List<PluginIndex.ProviderEntry> providers) {
+    }
+
     @PostConstruct
     public void loadExternalPlugins() {
         String homeDir = System.getProperty("user.home");
@@ -43,46 +72,131 @@ public class FileNodePluginLoader {
             LOG.info("No external plugin JARs found in {}", pluginsDir.getAbsolutePath());
             return;
         }
+        Arrays.sort(jarFiles, Comparator.comparing(File::getName));
 
-        for (File jarFile : jarFiles) {
-            try {
-                LOG.info("Loading external Wayang plugin from: {}", jarFile.getAbsolutePath());
-                URL jarUrl = jarFile.toURI().toURL();
-                
-                // Use a separate classloader for each plugin JAR
-                PluginClassLoader pluginClassLoader = new PluginClassLoader(new URL[]{jarUrl}, getClass().getClassLoader());
-                
-                // Discover NodeProvider implementations inside this JAR
-                ServiceLoader<NodeProvider> serviceLoader = ServiceLoader.load(NodeProvider.class, pluginClassLoader);
-                
-                for (NodeProvider provider : serviceLoader) {
-                    LOG.info("Discovered NodeProvider: {}", provider.getClass().getName());
-                    
-                    // Register schemas into the global BuiltinSchemaCatalog
-                    BuiltinSchemaCatalog.register(provider);
-                    
-                    // Register node metadata into the Control Plane registry
-                    for (NodeDefinition def : provider.nodes()) {
-                        // We map the SPI NodeDefinition to the internal registry NodeDefinition
-                        // Note: Assuming NodeDefinition is also relocated or imported correctly
-                        tech.kayys.wayang.plugin.registry.node.NodeDefinition internalDef = new tech.kayys.wayang.plugin.registry.node.NodeDefinition();
-                        internalDef.type = def.type();
-                        internalDef.label = def.label();
-                        internalDef.category = def.category();
-                        internalDef.subCategory = def.subCategory();
-                        internalDef.description = def.description();
-                        // Note: To fully support the internal registry, we'd need to convert the schemas to JsonSchema objects. 
-                        // For now this demonstrates the discovery and link.
-                        nodeRegistry.register(internalDef);
-                        LOG.info("Registered external Node: {} ({})", def.type(), def.label());
+        long started = System.nanoTime();
+        List<ScannedPlugin> scanned = scanAll(jarFiles);
+        int nodeCount = 0;
+        for (ScannedPlugin plugin : scanned) {
+            nodeCount += register(plugin);
+        }
+        LOG.info("Loaded {} external nodes from {} plugin JARs in {} ms",
+                nodeCount, scanned.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<ScannedPlugin> scanAll(File[] jarFiles) {
+        int parallelism = Math.min(jarFiles.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, scanThreadFactory());
+        try {
+            List<Future<ScannedPlugin>> futures = new ArrayList<>(jarFiles.length);
+            for (File jarFile : jarFiles) {
+                futures.add(pool.submit(() -> scan(jarFile)));
+            }
+            List<ScannedPlugin> scanned = new ArrayList<>(jarFiles.length);
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    ScannedPlugin plugin = futures.get(i).get();
+                    if (plugin != null) {
+                        scanned.add(plugin);
                     }
+                } catch (ExecutionException e) {
+                    LOG.error("Failed to load external plugin from {}", jarFiles[i].getName(), e.getCause());
                 }
-                
-            } catch (MalformedURLException e) {
-                LOG.error("Invalid URL for plugin JAR {}", jarFile.getName(), e);
-            } catch (Exception e) {
-                LOG.error("Failed to load external plugin from {}", jarFile.getName(), e);
+            }
+            return scanned;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while loading external plugins");
+            return List.of();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private ScannedPlugin scan(File jarFile) throws Exception {
+        PluginIndex index = null;
+        try {
+            index = readIndex(jarFile);
+        } catch (IOException e) {
+            // Written by a different plugin build, or damaged: the JAR itself may still load
+            LOG.warn("Ignoring unreadable {} in {}: {}", PluginIndex.RESOURCE, jarFile.getName(), e.getMessage());
+        }
+        if (index != null) {
+            LOG.info("Loading external Wayang plugin from index: {}", jarFile.getAbsolutePath());
+            return new ScannedPlugin(index.providers());
+        }
+
+        // No usable build-time index: discover NodeProvider implementations by loading the JAR
+        try {
+            LOG.info("Loading external Wayang plugin from: {} (scanning classes)", jarFile.getAbsolutePath());
+            return new ScannedPlugin(PluginIndex.of(discoverProviders(jarFile.toURI().toURL())).providers());
+        } catch (MalformedURLException e) {
+            LOG.error("Invalid URL for plugin JAR {}", jarFile.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Read the build-time index without creating a class loader.
+     *
+     * @return the index, or {@code null} if the JAR was built without one
+     * @throws IOException if the JAR or its index cannot be read
+     */
+    static PluginIndex readIndex(File jarFile) throws IOException {
+        try (JarFile jar = new JarFile(jarFile, false)) {
+            ZipEntry entry = jar.getEntry(PluginIndex.RESOURCE);
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = jar.getInputStream(entry)) {
+                return PluginIndex.read(in);
+            }
+        }
+    }
+
+    private List<NodeProvider> discoverProviders(URL jarUrl) {
+        // Use a separate classloader for each plugin JAR
+        PluginClassLoader pluginClassLoader = new PluginClassLoader(new URL[] { jarUrl }, getClass().getClassLoader());
+        List<NodeProvider> providers = new ArrayList<>();
+        for (NodeProvider provider : ServiceLoader.load(NodeProvider.class, pluginClassLoader)) {
+            providers.add(provider);
+        }
+        return providers;
+    }
+
+    private int register(ScannedPlugin scanned) {
+        int nodeCount = 0;
+        for (PluginIndex.ProviderEntry provider : scanned.providers()) {
+            LOG.info("Discovered NodeProvider: {}", provider.className());
+
+            // Register schemas into the global BuiltinSchemaCatalog
+            BuiltinSchemaCatalog.register(provider.nodes());
+
+            // Register node metadata into the Control Plane registry
+            for (NodeDefinition def : provider.nodes()) {
+                // We map the SPI NodeDefinition to the internal registry NodeDefinition
+                tech.kayys.wayang.plugin.registry.node.NodeDefinition internalDef = new tech.kayys.wayang.plugin.registry.node.NodeDefinition();
+                internalDef.type = def.type();
+                internalDef.label = def.label();
+                internalDef.category = def.category();
+                internalDef.subCategory = def.subCategory();
+                internalDef.description = def.description();
+                // Note: To fully support the internal registry, we'd need to convert the schemas to JsonSchema objects. 
+                // For now this demonstrates the discovery and link.
+                nodeRegistry.register(internalDef);
+                LOG.info("Registered external Node: {} ({})", def.type(), def.label());
+                nodeCount++;
             }
         }
+        return nodeCount;
+    }
+
+    private static ThreadFactory scanThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "wayang-plugin-scan-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
@@ -0,0 +1,215 @@
+package tech.kayys.wayang.plugin.registry;
+
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.plugin.CommunicationProtocol;
+import tech.kayys.wayang.plugin.registry.executor.ExecutorRegistration;
+import tech.kayys.wayang.plugin.registry.executor.ExecutorStatus;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControlPlaneExecutorRegistryTest {
+
+    private static final int RESOLUTIONS = 20_000;
+
+    private final ControlPlaneExecutorRegistry registry = registry();
+
+    @Test
+    void resolvesOnlyExecutorsDeclaringTheNodeType() {
+        ExecutorRegistration llm = register("llm-1", "llm");
+        register("rag-1", "rag");
+
+        assertSame(llm, registry.resolveForNode("llm"));
+        assertNull(registry.resolveForNode("vector"));
+    }
+
+    @Test
+    void idleExecutorsShareTheLoad() {
+        List<ExecutorRegistration> executors = registerMany(5, "llm");
+
+        Map<String, Integer> picks = resolveMany("llm");
+
+        for (ExecutorRegistration executor : executors) {
+            int count = picks.getOrDefault(executor.executorId, 0);
+            assertTrue(count > RESOLUTIONS / 5 / 2, executor.executorId + " picked " + count + " times");
+        }
+    }
+
+    @Test
+    void mostExpensiveExecutorIsNeverPickedOverACheaperSample() {
+        registerMany(5, "llm");
+        ExecutorRegistration slow = register("slow", "llm");
+        registry.recordDispatchStarted("slow");
+        registry.recordDispatchCompleted("slow", 500, true);
+
+        Map<String, Integer> picks = resolveMany("llm");
+
+        assertFalse(picks.containsKey(slow.executorId));
+    }
+
+    @Test
+    void cheapestExecutorWinsMoreThanItsShare() {
+        List<ExecutorRegistration> executors = registerMany(10, "llm");
+        for (int i = 0; i < executors.size(); i++) {
+            String id = executors.get(i).executorId;
+            registry.recordDispatchStarted(id);
+            registry.recordDispatchCompleted(id, 10L * (i + 1), true);
+        }
+
+        Map<String, Integer> picks = resolveMany("llm");
+
+        // Two samples out of ten: the cheapest is in one of them 20% of the time
+        int cheapest = picks.getOrDefault(executors.get(0).executorId, 0);
+        assertTrue(cheapest > RESOLUTIONS * 0.17, "cheapest picked " + cheapest + " times");
+        assertFalse(picks.containsKey(executors.get(9).executorId));
+    }
+
+    @Test
+    void inFlightDispatchesCountTowardsCost() {
+        ExecutorRegistration busy = register("busy", "llm");
+        ExecutorRegistration idle = register("idle", "llm");
+        registry.recordDispatchStarted(busy.executorId);
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(idle, registry.resolveForNode("llm"));
+        }
+
+        registry.recordDispatchCompleted(busy.executorId, 0, true);
+        assertTrue(resolveMany("llm").getOrDefault(busy.executorId, 0) > 0);
+    }
+
+    @Test
+    void unhealthyExecutorsAreSkipped() {
+        List<ExecutorRegistration> executors = registerMany(4, "llm");
+        executors.get(0).status = ExecutorStatus.UNHEALTHY;
+        executors.get(1).status = ExecutorStatus.OFFLINE;
+
+        Map<String, Integer> picks = resolveMany("llm");
+
+        assertEquals(Set.of(executors.get(2).executorId, executors.get(3).executorId), picks.keySet());
+    }
+
+    @Test
+    void consecutiveFailuresEjectAnExecutor() {
+        List<ExecutorRegistration> executors = registerMany(4, "llm");
+        fail(executors.get(0).executorId, 3);
+
+        assertFalse(resolveMany("llm").containsKey(executors.get(0).executorId));
+    }
+
+    @Test
+    void successBetweenFailuresKeepsAnExecutorInSelection() {
+        ExecutorRegistration flaky = register("flaky", "llm");
+        ExecutorRegistration slow = register("slow", "llm");
+        registry.recordDispatchStarted(slow.executorId);
+        registry.recordDispatchCompleted(slow.executorId, 500, true);
+        fail(flaky.executorId, 2);
+        registry.recordDispatchStarted(flaky.executorId);
+        registry.recordDispatchCompleted(flaky.executorId, 10, true);
+        fail(flaky.executorId, 2);
+
+        // Still cheaper than the slow executor, so chosen whenever it is not ejected
+        assertSame(flaky, registry.resolveForNode("llm"));
+    }
+
+    @Test
+    void ejectionIsIgnoredWhenEveryCandidateIsEjected() {
+        List<ExecutorRegistration> executors = registerMany(3, "llm");
+        for (ExecutorRegistration executor : executors) {
+            fail(executor.executorId, 3);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertNotNull(registry.resolveForNode("llm"));
+        }
+    }
+
+    @Test
+    void unregisteredExecutorsLeaveTheIndex() {
+        List<ExecutorRegistration> executors = registerMany(3, "llm");
+        registry.unregister(executors.get(0).executorId);
+        registry.unregister(executors.get(1).executorId);
+
+        assertEquals(Set.of(executors.get(2).executorId), resolveMany("llm").keySet());
+
+        registry.unregister(executors.get(2).executorId);
+        assertNull(registry.resolveForNode("llm"));
+    }
+
+    @Test
+    void reRegistrationReplacesTheIndexedNodeTypes() {
+        register("a", "llm");
+        ExecutorRegistration moved = register("a", "rag");
+
+        assertNull(registry.resolveForNode("llm"));
+        assertSame(moved, registry.resolveForNode("rag"));
+    }
+
+    @Test
+    void healthPathIsAppendedToTheEndpointPath() {
+        assertEquals(URI.create("http://host:8080/q/health/live"),
+                ControlPlaneExecutorRegistry.healthUri(URI.create("http://host:8080"), "/q/health/live"));
+        assertEquals(URI.create("http://host:8080/q/health/live"),
+                ControlPlaneExecutorRegistry.healthUri(URI.create("http://host:8080/"), "/q/health/live"));
+        assertEquals(URI.create("http://host/executors/a/q/health/live"),
+                ControlPlaneExecutorRegistry.healthUri(URI.create("http://host/executors/a"), "/q/health/live"));
+        assertEquals(URI.create("https://user@host/executors/a%20b/health"),
+                ControlPlaneExecutorRegistry.healthUri(URI.create("https://user@host/executors/a%20b/"), "health"));
+    }
+
+    private void fail(String executorId, int times) {
+        for (int i = 0; i < times; i++) {
+            registry.recordDispatchStarted(executorId);
+            registry.recordDispatchCompleted(executorId, 10, false);
+        }
+    }
+
+    private Map<String, Integer> resolveMany(String nodeType) {
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < RESOLUTIONS; i++) {
+            picks.merge(registry.resolveForNode(nodeType).executorId, 1, Integer::sum);
+        }
+        return picks;
+    }
+
+    private List<ExecutorRegistration> registerMany(int count, String nodeType) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> register(nodeType + "-" + i, nodeType))
+                .toList();
+    }
+
+    /**
+     * A remote executor without an endpoint, so registration needs no probe.
+     */
+    private ExecutorRegistration register(String executorId, String nodeType) {
+        ExecutorRegistration registration = new ExecutorRegistration();
+        registration.executorId = executorId;
+        registration.protocol = CommunicationProtocol.REST;
+        registration.supportedNodes.add(nodeType);
+        registry.register(registration).await().indefinitely();
+        return registration;
+    }
+
+    private static ControlPlaneExecutorRegistry registry() {
+        ControlPlaneExecutorRegistry registry = new ControlPlaneExecutorRegistry();
+        registry.latencyEwmaAlpha = 0.2;
+        registry.outlierConsecutiveFailures = 3;
+        registry.outlierBaseEjection = Duration.ofMinutes(1);
+        registry.outlierMaxEjection = Duration.ofMinutes(5);
+        registry.healthTimeout = Duration.ofSeconds(1);
+        registry.healthPath = "/q/health/live";
+        return registry;
+    }
+}
@@ -0,0 +1,123 @@
+package tech.kayys.wayang.plugin.registry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutorLoadTest {
+
+    private static final double ALPHA = 0.2;
+    private static final int THRESHOLD = 2;
+    private static final long BASE = 10;
+    private static final long MAX = 35;
+
+    @Test
+    void firstSampleSeedsTheAverage() {
+        ExecutorLoad load = new ExecutorLoad();
+        assertTrue(load.latencyEwmaMs() < 0);
+
+        complete(load, 100, true, 0);
+
+        assertEquals(100.0, load.latencyEwmaMs(), 1e-9);
+    }
+
+    @Test
+    void laterSamplesMoveTheAverageByAlpha() {
+        ExecutorLoad load = new ExecutorLoad();
+        complete(load, 100, true, 0);
+
+        complete(load, 200, true, 0);
+        assertEquals(120.0, load.latencyEwmaMs(), 1e-9);
+
+        complete(load, 20, false, 0);
+        assertEquals(100.0, load.latencyEwmaMs(), 1e-9);
+    }
+
+    @Test
+    void costGrowsWithInFlightAndLatency() {
+        ExecutorLoad load = new ExecutorLoad();
+        assertEquals(1.0, load.cost(), 1e-9);
+
+        load.dispatchStarted();
+        load.dispatchStarted();
+        assertEquals(3.0, load.cost(), 1e-9);
+
+        complete(load, 50, true, 0);
+        assertEquals(1, load.inFlight());
+        assertEquals(100.0, load.cost(), 1e-9);
+    }
+
+    @Test
+    void inFlightNeverGoesNegative() {
+        ExecutorLoad load = new ExecutorLoad();
+
+        complete(load, 10, true, 0);
+        complete(load, 10, true, 0);
+
+        assertEquals(0, load.inFlight());
+    }
+
+    @Test
+    void ejectsAfterConsecutiveFailures() {
+        ExecutorLoad load = new ExecutorLoad();
+
+        assertFalse(complete(load, 10, false, 0));
+        assertTrue(complete(load, 10, false, 0));
+
+        assertTrue(load.isEjected(BASE - 1));
+        assertFalse(load.isEjected(BASE));
+    }
+
+    @Test
+    void successInBetweenResetsTheFailureCount() {
+        ExecutorLoad load = new ExecutorLoad();
+
+        assertFalse(complete(load, 10, false, 0));
+        assertFalse(complete(load, 10, true, 0));
+        assertFalse(complete(load, 10, false, 0));
+
+        assertFalse(load.isEjected(0));
+    }
+
+    @Test
+    void repeatedEjectionsDoubleUpToTheCap() {
+        ExecutorLoad load = new ExecutorLoad();
+
+        assertEquals(10, ejectAt(load, 0));
+        assertEquals(20, ejectAt(load, 100));
+        assertEquals(35, ejectAt(load, 200));
+        assertEquals(35, ejectAt(load, 300));
+    }
+
+    @Test
+    void successAfterEjectionResetsTheBackoff() {
+        ExecutorLoad load = new ExecutorLoad();
+        ejectAt(load, 0);
+        ejectAt(load, 100);
+
+        complete(load, 10, true, 200);
+
+        assertEquals(10, ejectAt(load, 300));
+    }
+
+    /**
+     * Fail until ejected and return how long the ejection lasts.
+     */
+    private static long ejectAt(ExecutorLoad load, long now) {
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            assertFalse(complete(load, 10, false, now));
+        }
+        assertTrue(complete(load, 10, false, now));
+        long until = now;
+        while (load.isEjected(until)) {
+            until++;
+        }
+        return until - now;
+    }
+
+    private static boolean complete(ExecutorLoad load, long latencyMs, boolean success, long now) {
+        return load.dispatchCompleted(latencyMs, success, ALPHA, THRESHOLD, BASE, MAX, now);
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * PolyForm Noncommercial License 1.0.0
+ *
+ * Copyright (c) 2026 Kayys.tech
+ *
+ * This software is licensed for non-commercial use only.
+ * You may use, modify, and distribute this software for personal,
+ * educational, or research purposes.
+ *
+ * Commercial use, including SaaS or revenue-generating services,
+ * requires a separate commercial license from Kayys.tech.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND.
+ *
+ * @author Bhangun
+ */
+package tech.kayys.wayang.plugin.execution;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Runs blocking-style code off the event loop.
+ *
+ * <p>
+ * Each subsystem ({@code "agent-inference"}, {@code "embedding"}, ...) gets an
+ * executor that starts one virtual thread per task, admitted by a semaphore
+ * sized by {@code wayang.execution.blocking.limit.<subsystem>}. Waiting for a
+ * permit parks a virtual thread rather than holding a pool thread, so the
+ * limit bounds the load on the downstream service, not the number of callers.
+ * {@code wayang.execution.blocking.mode} selects the strategy runtime-wide:
+ * <ul>
+ * <li>{@code virtual} (default) - virtual thread per task</li>
+ * <li>{@code worker} - the Mutiny default worker pool</li>
+ * <li>{@code caller} - run on the calling thread, as before</li>
+ * </ul>
+ * With {@code wayang.execution.blocking.pinning-diagnostics=true}, a JFR
+ * stream logs every distinct stack that pins a virtual thread to its carrier
+ * for longer than {@code pinning-threshold}.
+ */
+public final class BlockingSections {
+
+    private static final Logger LOG = Logger.getLogger(BlockingSections.class);
+
+    static final String PREFIX = "wayang.execution.blocking.";
+    static final int DEFAULT_LIMIT = 256;
+    private static final int MAX_REPORTED_PINNING_STACKS = 1024;
+
+    public enum Mode {
+        VIRTUAL,
+        WORKER,
+        CALLER;
+
+        static Mode parse(String value) {
+            if (value == null) {
+                return VIRTUAL;
+            }
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "worker" -> WORKER;
+                case "caller" -> CALLER;
+                default -> VIRTUAL;
+            };
+        }
+    }
+
+    private static final ConcurrentHashMap<String, LimitedExecutor> EXECUTORS = new ConcurrentHashMap<>();
+
+    private static volatile Settings settings;
+
+    private BlockingSections() {
+    }
+
+    public static Mode mode() {
+        return settings().mode;
+    }
+
+    /**
+     * The executor of a subsystem; tasks beyond its limit wait for a permit.
+     */
+    public static Executor executor(String subsystem) {
+        return EXECUTORS.computeIfAbsent(subsystem, key -> {
+            final Settings current = settings();
+            return new LimitedExecutor(key, current.mode, current.limit(key));
+        });
+    }
+
+    /**
+     * Run a blocking section on the subsystem's executor. Subscribing from an
+     * event loop is safe.
+     */
+    public static <T> Uni<T> offload(String subsystem, Supplier<T> section) {
+        if (mode() == Mode.CALLER) {
+            return Uni.createFrom().item(section);
+        }
+        return Uni.createFrom().item(section).runSubscriptionOn(executor(subsystem));
+    }
+
+    /**
+     * Wait for {@code uni} from blocking-style code.
+     *
+     * @throws IllegalStateException if the current thread must not block, such
+     *                               as a Vert.x event loop; the caller should be
+     *                               reached through {@link #offload} instead
+     */
+    public static <T> T await(String subsystem, Uni<T> uni) {
+        final Thread current = Thread.currentThread();
+        if (mode() != Mode.CALLER && !current.isVirtual() && !Infrastructure.canCallerThreadBeBlocked()) {
+            throw new IllegalStateException("Blocking section of " + subsystem + " reached on non-blocking thread "
+                    + current.getName() + "; subscribe through BlockingSections.offload(\"" + subsystem
+                    + "\", ...)");
+        }
+        return uni.await().indefinitely();
+    }
+
+    /**
+     * An unstarted long-lived thread, virtual unless the mode says otherwise.
+     */
+    public static Thread newThread(String name, Runnable task) {
+        if (mode() == Mode.VIRTUAL) {
+            return Thread.ofVirtual().name(name).unstarted(task);
+        }
+        final Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Open a fan-out scope on the subsystem's executor. Use with
+     * try-with-resources, {@link Scope#fork fork} the subtasks, then
+     * {@link Scope#join join}.
+     */
+    public static Scope open(String subsystem) {
+        return new Scope(subsystem, executor(subsystem));
+    }
+
+    /**
+     * Subtasks forked together and joined together: the first failure cancels
+     * the rest, and closing the scope cancels whatever is still running and
+     * waits for it to stop, so no subtask outlives the block that forked it.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String subsystem;
+        private final Executor executor;
+        private final List<Subtask<?>> subtasks = new CopyOnWriteArrayList<>();
+        private volatile Throwable failure;
+        private boolean joined;
+
+        private Scope(String subsystem, Executor executor) {
+            this.subsystem = subsystem;
+            this.executor = executor;
+        }
+
+        public <T> Supplier<T> fork(Callable<T> task) {
+            if (joined) {
+                throw new IllegalStateException("Scope of " + subsystem + " is already joined");
+            }
+            final Subtask<T> subtask = new Subtask<>(task);
+            subtasks.add(subtask);
+            executor.execute(subtask);
+            return subtask;
+        }
+
+        /**
+         * Wait for every subtask.
+         *
+         * @throws CompletionException carrying the first failure, or the
+         *                             failure itself if unchecked
+         */
+        public void join() throws InterruptedException {
+            joined = true;
+            for (Subtask<?> subtask : subtasks) {
+                subtask.awaitDone();
+            }
+            final Throwable first = failure;
+            if (first instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (first instanceof Error error) {
+                throw error;
+            }
+            if (first != null) {
+                throw new CompletionException(first);
+            }
+        }
+
+        /**
+         * Cancel the subtasks still running and wait until they have returned.
+         * A subtask that ignores interruption delays the close; the caller's
+         * own interrupt is kept for after the wait.
+         */
+        @Override
+        public void close() {
+            for (Subtask<?> subtask : subtasks) {
+                subtask.cancel(true);
+            }
+            boolean interrupted = false;
+            for (Subtask<?> subtask : subtasks) {
+                interrupted |= subtask.awaitTerminated();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void failed(Throwable cause) {
+            synchronized (this) {
+                if (failure != null) {
+                    return;
+                }
+                failure = cause;
+            }
+            for (Subtask<?> subtask : subtasks) {
+                subtask.cancel(true);
+            }
+        }
+
+        private final class Subtask<T> extends FutureTask<T> implements Supplier<T> {
+
+            private final CountDownLatch terminated = new CountDownLatch(1);
+            private volatile boolean started;
+
+            Subtask(Callable<T> task) {
+                super(task);
+            }
+
+            @Override
+            public void run() {
+                started = true;
+                try {
+                    super.run();
+                } finally {
+                    terminated.countDown();
+                }
+            }
+
+            /**
+             * Wait, ignoring interrupts, until the task body has returned. A
+             * subtask cancelled before it started never runs its body.
+             *
+             * @return whether the wait was interrupted
+             */
+            boolean awaitTerminated() {
+                boolean interrupted = false;
+                while (started) {
+                    try {
+                        terminated.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                return interrupted;
+            }
+
+            void awaitDone() throws InterruptedException {
+                try {
+                    super.get();
+                } catch (ExecutionException | CancellationException e) {
+                    // Reported through the scope's failure
+                }
+            }
+
+            @Override
+            protected void setException(Throwable cause) {
+                super.setException(cause);
+                failed(cause);
+            }
+
+            /**
+             * The result, available once the scope has joined without failure.
+             */
+            @Override
+            public T get() {
+                if (!isDone()) {
+                    throw new IllegalStateException("Subtask of " + subsystem + " read before join");
+                }
+                try {
+                    return super.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted reading subtask of " + subsystem);
+                } catch (ExecutionException e) {
+                    throw new CompletionException(e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Admits tasks of one subsystem up to its limit.
+     */
+    static final class LimitedExecutor implements Executor {
+
+        private final String subsystem;
+        private final Mode mode;
+        private final Semaphore permits;
+        private final AtomicInteger threadIndex = new AtomicInteger();
+
+        LimitedExecutor(String subsystem, Mode mode, int limit) {
+            this.subsystem = subsystem;
+            this.mode = mode;
+            this.permits = new Semaphore(limit);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            switch (mode) {
+                case CALLER -> task.run();
+                case WORKER -> Infrastructure.getDefaultWorkerPool().execute(() -> runAdmitted(task));
+                default -> Thread.ofVirtual()
+                        .name("wayang-" + subsystem + "-" + threadIndex.getAndIncrement())
+                        .start(() -> runAdmitted(task));
+            }
+        }
+
+        private void runAdmitted(Runnable task) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (task instanceof FutureTask<?> future) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static Settings settings() {
+        Settings current = settings;
+        if (current == null) {
+            synchronized (BlockingSections.class) {
+                current = settings;
+                if (current == null) {
+                    current = Settings.load();
+                    settings = current;
+                    if (current.pinningDiagnostics && current.mode == Mode.VIRTUAL) {
+                        startPinningDiagnostics(current.pinningThreshold);
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void startPinningDiagnostics(Duration threshold) {
+        final Set<String> reported = ConcurrentHashMap.newKeySet();
+        try {
+            final RecordingStream stream = new RecordingStream();
+            stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+            stream.onEvent("jdk.VirtualThreadPinned", event -> reportPinning(event, reported));
+            stream.startAsync();
+            LOG.infof("Virtual thread pinning diagnostics enabled, threshold %d ms", threshold.toMillis());
+        } catch (RuntimeException | LinkageError e) {
+            LOG.warnf(e, "Virtual thread pinning diagnostics unavailable");
+        }
+    }
+
+    private static void reportPinning(RecordedEvent event, Set<String> reported) {
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        final StringBuilder stack = new StringBuilder();
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            stack.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        final String key = stack.toString();
+        // Each pinning site is reported once; a hot site would otherwise flood the log
+        if (reported.size() < MAX_REPORTED_PINNING_STACKS && reported.add(key)) {
+            LOG.warnf("Virtual thread pinned its carrier for %d ms%s", event.getDuration().toMillis(), key);
+        }
+    }
+
+    private record Settings(Mode mode, int defaultLimit, Config config, boolean pinningDiagnostics,
+            Duration pinningThreshold) {
+
+        static Settings load() {
+            try {
+                final Config config = ConfigProvider.getConfig();
+                return new Settings(
+                        Mode.parse(config.getOptionalValue(PREFIX + "mode", String.class).orElse(null)),
+                        config.getOptionalValue(PREFIX + "default-limit", Integer.class).orElse(DEFAULT_LIMIT),
+                        config,
+                        config.getOptionalValue(PREFIX + "pinning-diagnostics", Boolean.class).orElse(false),
+                        config.getOptionalValue(PREFIX + "pinning-threshold", Duration.class)
+                                .orElse(Duration.ofMillis(20)));
+            } catch (RuntimeException e) {
+                // No config outside a Quarkus or SmallRye runtime, e.g. plain unit tests
+                return new Settings(Mode.VIRTUAL, DEFAULT_LIMIT, null, false, Duration.ofMillis(20));
+            }
+        }
+
+        int limit(String subsystem) {
+            final int limit = config == null
+                    ? defaultLimit
+                    : config.getOptionalValue(PREFIX + "limit." + subsystem, Integer.class).orElse(defaultLimit);
+            return Math.max(1, limit);
+        }
+    }
+}
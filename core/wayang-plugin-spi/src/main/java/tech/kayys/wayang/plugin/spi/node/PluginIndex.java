@@ -0,0 +1,284 @@
+/*
+ * PolyForm Noncommercial License 1.0.0
+ *
+ * Copyright (c) 2026 Kayys.tech
+ *
+ * This software is licensed for non-commercial use only.
+ * You may use, modify, and distribute this software for personal,
+ * educational, or research purposes.
+ *
+ * Commercial use, including SaaS or revenue-generating services,
+ * requires a separate commercial license from Kayys.tech.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND.
+ *
+ * @author Bhangun
+ */
+
+package tech.kayys.wayang.plugin.spi.node;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Build-time index of the {@link NodeProvider}s packaged in a plugin JAR.
+ *
+ * <p>
+ * The index is written to {@link #RESOURCE} while the plugin is built and
+ * lists every provider class with its identity and node definitions,
+ * schemas included. A host reads it straight from the JAR, so node types
+ * can be registered without creating a class loader or loading any provider
+ * class.
+ * </p>
+ *
+ * <p>
+ * The format is a plain properties file with sorted keys and no timestamp,
+ * so rebuilding an unchanged plugin produces an identical index.
+ * {@link NodeDefinition#defaultConfig()} is not indexed; it stays available
+ * from the provider once loaded.
+ * </p>
+ *
+ * <h3>Generating the index</h3>
+ *
+ * <pre>
+ * java tech.kayys.wayang.plugin.spi.node.PluginIndex target/classes
+ * </pre>
+ *
+ * reads {@code META-INF/services/tech.kayys.wayang.plugin.spi.node.NodeProvider}
+ * under the given classes directory and writes the index next to it. The
+ * root build runs this automatically for every module that declares a
+ * {@code NodeProvider} service.
+ *
+ * @param providers the indexed providers, in service-file order
+ */
+public record PluginIndex(List<ProviderEntry> providers) {
+
+    /** Location of the index inside a plugin JAR. */
+    public static final String RESOURCE = "META-INF/wayang/plugin-index.properties";
+
+    /** Service file listing the providers to index. */
+    public static final String SERVICE_RESOURCE = "META-INF/services/" + NodeProvider.class.getName();
+
+    /** Current index format; readers reject anything else. */
+    public static final int FORMAT = 1;
+
+    /**
+     * One indexed provider.
+     *
+     * @param className   fully qualified provider class
+     * @param id          {@link NodeProvider#id()}
+     * @param name        {@link NodeProvider#name()}
+     * @param version     {@link NodeProvider#version()}
+     * @param description {@link NodeProvider#description()}
+     * @param nodes       {@link NodeProvider#nodes()}, without default configs
+     */
+    public record ProviderEntry(
+            String className,
+            String id,
+            String name,
+            String version,
+            String description,
+            List<NodeDefinition> nodes) {
+
+        public ProviderEntry {
+            nodes = nodes == null ? List.of() : List.copyOf(nodes);
+        }
+    }
+
+    public PluginIndex {
+        providers = providers == null ? List.of() : List.copyOf(providers);
+    }
+
+    /**
+     * Index already-instantiated providers.
+     */
+    public static PluginIndex of(List<? extends NodeProvider> providers) {
+        final List<ProviderEntry> entries = new ArrayList<>(providers.size());
+        for (NodeProvider provider : providers) {
+            entries.add(new ProviderEntry(
+                    provider.getClass().getName(),
+                    provider.id(),
+                    provider.name(),
+                    provider.version(),
+                    provider.description(),
+                    provider.nodes()));
+        }
+        return new PluginIndex(entries);
+    }
+
+    /**
+     * Parse an index written by {@link #write(OutputStream)}.
+     *
+     * @throws IOException if the stream cannot be read or is not a supported
+     *                     index
+     */
+    public static PluginIndex read(InputStream in) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final String format = properties.getProperty("format");
+        if (!String.valueOf(FORMAT).equals(format)) {
+            throw new IOException("Unsupported plugin index format: " + format);
+        }
+        final int providerCount = count(properties, "providers.count");
+        final List<ProviderEntry> providers = new ArrayList<>(providerCount);
+        for (int p = 0; p < providerCount; p++) {
+            final String prefix = "provider." + p + ".";
+            final int nodeCount = count(properties, prefix + "nodes.count");
+            final List<NodeDefinition> nodes = new ArrayList<>(nodeCount);
+            for (int n = 0; n < nodeCount; n++) {
+                final String nodePrefix = prefix + "node." + n + ".";
+                try {
+                    nodes.add(new NodeDefinition(
+                            properties.getProperty(nodePrefix + "type"),
+                            properties.getProperty(nodePrefix + "label"),
+                            properties.getProperty(nodePrefix + "category"),
+                            properties.getProperty(nodePrefix + "subCategory"),
+                            properties.getProperty(nodePrefix + "description"),
+                            properties.getProperty(nodePrefix + "icon"),
+                            properties.getProperty(nodePrefix + "color"),
+                            properties.getProperty(nodePrefix + "configSchema"),
+                            properties.getProperty(nodePrefix + "inputSchema"),
+                            properties.getProperty(nodePrefix + "outputSchema"),
+                            null));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid node entry " + nodePrefix + "type", e);
+                }
+            }
+            final String className = properties.getProperty(prefix + "class");
+            if (className == null || className.isBlank()) {
+                throw new IOException("Missing " + prefix + "class");
+            }
+            providers.add(new ProviderEntry(
+                    className,
+                    properties.getProperty(prefix + "id"),
+                    properties.getProperty(prefix + "name"),
+                    properties.getProperty(prefix + "version"),
+                    properties.getProperty(prefix + "description"),
+                    nodes));
+        }
+        return new PluginIndex(providers);
+    }
+
+    /**
+     * Write the index deterministically: sorted keys, no timestamp comment.
+     */
+    public void write(OutputStream out) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty("format", String.valueOf(FORMAT));
+        properties.setProperty("providers.count", String.valueOf(providers.size()));
+        for (int p = 0; p < providers.size(); p++) {
+            final ProviderEntry provider = providers.get(p);
+            final String prefix = "provider." + p + ".";
+            put(properties, prefix + "class", provider.className());
+            put(properties, prefix + "id", provider.id());
+            put(properties, prefix + "name", provider.name());
+            put(properties, prefix + "version", provider.version());
+            put(properties, prefix + "description", provider.description());
+            properties.setProperty(prefix + "nodes.count", String.valueOf(provider.nodes().size()));
+            for (int n = 0; n < provider.nodes().size(); n++) {
+                final NodeDefinition node = provider.nodes().get(n);
+                final String nodePrefix = prefix + "node." + n + ".";
+                put(properties, nodePrefix + "type", node.type());
+                put(properties, nodePrefix + "label", node.label());
+                put(properties, nodePrefix + "category", node.category());
+                put(properties, nodePrefix + "subCategory", node.subCategory());
+                put(properties, nodePrefix + "description", node.description());
+                put(properties, nodePrefix + "icon", node.icon());
+                put(properties, nodePrefix + "color", node.color());
+                put(properties, nodePrefix + "configSchema", node.configSchema());
+                put(properties, nodePrefix + "inputSchema", node.inputSchema());
+                put(properties, nodePrefix + "outputSchema", node.outputSchema());
+            }
+        }
+        final StringWriter buffer = new StringWriter();
+        properties.store(buffer, null);
+        // store() escapes line breaks inside values, so every entry is one line
+        final String body = buffer.toString().lines()
+                .filter(line -> !line.startsWith("#"))
+                .sorted()
+                .collect(Collectors.joining("\n", "", "\n"));
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generate the index for a compiled plugin.
+     *
+     * @param args the classes directory, e.g. {@code target/classes}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: PluginIndex <classes-directory>");
+        }
+        final Path classes = Path.of(args[0]);
+        final Path services = classes.resolve(SERVICE_RESOURCE);
+        if (!Files.isRegularFile(services)) {
+            return;
+        }
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader() != null
+                ? Thread.currentThread().getContextClassLoader()
+                : PluginIndex.class.getClassLoader();
+        final List<NodeProvider> providers = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(services, StandardCharsets.UTF_8)) {
+            for (String className : serviceClassNames(reader)) {
+                providers.add(instantiate(loader, className));
+            }
+        }
+        final Path target = classes.resolve(RESOURCE);
+        Files.createDirectories(target.getParent());
+        try (OutputStream out = Files.newOutputStream(target)) {
+            of(providers).write(out);
+        }
+    }
+
+    /**
+     * Provider class names from a {@link java.util.ServiceLoader} file, in
+     * order, without comments or duplicates.
+     */
+    static List<String> serviceClassNames(BufferedReader reader) {
+        return reader.lines()
+                .map(line -> {
+                    final int comment = line.indexOf('#');
+                    return (comment >= 0 ? line.substring(0, comment) : line).trim();
+                })
+                .filter(line -> !line.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static NodeProvider instantiate(ClassLoader loader, String className) {
+        try {
+            return (NodeProvider) Class.forName(className, true, loader).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Cannot index NodeProvider " + className, e);
+        }
+    }
+
+    private static void put(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static int count(Properties properties, String key) throws IOException {
+        try {
+            final int count = Integer.parseInt(properties.getProperty(key, "0").trim());
+            if (count < 0) {
+                throw new IOException("Negative " + key);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid " + key, e);
+        }
+    }
+}
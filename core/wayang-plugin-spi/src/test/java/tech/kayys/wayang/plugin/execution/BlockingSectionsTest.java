@@ -0,0 +1,220 @@
+package tech.kayys.wayang.plugin.execution;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockingSectionsTest {
+
+    private static final String SUBSYSTEM = "test";
+    private static final String EVENT_LOOP = "vert.x-eventloop-thread";
+
+    @AfterEach
+    void tearDown() {
+        Infrastructure.setCanCallerThreadBeBlockedSupplier(() -> true);
+    }
+
+    @Test
+    void limitBoundsConcurrentTasks() throws InterruptedException {
+        BlockingSections.LimitedExecutor executor =
+                new BlockingSections.LimitedExecutor(SUBSYSTEM, BlockingSections.Mode.VIRTUAL, 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(8);
+
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(20);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void joinedSubtasksExposeTheirResults() throws InterruptedException {
+        try (BlockingSections.Scope scope = BlockingSections.open(SUBSYSTEM)) {
+            Supplier<String> first = scope.fork(() -> "a");
+            Supplier<Integer> second = scope.fork(() -> {
+                sleep(20);
+                return 2;
+            });
+
+            scope.join();
+
+            assertEquals("a", first.get());
+            assertEquals(2, second.get());
+        }
+    }
+
+    @Test
+    void resultsCannotBeReadBeforeJoinAndForkingAfterJoinFails() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        try (BlockingSections.Scope scope = BlockingSections.open(SUBSYSTEM)) {
+            Supplier<Boolean> pending = scope.fork(() -> release.await(10, TimeUnit.SECONDS));
+
+            assertThrows(IllegalStateException.class, pending::get);
+
+            release.countDown();
+            scope.join();
+            assertThrows(IllegalStateException.class, () -> scope.fork(() -> 1));
+        }
+    }
+
+    @Test
+    void firstFailureCancelsTheSiblings() throws InterruptedException {
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        AtomicBoolean siblingInterrupted = new AtomicBoolean();
+        Supplier<Void> sibling;
+
+        try (BlockingSections.Scope scope = BlockingSections.open(SUBSYSTEM)) {
+            sibling = scope.fork(() -> {
+                siblingStarted.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    siblingInterrupted.set(true);
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                siblingStarted.await();
+                throw new IllegalArgumentException("boom");
+            });
+
+            IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, scope::join);
+            assertEquals("boom", failure.getMessage());
+        }
+
+        assertTrue(siblingInterrupted.get());
+        assertThrows(CancellationException.class, sibling::get);
+    }
+
+    @Test
+    void checkedFailuresAreWrapped() {
+        try (BlockingSections.Scope scope = BlockingSections.open(SUBSYSTEM)) {
+            scope.fork(() -> {
+                throw new IOException("unreachable");
+            });
+
+            CompletionException failure = assertThrows(CompletionException.class, scope::join);
+            assertInstanceOf(IOException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void closeWaitsForSubtasksThatIgnoreInterrupts() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+
+        try (BlockingSections.Scope scope = BlockingSections.open(SUBSYSTEM)) {
+            scope.fork(() -> {
+                started.countDown();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                while (System.nanoTime() < deadline) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        // Keep going, like code that swallows interrupts
+                    }
+                }
+                finished.set(true);
+                return null;
+            });
+            started.await();
+        }
+
+        assertTrue(finished.get());
+    }
+
+    @Test
+    void closeKeepsTheCallersInterrupt() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Boolean> interruptedAfterClose = new AtomicReference<>();
+        Thread caller = Thread.ofPlatform().start(() -> {
+            BlockingSections.Scope scope = BlockingSections.open(SUBSYSTEM);
+            scope.fork(() -> {
+                started.countDown();
+                sleep(100);
+                return null;
+            });
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Thread.currentThread().interrupt();
+            scope.close();
+            interruptedAfterClose.set(Thread.currentThread().isInterrupted());
+        });
+
+        caller.join(10_000);
+
+        assertEquals(Boolean.TRUE, interruptedAfterClose.get());
+    }
+
+    @Test
+    void awaitRefusesEventLoopThreads() throws InterruptedException {
+        // As in Quarkus, only the event loop threads must not block
+        Infrastructure.setCanCallerThreadBeBlockedSupplier(
+                () -> !Thread.currentThread().getName().startsWith(EVENT_LOOP));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread.ofPlatform().name(EVENT_LOOP + "-0").start(() -> {
+            try {
+                BlockingSections.await(SUBSYSTEM, Uni.createFrom().item(1));
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }).join();
+
+        assertInstanceOf(IllegalStateException.class, failure.get());
+        assertTrue(failure.get().getMessage().contains("BlockingSections.offload(\"" + SUBSYSTEM + "\""));
+        assertEquals(1, BlockingSections.await(SUBSYSTEM, Uni.createFrom().item(1)));
+    }
+
+    @Test
+    void offloadRunsOnTheSubsystemsVirtualThreads() {
+        String thread = BlockingSections.offload(SUBSYSTEM, () -> Thread.currentThread().getName())
+                .await().indefinitely();
+
+        assertTrue(thread.startsWith("wayang-" + SUBSYSTEM + "-"), thread);
+    }
+
+    @Test
+    void modeNamesFallBackToVirtual() {
+        assertEquals(BlockingSections.Mode.WORKER, BlockingSections.Mode.parse(" Worker "));
+        assertEquals(BlockingSections.Mode.CALLER, BlockingSections.Mode.parse("caller"));
+        assertEquals(BlockingSections.Mode.VIRTUAL, BlockingSections.Mode.parse("virtual"));
+        assertEquals(BlockingSections.Mode.VIRTUAL, BlockingSections.Mode.parse("unknown"));
+        assertEquals(BlockingSections.Mode.VIRTUAL, BlockingSections.Mode.parse(null));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
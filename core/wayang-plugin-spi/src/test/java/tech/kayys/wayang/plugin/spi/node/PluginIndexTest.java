@@ -0,0 +1,111 @@
+package tech.kayys.wayang.plugin.spi.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PluginIndexTest {
+
+    @Test
+    void readReturnsWhatWasWritten() throws IOException {
+        PluginIndex index = new PluginIndex(List.of(
+                new PluginIndex.ProviderEntry(
+                        "com.example.SearchProvider",
+                        "search",
+                        "Search = web: \"everything\"",
+                        "1.2.0",
+                        null,
+                        List.of(
+                                node("web-search", "{\n  \"type\": \"object\",\n  \"title\": \"Süche #1\"\n}"),
+                                node("news-search", ""))),
+                new PluginIndex.ProviderEntry(
+                        "com.example.EmptyProvider", "empty", "Empty", "0.1", "No nodes", List.of())));
+
+        PluginIndex read = PluginIndex.read(new ByteArrayInputStream(bytes(index)));
+
+        assertEquals(index, read);
+    }
+
+    @Test
+    void defaultConfigIsNotIndexed() throws IOException {
+        NodeDefinition withDefaults = new NodeDefinition(
+                "llm", "LLM", "ai", "", "", "", "", "{}", "{}", "{}", Map.of("temperature", 0.2));
+        PluginIndex index = new PluginIndex(List.of(new PluginIndex.ProviderEntry(
+                "com.example.LlmProvider", "llm", "LLM", "1", "", List.of(withDefaults))));
+
+        NodeDefinition read = PluginIndex.read(new ByteArrayInputStream(bytes(index)))
+                .providers().get(0).nodes().get(0);
+
+        assertEquals(Map.of(), read.defaultConfig());
+        assertEquals(withDefaults.configSchema(), read.configSchema());
+    }
+
+    @Test
+    void writingIsDeterministic() throws IOException {
+        PluginIndex index = new PluginIndex(List.of(new PluginIndex.ProviderEntry(
+                "com.example.SearchProvider", "search", "Search", "1", "", List.of(node("web-search", "{}")))));
+
+        byte[] first = bytes(index);
+        byte[] second = bytes(new PluginIndex(index.providers()));
+
+        assertArrayEquals(first, second);
+        assertFalse(new String(first, StandardCharsets.UTF_8).lines().anyMatch(line -> line.startsWith("#")));
+    }
+
+    @Test
+    void rejectsUnsupportedFormat() {
+        assertThrows(IOException.class, () -> read("format=2\nproviders.count=0\n"));
+        assertThrows(IOException.class, () -> read("providers.count=0\n"));
+    }
+
+    @Test
+    void rejectsMalformedEntries() {
+        assertThrows(IOException.class, () -> read("format=1\nproviders.count=x\n"));
+        assertThrows(IOException.class, () -> read("format=1\nproviders.count=-1\n"));
+        assertThrows(IOException.class, () -> read("format=1\nproviders.count=1\nprovider.0.nodes.count=0\n"));
+        assertThrows(IOException.class, () -> read(
+                "format=1\nproviders.count=1\nprovider.0.class=A\nprovider.0.nodes.count=1\n"));
+    }
+
+    @Test
+    void serviceFileNamesSkipCommentsBlanksAndDuplicates() {
+        String services = """
+                # providers
+                com.example.A
+                  com.example.B  # inline comment
+
+                com.example.A
+                """;
+
+        List<String> names = PluginIndex.serviceClassNames(new BufferedReader(new StringReader(services)));
+
+        assertEquals(List.of("com.example.A", "com.example.B"), names);
+    }
+
+    private static NodeDefinition node(String type, String configSchema) {
+        return new NodeDefinition(type, type.toUpperCase(), "search", "web", "Searches\tthings", "globe",
+                "#112233", configSchema, "", "{\"type\":\"string\"}", null);
+    }
+
+    private static byte[] bytes(PluginIndex index) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        return out.toByteArray();
+    }
+
+    private static PluginIndex read(String content) throws IOException {
+        return PluginIndex.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
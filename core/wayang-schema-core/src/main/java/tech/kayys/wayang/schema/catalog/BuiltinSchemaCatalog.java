@@ -492,7 +492,17 @@ public final class BuiltinSchemaCatalog {
   public static void register(NodeProvider provider) {
     if (provider == null)
       return;
-    for (NodeDefinition node : provider.nodes()) {
+    register(provider.nodes());
+  }
+
+  /**
+   * Registers node schemas without a provider instance, e.g. from a
+   * build-time plugin index.
+   */
+  public static void register(Iterable<NodeDefinition> nodes) {
+    if (nodes == null)
+      return;
+    for (NodeDefinition node : nodes) {
       if (node.configSchema() != null && !node.configSchema().isBlank()) {
         SCHEMAS.put(node.type(), node.configSchema());
       }
@@ -19,6 +19,7 @@ import tech.kayys.wayang.agent.skill.SkillPromptRenderer;
 import tech.kayys.wayang.agent.skill.SkillRegistry;
 import tech.kayys.wayang.error.ErrorCode;
 import tech.kayys.wayang.error.WayangException;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -124,7 +125,9 @@ public class SkillBasedAgentExecutor extends AbstractAgentExecutor {
     protected Uni<NodeExecutionResult> doExecute(NodeExecutionTask task) {
         log.info("SkillBasedAgentExecutor executing task: {}", task.nodeId());
 
-        return Uni.createFrom().item(() -> {
+        // Prompt rendering, inference and the tool loop all block; run them on
+        // the agent executor's virtual threads rather than the caller's thread
+        return BlockingSections.offload("agent-executor", () -> {
             try {
                 Map<String, Object> context = task.context();
 
@@ -17,6 +17,7 @@ import tech.kayys.gollek.spi.stream.StreamChunk;
 import tech.kayys.gollek.spi.tool.ToolDefinition;
 import tech.kayys.gollek.sdk.mcp.McpServerSummary;
 import tech.kayys.gollek.sdk.mcp.McpToolModel;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -27,6 +28,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
 
 /**
  * Shared inference service for all Wayang agents.
@@ -47,6 +50,9 @@ import java.util.Optional;
 public class GollekInferenceService {
     private static final Logger log = LoggerFactory.getLogger(GollekInferenceService.class);
 
+    static final String INFERENCE_SUBSYSTEM = "agent-inference";
+    static final String TOOL_SUBSYSTEM = "agent-tools";
+
     @Inject
     GollekSdk gollekClient;
 
@@ -162,46 +168,14 @@ public class GollekInferenceService {
                         spiToolCalls,
                         null));
 
-                // Execute each tool call and add results
-                for (var toolCall : lastResponse.getToolCalls()) {
-                    Instant toolStart = Instant.now();
-                    String toolCallId = "call_" + System.nanoTime();
-
-                    try {
-                        // Execute tool via ToolRegistry
-                        Map<String, Object> toolResult = toolRegistry
-                                .executeTool(toolCall.name(), toolCall.arguments(), Map.of())
-                                .await().indefinitely();
-
-                        String resultJson = toolResult != null ? toolResult.toString() : "{}";
-
-                        // Add tool result message
-                        messages.add(Message.tool(toolCallId, resultJson));
-
-                        allToolResults.add(new AgentInferenceResponse.ToolExecutionResult(
-                                toolCall.name(),
-                                toolCall.arguments(),
-                                toolResult,
-                                true,
-                                null,
-                                Duration.between(toolStart, Instant.now()).toMillis()));
-
-                        log.debug("Tool '{}' executed successfully", toolCall.name());
-
-                    } catch (Exception e) {
-                        log.warn("Tool '{}' execution failed: {}", toolCall.name(), e.getMessage());
-
-                        String errorMsg = "Tool execution failed: " + e.getMessage();
-                        messages.add(Message.tool(toolCallId, errorMsg));
-
-                        allToolResults.add(new AgentInferenceResponse.ToolExecutionResult(
-                                toolCall.name(),
-                                toolCall.arguments(),
-                                null,
-                                false,
-                                e.getMessage(),
-                                Duration.between(toolStart, Instant.now()).toMillis()));
-                    }
+                // Execute the tool calls, concurrently when there are several, and
+                // add their results in the order the LLM asked for them
+                List<ToolCallOutcome> outcomes = executeToolCalls(lastResponse.getToolCalls().stream()
+                        .map(tc -> new PendingToolCall("call_" + System.nanoTime(), tc.name(), tc.arguments()))
+                        .toList());
+                for (ToolCallOutcome outcome : outcomes) {
+                    messages.add(Message.tool(outcome.toolCallId(), outcome.content()));
+                    allToolResults.add(outcome.result());
                 }
             }
 
@@ -244,7 +218,18 @@ public class GollekInferenceService {
      * @return Uni containing agent inference response
      */
     public Uni<AgentInferenceResponse> inferAsync(AgentInferenceRequest request) {
-        return Uni.createFrom().item(() -> infer(request));
+        return BlockingSections.offload(INFERENCE_SUBSYSTEM, () -> infer(request));
+    }
+
+    /**
+     * Run {@link #inferWithToolLoop(AgentInferenceRequest)} off the caller's
+     * thread, so an event loop can subscribe.
+     *
+     * @param request Agent inference request (with tools and maxToolIterations)
+     * @return Uni containing agent inference response
+     */
+    public Uni<AgentInferenceResponse> inferWithToolLoopAsync(AgentInferenceRequest request) {
+        return BlockingSections.offload(INFERENCE_SUBSYSTEM, () -> inferWithToolLoop(request));
     }
 
     // ==================== Streaming Inference ====================
@@ -417,6 +402,71 @@ public class GollekInferenceService {
 
     // ==================== Internal Helpers ====================
 
+    private record PendingToolCall(String toolCallId, String name, Map<String, Object> arguments) {
+    }
+
+    private record ToolCallOutcome(String toolCallId, String content,
+            AgentInferenceResponse.ToolExecutionResult result) {
+    }
+
+    /**
+     * Execute one ReAct iteration's tool calls. Several calls are forked in
+     * one scope on the tool subsystem's virtual threads; outcomes keep the
+     * requested order.
+     */
+    private List<ToolCallOutcome> executeToolCalls(List<PendingToolCall> toolCalls) {
+        if (toolCalls.size() == 1) {
+            return List.of(executeToolCall(toolCalls.get(0)));
+        }
+        try (BlockingSections.Scope scope = BlockingSections.open(TOOL_SUBSYSTEM)) {
+            List<Supplier<ToolCallOutcome>> forks = new ArrayList<>(toolCalls.size());
+            for (PendingToolCall toolCall : toolCalls) {
+                forks.add(scope.fork(() -> executeToolCall(toolCall)));
+            }
+            scope.join();
+            return forks.stream().map(Supplier::get).toList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while executing tool calls");
+        }
+    }
+
+    /**
+     * Execute one tool call; failures become an error result for the LLM.
+     */
+    private ToolCallOutcome executeToolCall(PendingToolCall toolCall) {
+        Instant toolStart = Instant.now();
+        try {
+            Map<String, Object> toolResult = BlockingSections.await(TOOL_SUBSYSTEM,
+                    toolRegistry.executeTool(toolCall.name(), toolCall.arguments(), Map.of()));
+
+            log.debug("Tool '{}' executed successfully", toolCall.name());
+            return new ToolCallOutcome(
+                    toolCall.toolCallId(),
+                    toolResult != null ? toolResult.toString() : "{}",
+                    new AgentInferenceResponse.ToolExecutionResult(
+                            toolCall.name(),
+                            toolCall.arguments(),
+                            toolResult,
+                            true,
+                            null,
+                            Duration.between(toolStart, Instant.now()).toMillis()));
+
+        } catch (Exception e) {
+            log.warn("Tool '{}' execution failed: {}", toolCall.name(), e.getMessage());
+            return new ToolCallOutcome(
+                    toolCall.toolCallId(),
+                    "Tool execution failed: " + e.getMessage(),
+                    new AgentInferenceResponse.ToolExecutionResult(
+                            toolCall.name(),
+                            toolCall.arguments(),
+                            null,
+                            false,
+                            e.getMessage(),
+                            Duration.between(toolStart, Instant.now()).toMillis()));
+        }
+    }
+
     /**
      * Resolve tools for the inference request.
      * Merges explicit tools from the request with discovered tools from enabled MCP
@@ -466,9 +516,8 @@ public class GollekInferenceService {
 
         if (Boolean.TRUE.equals(request.getUseMemory()) && request.getAgentId() != null) {
             try {
-                String memoryContext = memoryService
-                        .retrieveContext(request.getAgentId(), request.getUserPrompt(), 5)
-                        .await().indefinitely();
+                String memoryContext = BlockingSections.await(INFERENCE_SUBSYSTEM, memoryService
+                        .retrieveContext(request.getAgentId(), request.getUserPrompt(), 5));
                 if (memoryContext != null && !memoryContext.isBlank()) {
                     systemPrompt = (systemPrompt != null ? systemPrompt : "")
                             + "\n\nRelevant Context:\n" + memoryContext;
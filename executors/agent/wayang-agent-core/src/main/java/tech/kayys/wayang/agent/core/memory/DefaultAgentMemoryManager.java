@@ -11,6 +11,7 @@ import tech.kayys.wayang.embedding.EmbeddingResponse;
 import tech.kayys.wayang.embedding.EmbeddingService;
 import tech.kayys.wayang.memory.model.Memory;
 import tech.kayys.wayang.memory.service.VectorMemoryStore;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -80,7 +81,7 @@ public class DefaultAgentMemoryManager implements AgentMemoryManager {
                     DEFAULT_MEMORY_EMBEDDING_MODEL,
                     null,
                     true);
-            return embeddingService.embed(request).map(EmbeddingResponse::first).await().indefinitely();
+            return BlockingSections.await("embedding", embeddingService.embed(request).map(EmbeddingResponse::first));
         } catch (EmbeddingException ex) {
             log.warn("Embedding generation failed, using zero vector fallback: {}", ex.getMessage());
             return new float[512];
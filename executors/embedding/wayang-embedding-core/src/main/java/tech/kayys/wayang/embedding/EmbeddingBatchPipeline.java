@@ -4,29 +4,41 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 
 /**
- * Async embedding pipeline with bounded queue, batching, and retry.
+ * Async embedding pipeline with per-tenant fair queueing, admission control,
+ * batching, and retry.
+ *
+ * <p>
+ * Jobs are split into provider batches of {@code batchSize} inputs and
+ * scheduled by {@link FairEmbeddingScheduler}: interactive jobs go ahead of
+ * bulk jobs, and tenants share workers in proportion to the weights held by
+ * {@link TenantEmbeddingStrategyRegistry}. Submission fails fast when the
+ * queue, the tenant's share of it, or (for bulk jobs) the bulk share is full.
  */
 public class EmbeddingBatchPipeline implements AutoCloseable {
 
+    static final double DEFAULT_BULK_ADMISSION_RATIO = 0.75d;
+
     private final EmbeddingService embeddingService;
     private final int batchSize;
     private final int maxRetries;
-    private final BlockingQueue<Job> queue;
+    private final FairEmbeddingScheduler<Job> scheduler;
     private final List<Thread> workers;
     private final AtomicBoolean running = new AtomicBoolean(true);
 
     public EmbeddingBatchPipeline(EmbeddingService embeddingService, EmbeddingModuleConfig config) {
-        this(embeddingService, config.getBatchSize(), config.getBatchQueueCapacity(), config.getBatchMaxRetries(),
-                config.getBatchWorkerThreads());
+        this(embeddingService, config.getBatchSize(), config.getBatchQueueCapacity(),
+                config.getBatchTenantQueueCapacity(), config.getBatchBulkAdmissionRatio(),
+                config.getBatchMaxRetries(), config.getBatchWorkerThreads(), config.tenantStrategies());
     }
 
     public EmbeddingBatchPipeline(
@@ -35,13 +47,39 @@ public class EmbeddingBatchPipeline implements AutoCloseable {
             int queueCapacity,
             int maxRetries,
             int workerThreads) {
+        this(embeddingService, batchSize, queueCapacity, 0, DEFAULT_BULK_ADMISSION_RATIO, maxRetries,
+                workerThreads, new TenantEmbeddingStrategyRegistry());
+    }
+
+    /**
+     * @param tenantQueueCapacity jobs one tenant may have queued; {@code 0}
+     *                            means the whole queue
+     * @param bulkAdmissionRatio  share of the queue bulk jobs may fill
+     * @param tenantWeights       source of per-tenant scheduling weights
+     */
+    public EmbeddingBatchPipeline(
+            EmbeddingService embeddingService,
+            int batchSize,
+            int queueCapacity,
+            int tenantQueueCapacity,
+            double bulkAdmissionRatio,
+            int maxRetries,
+            int workerThreads,
+            TenantEmbeddingStrategyRegistry tenantWeights) {
         this.embeddingService = Objects.requireNonNull(embeddingService, "embeddingService must not be null");
+        Objects.requireNonNull(tenantWeights, "tenantWeights must not be null");
         if (batchSize <= 0) {
             throw new IllegalArgumentException("batchSize must be > 0");
         }
         if (queueCapacity <= 0) {
             throw new IllegalArgumentException("queueCapacity must be > 0");
         }
+        if (tenantQueueCapacity < 0) {
+            throw new IllegalArgumentException("tenantQueueCapacity must be >= 0");
+        }
+        if (!(bulkAdmissionRatio > 0d && bulkAdmissionRatio <= 1d)) {
+            throw new IllegalArgumentException("bulkAdmissionRatio must be in (0, 1]");
+        }
         if (maxRetries < 0) {
             throw new IllegalArgumentException("maxRetries must be >= 0");
         }
@@ -50,30 +88,65 @@ public class EmbeddingBatchPipeline implements AutoCloseable {
         }
         this.batchSize = batchSize;
         this.maxRetries = maxRetries;
-        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.scheduler = new FairEmbeddingScheduler<>(
+                queueCapacity,
+                tenantQueueCapacity == 0 ? queueCapacity : tenantQueueCapacity,
+                bulkAdmissionRatio,
+                batchSize,
+                tenantWeights::weight);
         this.workers = new ArrayList<>(workerThreads);
         for (int i = 0; i < workerThreads; i++) {
-            Thread worker = new Thread(this::runWorker, "embedding-batch-worker-" + i);
-            worker.setDaemon(true);
+            // Virtual unless the runtime opts out; the worker count is the
+            // provider concurrency limit, not a thread budget
+            Thread worker = BlockingSections.newThread("embedding-batch-worker-" + i, this::runWorker);
             worker.start();
             workers.add(worker);
         }
     }
 
     public CompletableFuture<EmbeddingResponse> submit(String tenantId, EmbeddingRequest request) {
-        if (!running.get()) {
-            throw new EmbeddingException("Embedding batch pipeline is closed");
+        return submit(tenantId, request, EmbeddingPriority.INTERACTIVE);
+    }
+
+    public CompletableFuture<EmbeddingResponse> submit(
+            String tenantId, EmbeddingRequest request, EmbeddingPriority priority) {
+        Job job = newJob(tenantId, request, priority);
+        String rejection = scheduler.offer(job);
+        if (rejection != null) {
+            throw new EmbeddingException(rejection);
         }
-        Job job = new Job(tenantId, request, new CompletableFuture<>());
-        if (!queue.offer(job)) {
-            throw new EmbeddingException("Embedding batch queue is full");
+        return job.future;
+    }
+
+    /**
+     * Like {@link #submit(String, EmbeddingRequest, EmbeddingPriority)} but
+     * defers the caller for up to {@code maxWait} while the queue is above its
+     * admission limits, instead of rejecting straight away.
+     */
+    public CompletableFuture<EmbeddingResponse> submitWhenAdmitted(
+            String tenantId, EmbeddingRequest request, EmbeddingPriority priority, Duration maxWait) {
+        Job job = newJob(tenantId, request, priority);
+        String rejection;
+        try {
+            rejection = scheduler.offer(job, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EmbeddingException("Interrupted while waiting for embedding batch admission", e);
+        }
+        if (rejection != null) {
+            throw new EmbeddingException(rejection);
         }
-        return job.future();
+        return job.future;
     }
 
     public EmbeddingResponse submitAndWait(String tenantId, EmbeddingRequest request, Duration timeout) {
+        return submitAndWait(tenantId, request, EmbeddingPriority.INTERACTIVE, timeout);
+    }
+
+    public EmbeddingResponse submitAndWait(
+            String tenantId, EmbeddingRequest request, EmbeddingPriority priority, Duration timeout) {
         try {
-            return submit(tenantId, request).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return submit(tenantId, request, priority).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new EmbeddingException("Interrupted while waiting for embedding batch result", e);
@@ -88,25 +161,56 @@ public class EmbeddingBatchPipeline implements AutoCloseable {
         }
     }
 
+    /**
+     * Jobs admitted but not yet fully dispatched to a worker.
+     */
+    public int queueDepth() {
+        return scheduler.depth();
+    }
+
+    public int queueDepth(String tenantId) {
+        return scheduler.depth(tenantId);
+    }
+
+    public int queueDepth(EmbeddingPriority priority) {
+        return scheduler.depth(priority);
+    }
+
     @Override
     public void close() {
         running.set(false);
+        for (Job job : scheduler.close()) {
+            job.future.completeExceptionally(new EmbeddingException("Embedding batch pipeline is closed"));
+        }
         for (Thread worker : workers) {
             worker.interrupt();
         }
     }
 
+    private Job newJob(String tenantId, EmbeddingRequest request, EmbeddingPriority priority) {
+        if (!running.get()) {
+            throw new EmbeddingException("Embedding batch pipeline is closed");
+        }
+        Objects.requireNonNull(request, "request must not be null");
+        return new Job(tenantId, request, priority == null ? EmbeddingPriority.INTERACTIVE : priority, batchSize);
+    }
+
     private void runWorker() {
         while (running.get()) {
             try {
-                Job job = queue.poll(200, TimeUnit.MILLISECONDS);
-                if (job == null) {
+                FairEmbeddingScheduler.Dispatch<Job> dispatch = scheduler.poll(200, TimeUnit.MILLISECONDS);
+                if (dispatch == null) {
+                    continue;
+                }
+                Job job = dispatch.job();
+                if (job.future.isDone()) {
+                    // An earlier slice already failed the job
                     continue;
                 }
                 try {
-                    job.future().complete(process(job.tenantId(), job.request()));
+                    job.complete(dispatch.slice(), retry(job.tenantId, job.slice(dispatch.slice())));
                 } catch (Throwable e) {
-                    job.future().completeExceptionally(e);
+                    job.future.completeExceptionally(e);
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -117,47 +221,11 @@ public class EmbeddingBatchPipeline implements AutoCloseable {
         }
     }
 
-    private EmbeddingResponse process(String tenantId, EmbeddingRequest request) {
-        List<float[]> vectors = new ArrayList<>(request.inputs().size());
-        String provider = null;
-        String model = null;
-        String version = null;
-        int dimension = -1;
-
-        for (int start = 0; start < request.inputs().size(); start += batchSize) {
-            int end = Math.min(start + batchSize, request.inputs().size());
-            EmbeddingRequest slice = new EmbeddingRequest(
-                    request.inputs().subList(start, end),
-                    request.model(),
-                    request.provider(),
-                    request.normalize());
-
-            // Blocking call for the worker thread
-            EmbeddingResponse response = retry(tenantId, slice);
-            if (provider == null) {
-                provider = response.provider();
-                model = response.model();
-                version = response.version();
-                dimension = response.dimension();
-            } else if (response.dimension() != dimension) {
-                throw new EmbeddingException(
-                        "Batch embedding dimension mismatch: expected " + dimension + " but got "
-                                + response.dimension());
-            }
-            vectors.addAll(response.embeddings());
-        }
-
-        if (provider == null) {
-            throw new EmbeddingException("No embeddings generated");
-        }
-        return new EmbeddingResponse(vectors, dimension, provider, model, version);
-    }
-
     private EmbeddingResponse retry(String tenantId, EmbeddingRequest request) {
         RuntimeException last = null;
         for (int attempt = 0; attempt <= maxRetries; attempt++) {
             try {
-                return embeddingService.embedForTenant(tenantId, request).await().indefinitely();
+                return BlockingSections.await("embedding", embeddingService.embedForTenant(tenantId, request));
             } catch (RuntimeException ex) {
                 last = ex;
                 if (attempt == maxRetries) {
@@ -178,6 +246,82 @@ public class EmbeddingBatchPipeline implements AutoCloseable {
         }
     }
 
-    private record Job(String tenantId, EmbeddingRequest request, CompletableFuture<EmbeddingResponse> future) {
+    /**
+     * One submitted request; its slices may run on different workers and are
+     * reassembled in input order once the last one completes.
+     */
+    private static final class Job implements FairEmbeddingScheduler.Schedulable {
+        private final String tenantId;
+        private final EmbeddingRequest request;
+        private final EmbeddingPriority priority;
+        private final int batchSize;
+        private final int sliceCount;
+        private final EmbeddingResponse[] responses;
+        private final AtomicInteger pending;
+        private final CompletableFuture<EmbeddingResponse> future = new CompletableFuture<>();
+
+        Job(String tenantId, EmbeddingRequest request, EmbeddingPriority priority, int batchSize) {
+            this.tenantId = tenantId;
+            this.request = request;
+            this.priority = priority;
+            this.batchSize = batchSize;
+            this.sliceCount = (request.inputs().size() + batchSize - 1) / batchSize;
+            this.responses = new EmbeddingResponse[sliceCount];
+            this.pending = new AtomicInteger(sliceCount);
+        }
+
+        @Override
+        public String tenant() {
+            return tenantId;
+        }
+
+        @Override
+        public EmbeddingPriority priority() {
+            return priority;
+        }
+
+        @Override
+        public int sliceCount() {
+            return sliceCount;
+        }
+
+        @Override
+        public int sliceCost(int slice) {
+            int start = slice * batchSize;
+            return Math.min(batchSize, request.inputs().size() - start);
+        }
+
+        EmbeddingRequest slice(int slice) {
+            int start = slice * batchSize;
+            int end = Math.min(start + batchSize, request.inputs().size());
+            return new EmbeddingRequest(
+                    request.inputs().subList(start, end),
+                    request.model(),
+                    request.provider(),
+                    request.normalize());
+        }
+
+        void complete(int slice, EmbeddingResponse response) {
+            responses[slice] = response;
+            // The decrement publishes the slot write to whichever worker finishes last
+            if (pending.decrementAndGet() == 0) {
+                future.complete(assemble());
+            }
+        }
+
+        private EmbeddingResponse assemble() {
+            List<float[]> vectors = new ArrayList<>(request.inputs().size());
+            EmbeddingResponse first = responses[0];
+            for (EmbeddingResponse response : responses) {
+                if (response.dimension() != first.dimension()) {
+                    throw new EmbeddingException(
+                            "Batch embedding dimension mismatch: expected " + first.dimension() + " but got "
+                                    + response.dimension());
+                }
+                vectors.addAll(response.embeddings());
+            }
+            return new EmbeddingResponse(vectors, first.dimension(), first.provider(), first.model(),
+                    first.version());
+        }
     }
 }
@@ -40,15 +40,24 @@ public class EmbeddingConfigRuntime {
         String normalize = read(config, "wayang.embedding.normalize", "true");
         String cacheEnabled = read(config, "wayang.embedding.cache.enabled", "true");
         String cacheMaxEntries = read(config, "wayang.embedding.cache.max-entries", "10000");
+        String cacheOffHeapBytes = read(config, "wayang.embedding.cache.offheap-bytes", "0");
+        String cacheDiskPath = read(config, "wayang.embedding.cache.disk-path", "");
+        String cacheDiskBytes = read(config, "wayang.embedding.cache.disk-bytes", "268435456");
+        String cachePrecision = read(config, "wayang.embedding.cache.precision", "float32");
         String batchSize = read(config, "wayang.embedding.batch.size", "32");
         String batchQueueCapacity = read(config, "wayang.embedding.batch.queue-capacity", "256");
         String batchMaxRetries = read(config, "wayang.embedding.batch.max-retries", "2");
         String batchWorkerThreads = read(config, "wayang.embedding.batch.worker-threads", "2");
+        String batchTenantQueueCapacity = read(config, "wayang.embedding.batch.tenant-queue-capacity", "0");
+        String batchBulkAdmissionRatio = read(config, "wayang.embedding.batch.bulk-admission-ratio", "0.75");
         String tenantStrategies = read(config, "wayang.embedding.tenant-strategies", "");
+        String tenantWeights = read(config, "wayang.embedding.tenant-weights", "");
 
         String nextFingerprint = defaultProvider + "|" + defaultModel + "|" + version + "|" + normalize + "|"
-                + cacheEnabled + "|" + cacheMaxEntries + "|" + batchSize + "|" + batchQueueCapacity + "|"
-                + batchMaxRetries + "|" + batchWorkerThreads + "|" + tenantStrategies;
+                + cacheEnabled + "|" + cacheMaxEntries + "|" + cacheOffHeapBytes + "|" + cacheDiskPath + "|"
+                + cacheDiskBytes + "|" + cachePrecision + "|" + batchSize + "|" + batchQueueCapacity + "|"
+                + batchMaxRetries + "|" + batchWorkerThreads + "|" + batchTenantQueueCapacity + "|"
+                + batchBulkAdmissionRatio + "|" + tenantStrategies + "|" + tenantWeights;
         if (nextFingerprint.equals(fingerprint)) {
             return;
         }
@@ -60,11 +69,18 @@ public class EmbeddingConfigRuntime {
         next.setNormalize(Boolean.parseBoolean(normalize));
         next.setCacheEnabled(Boolean.parseBoolean(cacheEnabled));
         next.setCacheMaxEntries(parseInt(cacheMaxEntries, 10000));
+        next.setCacheOffHeapBytes(parseLong(cacheOffHeapBytes, 0L));
+        next.setCacheDiskPath(cacheDiskPath.isBlank() ? null : cacheDiskPath);
+        next.setCacheDiskBytes(parseLong(cacheDiskBytes, 256L * 1024 * 1024));
+        next.setCachePrecision(cachePrecision);
         next.setBatchSize(parseInt(batchSize, 32));
         next.setBatchQueueCapacity(parseInt(batchQueueCapacity, 256));
         next.setBatchMaxRetries(parseInt(batchMaxRetries, 2));
         next.setBatchWorkerThreads(parseInt(batchWorkerThreads, 2));
+        next.setBatchTenantQueueCapacity(parseInt(batchTenantQueueCapacity, 0));
+        next.setBatchBulkAdmissionRatio(parseDouble(batchBulkAdmissionRatio, 0.75d));
         next.loadTenantStrategies(tenantStrategies);
+        next.loadTenantWeights(tenantWeights);
 
         current = next;
         fingerprint = nextFingerprint;
@@ -83,4 +99,20 @@ public class EmbeddingConfigRuntime {
             return fallback;
         }
     }
+
+    private static long parseLong(String value, long fallback) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+            return fallback;
+        }
+    }
+
+    private static double parseDouble(String value, double fallback) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignored) {
+            return fallback;
+        }
+    }
 }
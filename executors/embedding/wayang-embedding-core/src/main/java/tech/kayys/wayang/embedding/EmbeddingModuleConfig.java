@@ -8,10 +8,16 @@ public class EmbeddingModuleConfig {
     private boolean normalize = true;
     private boolean cacheEnabled = true;
     private int cacheMaxEntries = 10000;
+    private long cacheOffHeapBytes;
+    private String cacheDiskPath;
+    private long cacheDiskBytes = 256L * 1024 * 1024;
+    private String cachePrecision = "float32";
     private int batchSize = 32;
     private int batchQueueCapacity = 256;
     private int batchMaxRetries = 2;
     private int batchWorkerThreads = 2;
+    private int batchTenantQueueCapacity;
+    private double batchBulkAdmissionRatio = 0.75d;
     private final TenantEmbeddingStrategyRegistry tenantStrategies = new TenantEmbeddingStrategyRegistry();
 
     public EmbeddingModuleConfig() {
@@ -66,6 +72,38 @@ public class EmbeddingModuleConfig {
         this.cacheMaxEntries = cacheMaxEntries;
     }
 
+    public long getCacheOffHeapBytes() {
+        return cacheOffHeapBytes;
+    }
+
+    public void setCacheOffHeapBytes(long cacheOffHeapBytes) {
+        this.cacheOffHeapBytes = cacheOffHeapBytes;
+    }
+
+    public String getCacheDiskPath() {
+        return cacheDiskPath;
+    }
+
+    public void setCacheDiskPath(String cacheDiskPath) {
+        this.cacheDiskPath = cacheDiskPath;
+    }
+
+    public long getCacheDiskBytes() {
+        return cacheDiskBytes;
+    }
+
+    public void setCacheDiskBytes(long cacheDiskBytes) {
+        this.cacheDiskBytes = cacheDiskBytes;
+    }
+
+    public String getCachePrecision() {
+        return cachePrecision;
+    }
+
+    public void setCachePrecision(String cachePrecision) {
+        this.cachePrecision = cachePrecision;
+    }
+
     public int getBatchSize() {
         return batchSize;
     }
@@ -98,6 +136,29 @@ public class EmbeddingModuleConfig {
         this.batchWorkerThreads = batchWorkerThreads;
     }
 
+    /**
+     * Jobs a single tenant may have queued; {@code 0} means the whole queue.
+     */
+    public int getBatchTenantQueueCapacity() {
+        return batchTenantQueueCapacity;
+    }
+
+    public void setBatchTenantQueueCapacity(int batchTenantQueueCapacity) {
+        this.batchTenantQueueCapacity = batchTenantQueueCapacity;
+    }
+
+    /**
+     * Share of the queue that bulk jobs may fill; the rest is kept for
+     * interactive requests.
+     */
+    public double getBatchBulkAdmissionRatio() {
+        return batchBulkAdmissionRatio;
+    }
+
+    public void setBatchBulkAdmissionRatio(double batchBulkAdmissionRatio) {
+        this.batchBulkAdmissionRatio = batchBulkAdmissionRatio;
+    }
+
     public TenantEmbeddingStrategyRegistry tenantStrategies() {
         return tenantStrategies;
     }
@@ -140,6 +201,33 @@ public class EmbeddingModuleConfig {
         }
     }
 
+    /**
+     * Load scheduler weights from {@code tenant=weight;tenant=weight}.
+     */
+    public void loadTenantWeights(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return;
+        }
+
+        for (String entry : spec.split(";")) {
+            String item = entry == null ? "" : entry.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            int separator = item.indexOf('=');
+            if (separator < 1 || separator == item.length() - 1) {
+                throw new IllegalArgumentException("Invalid tenant weight format: " + item);
+            }
+            int weight;
+            try {
+                weight = Integer.parseInt(item.substring(separator + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid tenant weight entry: " + item, e);
+            }
+            tenantStrategies.registerWeight(item.substring(0, separator).trim(), weight);
+        }
+    }
+
     private void applyExternalOverrides() {
         String provider = read("wayang.embedding.default-provider", "WAYANG_EMBEDDING_DEFAULT_PROVIDER");
         if (provider != null && !provider.isBlank()) {
@@ -171,6 +259,27 @@ public class EmbeddingModuleConfig {
             cacheMaxEntries = parseInt(cacheMaxEntriesValue.trim(), cacheMaxEntries);
         }
 
+        String cacheOffHeapBytesValue = read("wayang.embedding.cache.offheap-bytes",
+                "WAYANG_EMBEDDING_CACHE_OFFHEAP_BYTES");
+        if (cacheOffHeapBytesValue != null && !cacheOffHeapBytesValue.isBlank()) {
+            cacheOffHeapBytes = parseLong(cacheOffHeapBytesValue.trim(), cacheOffHeapBytes);
+        }
+
+        String cacheDiskPathValue = read("wayang.embedding.cache.disk-path", "WAYANG_EMBEDDING_CACHE_DISK_PATH");
+        if (cacheDiskPathValue != null && !cacheDiskPathValue.isBlank()) {
+            cacheDiskPath = cacheDiskPathValue.trim();
+        }
+
+        String cacheDiskBytesValue = read("wayang.embedding.cache.disk-bytes", "WAYANG_EMBEDDING_CACHE_DISK_BYTES");
+        if (cacheDiskBytesValue != null && !cacheDiskBytesValue.isBlank()) {
+            cacheDiskBytes = parseLong(cacheDiskBytesValue.trim(), cacheDiskBytes);
+        }
+
+        String cachePrecisionValue = read("wayang.embedding.cache.precision", "WAYANG_EMBEDDING_CACHE_PRECISION");
+        if (cachePrecisionValue != null && !cachePrecisionValue.isBlank()) {
+            cachePrecision = cachePrecisionValue.trim();
+        }
+
         String batchSizeValue = read("wayang.embedding.batch.size", "WAYANG_EMBEDDING_BATCH_SIZE");
         if (batchSizeValue != null && !batchSizeValue.isBlank()) {
             batchSize = parseInt(batchSizeValue.trim(), batchSize);
@@ -193,9 +302,24 @@ public class EmbeddingModuleConfig {
             batchWorkerThreads = parseInt(batchWorkerThreadsValue.trim(), batchWorkerThreads);
         }
 
+        String batchTenantQueueCapacityValue = read("wayang.embedding.batch.tenant-queue-capacity",
+                "WAYANG_EMBEDDING_BATCH_TENANT_QUEUE_CAPACITY");
+        if (batchTenantQueueCapacityValue != null && !batchTenantQueueCapacityValue.isBlank()) {
+            batchTenantQueueCapacity = parseInt(batchTenantQueueCapacityValue.trim(), batchTenantQueueCapacity);
+        }
+
+        String batchBulkAdmissionRatioValue = read("wayang.embedding.batch.bulk-admission-ratio",
+                "WAYANG_EMBEDDING_BATCH_BULK_ADMISSION_RATIO");
+        if (batchBulkAdmissionRatioValue != null && !batchBulkAdmissionRatioValue.isBlank()) {
+            batchBulkAdmissionRatio = parseDouble(batchBulkAdmissionRatioValue.trim(), batchBulkAdmissionRatio);
+        }
+
         String strategySpec = read("wayang.embedding.tenant-strategies", "WAYANG_EMBEDDING_TENANT_STRATEGIES");
         loadTenantStrategies(strategySpec);
 
+        String weightSpec = read("wayang.embedding.tenant-weights", "WAYANG_EMBEDDING_TENANT_WEIGHTS");
+        loadTenantWeights(weightSpec);
+
         enforceBounds();
     }
 
@@ -225,6 +349,15 @@ public class EmbeddingModuleConfig {
         if (cacheMaxEntries <= 0) {
             cacheMaxEntries = 10000;
         }
+        if (cacheOffHeapBytes < 0) {
+            cacheOffHeapBytes = 0;
+        }
+        if (cacheDiskBytes <= 0) {
+            cacheDiskBytes = 256L * 1024 * 1024;
+        }
+        if (cachePrecision == null || cachePrecision.isBlank()) {
+            cachePrecision = "float32";
+        }
         if (batchSize <= 0) {
             batchSize = 32;
         }
@@ -237,6 +370,12 @@ public class EmbeddingModuleConfig {
         if (batchWorkerThreads <= 0) {
             batchWorkerThreads = 2;
         }
+        if (batchTenantQueueCapacity < 0) {
+            batchTenantQueueCapacity = 0;
+        }
+        if (!(batchBulkAdmissionRatio > 0d && batchBulkAdmissionRatio <= 1d)) {
+            batchBulkAdmissionRatio = 0.75d;
+        }
         if (embeddingVersion == null || embeddingVersion.isBlank()) {
             embeddingVersion = "v1";
         }
@@ -249,4 +388,20 @@ public class EmbeddingModuleConfig {
             return fallback;
         }
     }
+
+    private static long parseLong(String value, long fallback) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignored) {
+            return fallback;
+        }
+    }
+
+    private static double parseDouble(String value, double fallback) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignored) {
+            return fallback;
+        }
+    }
 }
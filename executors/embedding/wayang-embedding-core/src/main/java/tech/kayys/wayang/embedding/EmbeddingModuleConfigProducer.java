@@ -38,6 +38,20 @@ public class EmbeddingModuleConfigProducer {
         mpConfig.getOptionalValue("wayang.embedding.cache.max-entries", Integer.class)
                 .ifPresent(config::setCacheMaxEntries);
 
+        mpConfig.getOptionalValue("wayang.embedding.cache.offheap-bytes", Long.class)
+                .ifPresent(config::setCacheOffHeapBytes);
+
+        mpConfig.getOptionalValue("wayang.embedding.cache.disk-path", String.class)
+                .filter(value -> !value.isBlank())
+                .ifPresent(config::setCacheDiskPath);
+
+        mpConfig.getOptionalValue("wayang.embedding.cache.disk-bytes", Long.class)
+                .ifPresent(config::setCacheDiskBytes);
+
+        mpConfig.getOptionalValue("wayang.embedding.cache.precision", String.class)
+                .filter(value -> !value.isBlank())
+                .ifPresent(config::setCachePrecision);
+
         mpConfig.getOptionalValue("wayang.embedding.batch.size", Integer.class)
                 .ifPresent(config::setBatchSize);
 
@@ -50,10 +64,20 @@ public class EmbeddingModuleConfigProducer {
         mpConfig.getOptionalValue("wayang.embedding.batch.worker-threads", Integer.class)
                 .ifPresent(config::setBatchWorkerThreads);
 
+        mpConfig.getOptionalValue("wayang.embedding.batch.tenant-queue-capacity", Integer.class)
+                .ifPresent(config::setBatchTenantQueueCapacity);
+
+        mpConfig.getOptionalValue("wayang.embedding.batch.bulk-admission-ratio", Double.class)
+                .ifPresent(config::setBatchBulkAdmissionRatio);
+
         mpConfig.getOptionalValue("wayang.embedding.tenant-strategies", String.class)
                 .filter(value -> !value.isBlank())
                 .ifPresent(config::loadTenantStrategies);
 
+        mpConfig.getOptionalValue("wayang.embedding.tenant-weights", String.class)
+                .filter(value -> !value.isBlank())
+                .ifPresent(config::loadTenantWeights);
+
         return config;
     }
 }
@@ -0,0 +1,19 @@
+package tech.kayys.wayang.embedding;
+
+/**
+ * Scheduling class for work submitted to {@link EmbeddingBatchPipeline}.
+ */
+public enum EmbeddingPriority {
+
+    /**
+     * Latency-sensitive requests such as query embedding; always served first.
+     */
+    INTERACTIVE,
+
+    /**
+     * Throughput work such as re-indexing; runs on capacity left over by
+     * interactive requests and is admitted only below the bulk share of the
+     * queue.
+     */
+    BULK
+}
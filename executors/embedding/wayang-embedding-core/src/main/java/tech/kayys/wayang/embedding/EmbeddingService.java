@@ -1,6 +1,7 @@
 package tech.kayys.wayang.embedding;
 
 import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -37,14 +38,14 @@ public class EmbeddingService {
         this.registry = new EmbeddingProviderRegistry(providerList);
         this.runtimeConfig = runtimeConfig;
         this.config = null;
-        this.vectorCache = new EmbeddingVectorCache(runtimeConfig.current().getCacheMaxEntries());
+        this.vectorCache = EmbeddingVectorCache.create(runtimeConfig.current());
     }
 
     public EmbeddingService(EmbeddingProviderRegistry registry, EmbeddingModuleConfig config) {
         this.registry = registry;
         this.runtimeConfig = null;
         this.config = config == null ? new EmbeddingModuleConfig() : config;
-        this.vectorCache = new EmbeddingVectorCache(this.config.getCacheMaxEntries());
+        this.vectorCache = EmbeddingVectorCache.create(this.config);
     }
 
     public Uni<EmbeddingResponse> embed(EmbeddingRequest request) {
@@ -91,6 +92,11 @@ public class EmbeddingService {
         }
     }
 
+    @PreDestroy
+    void close() {
+        vectorCache.close();
+    }
+
     private Uni<List<float[]>> embedWithCacheAndDedup(
             String tenantId,
             List<String> inputs,
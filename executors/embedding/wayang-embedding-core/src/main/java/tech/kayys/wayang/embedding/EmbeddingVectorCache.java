@@ -1,41 +1,115 @@
 package tech.kayys.wayang.embedding;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-final class EmbeddingVectorCache {
+import java.io.IOException;
+import java.nio.file.Path;
 
-    private final int maxEntries;
-    private final Map<String, float[]> lru;
+/**
+ * Tiered embedding cache keyed by {@code tenant|provider|model|normalize|sha256}.
+ *
+ * <ul>
+ * <li>L1: concurrent on-heap W-TinyLFU cache ({@link TinyLfuVectorCache}).</li>
+ * <li>L2: optional off-heap ring of packed vectors, outside the GC heap.</li>
+ * <li>L3: optional memory-mapped file that survives restarts.</li>
+ * </ul>
+ *
+ * Writes go through to every enabled tier; a hit in a lower tier is promoted
+ * into the tiers above it.
+ */
+final class EmbeddingVectorCache implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddingVectorCache.class);
+
+    private final TinyLfuVectorCache l1;
+    private final VectorSegmentStore l2;
+    private final VectorSegmentStore l3;
 
     EmbeddingVectorCache(int maxEntries) {
-        if (maxEntries <= 0) {
-            throw new IllegalArgumentException("maxEntries must be > 0");
-        }
-        this.maxEntries = maxEntries;
-        this.lru = new LinkedHashMap<>(maxEntries, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
-                return size() > EmbeddingVectorCache.this.maxEntries;
+        this(maxEntries, null, null);
+    }
+
+    EmbeddingVectorCache(int maxEntries, VectorSegmentStore offHeap, VectorSegmentStore disk) {
+        this.l1 = new TinyLfuVectorCache(maxEntries);
+        this.l2 = offHeap;
+        this.l3 = disk;
+    }
+
+    static EmbeddingVectorCache create(EmbeddingModuleConfig config) {
+        VectorSegmentStore.Precision precision = VectorSegmentStore.Precision.parse(config.getCachePrecision());
+
+        VectorSegmentStore offHeap = null;
+        if (config.getCacheOffHeapBytes() > 0) {
+            offHeap = VectorSegmentStore.offHeap(config.getCacheOffHeapBytes(), precision);
+        }
+
+        VectorSegmentStore disk = null;
+        String diskPath = config.getCacheDiskPath();
+        if (diskPath != null && !diskPath.isBlank()) {
+            try {
+                disk = VectorSegmentStore.mapped(Path.of(diskPath.trim()), config.getCacheDiskBytes(), precision);
+                LOG.info("Embedding disk cache opened at {} with {} entries", diskPath, disk.size());
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Embedding disk cache disabled, failed to open {}: {}", diskPath, e.getMessage());
             }
-        };
+        }
+        return new EmbeddingVectorCache(config.getCacheMaxEntries(), offHeap, disk);
     }
 
     float[] get(String key) {
-        synchronized (lru) {
-            return lru.get(key);
+        float[] vector = l1.get(key);
+        if (vector != null) {
+            return vector;
         }
+        if (l2 != null) {
+            vector = l2.get(key);
+            if (vector != null) {
+                l1.put(key, vector);
+                return vector;
+            }
+        }
+        if (l3 != null) {
+            vector = l3.get(key);
+            if (vector != null) {
+                l1.put(key, vector);
+                if (l2 != null) {
+                    l2.put(key, vector);
+                }
+                return vector;
+            }
+        }
+        return null;
     }
 
     void put(String key, float[] value) {
-        synchronized (lru) {
-            lru.put(key, value);
+        l1.put(key, value);
+        if (l2 != null) {
+            l2.put(key, value);
+        }
+        if (l3 != null) {
+            l3.put(key, value);
         }
     }
 
     void clear() {
-        synchronized (lru) {
-            lru.clear();
+        l1.clear();
+        if (l2 != null) {
+            l2.clear();
+        }
+        if (l3 != null) {
+            l3.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (l3 != null) {
+                l3.close();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to close embedding disk cache: {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,279 @@
+package tech.kayys.wayang.embedding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-tenant weighted fair queue for embedding jobs.
+ *
+ * <p>
+ * Jobs are queued per priority class and per tenant. Interactive work is
+ * always dispatched before bulk work; within a class tenants are served by
+ * deficit round robin, where each turn grants {@code quantum * weight} input
+ * credits. Jobs are dispatched slice by slice (one provider batch at a time),
+ * so a tenant's large job cannot hold every worker while other tenants wait.
+ *
+ * <p>
+ * Admission is decided up front from queue depth: the global capacity, a
+ * per-tenant capacity and a lower bulk limit that keeps headroom for
+ * interactive requests.
+ */
+final class FairEmbeddingScheduler<J extends FairEmbeddingScheduler.Schedulable> {
+
+    interface Schedulable {
+        String tenant();
+
+        EmbeddingPriority priority();
+
+        int sliceCount();
+
+        /**
+         * Inputs in the given slice, used as its scheduling cost.
+         */
+        int sliceCost(int slice);
+    }
+
+    record Dispatch<J>(J job, int slice) {
+    }
+
+    private static final class TenantQueue<J> {
+        final String tenant;
+        final ArrayDeque<J> jobs = new ArrayDeque<>();
+        int nextSlice;
+        long deficit;
+        boolean turnStarted;
+
+        TenantQueue(String tenant) {
+            this.tenant = tenant;
+        }
+    }
+
+    private static final class ClassQueue<J> {
+        final Map<String, TenantQueue<J>> tenants = new HashMap<>();
+        final ArrayDeque<TenantQueue<J>> active = new ArrayDeque<>();
+        int depth;
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Map<EmbeddingPriority, ClassQueue<J>> classes = new EnumMap<>(EmbeddingPriority.class);
+    private final Map<String, Integer> tenantDepth = new HashMap<>();
+    private final int capacity;
+    private final int bulkLimit;
+    private final int tenantCapacity;
+    private final int quantum;
+    private final ToIntFunction<String> weights;
+    private int depth;
+    private boolean closed;
+
+    FairEmbeddingScheduler(int capacity, int tenantCapacity, double bulkAdmissionRatio, int quantum,
+            ToIntFunction<String> weights) {
+        this.capacity = capacity;
+        this.tenantCapacity = Math.min(capacity, tenantCapacity);
+        this.bulkLimit = Math.max(1, (int) Math.floor(capacity * bulkAdmissionRatio));
+        this.quantum = Math.max(1, quantum);
+        this.weights = weights;
+        for (EmbeddingPriority priority : EmbeddingPriority.values()) {
+            classes.put(priority, new ClassQueue<>());
+        }
+    }
+
+    /**
+     * Enqueue without waiting.
+     *
+     * @return {@code null} when admitted, otherwise the rejection reason
+     */
+    String offer(J job) {
+        lock.lock();
+        try {
+            String rejection = rejection(job);
+            if (rejection == null) {
+                enqueue(job);
+            }
+            return rejection;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enqueue, waiting up to {@code timeout} for the queue to drain below the
+     * admission limits.
+     *
+     * @return {@code null} when admitted, otherwise the rejection reason
+     */
+    String offer(J job, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            String rejection;
+            while ((rejection = rejection(job)) != null) {
+                if (closed || nanos <= 0L) {
+                    return rejection;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(job);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next slice to run, waiting up to {@code timeout}.
+     */
+    Dispatch<J> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                Dispatch<J> dispatch = next(classes.get(EmbeddingPriority.INTERACTIVE));
+                if (dispatch == null) {
+                    dispatch = next(classes.get(EmbeddingPriority.BULK));
+                }
+                if (dispatch != null || closed || nanos <= 0L) {
+                    return dispatch;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int depth(String tenant) {
+        lock.lock();
+        try {
+            return tenantDepth.getOrDefault(key(tenant), 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int depth(EmbeddingPriority priority) {
+        lock.lock();
+        try {
+            return classes.get(priority).depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop admitting work, wake waiters and hand back every queued job.
+     */
+    List<J> close() {
+        lock.lock();
+        try {
+            closed = true;
+            List<J> pending = new ArrayList<>();
+            for (ClassQueue<J> classQueue : classes.values()) {
+                for (TenantQueue<J> queue : classQueue.active) {
+                    pending.addAll(queue.jobs);
+                }
+                classQueue.active.clear();
+                classQueue.tenants.clear();
+                classQueue.depth = 0;
+            }
+            tenantDepth.clear();
+            depth = 0;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String rejection(J job) {
+        if (closed) {
+            return "Embedding batch pipeline is closed";
+        }
+        if (depth >= capacity) {
+            return "Embedding batch queue is full";
+        }
+        if (job.priority() == EmbeddingPriority.BULK && depth >= bulkLimit) {
+            return "Embedding batch queue is above the bulk admission limit";
+        }
+        if (tenantDepth.getOrDefault(key(job.tenant()), 0) >= tenantCapacity) {
+            return "Embedding batch queue is full for tenant '" + key(job.tenant()) + "'";
+        }
+        return null;
+    }
+
+    private void enqueue(J job) {
+        String tenant = key(job.tenant());
+        ClassQueue<J> classQueue = classes.get(job.priority());
+        TenantQueue<J> queue = classQueue.tenants.get(tenant);
+        if (queue == null) {
+            queue = new TenantQueue<>(tenant);
+            classQueue.tenants.put(tenant, queue);
+            classQueue.active.addLast(queue);
+        }
+        queue.jobs.addLast(job);
+        classQueue.depth++;
+        tenantDepth.merge(tenant, 1, Integer::sum);
+        depth++;
+        notEmpty.signal();
+    }
+
+    private Dispatch<J> next(ClassQueue<J> classQueue) {
+        while (!classQueue.active.isEmpty()) {
+            TenantQueue<J> queue = classQueue.active.peekFirst();
+            if (!queue.turnStarted) {
+                queue.deficit += (long) quantum * Math.max(1, weights.applyAsInt(queue.tenant));
+                queue.turnStarted = true;
+            }
+
+            J job = queue.jobs.peekFirst();
+            int cost = job.sliceCost(queue.nextSlice);
+            if (cost > queue.deficit) {
+                // Credits used up: this tenant's turn ends, keep the remainder
+                classQueue.active.pollFirst();
+                queue.turnStarted = false;
+                classQueue.active.addLast(queue);
+                continue;
+            }
+
+            queue.deficit -= cost;
+            int slice = queue.nextSlice++;
+            if (queue.nextSlice >= job.sliceCount()) {
+                queue.jobs.pollFirst();
+                queue.nextSlice = 0;
+                classQueue.depth--;
+                depth--;
+                tenantDepth.computeIfPresent(queue.tenant, (k, v) -> v > 1 ? v - 1 : null);
+                notFull.signalAll();
+            }
+            if (queue.jobs.isEmpty()) {
+                classQueue.active.pollFirst();
+                classQueue.tenants.remove(queue.tenant);
+            }
+            return new Dispatch<>(job, slice);
+        }
+        return null;
+    }
+
+    private static String key(String tenant) {
+        return tenant == null || tenant.isBlank() ? "default" : tenant;
+    }
+}
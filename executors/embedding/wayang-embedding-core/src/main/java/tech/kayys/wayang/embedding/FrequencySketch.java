@@ -0,0 +1,125 @@
+package tech.kayys.wayang.embedding;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch with 4-bit counters used as the TinyLFU admission filter.
+ *
+ * <p>
+ * Each {@code long} packs sixteen counters; an item maps to one counter in
+ * four different slots and its frequency is the minimum of the four. Once the
+ * number of increments reaches the sample size every counter is halved, so the
+ * sketch tracks recent popularity rather than all-time counts.
+ *
+ * <p>
+ * The sketch is updated from the lock-free cache read path, so each counter
+ * slot is changed with a compare-and-set and no increment is lost. Aging runs
+ * on the one thread that crosses the sample size; it halves each slot
+ * atomically, so increments racing with it land either before or after the
+ * halving of their slot, never in a torn value.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean resetting = new AtomicBoolean();
+
+    FrequencySketch(int maximumSize) {
+        int bounded = Math.max(16, Math.min(maximumSize, 1 << 30));
+        int capacity = Integer.highestOneBit(bounded - 1) << 1;
+        this.table = new AtomicLongArray(capacity);
+        this.tableMask = capacity - 1;
+        this.sampleSize = (int) Math.min(10L * bounded, Integer.MAX_VALUE);
+    }
+
+    int frequency(int itemHash) {
+        int hash = spread(itemHash);
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table.get(index) >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(int itemHash) {
+        int hash = spread(itemHash);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && size.incrementAndGet() >= sampleSize && resetting.compareAndSet(false, true)) {
+            try {
+                reset();
+            } finally {
+                resetting.set(false);
+            }
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, 0L);
+        }
+        size.set(0);
+    }
+
+    /**
+     * Increments recorded since the last aging; exposed for tests.
+     */
+    int size() {
+        return size.get();
+    }
+
+    int sampleSize() {
+        return sampleSize;
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        while (true) {
+            long current = table.get(index);
+            if ((current & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, current, current + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length(); i++) {
+            long previous = table.getAndUpdate(i, value -> (value >>> 1) & RESET_MASK);
+            odd += Long.bitCount(previous & ONE_MASK);
+        }
+        final int truncated = odd >>> 2;
+        size.updateAndGet(current -> Math.max(0, (current >>> 1) - truncated));
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
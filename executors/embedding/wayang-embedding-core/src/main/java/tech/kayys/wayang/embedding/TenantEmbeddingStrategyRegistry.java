@@ -6,7 +6,10 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class TenantEmbeddingStrategyRegistry {
 
+    public static final int DEFAULT_WEIGHT = 1;
+
     private final Map<String, TenantEmbeddingStrategy> strategies = new ConcurrentHashMap<>();
+    private final Map<String, Integer> weights = new ConcurrentHashMap<>();
 
     public void register(String tenantId, String provider, String model) {
         if (tenantId == null || tenantId.isBlank()) {
@@ -22,6 +25,30 @@ public class TenantEmbeddingStrategyRegistry {
         return Optional.ofNullable(strategies.get(tenantId));
     }
 
+    /**
+     * Set the tenant's fair-share weight in the embedding batch scheduler.
+     */
+    public void registerWeight(String tenantId, int weight) {
+        if (tenantId == null || tenantId.isBlank()) {
+            throw new IllegalArgumentException("tenantId must not be blank");
+        }
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be > 0");
+        }
+        weights.put(tenantId, weight);
+    }
+
+    public int weight(String tenantId) {
+        if (tenantId == null || tenantId.isBlank()) {
+            return DEFAULT_WEIGHT;
+        }
+        return weights.getOrDefault(tenantId, DEFAULT_WEIGHT);
+    }
+
+    public Map<String, Integer> weightSnapshot() {
+        return Map.copyOf(weights);
+    }
+
     public Map<String, TenantEmbeddingStrategy> snapshot() {
         return Map.copyOf(strategies);
     }
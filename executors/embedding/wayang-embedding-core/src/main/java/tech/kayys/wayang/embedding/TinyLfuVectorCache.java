@@ -0,0 +1,174 @@
+package tech.kayys.wayang.embedding;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent on-heap vector cache with a W-TinyLFU policy.
+ *
+ * <p>
+ * Reads are lock-free: a {@link ConcurrentHashMap} lookup, a reference bit and
+ * a sketch increment. Writes append to a small admission window (1% of the
+ * capacity); entries leaving the window compete with the main region's CLOCK
+ * victim and only the more frequently requested of the two is kept. Policy
+ * bookkeeping happens under a single lock taken on writes only.
+ */
+final class TinyLfuVectorCache {
+
+    private static final class Node {
+        final String key;
+        final float[] value;
+        volatile boolean referenced;
+        boolean inWindow = true;
+        boolean retired;
+
+        Node(String key, float[] value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private final int windowMax;
+    private final int mainMax;
+    private final ConcurrentHashMap<String, Node> data;
+    private final FrequencySketch sketch;
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final ArrayDeque<Node> window = new ArrayDeque<>();
+    private final ArrayDeque<Node> main = new ArrayDeque<>();
+    private int windowCount;
+    private int mainCount;
+
+    TinyLfuVectorCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be > 0");
+        }
+        this.windowMax = Math.max(1, maxEntries / 100);
+        this.mainMax = maxEntries - windowMax;
+        this.data = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    float[] get(String key) {
+        sketch.increment(key.hashCode());
+        Node node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        node.referenced = true;
+        return node.value;
+    }
+
+    void put(String key, float[] value) {
+        Node node = new Node(key, value);
+        policyLock.lock();
+        try {
+            sketch.increment(key.hashCode());
+            Node previous = data.put(key, node);
+            if (previous != null) {
+                retire(previous);
+            }
+            window.addLast(node);
+            windowCount++;
+            evictIfNeeded();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    int size() {
+        return data.size();
+    }
+
+    void clear() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            main.clear();
+            windowCount = 0;
+            mainCount = 0;
+            sketch.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void evictIfNeeded() {
+        while (windowCount > windowMax) {
+            Node candidate = pollLive(window);
+            if (candidate == null) {
+                windowCount = 0;
+                break;
+            }
+            windowCount--;
+
+            if (mainCount < mainMax) {
+                admitToMain(candidate);
+                continue;
+            }
+
+            Node victim = selectMainVictim();
+            if (victim == null) {
+                evict(candidate);
+                continue;
+            }
+            if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                mainCount--;
+                evict(victim);
+                admitToMain(candidate);
+            } else {
+                // Victim stays; put it back at the head so it is considered first next time
+                main.addFirst(victim);
+                evict(candidate);
+            }
+        }
+    }
+
+    private void admitToMain(Node node) {
+        node.inWindow = false;
+        main.addLast(node);
+        mainCount++;
+    }
+
+    /**
+     * CLOCK sweep over the main region: referenced entries get a second chance.
+     */
+    private Node selectMainVictim() {
+        int budget = 2 * mainCount + 1;
+        Node node;
+        while ((node = pollLive(main)) != null) {
+            if (node.referenced && budget-- > 0) {
+                node.referenced = false;
+                main.addLast(node);
+                continue;
+            }
+            return node;
+        }
+        return null;
+    }
+
+    private static Node pollLive(ArrayDeque<Node> queue) {
+        Node node;
+        while ((node = queue.pollFirst()) != null) {
+            if (!node.retired) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private void retire(Node node) {
+        node.retired = true;
+        if (node.inWindow) {
+            windowCount--;
+        } else {
+            mainCount--;
+        }
+    }
+
+    private void evict(Node node) {
+        node.retired = true;
+        data.remove(node.key, node);
+    }
+}
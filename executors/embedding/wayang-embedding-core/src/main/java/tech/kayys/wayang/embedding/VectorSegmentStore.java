@@ -0,0 +1,353 @@
+package tech.kayys.wayang.embedding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Log-structured vector store over a single {@link ByteBuffer}, used for the
+ * off-heap (direct buffer) and on-disk (memory-mapped file) embedding cache
+ * tiers.
+ *
+ * <p>
+ * Records are appended to a ring; when the writer laps the ring the oldest
+ * records are overwritten, giving FIFO eviction with no per-entry
+ * bookkeeping. Vectors are packed as float32 or fp16. Positions are absolute
+ * (lap * capacity + offset) so a reader can tell whether the record it copied
+ * was overwritten meanwhile: the writer publishes its reservation before
+ * writing, and a record at {@code p} stays valid while
+ * {@code cursor <= p + capacity}. Reads are lock-free; appends are serialised.
+ *
+ * <p>
+ * The mapped variant keeps the cursor in the file header and rebuilds its key
+ * index by scanning the file on open, so cached vectors survive restarts.
+ * Records carry a CRC32C so torn writes from a crash are skipped.
+ */
+final class VectorSegmentStore implements AutoCloseable {
+
+    enum Precision {
+        FLOAT32(4),
+        FP16(2);
+
+        final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+
+        static Precision parse(String value) {
+            if (value == null || value.isBlank()) {
+                return FLOAT32;
+            }
+            String normalized = value.trim().toLowerCase(java.util.Locale.ROOT);
+            return switch (normalized) {
+                case "fp16", "float16", "half" -> FP16;
+                case "fp32", "float32", "float" -> FLOAT32;
+                default -> throw new IllegalArgumentException("Unsupported cache precision: " + value);
+            };
+        }
+    }
+
+    private static final int FILE_MAGIC = 0x57564331; // "WVC1"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int CURSOR_OFFSET = 24;
+
+    private static final int RECORD_MAGIC = 0x52454331;
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int ALIGNMENT = 8;
+
+    private final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final long capacity;
+    private final Precision precision;
+    private final ConcurrentHashMap<String, Long> index = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile long cursor;
+
+    private VectorSegmentStore(ByteBuffer buffer, FileChannel channel, Precision precision) {
+        this.buffer = buffer;
+        this.channel = channel;
+        this.capacity = buffer.capacity() - HEADER_BYTES;
+        this.precision = precision;
+    }
+
+    /**
+     * Off-heap tier backed by a direct buffer; contents are lost on restart.
+     */
+    static VectorSegmentStore offHeap(long capacityBytes, Precision precision) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(totalSize(capacityBytes));
+        VectorSegmentStore store = new VectorSegmentStore(buffer, null, precision);
+        store.writeHeader();
+        return store;
+    }
+
+    /**
+     * Persistent tier backed by a memory-mapped file. An existing file with a
+     * matching layout is reopened and indexed; anything else is reinitialised.
+     */
+    static VectorSegmentStore mapped(Path file, long capacityBytes, Precision precision) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        int size = totalSize(capacityBytes);
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean reusable = channel.size() == size;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            VectorSegmentStore store = new VectorSegmentStore(buffer, channel, precision);
+            if (reusable && store.headerMatches()) {
+                store.cursor = buffer.getLong(CURSOR_OFFSET);
+                store.rebuildIndex();
+            } else {
+                store.writeHeader();
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    float[] get(String key) {
+        Long position = index.get(key);
+        if (position == null) {
+            return null;
+        }
+        long p = position;
+        if (!isLive(p)) {
+            index.remove(key, position);
+            return null;
+        }
+
+        int base = physical(p);
+        int keyLength = buffer.getInt(base + 4);
+        int dimension = buffer.getInt(base + 8);
+        byte[] expectedKey = key.getBytes(StandardCharsets.UTF_8);
+        if (keyLength != expectedKey.length || dimension < 0
+                || recordLength(keyLength, dimension) > capacity - (base - HEADER_BYTES)) {
+            index.remove(key, position);
+            return null;
+        }
+        int keyStart = base + RECORD_HEADER_BYTES;
+        for (int i = 0; i < keyLength; i++) {
+            if (buffer.get(keyStart + i) != expectedKey[i]) {
+                index.remove(key, position);
+                return null;
+            }
+        }
+
+        float[] vector = readVector(keyStart + keyLength, dimension);
+        // The writer may have lapped this record while we were copying it
+        if (!isLive(p)) {
+            index.remove(key, position);
+            return null;
+        }
+        return vector;
+    }
+
+    void put(String key, float[] vector) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = recordLength(keyBytes.length, vector.length);
+        if (length > capacity / 4) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            long position = cursor;
+            int offset = (int) (position % capacity);
+            boolean wrapped = false;
+            if (offset + length > capacity) {
+                position += capacity - offset;
+                wrapped = true;
+            }
+            // Publish the reservation first so concurrent readers of the
+            // records being overwritten notice and discard their copies
+            cursor = position + length;
+            if (wrapped) {
+                buffer.putInt(HEADER_BYTES + offset, 0);
+            }
+
+            int base = physical(position);
+            buffer.putInt(base, 0);
+            buffer.putInt(base + 4, keyBytes.length);
+            buffer.putInt(base + 8, vector.length);
+            buffer.put(base + RECORD_HEADER_BYTES, keyBytes);
+            writeVector(base + RECORD_HEADER_BYTES + keyBytes.length, vector);
+            buffer.putInt(base + 12, checksum(base, keyBytes.length, vector.length));
+            buffer.putInt(base, RECORD_MAGIC);
+
+            index.put(key, position);
+            if (channel != null) {
+                buffer.putLong(CURSOR_OFFSET, cursor);
+            }
+        }
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    void clear() {
+        synchronized (writeLock) {
+            index.clear();
+            cursor = 0;
+            buffer.putInt(HEADER_BYTES, 0);
+            buffer.putLong(CURSOR_OFFSET, 0L);
+        }
+    }
+
+    /**
+     * Flush a mapped store to disk; a no-op for the off-heap tier.
+     */
+    void flush() {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            synchronized (writeLock) {
+                mapped.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private boolean isLive(long position) {
+        return cursor <= position + capacity;
+    }
+
+    private int physical(long position) {
+        return HEADER_BYTES + (int) (position % capacity);
+    }
+
+    private int recordLength(int keyLength, int dimension) {
+        long raw = (long) RECORD_HEADER_BYTES + keyLength + (long) dimension * precision.bytes;
+        long aligned = (raw + ALIGNMENT - 1) & -ALIGNMENT;
+        return aligned > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) aligned;
+    }
+
+    private float[] readVector(int start, int dimension) {
+        float[] vector = new float[dimension];
+        if (precision == Precision.FP16) {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = Float.float16ToFloat(buffer.getShort(start + i * 2));
+            }
+        } else {
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = buffer.getFloat(start + i * 4);
+            }
+        }
+        return vector;
+    }
+
+    private void writeVector(int start, float[] vector) {
+        if (precision == Precision.FP16) {
+            for (int i = 0; i < vector.length; i++) {
+                buffer.putShort(start + i * 2, Float.floatToFloat16(vector[i]));
+            }
+        } else {
+            for (int i = 0; i < vector.length; i++) {
+                buffer.putFloat(start + i * 4, vector[i]);
+            }
+        }
+    }
+
+    private int checksum(int base, int keyLength, int dimension) {
+        int start = base + RECORD_HEADER_BYTES;
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(start + keyLength + dimension * precision.bytes).position(start);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, FILE_MAGIC);
+        buffer.putInt(4, FILE_VERSION);
+        buffer.putInt(8, precision.ordinal());
+        buffer.putLong(16, capacity);
+        buffer.putLong(CURSOR_OFFSET, 0L);
+        buffer.putInt(HEADER_BYTES, 0);
+        cursor = 0;
+    }
+
+    private boolean headerMatches() {
+        return buffer.getInt(0) == FILE_MAGIC
+                && buffer.getInt(4) == FILE_VERSION
+                && buffer.getInt(8) == precision.ordinal()
+                && buffer.getLong(16) == capacity
+                && buffer.getLong(CURSOR_OFFSET) >= 0;
+    }
+
+    /**
+     * Rebuild the key index after reopening a mapped file: first the tail of
+     * the previous lap that has not been overwritten yet, then the current lap,
+     * so newer records win.
+     */
+    private void rebuildIndex() {
+        long current = cursor;
+        int currentOffset = (int) (current % capacity);
+        long lapStart = current - currentOffset;
+        if (current >= capacity) {
+            scan(lapStart - capacity, currentOffset, (int) capacity, true);
+        }
+        scan(lapStart, 0, currentOffset, false);
+    }
+
+    private void scan(long lapBase, int from, int to, boolean resync) {
+        int offset = (from + ALIGNMENT - 1) & -ALIGNMENT;
+        boolean synced = !resync;
+        while (offset + RECORD_HEADER_BYTES <= to) {
+            int base = HEADER_BYTES + offset;
+            int length = validRecordLength(base, to - offset);
+            if (length < 0) {
+                if (synced) {
+                    return;
+                }
+                // The previous lap's record boundary is unknown; probe aligned slots
+                offset += ALIGNMENT;
+                continue;
+            }
+            synced = true;
+            int keyLength = buffer.getInt(base + 4);
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(base + RECORD_HEADER_BYTES, keyBytes);
+            index.put(new String(keyBytes, StandardCharsets.UTF_8), lapBase + offset);
+            offset += length;
+        }
+    }
+
+    private int validRecordLength(int base, int available) {
+        if (buffer.getInt(base) != RECORD_MAGIC) {
+            return -1;
+        }
+        int keyLength = buffer.getInt(base + 4);
+        int dimension = buffer.getInt(base + 8);
+        if (keyLength <= 0 || dimension < 0 || keyLength > available || dimension > available) {
+            return -1;
+        }
+        int length = recordLength(keyLength, dimension);
+        if (length > available) {
+            return -1;
+        }
+        return checksum(base, keyLength, dimension) == buffer.getInt(base + 12) ? length : -1;
+    }
+
+    private static int totalSize(long capacityBytes) {
+        long bounded = Math.max(64 * 1024L, Math.min(capacityBytes, Integer.MAX_VALUE - 1024L));
+        return (int) ((bounded & -ALIGNMENT) + HEADER_BYTES);
+    }
+}
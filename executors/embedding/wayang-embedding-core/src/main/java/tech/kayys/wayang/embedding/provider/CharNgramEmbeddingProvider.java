@@ -6,7 +6,6 @@ import tech.kayys.wayang.embedding.EmbeddingProvider;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 @ApplicationScoped
 public class CharNgramEmbeddingProvider implements EmbeddingProvider {
@@ -29,37 +28,36 @@ public class CharNgramEmbeddingProvider implements EmbeddingProvider {
     public List<float[]> embedAll(List<String> inputs, String model) {
         int dim = parseDimension(model);
         List<float[]> out = new ArrayList<>(inputs.size());
-        for (String input : inputs) {
-            out.add(embedSingle(input, dim));
+        NgramFeatureExtractor.Scratch scratch = NgramFeatureExtractor.acquire();
+        try {
+            for (String input : inputs) {
+                out.add(embedSingle(input, dim, scratch));
+            }
+        } finally {
+            NgramFeatureExtractor.release(scratch);
         }
         return out;
     }
 
-    private static float[] embedSingle(String input, int dim) {
+    private static float[] embedSingle(String input, int dim, NgramFeatureExtractor.Scratch scratch) {
         float[] vector = new float[dim];
         if (input == null || input.isBlank()) {
             return vector;
         }
 
-        String normalized = " " + input.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ") + " ";
-        int emitted = 0;
+        NgramFeatureExtractor.normalizeForCharGrams(input, scratch);
+        NgramFeatureExtractor.hashCharGrams(scratch);
 
-        for (int n = 3; n <= 5; n++) {
-            if (normalized.length() < n) {
-                continue;
-            }
-            for (int i = 0; i <= normalized.length() - n; i++) {
-                String gram = normalized.substring(i, i + n);
-                int h = fnv1a32(gram);
-                int index = Math.floorMod(h, dim);
-                float weight = n == 3 ? 0.8f : (n == 4 ? 1.0f : 1.2f);
-                vector[index] += ((h & 1) == 0) ? weight : -weight;
-                emitted++;
-            }
+        int emitted = 0;
+        for (int n = NgramFeatureExtractor.MIN_GRAM; n <= NgramFeatureExtractor.MAX_GRAM; n++) {
+            int count = scratch.gramCounts[n];
+            float weight = n == 3 ? 0.8f : (n == 4 ? 1.0f : 1.2f);
+            NgramFeatureExtractor.accumulate(vector, scratch.gramHashes[n], count, weight);
+            emitted += count;
         }
 
         if (emitted == 0) {
-            int h = fnv1a32(normalized);
+            int h = NgramFeatureExtractor.fnv1a32(scratch.text, 0, scratch.length);
             vector[Math.floorMod(h, dim)] = 1.0f;
         }
         return vector;
@@ -84,13 +82,4 @@ public class CharNgramEmbeddingProvider implements EmbeddingProvider {
         }
         return dim;
     }
-
-    private static int fnv1a32(String value) {
-        int hash = 0x811C9DC5;
-        for (int i = 0; i < value.length(); i++) {
-            hash ^= value.charAt(i);
-            hash *= 0x01000193;
-        }
-        return hash;
-    }
 }
@@ -0,0 +1,342 @@
+package tech.kayys.wayang.embedding.provider;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocation-free feature hashing shared by the local hash-based providers.
+ *
+ * <p>
+ * Text is normalised into a pooled {@code char[]} and hashed in place:
+ * n-gram hashes are produced by extending one FNV-1a state per start position
+ * (so 3-, 4- and 5-grams cost a single pass), and word tokens are hashed as
+ * they are scanned. Hashes land in reusable {@code int[]} buffers and are then
+ * added to the output vector in one tight bucket-accumulate loop. The hash
+ * values match the previous {@code substring}-based implementation, so
+ * vectors stay compatible with already indexed content.
+ *
+ * <p>
+ * Buffers are pooled rather than thread-local: embedding calls are offloaded to
+ * a fresh virtual thread per task, so a {@code ThreadLocal} would build a new
+ * scratch for every call and throw it away.
+ */
+final class NgramFeatureExtractor {
+
+    static final int MIN_GRAM = 3;
+    static final int MAX_GRAM = 5;
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private static final int MAX_POOLED = 2 * Runtime.getRuntime().availableProcessors();
+    private static final ConcurrentLinkedQueue<Scratch> POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    private NgramFeatureExtractor() {
+    }
+
+    /**
+     * Working buffers of one call; grown on demand and never shrunk.
+     */
+    static final class Scratch {
+        char[] text = new char[1024];
+        int length;
+        final int[][] gramHashes = new int[MAX_GRAM + 1][];
+        final int[] gramCounts = new int[MAX_GRAM + 1];
+        final IntCounter terms = new IntCounter();
+        final IntCounter documents = new IntCounter();
+
+        Scratch() {
+            for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+                gramHashes[n] = new int[1024];
+            }
+        }
+
+        private void ensureText(int capacity) {
+            if (text.length < capacity) {
+                text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+            }
+        }
+
+        private void ensureGrams(int capacity) {
+            for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+                if (gramHashes[n].length < capacity) {
+                    gramHashes[n] = new int[Math.max(capacity, gramHashes[n].length * 2)];
+                }
+            }
+        }
+    }
+
+    /**
+     * A pooled scratch, or a new one when all are in use. Hand it back with
+     * {@link #release} once the call is done with it.
+     */
+    static Scratch acquire() {
+        Scratch scratch = POOL.poll();
+        if (scratch == null) {
+            return new Scratch();
+        }
+        POOLED.decrementAndGet();
+        return scratch;
+    }
+
+    /**
+     * Return a scratch to the pool; beyond {@code MAX_POOLED} it is left to the
+     * garbage collector.
+     */
+    static void release(Scratch scratch) {
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(scratch);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+
+    /**
+     * Normalise {@code input} into {@code scratch.text} as
+     * {@code " " + lower(trim(collapse-whitespace(input))) + " "}.
+     */
+    static void normalizeForCharGrams(String input, Scratch scratch) {
+        String source = isAscii(input) ? input : input.toLowerCase(Locale.ROOT);
+        int start = 0;
+        int end = source.length();
+        while (start < end && source.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        scratch.ensureText(end - start + 2);
+        char[] text = scratch.text;
+        int length = 0;
+        text[length++] = ' ';
+        boolean inWhitespace = false;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (isRegexWhitespace(c)) {
+                if (!inWhitespace) {
+                    text[length++] = ' ';
+                    inWhitespace = true;
+                }
+                continue;
+            }
+            inWhitespace = false;
+            text[length++] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+        text[length++] = ' ';
+        scratch.length = length;
+    }
+
+    /**
+     * Hash every 3-, 4- and 5-gram of {@code scratch.text} in one pass, filling
+     * {@code scratch.gramHashes[n]} and {@code scratch.gramCounts[n]}.
+     */
+    static void hashCharGrams(Scratch scratch) {
+        int length = scratch.length;
+        scratch.ensureGrams(length);
+        char[] text = scratch.text;
+        int[] grams3 = scratch.gramHashes[3];
+        int[] grams4 = scratch.gramHashes[4];
+        int[] grams5 = scratch.gramHashes[5];
+
+        for (int i = 0; i < length; i++) {
+            int remaining = length - i;
+            if (remaining < MIN_GRAM) {
+                break;
+            }
+            int h = FNV_OFFSET;
+            h = (h ^ text[i]) * FNV_PRIME;
+            h = (h ^ text[i + 1]) * FNV_PRIME;
+            h = (h ^ text[i + 2]) * FNV_PRIME;
+            grams3[i] = h;
+            if (remaining >= 4) {
+                h = (h ^ text[i + 3]) * FNV_PRIME;
+                grams4[i] = h;
+                if (remaining >= 5) {
+                    h = (h ^ text[i + 4]) * FNV_PRIME;
+                    grams5[i] = h;
+                }
+            }
+        }
+        for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+            scratch.gramCounts[n] = Math.max(0, length - n + 1);
+        }
+    }
+
+    /**
+     * Scan {@code input} for word tokens (runs of ASCII letters/digits after
+     * lower-casing, at least two characters) and record each token's FNV-1a
+     * hash in {@code scratch.terms}, in first-occurrence order.
+     *
+     * @return total number of tokens, counting repeats
+     */
+    static int countTermHashes(String input, Scratch scratch) {
+        IntCounter terms = scratch.terms;
+        terms.clear();
+        if (input == null || input.isBlank()) {
+            return 0;
+        }
+        String source = isAscii(input) ? input : input.toLowerCase(Locale.ROOT);
+        int total = 0;
+        int hash = FNV_OFFSET;
+        int tokenLength = 0;
+        int length = source.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? source.charAt(i) : ' ';
+            if (isAsciiAlnum(c)) {
+                if (c >= 'A' && c <= 'Z') {
+                    c = (char) (c + ('a' - 'A'));
+                }
+                hash = (hash ^ c) * FNV_PRIME;
+                tokenLength++;
+                continue;
+            }
+            if (tokenLength >= 2) {
+                terms.add(hash, 1);
+                total++;
+            }
+            hash = FNV_OFFSET;
+            tokenLength = 0;
+        }
+        return total;
+    }
+
+    /**
+     * Add {@code weight} to the bucket of each hash, negated when the hash's
+     * low bit is set. This is a plain scalar loop: the writes scatter to
+     * hash-chosen buckets, which SIMD lanes cannot update without conflicts.
+     */
+    static void accumulate(float[] vector, int[] hashes, int count, float weight) {
+        int dim = vector.length;
+        for (int i = 0; i < count; i++) {
+            int h = hashes[i];
+            vector[Math.floorMod(h, dim)] += ((h & 1) == 0) ? weight : -weight;
+        }
+    }
+
+    static int fnv1a32(char[] chars, int from, int to) {
+        int hash = FNV_OFFSET;
+        for (int i = from; i < to; i++) {
+            hash ^= chars[i];
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matches the default {@code \s} class: space, \t, \n, \x0B, \f, \r. */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    private static boolean isAsciiAlnum(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Open-addressing {@code int -> int} counter that remembers first-insertion
+     * order; cleared and reused between inputs.
+     */
+    static final class IntCounter {
+        private static final int EMPTY = -1;
+
+        private int[] slots = new int[256];
+        private int[] keys = new int[128];
+        private int[] counts = new int[128];
+        private int size;
+
+        IntCounter() {
+            Arrays.fill(slots, EMPTY);
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(slots, EMPTY);
+                size = 0;
+            }
+        }
+
+        void add(int key, int delta) {
+            int mask = slots.length - 1;
+            int slot = mix(key) & mask;
+            while (true) {
+                int entry = slots[slot];
+                if (entry == EMPTY) {
+                    break;
+                }
+                if (keys[entry] == key) {
+                    counts[entry] += delta;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            keys[size] = key;
+            counts[size] = delta;
+            slots[slot] = size;
+            size++;
+            if (size * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+        }
+
+        int get(int key, int fallback) {
+            int mask = slots.length - 1;
+            int slot = mix(key) & mask;
+            while (true) {
+                int entry = slots[slot];
+                if (entry == EMPTY) {
+                    return fallback;
+                }
+                if (keys[entry] == key) {
+                    return counts[entry];
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int keyAt(int index) {
+            return keys[index];
+        }
+
+        int countAt(int index) {
+            return counts[index];
+        }
+
+        private void rehash(int capacity) {
+            slots = new int[capacity];
+            Arrays.fill(slots, EMPTY);
+            int mask = capacity - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = mix(keys[i]) & mask;
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i;
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
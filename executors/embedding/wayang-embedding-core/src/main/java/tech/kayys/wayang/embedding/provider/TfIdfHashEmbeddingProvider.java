@@ -5,12 +5,22 @@ import tech.kayys.wayang.embedding.EmbeddingException;
 import tech.kayys.wayang.embedding.EmbeddingProvider;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
+/**
+ * TF-IDF weighted feature hashing over the word tokens of a batch.
+ *
+ * <p>
+ * Term and document frequencies are counted per 32-bit token hash rather than
+ * per token string, which keeps both passes free of per-token allocation. Two
+ * distinct tokens with the same hash therefore share one frequency entry. Such
+ * tokens already land in the same bucket with the same sign, so the only
+ * effect is that their combined weight uses the merged counts instead of the
+ * sum of their separate weights. For a batch vocabulary of {@code n} tokens
+ * this happens with probability about {@code n^2 / 2^33} (roughly 1% at 10,000
+ * distinct tokens) and moves a single bucket slightly, which is well within
+ * the noise of hashing into a few hundred dimensions.
+ */
 @ApplicationScoped
 public class TfIdfHashEmbeddingProvider implements EmbeddingProvider {
 
@@ -31,60 +41,46 @@ public class TfIdfHashEmbeddingProvider implements EmbeddingProvider {
     @Override
     public List<float[]> embedAll(List<String> inputs, String model) {
         int dim = parseDimension(model);
-        List<Map<String, Integer>> tokenFrequencies = new ArrayList<>(inputs.size());
-        Map<String, Integer> documentFrequencies = new HashMap<>();
-
-        for (String input : inputs) {
-            Map<String, Integer> tf = termFrequency(input);
-            tokenFrequencies.add(tf);
-            for (String token : tf.keySet()) {
-                documentFrequencies.merge(token, 1, Integer::sum);
+        NgramFeatureExtractor.Scratch scratch = NgramFeatureExtractor.acquire();
+        try {
+            NgramFeatureExtractor.IntCounter terms = scratch.terms;
+            NgramFeatureExtractor.IntCounter documentFrequencies = scratch.documents;
+
+            // First pass: document frequency per token hash across the batch
+            documentFrequencies.clear();
+            for (String input : inputs) {
+                NgramFeatureExtractor.countTermHashes(input, scratch);
+                for (int i = 0; i < terms.size(); i++) {
+                    documentFrequencies.add(terms.keyAt(i), 1);
+                }
             }
-        }
 
-        int docs = Math.max(1, inputs.size());
-        List<float[]> vectors = new ArrayList<>(inputs.size());
-        for (Map<String, Integer> tf : tokenFrequencies) {
-            float[] vector = new float[dim];
-            int totalTokens = Math.max(1, tf.values().stream().mapToInt(i -> i).sum());
+            // Second pass: re-scan each input (cheaper than keeping per-input maps)
+            int docs = Math.max(1, inputs.size());
+            List<float[]> vectors = new ArrayList<>(inputs.size());
+            for (String input : inputs) {
+                float[] vector = new float[dim];
+                int totalTokens = Math.max(1, NgramFeatureExtractor.countTermHashes(input, scratch));
 
-            for (Map.Entry<String, Integer> entry : tf.entrySet()) {
-                String token = entry.getKey();
-                int frequency = entry.getValue();
-                int df = documentFrequencies.getOrDefault(token, 1);
+                for (int i = 0; i < terms.size(); i++) {
+                    int h = terms.keyAt(i);
+                    int frequency = terms.countAt(i);
+                    int df = documentFrequencies.get(h, 1);
 
-                double termFrequencyWeight = (double) frequency / totalTokens;
-                double inverseDocumentFrequency = Math.log((docs + 1.0) / (df + 1.0)) + 1.0;
-                float weight = (float) (termFrequencyWeight * inverseDocumentFrequency);
+                    double termFrequencyWeight = (double) frequency / totalTokens;
+                    double inverseDocumentFrequency = Math.log((docs + 1.0) / (df + 1.0)) + 1.0;
+                    float weight = (float) (termFrequencyWeight * inverseDocumentFrequency);
 
-                int h = fnv1a32(token);
-                int index = Math.floorMod(h, dim);
-                vector[index] += ((h & 1) == 0) ? weight : -weight;
-            }
-
-            vectors.add(vector);
-        }
-        return vectors;
-    }
+                    int index = Math.floorMod(h, dim);
+                    vector[index] += ((h & 1) == 0) ? weight : -weight;
+                }
 
-    private static Map<String, Integer> termFrequency(String input) {
-        Map<String, Integer> tf = new LinkedHashMap<>();
-        if (input == null || input.isBlank()) {
-            return tf;
-        }
-        String normalized = input.toLowerCase(Locale.ROOT)
-                .replaceAll("[^\\p{Alnum}\\s]", " ")
-                .trim();
-        if (normalized.isEmpty()) {
-            return tf;
-        }
-        for (String token : normalized.split("\\s+")) {
-            if (token.length() < 2) {
-                continue;
+                vectors.add(vector);
             }
-            tf.merge(token, 1, Integer::sum);
+            return vectors;
+        } finally {
+            NgramFeatureExtractor.release(scratch);
         }
-        return tf;
     }
 
     private static int parseDimension(String model) {
@@ -106,13 +102,4 @@ public class TfIdfHashEmbeddingProvider implements EmbeddingProvider {
         }
         return dim;
     }
-
-    private static int fnv1a32(String value) {
-        int hash = 0x811C9DC5;
-        for (int i = 0; i < value.length(); i++) {
-            hash ^= value.charAt(i);
-            hash *= 0x01000193;
-        }
-        return hash;
-    }
 }
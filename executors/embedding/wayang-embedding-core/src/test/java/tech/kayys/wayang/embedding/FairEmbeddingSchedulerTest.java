@@ -0,0 +1,119 @@
+package tech.kayys.wayang.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FairEmbeddingSchedulerTest {
+
+    @Test
+    void shouldServeInteractiveBeforeBulk() throws InterruptedException {
+        FairEmbeddingScheduler<TestJob> scheduler = new FairEmbeddingScheduler<>(16, 16, 1d, 1, tenant -> 1);
+        assertNull(scheduler.offer(new TestJob("bulk-tenant", EmbeddingPriority.BULK, 1, "bulk-1")));
+        assertNull(scheduler.offer(new TestJob("bulk-tenant", EmbeddingPriority.BULK, 1, "bulk-2")));
+        assertNull(scheduler.offer(new TestJob("query-tenant", EmbeddingPriority.INTERACTIVE, 1, "query")));
+
+        assertEquals(List.of("query", "bulk-1", "bulk-2"), drain(scheduler));
+    }
+
+    @Test
+    void shouldShareDispatchesByTenantWeight() throws InterruptedException {
+        Map<String, Integer> weights = Map.of("a", 3, "b", 1);
+        FairEmbeddingScheduler<TestJob> scheduler = new FairEmbeddingScheduler<>(
+                64, 64, 1d, 1, tenant -> weights.getOrDefault(tenant, 1));
+        for (int i = 0; i < 8; i++) {
+            scheduler.offer(new TestJob("a", EmbeddingPriority.BULK, 1, "a"));
+            scheduler.offer(new TestJob("b", EmbeddingPriority.BULK, 1, "b"));
+        }
+
+        List<String> order = drain(scheduler).subList(0, 8);
+        assertEquals(List.of("a", "a", "a", "b", "a", "a", "a", "b"), order);
+    }
+
+    @Test
+    void shouldInterleaveSlicesOfLargeJobWithOtherTenants() throws InterruptedException {
+        FairEmbeddingScheduler<TestJob> scheduler = new FairEmbeddingScheduler<>(16, 16, 1d, 1, tenant -> 1);
+        scheduler.offer(new TestJob("reindex", EmbeddingPriority.BULK, 4, "r"));
+        scheduler.offer(new TestJob("small", EmbeddingPriority.BULK, 1, "s"));
+
+        assertEquals(List.of("r0", "s0", "r1", "r2", "r3"), drainSlices(scheduler));
+        assertEquals(0, scheduler.depth());
+    }
+
+    @Test
+    void shouldRejectBulkAboveAdmissionRatioButAdmitInteractive() {
+        FairEmbeddingScheduler<TestJob> scheduler = new FairEmbeddingScheduler<>(4, 4, 0.5d, 1, tenant -> 1);
+        assertNull(scheduler.offer(new TestJob("t", EmbeddingPriority.BULK, 1, "b1")));
+        assertNull(scheduler.offer(new TestJob("t", EmbeddingPriority.BULK, 1, "b2")));
+        assertNotNull(scheduler.offer(new TestJob("t", EmbeddingPriority.BULK, 1, "b3")));
+
+        assertNull(scheduler.offer(new TestJob("t", EmbeddingPriority.INTERACTIVE, 1, "i1")));
+        assertNull(scheduler.offer(new TestJob("t", EmbeddingPriority.INTERACTIVE, 1, "i2")));
+        assertNotNull(scheduler.offer(new TestJob("t", EmbeddingPriority.INTERACTIVE, 1, "i3")));
+        assertEquals(2, scheduler.depth(EmbeddingPriority.BULK));
+        assertEquals(2, scheduler.depth(EmbeddingPriority.INTERACTIVE));
+    }
+
+    @Test
+    void shouldCapQueuedJobsPerTenant() {
+        FairEmbeddingScheduler<TestJob> scheduler = new FairEmbeddingScheduler<>(8, 2, 1d, 1, tenant -> 1);
+        assertNull(scheduler.offer(new TestJob("noisy", EmbeddingPriority.BULK, 1, "n1")));
+        assertNull(scheduler.offer(new TestJob("noisy", EmbeddingPriority.BULK, 1, "n2")));
+        assertNotNull(scheduler.offer(new TestJob("noisy", EmbeddingPriority.BULK, 1, "n3")));
+        assertNull(scheduler.offer(new TestJob("quiet", EmbeddingPriority.BULK, 1, "q1")));
+        assertEquals(2, scheduler.depth("noisy"));
+    }
+
+    @Test
+    void shouldDeferAdmissionUntilQueueDrains() throws InterruptedException {
+        FairEmbeddingScheduler<TestJob> scheduler = new FairEmbeddingScheduler<>(1, 1, 1d, 1, tenant -> 1);
+        scheduler.offer(new TestJob("t", EmbeddingPriority.INTERACTIVE, 1, "first"));
+
+        Thread drainer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                scheduler.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        drainer.start();
+        assertNull(scheduler.offer(new TestJob("t", EmbeddingPriority.INTERACTIVE, 1, "second"), 2, TimeUnit.SECONDS));
+        drainer.join();
+        assertEquals(1, scheduler.depth());
+    }
+
+    private static List<String> drain(FairEmbeddingScheduler<TestJob> scheduler) throws InterruptedException {
+        List<String> labels = new ArrayList<>();
+        FairEmbeddingScheduler.Dispatch<TestJob> dispatch;
+        while ((dispatch = scheduler.poll(0, TimeUnit.MILLISECONDS)) != null) {
+            labels.add(dispatch.job().label);
+        }
+        return labels;
+    }
+
+    private static List<String> drainSlices(FairEmbeddingScheduler<TestJob> scheduler) throws InterruptedException {
+        List<String> labels = new ArrayList<>();
+        FairEmbeddingScheduler.Dispatch<TestJob> dispatch;
+        while ((dispatch = scheduler.poll(0, TimeUnit.MILLISECONDS)) != null) {
+            labels.add(dispatch.job().label + dispatch.slice());
+        }
+        return labels;
+    }
+
+    private record TestJob(String tenant, EmbeddingPriority priority, int sliceCount, String label)
+            implements FairEmbeddingScheduler.Schedulable {
+
+        @Override
+        public int sliceCost(int slice) {
+            return 1;
+        }
+    }
+}
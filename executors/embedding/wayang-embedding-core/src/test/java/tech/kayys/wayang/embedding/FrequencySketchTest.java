@@ -0,0 +1,104 @@
+package tech.kayys.wayang.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsUpToSaturation() {
+        FrequencySketch sketch = new FrequencySketch(1_024);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(42);
+        }
+
+        assertEquals(15, sketch.frequency(42));
+        assertEquals(0, sketch.frequency(43));
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(1 << 16);
+        int threads = 8;
+        int keys = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int key = 0; key < keys; key++) {
+                    sketch.increment(key);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Below the sample size nothing ages, and a count-min sketch never
+        // under-counts, so any lower estimate is a lost update
+        assertTrue(threads * keys < sketch.sampleSize());
+        for (int key = 0; key < keys; key++) {
+            assertTrue(sketch.frequency(key) >= threads, "key " + key + " = " + sketch.frequency(key));
+        }
+    }
+
+    @Test
+    void agingHalvesCounters() {
+        FrequencySketch sketch = new FrequencySketch(1_024);
+        for (int i = 0; i < 12; i++) {
+            sketch.increment(7);
+        }
+
+        // Unrelated keys may collide with 7 before aging, but never push any
+        // counter past 15, so after one halving it reads at most 7
+        int key = 1_000;
+        int previous = -1;
+        while (sketch.size() > previous) {
+            previous = sketch.size();
+            sketch.increment(key++);
+        }
+
+        assertTrue(sketch.frequency(7) >= 6 && sketch.frequency(7) <= 7, "frequency=" + sketch.frequency(7));
+        assertTrue(sketch.size() < sketch.sampleSize());
+    }
+
+    @Test
+    void concurrentAgingKeepsCountersInRange() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(64);
+        int perThread = 200_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 1_000_000;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    sketch.increment(offset + (i % 5_000));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(sketch.size() < 4 * perThread, "size=" + sketch.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(sketch.frequency(i) <= 15);
+        }
+    }
+}
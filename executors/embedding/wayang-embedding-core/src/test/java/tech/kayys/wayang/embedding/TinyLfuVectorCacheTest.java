@@ -0,0 +1,68 @@
+package tech.kayys.wayang.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TinyLfuVectorCacheTest {
+
+    @Test
+    void shouldReturnStoredVectors() {
+        TinyLfuVectorCache cache = new TinyLfuVectorCache(100);
+        cache.put("a", new float[] { 1f, 2f });
+
+        assertArrayEquals(new float[] { 1f, 2f }, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void shouldStayWithinCapacity() {
+        TinyLfuVectorCache cache = new TinyLfuVectorCache(200);
+        for (int i = 0; i < 5_000; i++) {
+            cache.put("key-" + i, new float[] { i });
+        }
+
+        assertTrue(cache.size() <= 200, "size=" + cache.size());
+    }
+
+    @Test
+    void shouldKeepHotEntriesDuringScan() {
+        TinyLfuVectorCache cache = new TinyLfuVectorCache(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, new float[] { i });
+        }
+
+        // One-hit keys stream through while the hot set keeps being read; an
+        // LRU of this size would lose the hot set between read rounds
+        int hits = 0;
+        int lookups = 0;
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan-" + i, new float[] { i });
+            if (i % 200 == 199) {
+                for (int h = 0; h < 50; h++) {
+                    lookups++;
+                    if (cache.get("hot-" + h) != null) {
+                        hits++;
+                    } else {
+                        cache.put("hot-" + h, new float[] { h });
+                    }
+                }
+            }
+        }
+
+        assertTrue(hits >= lookups * 0.9, "hits=" + hits + "/" + lookups);
+    }
+
+    @Test
+    void shouldReplaceExistingKey() {
+        TinyLfuVectorCache cache = new TinyLfuVectorCache(10);
+        cache.put("a", new float[] { 1f });
+        cache.put("a", new float[] { 2f });
+
+        assertNotNull(cache.get("a"));
+        assertArrayEquals(new float[] { 2f }, cache.get("a"));
+    }
+}
@@ -0,0 +1,89 @@
+package tech.kayys.wayang.embedding;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VectorSegmentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRoundTripOffHeapVectors() {
+        VectorSegmentStore store = VectorSegmentStore.offHeap(1024 * 1024, VectorSegmentStore.Precision.FLOAT32);
+        store.put("t|hash|hash-4|true|abc", new float[] { 0.1f, -0.2f, 0.3f, 0.4f });
+
+        assertArrayEquals(new float[] { 0.1f, -0.2f, 0.3f, 0.4f }, store.get("t|hash|hash-4|true|abc"));
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void shouldPackHalfPrecisionVectors() {
+        VectorSegmentStore store = VectorSegmentStore.offHeap(1024 * 1024, VectorSegmentStore.Precision.FP16);
+        float[] vector = { 0.125f, -0.5f, 0.333f, 1.0f };
+        store.put("k", vector);
+
+        float[] restored = store.get("k");
+        assertNotNull(restored);
+        for (int i = 0; i < vector.length; i++) {
+            assertEquals(vector[i], restored[i], 1e-3);
+        }
+    }
+
+    @Test
+    void shouldEvictOldestRecordsWhenRingWraps() {
+        VectorSegmentStore store = VectorSegmentStore.offHeap(64 * 1024, VectorSegmentStore.Precision.FLOAT32);
+        float[] vector = new float[256];
+        for (int i = 0; i < 200; i++) {
+            vector[0] = i;
+            store.put("key-" + i, vector);
+        }
+
+        assertNull(store.get("key-0"));
+        float[] newest = store.get("key-199");
+        assertNotNull(newest);
+        assertEquals(199f, newest[0]);
+    }
+
+    @Test
+    void shouldSurviveReopenOfMappedFile() throws Exception {
+        Path file = tempDir.resolve("embeddings.bin");
+        try (VectorSegmentStore store = VectorSegmentStore.mapped(file, 64 * 1024,
+                VectorSegmentStore.Precision.FLOAT32)) {
+            float[] vector = new float[256];
+            for (int i = 0; i < 200; i++) {
+                vector[0] = i;
+                store.put("key-" + i, vector);
+            }
+        }
+
+        try (VectorSegmentStore reopened = VectorSegmentStore.mapped(file, 64 * 1024,
+                VectorSegmentStore.Precision.FLOAT32)) {
+            float[] newest = reopened.get("key-199");
+            assertNotNull(newest);
+            assertEquals(199f, newest[0]);
+            assertNull(reopened.get("key-0"));
+        }
+    }
+
+    @Test
+    void shouldResetMappedFileWithDifferentLayout() throws Exception {
+        Path file = tempDir.resolve("embeddings.bin");
+        try (VectorSegmentStore store = VectorSegmentStore.mapped(file, 64 * 1024,
+                VectorSegmentStore.Precision.FLOAT32)) {
+            store.put("k", new float[] { 1f });
+        }
+
+        try (VectorSegmentStore reopened = VectorSegmentStore.mapped(file, 64 * 1024,
+                VectorSegmentStore.Precision.FP16)) {
+            assertNull(reopened.get("k"));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package tech.kayys.wayang.embedding.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NgramFeatureExtractorTest {
+
+    @Test
+    void shouldNormalizeLikeRegexPipeline() {
+        String input = "\t  Wayang\n\n  PLATFORM\u000B rocks  ";
+        NgramFeatureExtractor.Scratch scratch = NgramFeatureExtractor.acquire();
+
+        NgramFeatureExtractor.normalizeForCharGrams(input, scratch);
+
+        String expected = " " + input.toLowerCase(java.util.Locale.ROOT).trim().replaceAll("\\s+", " ") + " ";
+        assertEquals(expected, new String(scratch.text, 0, scratch.length));
+    }
+
+    @Test
+    void shouldHashCharGramsLikeSubstrings() {
+        NgramFeatureExtractor.Scratch scratch = NgramFeatureExtractor.acquire();
+        NgramFeatureExtractor.normalizeForCharGrams("Neural retrieval", scratch);
+        NgramFeatureExtractor.hashCharGrams(scratch);
+
+        String normalized = new String(scratch.text, 0, scratch.length);
+        for (int n = NgramFeatureExtractor.MIN_GRAM; n <= NgramFeatureExtractor.MAX_GRAM; n++) {
+            assertEquals(normalized.length() - n + 1, scratch.gramCounts[n]);
+            for (int i = 0; i <= normalized.length() - n; i++) {
+                assertEquals(fnv1a32(normalized.substring(i, i + n)), scratch.gramHashes[n][i]);
+            }
+        }
+    }
+
+    @Test
+    void shouldCountTermHashesInFirstOccurrenceOrder() {
+        NgramFeatureExtractor.Scratch scratch = NgramFeatureExtractor.acquire();
+
+        int total = NgramFeatureExtractor.countTermHashes("Risk-scoring, RISK a b model risk!", scratch);
+
+        assertEquals(5, total);
+        assertEquals(3, scratch.terms.size());
+        assertEquals(fnv1a32("risk"), scratch.terms.keyAt(0));
+        assertEquals(3, scratch.terms.countAt(0));
+        assertEquals(fnv1a32("scoring"), scratch.terms.keyAt(1));
+        assertEquals(fnv1a32("model"), scratch.terms.keyAt(2));
+    }
+
+    @Test
+    void shouldGrowCounterBeyondInitialCapacity() {
+        NgramFeatureExtractor.IntCounter counter = new NgramFeatureExtractor.IntCounter();
+        for (int i = 0; i < 10_000; i++) {
+            counter.add(i * 31, 1);
+            counter.add(i * 31, 1);
+        }
+
+        assertEquals(10_000, counter.size());
+        assertEquals(2, counter.get(31 * 4_321, 0));
+        assertEquals(0, counter.get(-7, 0));
+    }
+
+    @Test
+    void shouldNotLendAScratchTwice() {
+        NgramFeatureExtractor.Scratch first = NgramFeatureExtractor.acquire();
+        NgramFeatureExtractor.Scratch second = NgramFeatureExtractor.acquire();
+
+        assertNotSame(first, second);
+
+        NgramFeatureExtractor.release(first);
+        NgramFeatureExtractor.release(second);
+    }
+
+    @Test
+    void shouldReuseReleasedScratchOnOtherThreads() throws InterruptedException {
+        NgramFeatureExtractor.Scratch released = NgramFeatureExtractor.acquire();
+        NgramFeatureExtractor.release(released);
+
+        // Virtual threads per call, as when embedding is offloaded
+        List<NgramFeatureExtractor.Scratch> taken = new ArrayList<>();
+        Thread.ofVirtual().start(() -> {
+            for (int i = 0; i <= 2 * Runtime.getRuntime().availableProcessors(); i++) {
+                taken.add(NgramFeatureExtractor.acquire());
+            }
+            taken.forEach(NgramFeatureExtractor::release);
+        }).join();
+
+        assertTrue(taken.contains(released));
+    }
+
+    private static int fnv1a32(String value) {
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
@@ -9,6 +9,7 @@ import tech.kayys.wayang.guardrails.GuardrailResult;
 import tech.kayys.wayang.guardrails.GuardrailPolicy;
 import tech.kayys.wayang.guardrails.ExecuteNodeTask;
 import tech.kayys.wayang.guardrails.ExecutionResult;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,9 +36,8 @@ public class PolicyBasedGuardrailsEngine implements GuardrailsEngine {
                 task.inputs(),
                 new NodeContext.NodeMetadata("system", Map.of()));
 
-        PolicyEvaluationResult policyEvaluationResult = policyEngine.evaluatePolicies(
-                context,
-                CheckPhase.PRE_EXECUTION).await().indefinitely();
+        PolicyEvaluationResult policyEvaluationResult = BlockingSections.await("guardrails",
+                policyEngine.evaluatePolicies(context, CheckPhase.PRE_EXECUTION));
 
         if (!policyEvaluationResult.allowed()) {
             violations.add(policyEvaluationResult.policyId());
@@ -7,5 +7,6 @@ public record PagedTaskResponse(
         int page,
         int size,
         long totalElements,
-        int totalPages) {
+        int totalPages,
+        String nextCursor) {
 }
\ No newline at end of file
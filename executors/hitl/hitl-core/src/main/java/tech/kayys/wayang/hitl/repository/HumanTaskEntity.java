@@ -25,8 +25,9 @@ import java.util.*;
  */
 @Entity
 @Table(name = "human_tasks", indexes = {
-        @Index(name = "idx_ht_tenant_status", columnList = "tenant_id, status"),
-        @Index(name = "idx_ht_assignee", columnList = "assignee_identifier, status"),
+        // Trailing (priority, created_at, id) serves keyset inbox pages
+        @Index(name = "idx_ht_tenant_status_seek", columnList = "tenant_id, status, priority, created_at, id"),
+        @Index(name = "idx_ht_assignee_seek", columnList = "assignee_identifier, status, priority, created_at, id"),
         @Index(name = "idx_ht_workflow", columnList = "workflow_run_id"),
         @Index(name = "idx_ht_due_date", columnList = "due_date, status"),
         @Index(name = "idx_ht_created_at", columnList = "created_at")
@@ -3,22 +3,132 @@ package tech.kayys.wayang.hitl.repository;
 import io.quarkus.panache.common.Sort;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import tech.kayys.wayang.hitl.domain.HumanTaskStatus;
 
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Advanced query service
+ *
+ * Inbox views page with {@link #queryPage(TaskQueryFilter)}, which seeks on
+ * (priority, createdAt, id) so every page costs the same index range scan.
+ * Offset paging via {@link #query(TaskQueryFilter)} is kept for arbitrary
+ * sort columns. Counts are cached briefly per filter since inbox totals only
+ * need to be approximately right.
  */
 @ApplicationScoped
 public class HumanTaskQueryService {
 
+    private static final int MAX_CACHED_COUNTS = 1024;
+
+    @ConfigProperty(name = "gamelan.hitl.query.count-cache-ttl-ms", defaultValue = "30000")
+    long countCacheTtlMs = 30000L;
+
+    private final Map<String, CachedCount> countCache = new ConcurrentHashMap<>();
+
     public Uni<List<HumanTaskEntity>> query(TaskQueryFilter filter) {
-        StringBuilder query = new StringBuilder("1 = 1");
         Map<String, Object> params = new HashMap<>();
+        String query = where(filter, params);
+
+        // Sort
+        Sort sort = filter.isSortAscending() ? Sort.by(filter.getSortBy()).ascending()
+                : Sort.by(filter.getSortBy()).descending();
+
+        return HumanTaskEntity.find(query, sort, params)
+                .page(filter.getPage(), filter.getSize())
+                .list();
+    }
+
+    /**
+     * Keyset page ordered by (priority, createdAt, id), all in the filter's
+     * sort direction. Pass the previous page's {@code nextCursor} via
+     * {@link TaskQueryFilter#setCursor(String)}; the cursor's direction wins
+     * so a page sequence stays stable.
+     *
+     * @throws IllegalArgumentException when the cursor is malformed
+     */
+    public Uni<TaskPage> queryPage(TaskQueryFilter filter) {
+        TaskCursor cursor = filter.getCursor() == null || filter.getCursor().isBlank()
+                ? null
+                : TaskCursor.decode(filter.getCursor());
+        boolean ascending = cursor != null ? cursor.ascending() : filter.isSortAscending();
+        int size = Math.max(1, filter.getSize());
+
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder query = new StringBuilder(where(filter, params));
+        if (cursor != null) {
+            // Leading bound on priority keeps this an index range scan
+            String op = ascending ? ">" : "<";
+            query.append(" and priority ").append(op).append("= :cursorPriority")
+                    .append(" and (priority ").append(op).append(" :cursorPriority")
+                    .append(" or (priority = :cursorPriority and (createdAt ").append(op).append(" :cursorCreatedAt")
+                    .append(" or (createdAt = :cursorCreatedAt and id ").append(op).append(" :cursorId))))");
+            params.put("cursorPriority", cursor.priority());
+            params.put("cursorCreatedAt", cursor.createdAt());
+            params.put("cursorId", cursor.id());
+        }
+
+        Sort.Direction direction = ascending ? Sort.Direction.Ascending : Sort.Direction.Descending;
+        Sort sort = Sort.by("priority", direction).and("createdAt", direction).and("id", direction);
+
+        // One extra row tells us whether another page exists
+        return HumanTaskEntity.<HumanTaskEntity>find(query.toString(), sort, params)
+                .range(0, size)
+                .list()
+                .map(rows -> {
+                    if (rows.size() <= size) {
+                        return new TaskPage(rows, null);
+                    }
+                    List<HumanTaskEntity> page = List.copyOf(rows.subList(0, size));
+                    return new TaskPage(page, TaskCursor.after(page.get(size - 1), ascending).encode());
+                });
+    }
+
+    /**
+     * Filtered count, served from a short-lived per-filter cache.
+     */
+    public Uni<Long> count(TaskQueryFilter filter) {
+        Map<String, Object> params = new HashMap<>();
+        String query = where(filter, params);
+        String key = cacheKey(query, params);
+        long now = System.currentTimeMillis();
+        CachedCount cached = countCache.get(key);
+        if (cached != null && cached.expiresAtMs() > now) {
+            return Uni.createFrom().item(cached.value());
+        }
+
+        return HumanTaskEntity.count(query, params)
+                .invoke(value -> cacheCount(key, value, now));
+    }
+
+    private void cacheCount(String key, long value, long now) {
+        if (countCacheTtlMs <= 0L) {
+            return;
+        }
+        if (countCache.size() >= MAX_CACHED_COUNTS) {
+            countCache.values().removeIf(entry -> entry.expiresAtMs() <= now);
+            if (countCache.size() >= MAX_CACHED_COUNTS) {
+                countCache.clear();
+            }
+        }
+        countCache.put(key, new CachedCount(value, now + countCacheTtlMs));
+    }
+
+    private static String cacheKey(String query, Map<String, Object> params) {
+        Map<String, Object> sorted = new TreeMap<>(params);
+        // The overdue clock changes on every call; the TTL bounds its drift
+        sorted.remove("now");
+        return query + sorted;
+    }
+
+    private static String where(TaskQueryFilter filter, Map<String, Object> params) {
+        StringBuilder query = new StringBuilder("1 = 1");
 
         // Build dynamic query
         if (filter.getTenantId() != null) {
@@ -85,21 +195,9 @@ public class HumanTaskQueryService {
             params.put("escalated", filter.getEscalated());
         }
 
-        // Sort
-        Sort sort = filter.isSortAscending() ? Sort.by(filter.getSortBy()).ascending()
-                : Sort.by(filter.getSortBy()).descending();
-
-        return HumanTaskEntity.find(query.toString(), sort, params)
-                .page(filter.getPage(), filter.getSize())
-                .list();
+        return query.toString();
     }
 
-    public Uni<Long> count(TaskQueryFilter filter) {
-        StringBuilder query = new StringBuilder("1 = 1");
-        Map<String, Object> params = new HashMap<>();
-
-        // Same filter logic as above (omitted for brevity)
-
-        return HumanTaskEntity.count(query.toString(), params);
+    private record CachedCount(long value, long expiresAtMs) {
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,8 @@ import io.quarkus.hibernate.reactive.panache.PanacheRepository;
 import io.quarkus.panache.common.Sort;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import tech.kayys.wayang.hitl.domain.*;
 
 import java.time.Instant;
@@ -16,6 +18,9 @@ import java.util.List;
 @ApplicationScoped
 public class HumanTaskRepository implements PanacheRepository<HumanTaskEntity> {
 
+    @Inject
+    Event<HumanTaskSavedEvent> taskSaved;
+
     /**
      * Save human task with audit trail
      */
@@ -26,7 +31,23 @@ public class HumanTaskRepository implements PanacheRepository<HumanTaskEntity> {
                 .flatMap(persisted -> saveAssignmentHistory(task))
                 .flatMap(v -> saveAuditTrail(task))
                 .replaceWith(task)
-                .invoke(() -> task.markEventsAsCommitted());
+                .invoke(() -> task.markEventsAsCommitted())
+                .invoke(() -> {
+                    if (taskSaved != null) {
+                        taskSaved.fire(new HumanTaskSavedEvent(task));
+                    }
+                });
+    }
+
+    /**
+     * Find tasks that can still reach a deadline (escalation, reminder, due)
+     */
+    public Uni<List<HumanTaskEntity>> findOpenTasks() {
+        return find("status in ?1", List.of(
+                HumanTaskStatus.CREATED,
+                HumanTaskStatus.ASSIGNED,
+                HumanTaskStatus.IN_PROGRESS,
+                HumanTaskStatus.ESCALATED)).list();
     }
 
     /**
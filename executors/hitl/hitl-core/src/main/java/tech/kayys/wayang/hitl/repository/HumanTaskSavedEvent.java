@@ -0,0 +1,9 @@
+package tech.kayys.wayang.hitl.repository;
+
+import tech.kayys.wayang.hitl.domain.HumanTask;
+
+/**
+ * HumanTaskSavedEvent - Fired after a task's new state is persisted
+ */
+public record HumanTaskSavedEvent(HumanTask task) {
+}
@@ -0,0 +1,53 @@
+package tech.kayys.wayang.hitl.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * TaskCursor - Opaque keyset position over (priority, createdAt, id)
+ *
+ * Encodes the sort key of the last task on a page so the next page can seek
+ * straight past it instead of skipping rows with an offset.
+ */
+public record TaskCursor(int priority, Instant createdAt, long id, boolean ascending) {
+
+    private static final String VERSION = "v1";
+
+    public static TaskCursor after(HumanTaskEntity last, boolean ascending) {
+        return new TaskCursor(last.priority, last.createdAt, last.id, ascending);
+    }
+
+    public String encode() {
+        String raw = String.join("|",
+                VERSION,
+                Integer.toString(priority),
+                Long.toString(createdAt.getEpochSecond()),
+                Integer.toString(createdAt.getNano()),
+                Long.toString(id),
+                ascending ? "a" : "d");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the cursor was not produced by
+     *                                  {@link #encode()}
+     */
+    public static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 6 || !VERSION.equals(parts[0])
+                    || !(parts[5].equals("a") || parts[5].equals("d"))) {
+                throw new IllegalArgumentException("Invalid task cursor");
+            }
+            return new TaskCursor(
+                    Integer.parseInt(parts[1]),
+                    Instant.ofEpochSecond(Long.parseLong(parts[2]), Integer.parseInt(parts[3])),
+                    Long.parseLong(parts[4]),
+                    parts[5].equals("a"));
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new IllegalArgumentException("Invalid task cursor", e);
+        }
+    }
+}
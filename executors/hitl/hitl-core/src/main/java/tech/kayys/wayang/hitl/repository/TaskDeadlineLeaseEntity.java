@@ -0,0 +1,87 @@
+package tech.kayys.wayang.hitl.repository;
+
+import io.quarkus.hibernate.reactive.panache.Panache;
+import io.quarkus.hibernate.reactive.panache.PanacheEntityBase;
+import io.smallrye.mutiny.Uni;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * TaskDeadlineLeaseEntity - Time-bound ownership of one deadline shard
+ *
+ * Lets several nodes share the deadline wheel without double-firing: a node
+ * only fires deadlines of tasks whose shard it currently leases.
+ */
+@Entity
+@Table(name = "human_task_deadline_leases")
+public class TaskDeadlineLeaseEntity extends PanacheEntityBase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskDeadlineLeaseEntity.class);
+
+    @Id
+    @Column(name = "shard")
+    public int shard;
+
+    @Column(name = "owner", nullable = false)
+    public String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    public Instant expiresAt;
+
+    /**
+     * Acquire or renew the lease on {@code shard} for {@code owner}. Succeeds
+     * when the shard is free, expired, or already held by {@code owner}.
+     * Losing the race for a shard's first insert yields {@code false}; any
+     * other failure is logged and propagated.
+     */
+    public static Uni<Boolean> tryAcquire(int shard, String owner, Duration ttl) {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(ttl);
+        return Panache.withTransaction(() -> update(
+                "owner = ?1, expiresAt = ?2 where shard = ?3 and (owner = ?1 or expiresAt < ?4)",
+                owner, expiresAt, shard, now)
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        return Uni.createFrom().item(true);
+                    }
+                    return TaskDeadlineLeaseEntity.<TaskDeadlineLeaseEntity>findById(shard)
+                            .flatMap(existing -> {
+                                if (existing != null) {
+                                    return Uni.createFrom().item(false);
+                                }
+                                TaskDeadlineLeaseEntity lease = new TaskDeadlineLeaseEntity();
+                                lease.shard = shard;
+                                lease.owner = owner;
+                                lease.expiresAt = expiresAt;
+                                return lease.persist().replaceWith(true);
+                            });
+                }))
+                // A concurrent first insert wins the shard
+                .onFailure(TaskDeadlineLeaseEntity::isConstraintViolation).recoverWithItem(false)
+                .onFailure().invoke(error -> LOG.error("Failed to acquire deadline shard {} for {}",
+                        shard, owner, error));
+    }
+
+    private static boolean isConstraintViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return true;
+            }
+            // SQLSTATE class 23: integrity constraint violation
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && sql.getSQLState().startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
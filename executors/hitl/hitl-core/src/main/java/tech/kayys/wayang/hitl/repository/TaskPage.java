@@ -0,0 +1,11 @@
+package tech.kayys.wayang.hitl.repository;
+
+import java.util.List;
+
+/**
+ * TaskPage - One keyset page of tasks
+ *
+ * {@code nextCursor} is null on the last page.
+ */
+public record TaskPage(List<HumanTaskEntity> tasks, String nextCursor) {
+}
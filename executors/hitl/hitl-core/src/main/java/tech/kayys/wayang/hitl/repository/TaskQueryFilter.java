@@ -28,6 +28,9 @@ public class TaskQueryFilter {
     private String sortBy = "createdAt";
     private boolean sortAscending = false;
 
+    // Keyset pagination, see HumanTaskQueryService#queryPage
+    private String cursor;
+
     // Getters and setters
     public String getTenantId() { return tenantId; }
     public void setTenantId(String tenantId) { this.tenantId = tenantId; }
@@ -82,4 +85,7 @@ public class TaskQueryFilter {
     public void setSortAscending(boolean sortAscending) {
         this.sortAscending = sortAscending;
     }
+
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
 }
\ No newline at end of file
@@ -74,7 +74,8 @@ public class HumanTaskResource {
             @QueryParam("page") @DefaultValue("0") int page,
             @QueryParam("size") @DefaultValue("20") int size,
             @QueryParam("sortBy") @DefaultValue("createdAt") String sortBy,
-            @QueryParam("sortAsc") @DefaultValue("false") boolean sortAsc) {
+            @QueryParam("sortAsc") @DefaultValue("false") boolean sortAsc,
+            @QueryParam("cursor") String cursor) {
 
         TaskQueryFilter filter = new TaskQueryFilter();
         filter.setTenantId(getCurrentTenantId());
@@ -97,6 +98,12 @@ public class HumanTaskResource {
         filter.setSortBy(sortBy);
         filter.setSortAscending(sortAsc);
 
+        if (cursor != null) {
+            // Keyset paging: an empty cursor asks for the first page
+            filter.setCursor(cursor);
+            return listTaskPage(filter);
+        }
+
         return Uni.combine().all()
             .unis(
                 queryService.query(filter),
@@ -116,7 +123,37 @@ public class HumanTaskResource {
                     page,
                     size,
                     total,
-                    (int) Math.ceil((double) total / size)
+                    (int) Math.ceil((double) total / size),
+                    null
+                );
+
+                return RestResponse.ok(response);
+            });
+    }
+
+    private Uni<RestResponse<PagedTaskResponse>> listTaskPage(TaskQueryFilter filter) {
+        Uni<TaskPage> page;
+        try {
+            page = queryService.queryPage(filter);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().failure(
+                new WayangException(ErrorCode.VALIDATION_FAILED, e.getMessage(), e));
+        }
+
+        return Uni.combine().all()
+            .unis(page, queryService.count(filter))
+            .asTuple()
+            .map(tuple -> {
+                TaskPage taskPage = tuple.getItem1();
+                Long total = tuple.getItem2();
+
+                PagedTaskResponse response = new PagedTaskResponse(
+                    taskPage.tasks().stream().map(this::toDto).toList(),
+                    0,
+                    filter.getSize(),
+                    total,
+                    (int) Math.ceil((double) total / filter.getSize()),
+                    taskPage.nextCursor()
                 );
 
                 return RestResponse.ok(response);
@@ -26,6 +26,14 @@ public class EscalationService {
     @Inject
     HumanTaskRepository repository;
 
+    @Inject
+    HumanTaskService taskService;
+
+    @Inject
+    TaskDeadlineScheduler deadlineScheduler;
+
+    private static final String DEFAULT_ESCALATION_TARGET = "admin@company.com";
+
     // Escalation rules by priority
     private static final Map<Integer, Duration> ESCALATION_THRESHOLDS = Map.of(
         5, Duration.ofHours(4),   // Critical - 4 hours
@@ -43,11 +51,43 @@ public class EscalationService {
         LOG.info("Scheduling escalation for task {} to {} after {}",
             taskId.value(), escalateTo, after);
 
-        // In production, schedule using Quartz or similar
-        // For now, we'll check during scheduled job
+        if (deadlineScheduler != null) {
+            deadlineScheduler.schedule(taskId.value(), TaskDeadlineScheduler.DeadlineKind.ESCALATION,
+                Instant.now().plus(after));
+        }
         return Uni.createFrom().voidItem();
     }
 
+    /**
+     * When an ASSIGNED task escalates: its escalationConfig.escalateAfterHours
+     * if set, otherwise the threshold for its priority
+     */
+    static Instant escalationDeadline(int priority, Instant createdAt, Map<String, Object> context) {
+        Duration threshold = ESCALATION_THRESHOLDS.getOrDefault(priority, ESCALATION_THRESHOLDS.get(3));
+        Object escalationConfig = context == null ? null : context.get("escalationConfig");
+        if (escalationConfig instanceof Map<?, ?> config
+                && config.get("escalateAfterHours") instanceof Number hours) {
+            threshold = Duration.ofHours(hours.longValue());
+        }
+        return createdAt.plus(threshold);
+    }
+
+    /**
+     * Escalate a task whose deadline fired, unless it moved on in the
+     * meantime
+     */
+    public Uni<Void> escalateIfDue(String taskId) {
+        return taskService.getTask(HumanTaskId.of(taskId))
+            .flatMap(task -> {
+                if (task.getStatus() != HumanTaskStatus.ASSIGNED || task.getEscalationState() != null) {
+                    return Uni.createFrom().voidItem();
+                }
+                LOG.info("Escalating task: {} - {}", taskId, task.getTitle());
+                task.escalate(EscalationReason.TIMEOUT, determineEscalationTarget(task.getContext()));
+                return repository.save(task).replaceWithVoid();
+            });
+    }
+
     public Uni<Integer> processEscalations() {
         LOG.debug("Processing task escalations");
 
@@ -84,7 +124,7 @@ public class EscalationService {
         // Determine escalation target
         String escalateTo = determineEscalationTarget(taskEntity);
 
-        return new HumanTaskService().getTask(HumanTaskId.of(taskEntity.taskId))
+        return taskService.getTask(HumanTaskId.of(taskEntity.taskId))
             .flatMap(task -> {
                 task.escalate(EscalationReason.TIMEOUT, escalateTo);
                 return repository.save(task);
@@ -95,6 +135,14 @@ public class EscalationService {
     private String determineEscalationTarget(HumanTaskEntity task) {
         // In production, look up manager/escalation chain
         // For now, return system admin
-        return "admin@company.com";
+        return DEFAULT_ESCALATION_TARGET;
+    }
+
+    private String determineEscalationTarget(Map<String, Object> context) {
+        Object escalationConfig = context == null ? null : context.get("escalationConfig");
+        if (escalationConfig instanceof Map<?, ?> config && config.get("escalateTo") instanceof String escalateTo) {
+            return escalateTo;
+        }
+        return DEFAULT_ESCALATION_TARGET;
     }
 }
\ No newline at end of file
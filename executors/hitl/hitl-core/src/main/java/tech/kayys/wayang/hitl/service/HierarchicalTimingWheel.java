@@ -0,0 +1,205 @@
+package tech.kayys.wayang.hitl.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by an arbitrary deadline key
+ *
+ * Level 0 has one bucket per tick; each higher level covers a whole
+ * revolution of the level below per bucket. Scheduling, rescheduling and
+ * cancelling are O(1); advancing costs one bucket per elapsed tick plus an
+ * occasional cascade of a higher-level bucket. Deadlines beyond the wheel's
+ * span wait in an overflow list that is re-placed once per full revolution.
+ *
+ * Not thread-safe on its own; callers serialize access.
+ */
+final class HierarchicalTimingWheel<K> {
+
+    /**
+     * A deadline that came due.
+     */
+    record Expired<K>(K key, long dueMs) {
+    }
+
+    private final long tickMs;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final Node<K>[][] buckets;
+    private final int overflowLevel;
+    private final Map<K, Node<K>> index = new HashMap<>();
+    private final List<Node<K>> due = new ArrayList<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    HierarchicalTimingWheel(long tickMs, int bitsPerLevel, int levels, long startMs) {
+        if (tickMs <= 0 || bitsPerLevel <= 0 || levels <= 0 || bitsPerLevel * levels >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+        this.tickMs = tickMs;
+        this.bits = bitsPerLevel;
+        this.mask = (1 << bitsPerLevel) - 1;
+        this.levels = levels;
+        // One extra single-slot row holds the overflow list
+        this.buckets = new Node[levels + 1][];
+        for (int level = 0; level < levels; level++) {
+            buckets[level] = new Node[1 << bitsPerLevel];
+        }
+        buckets[levels] = new Node[1];
+        this.overflowLevel = levels;
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedule {@code key} at {@code dueMs}, replacing any earlier deadline for
+     * the same key. Past deadlines fire on the next {@link #advance(long)}.
+     */
+    void schedule(K key, long dueMs) {
+        cancel(key);
+        Node<K> node = new Node<>(key, dueMs, Math.floorDiv(dueMs + tickMs - 1, tickMs));
+        index.put(key, node);
+        place(node);
+    }
+
+    boolean cancel(K key) {
+        Node<K> node = index.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Move the wheel to {@code nowMs} and return everything that came due, in
+     * due-time order.
+     */
+    List<Expired<K>> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        if (index.isEmpty() && targetTick > currentTick) {
+            currentTick = targetTick;
+        }
+        List<Node<K>> fired = new ArrayList<>(drainDue());
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            int slot = (int) (currentTick & mask);
+            Node<K> node = buckets[0][slot];
+            buckets[0][slot] = null;
+            while (node != null) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.level = -1;
+                fired.add(node);
+                node = next;
+            }
+            fired.addAll(drainDue());
+        }
+        fired.sort(Comparator.comparingLong(node -> node.dueMs));
+        List<Expired<K>> expired = new ArrayList<>(fired.size());
+        for (Node<K> node : fired) {
+            index.remove(node.key, node);
+            expired.add(new Expired<>(node.key, node.dueMs));
+        }
+        return expired;
+    }
+
+    private void cascade() {
+        for (int level = 1; level <= levels; level++) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) != 0) {
+                return;
+            }
+            replace(level, level == overflowLevel ? 0 : (int) ((currentTick >>> (bits * level)) & mask));
+        }
+    }
+
+    private void replace(int level, int slot) {
+        Node<K> node = buckets[level][slot];
+        buckets[level][slot] = null;
+        while (node != null) {
+            Node<K> next = node.next;
+            node.prev = null;
+            node.next = null;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void place(Node<K> node) {
+        long delta = node.dueTick - currentTick;
+        if (delta <= 0) {
+            node.level = -1;
+            due.add(node);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < (1L << (bits * (level + 1)))) {
+                link(node, level, (int) ((node.dueTick >>> (bits * level)) & mask));
+                return;
+            }
+        }
+        link(node, overflowLevel, 0);
+    }
+
+    private void link(Node<K> node, int level, int slot) {
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = buckets[level][slot];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        buckets[level][slot] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.level < 0) {
+            due.remove(node);
+            return;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.level][node.slot] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private List<Node<K>> drainDue() {
+        if (due.isEmpty()) {
+            return List.of();
+        }
+        List<Node<K>> drained = new ArrayList<>(due);
+        due.clear();
+        return drained;
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private final long dueMs;
+        private final long dueTick;
+        private Node<K> prev;
+        private Node<K> next;
+        private int level;
+        private int slot;
+
+        Node(K key, long dueMs, long dueTick) {
+            this.key = key;
+            this.dueMs = dueMs;
+            this.dueTick = dueTick;
+        }
+    }
+}
@@ -51,6 +51,9 @@ public class HumanTaskExecutor {
     @Inject
     EscalationService escalationService;
 
+    @Inject
+    TaskDeadlineScheduler deadlineScheduler;
+
     // Track pending tasks waiting for completion
     private final Map<String, PendingTaskContext> pendingTasks = new ConcurrentHashMap<>();
 
@@ -247,10 +250,13 @@ public class HumanTaskExecutor {
 
     /**
      * Scheduled job to check for overdue tasks
-     * Runs every 5 minutes
+     * Runs every 5 minutes, unless the deadline wheel is active
      */
     @Scheduled(every = "5m")
     void checkOverdueTasks() {
+        if (deadlinesOnWheel()) {
+            return;
+        }
         LOG.debug("Checking for overdue tasks");
 
         // Process each tenant
@@ -265,10 +271,13 @@ public class HumanTaskExecutor {
 
     /**
      * Scheduled job to check for tasks requiring escalation
-     * Runs every 10 minutes
+     * Runs every 10 minutes, unless the deadline wheel is active
      */
     @Scheduled(every = "10m")
     void checkEscalations() {
+        if (deadlinesOnWheel()) {
+            return;
+        }
         LOG.debug("Checking for tasks requiring escalation");
 
         escalationService.processEscalations()
@@ -279,10 +288,13 @@ public class HumanTaskExecutor {
 
     /**
      * Scheduled job to send reminder notifications
-     * Runs every hour
+     * Runs every hour, unless the deadline wheel is active
      */
     @Scheduled(every = "1h")
     void sendReminders() {
+        if (deadlinesOnWheel()) {
+            return;
+        }
         LOG.debug("Sending task reminders");
 
         notificationService.sendTaskReminders()
@@ -293,6 +305,10 @@ public class HumanTaskExecutor {
 
     // ==================== PRIVATE HELPERS ====================
 
+    private boolean deadlinesOnWheel() {
+        return deadlineScheduler != null && deadlineScheduler.isActive();
+    }
+
     private Uni<Void> sendTaskNotifications(
             HumanTask task,
             Map<String, Object> config) {
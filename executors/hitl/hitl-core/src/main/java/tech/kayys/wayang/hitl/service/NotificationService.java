@@ -161,6 +161,29 @@ public class NotificationService {
                                 .onFailure().invoke(error -> LOG.error("Error sending task reminders", error));
         }
 
+        /**
+         * Send the reminder for one task whose reminder deadline fired, if it is
+         * still being worked on
+         */
+        public Uni<Void> sendTaskReminder(String taskId) {
+                return repository.find("taskId", taskId).firstResult()
+                                .flatMap(taskEntity -> {
+                                        if (taskEntity == null || taskEntity.dueDate == null
+                                                        || !(taskEntity.status == HumanTaskStatus.ASSIGNED
+                                                                        || taskEntity.status == HumanTaskStatus.IN_PROGRESS)) {
+                                                return Uni.createFrom().voidItem();
+                                        }
+                                        return sendReminderNotification(taskEntity);
+                                });
+        }
+
+        /**
+         * Lead time before the due date at which reminders go out
+         */
+        public Duration reminderLeadTime() {
+                return Duration.ofHours(reminderHoursBeforeDue);
+        }
+
         private Uni<Void> sendReminderNotification(HumanTaskEntity taskEntity) {
                 String taskUrl = appBaseUrl + "/tasks/" + taskEntity.taskId;
 
@@ -0,0 +1,352 @@
+package tech.kayys.wayang.hitl.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.kayys.wayang.hitl.domain.HumanTask;
+import tech.kayys.wayang.hitl.domain.HumanTaskId;
+import tech.kayys.wayang.hitl.domain.HumanTaskStatus;
+import tech.kayys.wayang.hitl.repository.HumanTaskEntity;
+import tech.kayys.wayang.hitl.repository.HumanTaskRepository;
+import tech.kayys.wayang.hitl.repository.HumanTaskSavedEvent;
+import tech.kayys.wayang.hitl.repository.TaskDeadlineLeaseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Event-driven deadline scheduling for human tasks
+ *
+ * Holds each open task's next escalation, reminder and due deadline in a
+ * hierarchical timing wheel instead of polling the database for them. The
+ * wheel is rebuilt from the database on startup and kept current from
+ * {@link HumanTaskSavedEvent}; deadlines fire in due-time order, accurate to
+ * one tick. Firing re-reads the task, so a stale deadline is a no-op.
+ * Reminders and overdue notices already in the past are only caught up by
+ * the startup rebuild, so later saves and resyncs do not resend them.
+ *
+ * With {@code gamelan.hitl.deadlines.lease.enabled}, tasks hash into shards
+ * and a node only fires deadlines of shards it holds a database lease on.
+ * Nothing is rebuilt before the first leases are held; a node rebuilds when it
+ * gains a shard, catching up that shard's past reminders and overdue notices,
+ * and every {@code lease.resync-ms} to pick up tasks saved on other nodes.
+ * Deadlines of shards held elsewhere are re-queued one lease renewal later
+ * rather than dropped, so they still fire if this node takes the shard over.
+ * A takeover may therefore repeat a notice the previous owner already sent.
+ *
+ * The ticker and startup threads carry no Vert.x context, so every database
+ * call (rebuild, firing, lease renewal) is started on a new duplicated context.
+ */
+@ApplicationScoped
+public class TaskDeadlineScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TaskDeadlineScheduler.class);
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+
+    public enum DeadlineKind {
+        ESCALATION,
+        REMINDER,
+        OVERDUE
+    }
+
+    record DeadlineKey(String taskId, DeadlineKind kind) {
+    }
+
+    @Inject
+    HumanTaskRepository repository;
+
+    @Inject
+    HumanTaskService humanTaskService;
+
+    @Inject
+    EscalationService escalationService;
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.tick-ms", defaultValue = "1000")
+    long tickMs;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.lease.enabled", defaultValue = "false")
+    boolean leaseEnabled;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.lease.shards", defaultValue = "16")
+    int leaseShards;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.lease.ttl-ms", defaultValue = "30000")
+    long leaseTtlMs;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.lease.resync-ms", defaultValue = "300000")
+    long leaseResyncMs;
+
+    @ConfigProperty(name = "gamelan.hitl.deadlines.node-id")
+    Optional<String> nodeId;
+
+    LongSupplier clock = System::currentTimeMillis;
+
+    private HierarchicalTimingWheel<DeadlineKey> wheel;
+    private ScheduledExecutorService ticker;
+    private AtomicLongArray leasedUntil;
+    private String owner;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            LOG.info("Task deadline wheel disabled; falling back to polling");
+            return;
+        }
+        initialize();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hitl-deadline-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        if (leaseEnabled) {
+            // The first renewal runs at once and rebuilds, with catch-up, the shards it gains
+            ticker.scheduleAtFixedRate(this::renewLeases, 0L, renewIntervalMs(), TimeUnit.MILLISECONDS);
+            ticker.scheduleAtFixedRate(() -> rebuild(false), leaseResyncMs, leaseResyncMs,
+                TimeUnit.MILLISECONDS);
+        } else {
+            rebuild(true);
+        }
+    }
+
+    void initialize() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, WHEEL_BITS, WHEEL_LEVELS, clock.getAsLong());
+        owner = nodeId.orElseGet(() -> UUID.randomUUID().toString());
+        if (leaseEnabled) {
+            leasedUntil = new AtomicLongArray(leaseShards);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Whether deadlines are served by the wheel rather than polling
+     */
+    public boolean isActive() {
+        return wheel != null;
+    }
+
+    void onTaskSaved(@Observes HumanTaskSavedEvent event) {
+        HumanTask task = event.task();
+        track(task.getId().value(), task.getStatus(), task.getEscalationState() != null, task.getPriority(),
+            task.getCreatedAt(), task.getDueDate(), task.getContext(), false);
+    }
+
+    public void schedule(String taskId, DeadlineKind kind, Instant dueAt) {
+        if (wheel == null) {
+            return;
+        }
+        synchronized (wheel) {
+            wheel.schedule(new DeadlineKey(taskId, kind), dueAt.toEpochMilli());
+        }
+    }
+
+    /**
+     * Number of deadlines currently held by the wheel
+     */
+    int pendingDeadlines() {
+        if (wheel == null) {
+            return 0;
+        }
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Reload every open task's deadlines from the database
+     */
+    void rebuild(boolean catchUp) {
+        rebuild(shard -> catchUp);
+    }
+
+    /**
+     * Reload every open task's deadlines, catching up past reminders and
+     * overdue notices only for tasks in the shards {@code catchUpShard}
+     * accepts
+     */
+    void rebuild(IntPredicate catchUpShard) {
+        runOnContext(() -> repository.findOpenTasks()
+            .subscribe().with(
+                tasks -> {
+                    tasks.forEach(task -> track(task, catchUpShard.test(shardOf(task.taskId))));
+                    LOG.info("Deadline wheel rebuilt from {} open tasks", tasks.size());
+                },
+                error -> LOG.error("Failed to rebuild deadline wheel", error)));
+    }
+
+    /**
+     * Run {@code task} on a new duplicated Vert.x context, which reactive
+     * Panache needs for its session
+     */
+    void runOnContext(Runnable task) {
+        Context context = VertxContext.createNewDuplicatedContext(vertx.getOrCreateContext());
+        context.runOnContext(ignored -> task.run());
+    }
+
+    private void track(HumanTaskEntity entity, boolean catchUp) {
+        Map<String, Object> context = entity.contextData == null || entity.contextData.isBlank()
+            ? Map.of()
+            : new JsonObject(entity.contextData).getMap();
+        track(entity.taskId, entity.status, entity.escalated, entity.priority, entity.createdAt, entity.dueDate,
+            context, catchUp);
+    }
+
+    private void track(String taskId, HumanTaskStatus status, boolean escalated, int priority,
+            Instant createdAt, Instant dueDate, Map<String, Object> context, boolean catchUp) {
+        if (wheel == null) {
+            return;
+        }
+        boolean open = status != null && !status.isTerminal();
+        boolean working = status == HumanTaskStatus.ASSIGNED || status == HumanTaskStatus.IN_PROGRESS;
+        Instant now = Instant.ofEpochMilli(clock.getAsLong());
+        Instant reminderAt = working && dueDate != null ? dueDate.minus(notificationService.reminderLeadTime()) : null;
+        Instant overdueAt = open ? dueDate : null;
+        synchronized (wheel) {
+            // Escalation re-checks task state when firing, so past deadlines are safe to re-arm
+            update(taskId, DeadlineKind.ESCALATION,
+                status == HumanTaskStatus.ASSIGNED && !escalated && createdAt != null
+                    ? EscalationService.escalationDeadline(priority, createdAt, context)
+                    : null);
+            update(taskId, DeadlineKind.REMINDER, catchUp || notPast(reminderAt, now) ? reminderAt : null);
+            update(taskId, DeadlineKind.OVERDUE, catchUp || notPast(overdueAt, now) ? overdueAt : null);
+        }
+    }
+
+    private static boolean notPast(Instant deadline, Instant now) {
+        return deadline != null && deadline.isAfter(now);
+    }
+
+    private void update(String taskId, DeadlineKind kind, Instant dueAt) {
+        DeadlineKey key = new DeadlineKey(taskId, kind);
+        if (dueAt == null) {
+            wheel.cancel(key);
+        } else {
+            wheel.schedule(key, dueAt.toEpochMilli());
+        }
+    }
+
+    void tick() {
+        try {
+            List<DeadlineKey> owned = new ArrayList<>();
+            long nowMs = clock.getAsLong();
+            synchronized (wheel) {
+                for (HierarchicalTimingWheel.Expired<DeadlineKey> deadline : wheel.advance(nowMs)) {
+                    if (owns(deadline.key().taskId(), nowMs)) {
+                        owned.add(deadline.key());
+                    } else {
+                        // Another node may hold the shard now, but this one may take it over
+                        wheel.schedule(deadline.key(), nowMs + renewIntervalMs());
+                    }
+                }
+            }
+            for (DeadlineKey key : owned) {
+                runOnContext(() -> Uni.createFrom().deferred(() -> fire(key)).subscribe().with(
+                    ignored -> LOG.debug("Deadline {} handled for task {}", key.kind(), key.taskId()),
+                    error -> LOG.error("Deadline {} failed for task {}", key.kind(), key.taskId(), error)));
+            }
+        } catch (RuntimeException e) {
+            // Keep the ticker alive; a failed tick must not stop later ones
+            LOG.error("Deadline wheel tick failed", e);
+        }
+    }
+
+    private Uni<Void> fire(DeadlineKey key) {
+        return switch (key.kind()) {
+            case ESCALATION -> escalationService.escalateIfDue(key.taskId());
+            case REMINDER -> notificationService.sendTaskReminder(key.taskId());
+            case OVERDUE -> humanTaskService.getTask(HumanTaskId.of(key.taskId()))
+                .flatMap(task -> task.getStatus().isTerminal()
+                    ? Uni.createFrom().voidItem()
+                    : notificationService.sendOverdueNotification(task));
+        };
+    }
+
+    private boolean owns(String taskId, long nowMs) {
+        if (!leaseEnabled) {
+            return true;
+        }
+        // Stop firing a tick before the lease runs out
+        return nowMs + tickMs < leasedUntil.get(shardOf(taskId));
+    }
+
+    private int shardOf(String taskId) {
+        return leaseEnabled ? Math.floorMod(taskId.hashCode(), leaseShards) : 0;
+    }
+
+    private long renewIntervalMs() {
+        return Math.max(tickMs, leaseTtlMs / 3);
+    }
+
+    void renewLeases() {
+        Duration ttl = Duration.ofMillis(leaseTtlMs);
+        List<Uni<Integer>> renewals = new ArrayList<>(leaseShards);
+        for (int shard = 0; shard < leaseShards; shard++) {
+            int leasedShard = shard;
+            long requestedAt = clock.getAsLong();
+            renewals.add(Uni.createFrom().deferred(() -> acquireLease(leasedShard, ttl))
+                // Already logged; a shard whose lease could not be confirmed is not held
+                .onFailure().recoverWithItem(false)
+                .map(acquired -> {
+                    long previous = leasedUntil.getAndSet(leasedShard, acquired ? requestedAt + leaseTtlMs : 0L);
+                    boolean gained = acquired && previous < requestedAt;
+                    if (gained) {
+                        LOG.info("Acquired deadline shard {}", leasedShard);
+                    }
+                    return gained ? leasedShard : -1;
+                }));
+        }
+        runOnContext(() -> Uni.join().all(renewals).andFailFast()
+            .subscribe().with(
+                results -> {
+                    Set<Integer> gained = results.stream().filter(shard -> shard >= 0).collect(Collectors.toSet());
+                    // Shards we just took over may hold tasks saved on another node, and
+                    // deadlines that passed while nobody held them
+                    if (!gained.isEmpty()) {
+                        rebuild(gained::contains);
+                    }
+                },
+                error -> LOG.warn("Failed to renew deadline shard leases", error)));
+    }
+
+    Uni<Boolean> acquireLease(int shard, Duration ttl) {
+        return TaskDeadlineLeaseEntity.tryAcquire(shard, owner, ttl);
+    }
+}
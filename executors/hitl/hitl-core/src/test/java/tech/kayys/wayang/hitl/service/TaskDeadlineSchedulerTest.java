@@ -0,0 +1,276 @@
+package tech.kayys.wayang.hitl.service;
+
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.hitl.domain.HumanTask;
+import tech.kayys.wayang.hitl.domain.HumanTaskId;
+import tech.kayys.wayang.hitl.domain.HumanTaskStatus;
+import tech.kayys.wayang.hitl.repository.HumanTaskEntity;
+import tech.kayys.wayang.hitl.repository.HumanTaskRepository;
+import tech.kayys.wayang.hitl.repository.HumanTaskSavedEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskDeadlineSchedulerTest {
+
+    private static final Instant START = Instant.parse("2026-03-02T09:00:00Z");
+
+    private final HumanTaskRepository repository = mock(HumanTaskRepository.class);
+    private final HumanTaskService humanTaskService = mock(HumanTaskService.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final List<HumanTaskEntity> openTasks = new ArrayList<>();
+    private volatile long nowMs = START.toEpochMilli();
+    private volatile boolean leaseGranted;
+    private final Set<String> offContext = ConcurrentHashMap.newKeySet();
+    private TaskDeadlineScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findOpenTasks()).thenAnswer(invocation -> Uni.createFrom().item(List.copyOf(openTasks)));
+        when(notificationService.reminderLeadTime()).thenReturn(Duration.ofMinutes(10));
+        when(notificationService.sendTaskReminder(anyString())).thenReturn(Uni.createFrom().voidItem());
+        when(notificationService.sendOverdueNotification(any())).thenReturn(Uni.createFrom().voidItem());
+        HumanTask stored = task("t1", HumanTaskStatus.IN_PROGRESS, null);
+        when(humanTaskService.getTask(any(HumanTaskId.class))).thenReturn(Uni.createFrom().item(stored));
+
+        scheduler = new TaskDeadlineScheduler() {
+            @Override
+            Uni<Boolean> acquireLease(int shard, Duration ttl) {
+                recordContext("acquireLease " + shard);
+                return Uni.createFrom().item(leaseGranted);
+            }
+
+            @Override
+            void runOnContext(Runnable task) {
+                // Without Vert.x, run inline so the ticks below stay deterministic
+                if (vertx == null) {
+                    task.run();
+                } else {
+                    super.runOnContext(task);
+                }
+            }
+        };
+        scheduler.repository = repository;
+        scheduler.humanTaskService = humanTaskService;
+        scheduler.escalationService = mock(EscalationService.class);
+        scheduler.notificationService = notificationService;
+        scheduler.enabled = true;
+        scheduler.tickMs = 1000L;
+        scheduler.leaseShards = 4;
+        scheduler.leaseTtlMs = 30_000L;
+        scheduler.leaseResyncMs = 300_000L;
+        scheduler.nodeId = Optional.of("node-a");
+        scheduler.clock = () -> nowMs;
+    }
+
+    @Test
+    void startupRebuildCatchesUpPastDeadlines() {
+        openTasks.add(entity("t1", START.minus(Duration.ofMinutes(1))));
+        scheduler.initialize();
+
+        scheduler.rebuild(true);
+        advance(Duration.ofSeconds(1));
+
+        verify(notificationService).sendTaskReminder("t1");
+        verify(notificationService).sendOverdueNotification(any());
+        assertEquals(0, scheduler.pendingDeadlines());
+    }
+
+    @Test
+    void resyncDoesNotResendPastNotices() {
+        openTasks.add(entity("t1", START.minus(Duration.ofMinutes(1))));
+        scheduler.initialize();
+
+        scheduler.rebuild(false);
+        advance(Duration.ofSeconds(1));
+
+        verify(notificationService, never()).sendTaskReminder(anyString());
+        assertEquals(0, scheduler.pendingDeadlines());
+    }
+
+    @Test
+    void rebuiltDeadlinesFireWhenDue() {
+        openTasks.add(entity("t1", START.plus(Duration.ofHours(1))));
+        scheduler.initialize();
+        scheduler.rebuild(false);
+
+        advance(Duration.ofMinutes(49));
+        verify(notificationService, never()).sendTaskReminder(anyString());
+
+        advance(Duration.ofMinutes(2));
+        verify(notificationService).sendTaskReminder("t1");
+        verify(notificationService, never()).sendOverdueNotification(any());
+
+        advance(Duration.ofMinutes(10));
+        verify(notificationService).sendOverdueNotification(any());
+    }
+
+    @Test
+    void savedTerminalStateCancelsDeadlines() {
+        openTasks.add(entity("t1", START.plus(Duration.ofHours(1))));
+        scheduler.initialize();
+        scheduler.rebuild(false);
+        assertEquals(2, scheduler.pendingDeadlines());
+
+        scheduler.onTaskSaved(new HumanTaskSavedEvent(
+                task("t1", HumanTaskStatus.COMPLETED, START.plus(Duration.ofHours(1)))));
+        advance(Duration.ofHours(2));
+
+        assertEquals(0, scheduler.pendingDeadlines());
+        verify(notificationService, never()).sendTaskReminder(anyString());
+        verify(notificationService, never()).sendOverdueNotification(any());
+    }
+
+    @Test
+    void savedDueDateChangeMovesDeadlines() {
+        openTasks.add(entity("t1", START.plus(Duration.ofHours(1))));
+        scheduler.initialize();
+        scheduler.rebuild(false);
+
+        scheduler.onTaskSaved(new HumanTaskSavedEvent(
+                task("t1", HumanTaskStatus.IN_PROGRESS, START.plus(Duration.ofHours(3)))));
+
+        advance(Duration.ofMinutes(70));
+        verify(notificationService, never()).sendTaskReminder(anyString());
+        advance(Duration.ofMinutes(110));
+        verify(notificationService).sendTaskReminder("t1");
+    }
+
+    @Test
+    void unownedDeadlinesAreRequeuedAndFireAfterTakeover() {
+        scheduler.leaseEnabled = true;
+        openTasks.add(entity("t1", START.plus(Duration.ofMinutes(20))));
+        scheduler.initialize();
+        scheduler.renewLeases();
+        // No lease yet: nothing is rebuilt, so no catch-up ran for shards held elsewhere
+        verify(repository, never()).findOpenTasks();
+
+        scheduler.rebuild(false);
+        advance(Duration.ofMinutes(11));
+
+        verify(notificationService, never()).sendTaskReminder(anyString());
+        assertEquals(2, scheduler.pendingDeadlines());
+
+        // Takeover: a task whose deadline passed while the other node held the shard
+        openTasks.add(entity("t2", START.minus(Duration.ofMinutes(5))));
+        leaseGranted = true;
+        scheduler.renewLeases();
+        advance(Duration.ofSeconds(1));
+
+        verify(notificationService).sendTaskReminder("t1");
+        verify(notificationService).sendTaskReminder("t2");
+        verify(notificationService, times(2)).sendTaskReminder(anyString());
+    }
+
+    @Test
+    void lostLeaseStopsFiringWithoutDroppingDeadlines() {
+        scheduler.leaseEnabled = true;
+        leaseGranted = true;
+        openTasks.add(entity("t1", START.plus(Duration.ofMinutes(20))));
+        scheduler.initialize();
+        scheduler.renewLeases();
+        verify(repository).findOpenTasks();
+        assertEquals(2, scheduler.pendingDeadlines());
+
+        leaseGranted = false;
+        scheduler.renewLeases();
+        advance(Duration.ofMinutes(25));
+
+        verify(notificationService, never()).sendTaskReminder(anyString());
+        verify(notificationService, never()).sendOverdueNotification(any());
+        assertEquals(2, scheduler.pendingDeadlines());
+    }
+
+    @Test
+    void databaseCallsRunOnDuplicatedContexts() throws InterruptedException {
+        Vertx vertx = Vertx.vertx();
+        try {
+            when(repository.findOpenTasks()).thenAnswer(invocation -> {
+                recordContext("findOpenTasks");
+                return Uni.createFrom().item(List.copyOf(openTasks));
+            });
+            when(notificationService.sendTaskReminder(anyString())).thenAnswer(invocation -> {
+                recordContext("sendTaskReminder");
+                return Uni.createFrom().voidItem();
+            });
+            scheduler.vertx = vertx;
+            scheduler.leaseEnabled = true;
+            leaseGranted = true;
+            openTasks.add(entity("t1", START.minus(Duration.ofMinutes(5))));
+            scheduler.initialize();
+
+            // Called from the test thread, as from the ticker: no Vert.x context here
+            scheduler.renewLeases();
+            long waitUntil = System.currentTimeMillis() + 10_000L;
+            while (scheduler.pendingDeadlines() < 2 && System.currentTimeMillis() < waitUntil) {
+                Thread.sleep(10);
+            }
+            advance(Duration.ofSeconds(1));
+
+            verify(notificationService, timeout(10_000)).sendTaskReminder("t1");
+            assertTrue(offContext.isEmpty(), offContext.toString());
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().join();
+        }
+    }
+
+    private void recordContext(String call) {
+        // Reactive Panache fails outside a duplicated context
+        if (!VertxContext.isOnDuplicatedContext()) {
+            offContext.add(call);
+        }
+    }
+
+    /**
+     * Move the clock forward one tick at a time, as the ticker thread would.
+     */
+    private void advance(Duration duration) {
+        long target = nowMs + duration.toMillis();
+        while (nowMs < target) {
+            nowMs = Math.min(target, nowMs + scheduler.tickMs);
+            scheduler.tick();
+        }
+    }
+
+    private static HumanTaskEntity entity(String taskId, Instant dueDate) {
+        HumanTaskEntity entity = new HumanTaskEntity();
+        entity.taskId = taskId;
+        entity.status = HumanTaskStatus.IN_PROGRESS;
+        entity.priority = 3;
+        entity.createdAt = START.minus(Duration.ofHours(1));
+        entity.dueDate = dueDate;
+        return entity;
+    }
+
+    private static HumanTask task(String taskId, HumanTaskStatus status, Instant dueDate) {
+        HumanTask task = mock(HumanTask.class);
+        when(task.getId()).thenReturn(HumanTaskId.of(taskId));
+        when(task.getStatus()).thenReturn(status);
+        when(task.getPriority()).thenReturn(3);
+        when(task.getCreatedAt()).thenReturn(START.minus(Duration.ofHours(1)));
+        when(task.getDueDate()).thenReturn(dueDate);
+        when(task.getContext()).thenReturn(Map.of());
+        return task;
+    }
+}
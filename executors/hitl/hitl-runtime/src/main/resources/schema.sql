@@ -34,12 +34,20 @@ CREATE TABLE IF NOT EXISTS human_tasks (
 );
 
 -- Indexes for human_tasks
-CREATE INDEX idx_ht_tenant_status ON human_tasks(tenant_id, status);
-CREATE INDEX idx_ht_assignee ON human_tasks(assignee_identifier, status);
+-- Trailing (priority, created_at, id) serves keyset inbox pages
+CREATE INDEX idx_ht_tenant_status_seek ON human_tasks(tenant_id, status, priority, created_at, id);
+CREATE INDEX idx_ht_assignee_seek ON human_tasks(assignee_identifier, status, priority, created_at, id);
 CREATE INDEX idx_ht_workflow ON human_tasks(workflow_run_id);
 CREATE INDEX idx_ht_due_date ON human_tasks(due_date, status);
 CREATE INDEX idx_ht_created_at ON human_tasks(created_at);
 
+-- Deadline wheel shard leases (gamelan.hitl.deadlines.lease.enabled)
+CREATE TABLE IF NOT EXISTS human_task_deadline_leases (
+    shard INTEGER PRIMARY KEY,
+    owner VARCHAR(200) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
 -- Task Assignment History Table
 CREATE TABLE IF NOT EXISTS human_task_assignments (
     id BIGSERIAL PRIMARY KEY,
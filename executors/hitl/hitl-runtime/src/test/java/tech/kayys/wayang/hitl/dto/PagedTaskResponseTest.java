@@ -15,6 +15,7 @@ class PagedTaskResponseTest {
         int size = 20;
         long totalElements = 100;
         int totalPages = 5;
+        String nextCursor = "next";
 
         // When
         PagedTaskResponse response = new PagedTaskResponse(
@@ -22,7 +23,8 @@ class PagedTaskResponseTest {
             page,
             size,
             totalElements,
-            totalPages
+            totalPages,
+            nextCursor
         );
 
         // Then
@@ -31,5 +33,6 @@ class PagedTaskResponseTest {
         assertEquals(size, response.size());
         assertEquals(totalElements, response.totalElements());
         assertEquals(totalPages, response.totalPages());
+        assertEquals(nextCursor, response.nextCursor());
     }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package tech.kayys.wayang.hitl.repository;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+
+class TaskCursorTest {
+
+    @Test
+    void shouldRoundTripThroughOpaqueEncoding() {
+        // Given
+        HumanTaskEntity last = new HumanTaskEntity();
+        last.priority = 4;
+        last.createdAt = Instant.parse("2026-03-01T10:15:30.123456789Z");
+        last.id = 98765L;
+
+        // When
+        String encoded = TaskCursor.after(last, false).encode();
+        TaskCursor decoded = TaskCursor.decode(encoded);
+
+        // Then
+        assertFalse(encoded.contains("|"));
+        assertEquals(new TaskCursor(4, last.createdAt, 98765L, false), decoded);
+    }
+
+    @Test
+    void shouldRejectTamperedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode("djF8eHx5"));
+    }
+}
@@ -0,0 +1,80 @@
+package tech.kayys.wayang.hitl.service;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void shouldFireInDueTimeOrderAcrossLevels() {
+        // Given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000L, 4, 3, 0L);
+        wheel.schedule("late", 200_000L);
+        wheel.schedule("soon", 3_000L);
+        wheel.schedule("mid", 40_500L);
+
+        // When
+        List<HierarchicalTimingWheel.Expired<String>> early = wheel.advance(39_000L);
+        List<HierarchicalTimingWheel.Expired<String>> rest = wheel.advance(300_000L);
+
+        // Then
+        assertEquals(List.of("soon"), early.stream().map(HierarchicalTimingWheel.Expired::key).toList());
+        assertEquals(List.of("mid", "late"), rest.stream().map(HierarchicalTimingWheel.Expired::key).toList());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldNeverFireEarlyAndAtMostOneTickLate() {
+        // Given
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10L, 3, 3, 0L);
+        Random random = new Random(42);
+        long[] due = new long[500];
+        for (int i = 0; i < due.length; i++) {
+            // Includes deadlines past the wheel's 5120 ms span
+            due[i] = 1 + random.nextInt(20_000);
+            wheel.schedule(i, due[i]);
+        }
+
+        // When
+        List<Long> firedAt = new ArrayList<>();
+        int fired = 0;
+        for (long now = 0; now <= 20_010; now += 10) {
+            for (HierarchicalTimingWheel.Expired<Integer> expired : wheel.advance(now)) {
+                assertTrue(expired.dueMs() <= now, "fired early: " + expired);
+                assertTrue(now - due[expired.key()] < 10, "fired late: " + expired + " at " + now);
+                firedAt.add(expired.dueMs());
+                fired++;
+            }
+        }
+
+        // Then
+        assertEquals(due.length, fired);
+        List<Long> sorted = new ArrayList<>(firedAt);
+        sorted.sort(null);
+        assertEquals(sorted, firedAt);
+    }
+
+    @Test
+    void shouldCancelAndReschedule() {
+        // Given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000L, 6, 4, 0L);
+        wheel.schedule("cancelled", 5_000L);
+        wheel.schedule("moved", 5_000L);
+        wheel.schedule("moved", 90_000L);
+        wheel.schedule("overdue", -1L);
+
+        // When
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("missing"));
+        List<HierarchicalTimingWheel.Expired<String>> first = wheel.advance(10_000L);
+        List<HierarchicalTimingWheel.Expired<String>> second = wheel.advance(90_000L);
+
+        // Then
+        assertEquals(List.of("overdue"), first.stream().map(HierarchicalTimingWheel.Expired::key).toList());
+        assertEquals(List.of("moved"), second.stream().map(HierarchicalTimingWheel.Expired::key).toList());
+    }
+}
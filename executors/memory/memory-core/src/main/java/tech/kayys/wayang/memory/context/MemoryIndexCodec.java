@@ -0,0 +1,80 @@
+package tech.kayys.wayang.memory.context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compact binary encoding for a single index bucket (a set of memory ids).
+ *
+ * Layout: one format byte, a varint member count, then each member as a
+ * varint byte length followed by its UTF-8 bytes.
+ */
+final class MemoryIndexCodec {
+
+    static final byte FORMAT_V1 = 1;
+
+    private MemoryIndexCodec() {
+    }
+
+    static byte[] encode(Set<String> memoryIds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + memoryIds.size() * 40);
+        out.write(FORMAT_V1);
+        writeVarInt(out, memoryIds.size());
+        for (String id : memoryIds) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+
+    static Set<String> decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            return new HashSet<>();
+        }
+        if (data[0] != FORMAT_V1) {
+            throw new IllegalArgumentException("Unsupported memory index bucket format: " + data[0]);
+        }
+        int[] pos = { 1 };
+        int count = readVarInt(data, pos);
+        Set<String> ids = new HashSet<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            int length = readVarInt(data, pos);
+            if (pos[0] + length > data.length) {
+                throw new IllegalArgumentException("Truncated memory index bucket");
+            }
+            ids.add(new String(data, pos[0], length, StandardCharsets.UTF_8));
+            pos[0] += length;
+        }
+        return ids;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] data, int[] pos) {
+        int result = 0;
+        int shift = 0;
+        while (true) {
+            if (pos[0] >= data.length) {
+                throw new IllegalArgumentException("Truncated memory index bucket");
+            }
+            byte b = data[pos[0]++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new IllegalArgumentException("Malformed varint in memory index bucket");
+            }
+        }
+    }
+}
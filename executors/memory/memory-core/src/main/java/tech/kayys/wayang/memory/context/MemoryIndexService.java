@@ -1,10 +1,16 @@
 package tech.kayys.wayang.memory.context;
 
 import tech.kayys.wayang.memory.model.ConversationMemory;
+import io.quarkus.runtime.StartupEvent;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
-import io.vertx.mutiny.redis.client.RedisAPI;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import io.vertx.redis.client.Command;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,11 +25,27 @@ public class MemoryIndexService {
     
     private static final Logger LOG = LoggerFactory.getLogger(MemoryIndexService.class);
     
+    // Field/value pairs packed into a single HSET/HDEL of a pipelined batch
+    private static final int PERSIST_FIELDS_PER_COMMAND = 512;
+
+    // COUNT hint for each HSCAN/SCAN page when reloading or migrating an index
+    private static final int RELOAD_SCAN_COUNT = 1000;
+
+    // Set once every legacy per-bucket set has been folded into session hashes
+    static final String LAYOUT_MARKER_KEY = "index-layout:memory";
+    static final String LAYOUT_VERSION = "2";
+
     @Inject
-    RedisAPI redisAPI;
+    Redis redis;
     
     // In-memory inverted index for fast keyword search
     private final Map<String, Set<String>> invertedIndex = new ConcurrentHashMap<>();
+
+    // Index keys changed since the last flush, grouped by session
+    private final Map<String, Set<String>> dirtyKeys = new ConcurrentHashMap<>();
+
+    // Sessions whose persisted index has been read back since startup
+    private final Set<String> loadedSessions = ConcurrentHashMap.newKeySet();
     
     // Semantic hash index for approximate nearest neighbor search
     private final Map<String, Set<String>> semanticHashIndex = new ConcurrentHashMap<>();
@@ -35,7 +57,7 @@ public class MemoryIndexService {
         LOG.debug("Building inverted index for session: {} with {} memories", 
                  sessionId, memories.size());
         
-        return Uni.createFrom().item(() -> {
+        return ensureLoaded(sessionId).flatMap(loaded -> {
             Map<String, Set<String>> localIndex = new HashMap<>();
             
             for (ConversationMemory memory : memories) {
@@ -48,12 +70,17 @@ public class MemoryIndexService {
                 }
             }
             
-            // Update the global index
-            invertedIndex.putAll(localIndex);
+            // Update the global index, remembering only buckets that changed
+            for (Map.Entry<String, Set<String>> entry : localIndex.entrySet()) {
+                Set<String> previous = invertedIndex.put(entry.getKey(), entry.getValue());
+                if (!entry.getValue().equals(previous)) {
+                    markDirty(sessionId, entry.getKey());
+                }
+            }
             
             // Persist to Redis for durability
-            return persistIndexToRedis(sessionId, localIndex);
-        }).flatMap(uni -> uni).replaceWithVoid();
+            return persistIndexToRedis(sessionId);
+        }).replaceWithVoid();
     }
 
     /**
@@ -86,7 +113,7 @@ public class MemoryIndexService {
      * Fast keyword-based search using inverted index
      */
     public Uni<Set<String>> searchByKeywords(String sessionId, String query) {
-        return Uni.createFrom().item(() -> {
+        return ensureLoaded(sessionId).map(loaded -> {
             String[] queryTokens = tokenize(query);
             Set<String> results = new HashSet<>();
             
@@ -175,27 +202,238 @@ public class MemoryIndexService {
     }
 
     /**
-     * Persist index to Redis for durability
+     * Persist the session's dirty index buckets to Redis for durability.
+     *
+     * Buckets live as fields of one hash per session ({@code index:<sessionId>})
+     * holding {@link MemoryIndexCodec}-encoded id sets. All writes go out as a
+     * single pipelined batch of multi-field HSET/HDEL commands, so the number
+     * of round trips does not depend on how many buckets changed.
      */
-    private Uni<Void> persistIndexToRedis(String sessionId, Map<String, Set<String>> index) {
-        if (index.isEmpty()) return Uni.createFrom().voidItem();
-        
-        List<Uni<Void>> operations = new ArrayList<>();
-        
-        for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
-            String redisKey = "index:" + entry.getKey();
-            String[] values = entry.getValue().toArray(new String[0]);
-            
-            List<String> args = new ArrayList<>();
-            args.add(redisKey);
-            Collections.addAll(args, values);
-            
-            Uni<Void> op = redisAPI.sadd(args)
-                .replaceWithVoid();
-            operations.add(op);
+    public Uni<Void> persistIndexToRedis(String sessionId) {
+        Set<String> pending = dirtyKeys.remove(sessionId);
+        if (pending == null || pending.isEmpty()) return Uni.createFrom().voidItem();
+
+        String redisKey = redisIndexKey(sessionId);
+        String prefix = sessionId + ":";
+        List<Request> batch = new ArrayList<>();
+        Request hset = null;
+        Request hdel = null;
+        int setFields = 0;
+        int delFields = 0;
+
+        for (String indexKey : pending) {
+            String field = indexKey.substring(prefix.length());
+            Set<String> memoryIds = invertedIndex.get(indexKey);
+
+            if (memoryIds == null || memoryIds.isEmpty()) {
+                if (hdel == null || delFields == PERSIST_FIELDS_PER_COMMAND) {
+                    hdel = Request.cmd(Command.HDEL).arg(redisKey);
+                    batch.add(hdel);
+                    delFields = 0;
+                }
+                hdel.arg(field);
+                delFields++;
+                continue;
+            }
+
+            if (hset == null || setFields == PERSIST_FIELDS_PER_COMMAND) {
+                hset = Request.cmd(Command.HSET).arg(redisKey);
+                batch.add(hset);
+                setFields = 0;
+            }
+            hset.arg(field).arg(Buffer.buffer(MemoryIndexCodec.encode(memoryIds)));
+            setFields++;
         }
-        
-        return Uni.combine().all().unis(operations).discardItems();
+
+        return redis.batch(batch)
+            .onFailure().invoke(error -> {
+                LOG.warn("Failed to persist {} index buckets for session {}: {}",
+                        pending.size(), sessionId, error.getMessage());
+                // Keep the buckets dirty so the next flush retries them
+                dirtyKeys.computeIfAbsent(sessionId, k -> ConcurrentHashMap.newKeySet())
+                        .addAll(pending);
+            })
+            .replaceWithVoid();
+    }
+
+    /**
+     * Reload a session's inverted index from Redis.
+     *
+     * Streams the session hash with HSCAN so large indexes are restored page by
+     * page instead of materialising the whole hash in a single reply. Buckets
+     * already held in memory are newer than their persisted copy and are kept.
+     *
+     * @return the number of buckets restored
+     */
+    public Uni<Integer> reloadIndexFromRedis(String sessionId) {
+        return scanIndexPage(sessionId, "0", 0);
+    }
+
+    /**
+     * Restore the session's persisted index the first time the session is
+     * touched after a restart. A failed reload is retried on the next touch.
+     */
+    Uni<Void> ensureLoaded(String sessionId) {
+        if (loadedSessions.contains(sessionId)) {
+            return Uni.createFrom().voidItem();
+        }
+        return reloadIndexFromRedis(sessionId)
+            .invoke(() -> loadedSessions.add(sessionId))
+            .onFailure().invoke(error -> LOG.warn("Failed to reload index for session {}: {}",
+                    sessionId, error.getMessage()))
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+    }
+
+    private Uni<Integer> scanIndexPage(String sessionId, String cursor, int loaded) {
+        Request scan = Request.cmd(Command.HSCAN)
+            .arg(redisIndexKey(sessionId))
+            .arg(cursor)
+            .arg("COUNT")
+            .arg(String.valueOf(RELOAD_SCAN_COUNT));
+
+        return redis.send(scan).flatMap(response -> {
+            if (response == null) {
+                return Uni.createFrom().item(loaded);
+            }
+
+            String nextCursor = response.get(0).toString();
+            Response entries = response.get(1);
+            int restored = loaded;
+
+            for (int i = 0; i + 1 < entries.size(); i += 2) {
+                String indexKey = sessionId + ":" + entries.get(i).toString();
+                invertedIndex.putIfAbsent(indexKey, MemoryIndexCodec.decode(entries.get(i + 1).toBuffer().getBytes()));
+                restored++;
+            }
+
+            if ("0".equals(nextCursor)) {
+                LOG.debug("Reloaded {} index buckets for session: {}", restored, sessionId);
+                return Uni.createFrom().item(restored);
+            }
+            return scanIndexPage(sessionId, nextCursor, restored);
+        });
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        migrateLegacyIndex().subscribe().with(
+            migrated -> {
+                if (migrated > 0) {
+                    LOG.info("Migrated {} legacy memory index buckets to per-session hashes", migrated);
+                }
+            },
+            error -> LOG.warn("Legacy memory index migration failed, will retry on next start: {}",
+                    error.getMessage()));
+    }
+
+    /**
+     * One-shot migration from the layout where every bucket was its own set
+     * at {@code index:<sessionId>:<token>}. Each page of legacy sets is merged
+     * into the sessions' hashes, after those sessions are loaded so no newer
+     * field is overwritten, and deleted once the hashes are written. A marker
+     * key skips the keyspace scan on later starts.
+     *
+     * @return the number of legacy buckets migrated
+     */
+    public Uni<Integer> migrateLegacyIndex() {
+        return redis.send(Request.cmd(Command.GET).arg(LAYOUT_MARKER_KEY)).flatMap(marker -> {
+            if (marker != null && LAYOUT_VERSION.equals(marker.toString())) {
+                return Uni.createFrom().item(0);
+            }
+            return migrateLegacyPage("0", 0).flatMap(migrated -> redis
+                .send(Request.cmd(Command.SET).arg(LAYOUT_MARKER_KEY).arg(LAYOUT_VERSION))
+                .replaceWith(migrated));
+        });
+    }
+
+    private Uni<Integer> migrateLegacyPage(String cursor, int migrated) {
+        Request scan = Request.cmd(Command.SCAN)
+            .arg(cursor)
+            .arg("MATCH")
+            .arg("index:*")
+            .arg("COUNT")
+            .arg(String.valueOf(RELOAD_SCAN_COUNT))
+            .arg("TYPE")
+            .arg("set");
+
+        return redis.send(scan).flatMap(response -> {
+            String nextCursor = response.get(0).toString();
+            Response keys = response.get(1);
+            List<String> legacyKeys = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                legacyKeys.add(keys.get(i).toString());
+            }
+
+            Uni<Integer> page = legacyKeys.isEmpty()
+                ? Uni.createFrom().item(0)
+                : migrateLegacyKeys(legacyKeys);
+            return page.flatMap(count -> "0".equals(nextCursor)
+                ? Uni.createFrom().item(migrated + count)
+                : migrateLegacyPage(nextCursor, migrated + count));
+        });
+    }
+
+    private Uni<Integer> migrateLegacyKeys(List<String> legacyKeys) {
+        // Tokens are [a-z0-9]+, so the session id is everything before the last colon
+        Set<String> sessions = new LinkedHashSet<>();
+        for (String key : legacyKeys) {
+            sessions.add(legacySessionId(key));
+        }
+
+        Uni<Void> loaded = Uni.createFrom().voidItem();
+        for (String sessionId : sessions) {
+            loaded = loaded.flatMap(ignored -> ensureLoaded(sessionId));
+        }
+
+        return loaded.flatMap(ignored -> {
+            List<Request> reads = new ArrayList<>(legacyKeys.size());
+            for (String key : legacyKeys) {
+                reads.add(Request.cmd(Command.SMEMBERS).arg(key));
+            }
+            return redis.batch(reads);
+        }).flatMap(members -> {
+            for (int i = 0; i < legacyKeys.size(); i++) {
+                String key = legacyKeys.get(i);
+                Response ids = members.get(i);
+                Set<String> bucket = new HashSet<>();
+                for (int j = 0; ids != null && j < ids.size(); j++) {
+                    bucket.add(ids.get(j).toString());
+                }
+                if (bucket.isEmpty()) {
+                    continue;
+                }
+                String sessionId = legacySessionId(key);
+                String indexKey = key.substring("index:".length());
+                invertedIndex.merge(indexKey, bucket, (current, legacy) -> {
+                    Set<String> union = new HashSet<>(current);
+                    union.addAll(legacy);
+                    return union;
+                });
+                markDirty(sessionId, indexKey);
+            }
+
+            Uni<Void> persisted = Uni.createFrom().voidItem();
+            for (String sessionId : sessions) {
+                persisted = persisted.flatMap(ignored -> persistIndexToRedis(sessionId));
+            }
+            return persisted;
+        }).flatMap(ignored -> {
+            Request del = Request.cmd(Command.DEL);
+            legacyKeys.forEach(del::arg);
+            return redis.send(del);
+        }).replaceWith(legacyKeys.size());
+    }
+
+    private static String legacySessionId(String legacyKey) {
+        return legacyKey.substring("index:".length(), legacyKey.lastIndexOf(':'));
+    }
+
+    private void markDirty(String sessionId, String indexKey) {
+        dirtyKeys.computeIfAbsent(sessionId, k -> ConcurrentHashMap.newKeySet()).add(indexKey);
+    }
+
+    private String redisIndexKey(String sessionId) {
+        return "index:" + sessionId;
     }
 
     /**
@@ -206,8 +444,11 @@ public class MemoryIndexService {
             // Remove from in-memory index
             invertedIndex.keySet().removeIf(key -> key.startsWith(sessionId + ":"));
             semanticHashIndex.keySet().removeIf(key -> key.startsWith(sessionId + ":"));
+            dirtyKeys.remove(sessionId);
+            loadedSessions.add(sessionId);
             
             return null;
-        }).replaceWithVoid();
+        }).flatMap(unused -> redis.send(Request.cmd(Command.DEL).arg(redisIndexKey(sessionId))))
+          .replaceWithVoid();
     }
 }
\ No newline at end of file
@@ -9,6 +9,10 @@ public class MemoryBackup {
     private final long size;
     private final Instant createdAt;
     private final byte[] data;
+    private final String parentBackupId;
+    private final long baseSequence;
+    private final long maxSequence;
+    private final int chunkCount;
 
     public MemoryBackup(
             String backupId,
@@ -17,12 +21,30 @@ public class MemoryBackup {
             long size,
             Instant createdAt,
             byte[] data) {
+        this(backupId, userId, sessionCount, size, createdAt, data, null, 0L, 0L, 0);
+    }
+
+    public MemoryBackup(
+            String backupId,
+            String userId,
+            int sessionCount,
+            long size,
+            Instant createdAt,
+            byte[] data,
+            String parentBackupId,
+            long baseSequence,
+            long maxSequence,
+            int chunkCount) {
         this.backupId = backupId;
         this.userId = userId;
         this.sessionCount = sessionCount;
         this.size = size;
         this.createdAt = createdAt;
         this.data = data;
+        this.parentBackupId = parentBackupId;
+        this.baseSequence = baseSequence;
+        this.maxSequence = maxSequence;
+        this.chunkCount = chunkCount;
     }
 
     public String getBackupId() { return backupId; }
@@ -31,4 +53,11 @@ public class MemoryBackup {
     public long getSize() { return size; }
     public Instant getCreatedAt() { return createdAt; }
     public byte[] getData() { return data; }
-}
\ No newline at end of file
+    /** Backup this one is incremental to, or {@code null} for a full backup. */
+    public String getParentBackupId() { return parentBackupId; }
+    /** Change sequence the backup starts after (exclusive). */
+    public long getBaseSequence() { return baseSequence; }
+    /** Highest change sequence captured; pass as the base of the next incremental. */
+    public long getMaxSequence() { return maxSequence; }
+    public int getChunkCount() { return chunkCount; }
+}
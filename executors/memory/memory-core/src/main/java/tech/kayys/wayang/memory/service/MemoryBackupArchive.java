@@ -0,0 +1,330 @@
+package tech.kayys.wayang.memory.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Chunked on-disk format for streamed memory backups.
+ *
+ * <pre>
+ * header : magic(int) version(byte) codec(byte) backupId(utf) userId(utf)
+ *          parentBackupId(utf) baseSequence(long)
+ * chunk  : CHUNK(byte) records(int) compressedLength(int) crc32(long) payload
+ * trailer: END(byte) chunks(int) records(long) maxSequence(long)
+ * </pre>
+ *
+ * Each payload is a gzip stream of length-prefixed records, and the CRC32 is
+ * computed over the compressed payload so corruption is detected before a
+ * chunk is inflated. The trailer totals must match the chunks actually read,
+ * so an archive cut off at a chunk boundary is rejected too. Only one chunk is
+ * held in memory at a time on either side.
+ */
+final class MemoryBackupArchive {
+
+    static final int MAGIC = 0x574D4231; // "WMB1"
+    static final byte VERSION = 1;
+    static final byte CODEC_GZIP = 1;
+
+    private static final byte CHUNK = 1;
+    private static final byte END = 0;
+
+    private MemoryBackupArchive() {
+    }
+
+    /**
+     * Archive header, also returned by the reader once the trailer is known.
+     */
+    record Header(String backupId, String userId, String parentBackupId, long baseSequence) {
+    }
+
+    /**
+     * Totals written in the archive trailer.
+     */
+    record Summary(int chunks, long records, long maxSequence, long sizeBytes) {
+    }
+
+    static Writer create(Path file, Header header) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        return new Writer(file, header);
+    }
+
+    static Reader open(Path file) throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * Walk the whole archive checking every chunk checksum and the trailer
+     * totals, without inflating anything. Restores verify first so a damaged
+     * or truncated archive fails before any context is written.
+     */
+    static Summary verify(Path file) throws IOException {
+        try (Reader reader = new Reader(file)) {
+            return reader.verifyRemaining();
+        }
+    }
+
+    static final class Writer implements Closeable {
+
+        private final Path file;
+        private final DataOutputStream out;
+        private int chunks;
+        private long records;
+        private long maxSequence;
+        private boolean finished;
+
+        private Writer(Path file, Header header) throws IOException {
+            this.file = file;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+            this.maxSequence = header.baseSequence();
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(CODEC_GZIP);
+            out.writeUTF(header.backupId());
+            out.writeUTF(header.userId() != null ? header.userId() : "");
+            out.writeUTF(header.parentBackupId() != null ? header.parentBackupId() : "");
+            out.writeLong(header.baseSequence());
+        }
+
+        /**
+         * Compress and append one chunk of records.
+         *
+         * @param chunkMaxSequence highest change sequence among the records
+         */
+        void writeChunk(List<byte[]> chunkRecords, long chunkMaxSequence) throws IOException {
+            if (chunkRecords.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (DataOutputStream payload = new DataOutputStream(new GZIPOutputStream(buffer))) {
+                for (byte[] record : chunkRecords) {
+                    payload.writeInt(record.length);
+                    payload.write(record);
+                }
+            }
+            byte[] compressed = buffer.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(compressed);
+
+            out.writeByte(CHUNK);
+            out.writeInt(chunkRecords.size());
+            out.writeInt(compressed.length);
+            out.writeLong(crc.getValue());
+            out.write(compressed);
+
+            chunks++;
+            records += chunkRecords.size();
+            maxSequence = Math.max(maxSequence, chunkMaxSequence);
+        }
+
+        /**
+         * Write the trailer, flush to disk and close the archive.
+         */
+        Summary finish() throws IOException {
+            out.writeByte(END);
+            out.writeInt(chunks);
+            out.writeLong(records);
+            out.writeLong(maxSequence);
+            out.close();
+            finished = true;
+            return new Summary(chunks, records, maxSequence, Files.size(file));
+        }
+
+        /**
+         * Close without a trailer and discard the partial archive.
+         */
+        void abort() {
+            if (finished) {
+                return;
+            }
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // best effort
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // best effort
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finished) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Lazily iterates chunks; each {@link Iterator#next()} reads, verifies and
+     * inflates exactly one chunk.
+     */
+    static final class Reader implements Closeable, Iterable<List<byte[]>> {
+
+        private final DataInputStream in;
+        private final Header header;
+        private Summary summary;
+        private boolean iterated;
+        private int chunksRead;
+        private long recordsRead;
+
+        private Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+            if (in.readInt() != MAGIC) {
+                in.close();
+                throw new IOException("Not a memory backup archive: " + file);
+            }
+            byte version = in.readByte();
+            byte codec = in.readByte();
+            if (version != VERSION || codec != CODEC_GZIP) {
+                in.close();
+                throw new IOException("Unsupported memory backup archive version " + version + "/codec " + codec);
+            }
+            String backupId = in.readUTF();
+            String userId = in.readUTF();
+            String parent = in.readUTF();
+            this.header = new Header(backupId, userId, parent.isEmpty() ? null : parent, in.readLong());
+        }
+
+        Header header() {
+            return header;
+        }
+
+        /**
+         * Trailer totals, available once all chunks have been consumed.
+         */
+        Summary summary() {
+            return summary;
+        }
+
+        @Override
+        public Iterator<List<byte[]>> iterator() {
+            if (iterated) {
+                throw new IllegalStateException("Backup archive chunks can only be iterated once");
+            }
+            iterated = true;
+            return new Iterator<>() {
+                private List<byte[]> next;
+
+                @Override
+                public boolean hasNext() {
+                    if (next == null && summary == null) {
+                        next = readChunk();
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public List<byte[]> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    List<byte[]> chunk = next;
+                    next = null;
+                    return chunk;
+                }
+            };
+        }
+
+        private List<byte[]> readChunk() {
+            try {
+                if (readMarker() == END) {
+                    summary = readTrailer();
+                    return null;
+                }
+                int count = in.readInt();
+                byte[] compressed = readCheckedPayload();
+
+                List<byte[]> chunkRecords = new ArrayList<>(count);
+                try (DataInputStream payload = new DataInputStream(
+                        new GZIPInputStream(new ByteArrayInputStream(compressed)))) {
+                    for (int i = 0; i < count; i++) {
+                        byte[] record = new byte[payload.readInt()];
+                        payload.readFully(record);
+                        chunkRecords.add(record);
+                    }
+                }
+                chunksRead++;
+                recordsRead += count;
+                return chunkRecords;
+            } catch (EOFException e) {
+                throw new UncheckedIOException(new IOException("Truncated memory backup archive", e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Summary verifyRemaining() throws IOException {
+            try {
+                while (readMarker() == CHUNK) {
+                    int count = in.readInt();
+                    readCheckedPayload();
+                    chunksRead++;
+                    recordsRead += count;
+                }
+                summary = readTrailer();
+                return summary;
+            } catch (EOFException e) {
+                throw new IOException("Truncated memory backup archive", e);
+            }
+        }
+
+        private byte readMarker() throws IOException {
+            byte marker = in.readByte();
+            if (marker != CHUNK && marker != END) {
+                throw new IOException("Corrupt memory backup archive: unexpected marker " + marker);
+            }
+            return marker;
+        }
+
+        private byte[] readCheckedPayload() throws IOException {
+            byte[] compressed = new byte[in.readInt()];
+            long expectedCrc = in.readLong();
+            in.readFully(compressed);
+
+            CRC32 crc = new CRC32();
+            crc.update(compressed);
+            if (crc.getValue() != expectedCrc) {
+                throw new IOException("Memory backup chunk checksum mismatch");
+            }
+            return compressed;
+        }
+
+        private Summary readTrailer() throws IOException {
+            int chunks = in.readInt();
+            long records = in.readLong();
+            long maxSequence = in.readLong();
+            if (chunks != chunksRead || records != recordsRead) {
+                throw new IOException("Memory backup archive trailer expects " + chunks + " chunks and "
+                        + records + " records but the archive holds " + chunksRead + " and " + recordsRead);
+            }
+            if (in.read() != -1) {
+                throw new IOException("Unexpected data after memory backup archive trailer");
+            }
+            return new Summary(chunks, records, maxSequence, -1L);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -1,123 +1,318 @@
 package tech.kayys.wayang.memory.service;
 
+import tech.kayys.wayang.memory.model.ConversationMemory;
+import tech.kayys.wayang.memory.model.Memory;
 import tech.kayys.wayang.memory.model.MemoryBackup;
 import tech.kayys.wayang.memory.model.MemoryContext;
+import tech.kayys.wayang.memory.model.MemoryType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
-import java.util.zip.GZIPInputStream;
-import java.io.*;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
 
+/**
+ * Streams memory contexts into chunked, compressed, checksummed backup
+ * archives and restores them chunk by chunk, so neither direction holds more
+ * than one chunk of contexts in memory.
+ *
+ * <p>
+ * Archive I/O runs on the worker pool. Reads and writes through
+ * {@link MemoryService} use reactive Panache, which needs a Vert.x context,
+ * so each runs on a new duplicated context of its own; parallel chunks then
+ * never share a session.
+ */
 @ApplicationScoped
 public class MemoryBackupService {
-    
+
     private static final Logger LOG = LoggerFactory.getLogger(MemoryBackupService.class);
-    
+
+    private static final String ARCHIVE_SUFFIX = ".wmb";
+
     @Inject
     MemoryService memoryService;
-    
+
+    @Inject
+    VectorMemoryStore vectorStore;
+
     @Inject
     MemoryEventPublisher eventPublisher;
 
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "wayang.memory.backup.dir")
+    Optional<String> backupDir;
+
+    @ConfigProperty(name = "wayang.memory.backup.chunk-size", defaultValue = "256")
+    int chunkSize;
+
+    @ConfigProperty(name = "wayang.memory.backup.fetch-concurrency", defaultValue = "4")
+    int fetchConcurrency;
+
+    @ConfigProperty(name = "wayang.memory.backup.restore-parallelism", defaultValue = "4")
+    int restoreParallelism;
+
     public Uni<MemoryBackup> createBackup(String userId, List<String> sessionIds) {
-        LOG.info("Creating backup for user: {} with {} sessions", userId, sessionIds.size());
-        
-        return Multi.createFrom().iterable(sessionIds)
-            .onItem().transformToUniAndMerge(sessionId -> 
-                memoryService.getContext(sessionId, userId))
-            .collect().asList()
-            .onItem().transformToUni(contexts -> 
-                compressAndStore(userId, contexts))
-            .onItem().invoke(backup -> 
-                LOG.info("Backup created: {}", backup.getBackupId()));
-    }
-
-    public Uni<List<MemoryContext>> restoreBackup(String backupId) {
+        return createIncrementalBackup(userId, sessionIds, null, 0L);
+    }
+
+    /**
+     * Back up only contexts changed after {@code sinceSequence}.
+     *
+     * A context's change sequence is its {@code updatedAt} epoch millis; use
+     * {@link MemoryBackup#getMaxSequence()} of the previous backup as the next
+     * {@code sinceSequence}.
+     */
+    public Uni<MemoryBackup> createIncrementalBackup(
+            String userId, List<String> sessionIds, String parentBackupId, long sinceSequence) {
+        LOG.info("Creating backup for user: {} with {} sessions (since sequence {})",
+                userId, sessionIds.size(), sinceSequence);
+
+        String backupId = UUID.randomUUID().toString();
+        Instant createdAt = Instant.now();
+        MemoryBackupArchive.Header header =
+                new MemoryBackupArchive.Header(backupId, userId, parentBackupId, sinceSequence);
+
+        return Uni.createFrom().item(() -> openWriter(header))
+            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+            .flatMap(writer -> Multi.createFrom().iterable(sessionIds)
+                .onItem().transformToUni(sessionId -> onNewContext(() -> memoryService.getContext(sessionId, userId)))
+                .merge(Math.max(1, fetchConcurrency))
+                .select().where(context -> context != null && changeSequence(context) > sinceSequence)
+                .group().intoLists().of(Math.max(1, chunkSize))
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .onItem().invoke(chunk -> writeChunk(writer, chunk))
+                .collect().last()
+                .map(ignored -> finish(writer))
+                .onFailure().invoke(error -> writer.abort()))
+            .map(summary -> new MemoryBackup(
+                backupId,
+                userId,
+                (int) summary.records(),
+                summary.sizeBytes(),
+                createdAt,
+                null,
+                parentBackupId,
+                sinceSequence,
+                summary.maxSequence(),
+                summary.chunks()))
+            .onItem().invoke(backup ->
+                LOG.info("Backup created: {} ({} contexts in {} chunks, {} bytes)",
+                        backup.getBackupId(), backup.getSessionCount(), backup.getChunkCount(), backup.getSize()));
+    }
+
+    /**
+     * Restore a backup archive, loading chunks in parallel.
+     *
+     * @return number of contexts restored
+     */
+    public Uni<Long> restoreBackup(String backupId) {
         LOG.info("Restoring backup: {}", backupId);
-        
-        return loadBackup(backupId)
-            .onItem().transformToUni(backup -> 
-                decompressBackup(backup))
-            .onItem().transformToUni(contexts -> 
-                Multi.createFrom().iterable(contexts)
-                    .onItem().transformToUniAndMerge(context -> 
-                        memoryService.storeContext(context))
-                    .collect().asList()
-                    .replaceWith(contexts))
-            .onItem().invoke(contexts -> 
-                LOG.info("Restored {} contexts from backup: {}", contexts.size(), backupId));
+
+        // Verify the whole archive first so a damaged one restores nothing
+        return Uni.createFrom().item(() -> verifyArchive(backupId))
+            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+            .onItem().transformToMulti(verified -> Multi.createFrom().resource(
+                    () -> openReader(backupId),
+                    reader -> Multi.createFrom().iterable(reader))
+                .withFinalizer(this::closeQuietly)
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+            .onItem().transformToUni(this::restoreChunk)
+            .merge(Math.max(1, restoreParallelism))
+            .collect().in(() -> new long[1], (total, restored) -> total[0] += restored)
+            .map(total -> total[0])
+            .onItem().invoke(restored ->
+                LOG.info("Restored {} contexts from backup: {}", restored, backupId));
+    }
+
+    /**
+     * Restore a full backup followed by its incrementals, in the given order.
+     */
+    public Uni<Long> restoreBackupChain(List<String> backupIds) {
+        return Multi.createFrom().iterable(backupIds)
+            .onItem().transformToUniAndConcatenate(this::restoreBackup)
+            .collect().in(() -> new long[1], (total, restored) -> total[0] += restored)
+            .map(total -> total[0]);
     }
 
     public Uni<Void> schedulePeriodicBackup(String userId, java.time.Duration interval) {
         LOG.info("Scheduling periodic backup for user: {} every: {}", userId, interval);
-        
+
         // Implementation would use Quarkus Scheduler
         return eventPublisher.publishBackupScheduled(userId, interval);
     }
 
-    private Uni<MemoryBackup> compressAndStore(String userId, List<MemoryContext> contexts) {
-        return Uni.createFrom().item(() -> {
-            try {
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                GZIPOutputStream gzipOut = new GZIPOutputStream(baos);
-                ObjectOutputStream objectOut = new ObjectOutputStream(gzipOut);
-                
-                objectOut.writeObject(contexts);
-                objectOut.close();
-                
-                byte[] compressedData = baos.toByteArray();
-                
-                MemoryBackup backup = new MemoryBackup(
-                    java.util.UUID.randomUUID().toString(),
-                    userId,
-                    contexts.size(),
-                    compressedData.length,
-                    Instant.now(),
-                    compressedData
-                );
-                
-                // Store backup to persistent storage (S3, filesystem, etc.)
-                storeBackupData(backup);
-                
-                return backup;
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to compress backup", e);
+    private Uni<Long> restoreChunk(List<byte[]> records) {
+        // Decoded on the worker reading the archive, stored on a Vert.x context
+        return Uni.createFrom().item(() -> decodeChunk(records))
+            .flatMap(contexts -> onNewContext(() -> {
+                List<Memory> vectors = toVectorMemories(contexts);
+                Uni<List<String>> bulkLoad = vectors.isEmpty()
+                    ? Uni.createFrom().item(List.of())
+                    : vectorStore.storeBatch(vectors);
+
+                return bulkLoad.flatMap(ignored -> memoryService.storeContexts(contexts))
+                    .map(ignored -> (long) contexts.size());
+            }));
+    }
+
+    /**
+     * Subscribe to {@code stage} on a new duplicated Vert.x context and hand
+     * its result back to the worker pool, so the archive is never read or
+     * written on an event loop.
+     */
+    private <T> Uni<T> onNewContext(Supplier<Uni<T>> stage) {
+        Context context = VertxContext.createNewDuplicatedContext(vertx.getOrCreateContext());
+        return Uni.createFrom().deferred(stage)
+            .runSubscriptionOn(task -> context.runOnContext(ignored -> task.run()))
+            .emitOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    private List<MemoryContext> decodeChunk(List<byte[]> records) {
+        List<MemoryContext> contexts = new ArrayList<>(records.size());
+        try {
+            for (byte[] record : records) {
+                contexts.add(objectMapper.readValue(record, MemoryContext.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode backup chunk", e);
+        }
+        return contexts;
+    }
+
+    private List<Memory> toVectorMemories(List<MemoryContext> contexts) {
+        List<Memory> memories = new ArrayList<>();
+        for (MemoryContext context : contexts) {
+            if (context.getConversations() == null) {
+                continue;
+            }
+            for (ConversationMemory conversation : context.getConversations()) {
+                List<Float> embedding = conversation.getEmbedding();
+                if (embedding == null || embedding.isEmpty()) {
+                    continue;
+                }
+                float[] vector = new float[embedding.size()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = embedding.get(i);
+                }
+                Map<String, Object> metadata = conversation.getMetadata() != null
+                    ? new HashMap<>(conversation.getMetadata())
+                    : new HashMap<>();
+                metadata.put("sessionId", context.getSessionId());
+                metadata.put("role", conversation.getRole());
+                memories.add(Memory.builder()
+                    .id(conversation.getId())
+                    .namespace(context.getSessionId())
+                    .content(conversation.getContent())
+                    .embedding(vector)
+                    .type(MemoryType.EPISODIC)
+                    .metadata(metadata)
+                    .timestamp(conversation.getTimestamp())
+                    .build());
             }
-        });
-    }
-
-    private Uni<MemoryBackup> loadBackup(String backupId) {
-        // Implementation would load from persistent storage
-        return Uni.createFrom().nullItem();
-    }
-
-    private Uni<List<MemoryContext>> decompressBackup(MemoryBackup backup) {
-        return Uni.createFrom().item(() -> {
-            try {
-                ByteArrayInputStream bais = new ByteArrayInputStream(backup.getData());
-                GZIPInputStream gzipIn = new GZIPInputStream(bais);
-                ObjectInputStream objectIn = new ObjectInputStream(gzipIn);
-                
-                @SuppressWarnings("unchecked")
-                List<MemoryContext> contexts = (List<MemoryContext>) objectIn.readObject();
-                objectIn.close();
-                
-                return contexts;
-            } catch (IOException | ClassNotFoundException e) {
-                throw new RuntimeException("Failed to decompress backup", e);
+        }
+        return memories;
+    }
+
+    private void writeChunk(MemoryBackupArchive.Writer writer, List<MemoryContext> chunk) {
+        List<byte[]> records = new ArrayList<>(chunk.size());
+        long chunkMaxSequence = 0L;
+        try {
+            for (MemoryContext context : chunk) {
+                records.add(objectMapper.writeValueAsBytes(context));
+                chunkMaxSequence = Math.max(chunkMaxSequence, changeSequence(context));
             }
-        });
+            writer.writeChunk(records, chunkMaxSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write backup chunk", e);
+        }
+    }
+
+    private MemoryBackupArchive.Summary finish(MemoryBackupArchive.Writer writer) {
+        try {
+            return writer.finish();
+        } catch (IOException e) {
+            writer.abort();
+            throw new UncheckedIOException("Failed to finalize backup", e);
+        }
+    }
+
+    private MemoryBackupArchive.Writer openWriter(MemoryBackupArchive.Header header) {
+        try {
+            return MemoryBackupArchive.create(archivePath(header.backupId()), header);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create backup archive", e);
+        }
+    }
+
+    private MemoryBackupArchive.Reader openReader(String backupId) {
+        Path path = archivePath(backupId);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("Backup not found: " + backupId);
+        }
+        try {
+            return MemoryBackupArchive.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open backup archive", e);
+        }
+    }
+
+    private MemoryBackupArchive.Summary verifyArchive(String backupId) {
+        Path path = archivePath(backupId);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("Backup not found: " + backupId);
+        }
+        try {
+            return MemoryBackupArchive.verify(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Backup archive " + backupId + " failed verification", e);
+        }
+    }
+
+    private void closeQuietly(MemoryBackupArchive.Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            LOG.debug("Failed to close backup archive: {}", e.getMessage());
+        }
+    }
+
+    private Path archivePath(String backupId) {
+        if (backupId == null || !backupId.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("Invalid backup id: " + backupId);
+        }
+        Path root = backupDir
+            .map(Path::of)
+            .orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir"), "wayang-memory-backups"));
+        return root.resolve(backupId + ARCHIVE_SUFFIX);
     }
 
-    private void storeBackupData(MemoryBackup backup) {
-        // Implementation would store to S3, filesystem, etc.
-        LOG.info("Storing backup data for backup: {}", backup.getBackupId());
+    private static long changeSequence(MemoryContext context) {
+        Instant changedAt = context.getUpdatedAt() != null ? context.getUpdatedAt() : context.getCreatedAt();
+        return changedAt != null ? changedAt.toEpochMilli() : 0L;
     }
-}
\ No newline at end of file
+}
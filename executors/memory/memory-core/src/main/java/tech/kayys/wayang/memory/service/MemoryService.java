@@ -3,12 +3,23 @@ package tech.kayys.wayang.memory.service;
 import tech.kayys.wayang.memory.model.ConversationMemory;
 import tech.kayys.wayang.memory.model.MemoryContext;
 import tech.kayys.wayang.memory.model.AgentResponse;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import java.util.List;
 
 public interface MemoryService {
     Uni<MemoryContext> getContext(String sessionId, String userId);
     Uni<Void> storeContext(MemoryContext context);
+
+    /**
+     * Store several contexts at once; implementations batch the writes.
+     */
+    default Uni<Void> storeContexts(List<MemoryContext> contexts) {
+        return Multi.createFrom().iterable(contexts)
+            .onItem().transformToUniAndConcatenate(this::storeContext)
+            .collect().last()
+            .replaceWithVoid();
+    }
     Uni<Void> storeExecutionResult(String sessionId, AgentResponse result);
     Uni<List<AgentResponse>> getRecentResults(String sessionId, int limit);
     Uni<MemoryContext> summarizeAndCompact(String sessionId);
@@ -83,6 +83,53 @@ public class MemoryServiceImpl implements MemoryService {
             .replaceWithVoid();
     }
 
+    /**
+     * Store contexts with one session lookup and one persist call in a single
+     * transaction, then cache and announce them concurrently. Restoring a
+     * backup chunk this way costs a handful of round trips instead of a
+     * transaction per context.
+     */
+    @Override
+    @WithTransaction
+    public Uni<Void> storeContexts(List<MemoryContext> contexts) {
+        if (contexts.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        LOG.info("Storing {} memory contexts", contexts.size());
+
+        // A later context for the same session supersedes an earlier one
+        Map<String, MemoryContext> bySession = new LinkedHashMap<>();
+        for (MemoryContext context : contexts) {
+            bySession.put(context.getSessionId(), context);
+        }
+
+        return MemorySessionEntity.<MemorySessionEntity>list("sessionId in ?1", new ArrayList<>(bySession.keySet()))
+            .onItem().transformToUni(existing -> {
+                Map<String, MemorySessionEntity> found = existing.stream()
+                    .collect(Collectors.toMap(MemorySessionEntity::getSessionId, entity -> entity));
+                List<MemorySessionEntity> created = new ArrayList<>();
+                for (MemoryContext context : bySession.values()) {
+                    MemorySessionEntity entity = found.get(context.getSessionId());
+                    if (entity == null) {
+                        entity = newSessionEntity(context);
+                        created.add(entity);
+                    }
+                    applyContext(entity, context);
+                }
+                return created.isEmpty()
+                    ? Uni.createFrom().voidItem()
+                    : MemorySessionEntity.persist(created);
+            })
+            .onItem().transformToUni(unused -> {
+                List<Uni<Void>> notifications = new ArrayList<>(bySession.size());
+                for (MemoryContext context : bySession.values()) {
+                    notifications.add(cacheContext("memory:context:" + context.getSessionId(), context)
+                        .onItem().transformToUni(cached -> eventPublisher.publishMemoryUpdated(context)));
+                }
+                return Uni.combine().all().unis(notifications).discardItems();
+            });
+    }
+
     @Override
     @WithTransaction
     public Uni<Void> storeExecutionResult(String sessionId, AgentResponse result) {
@@ -221,16 +268,11 @@ public class MemoryServiceImpl implements MemoryService {
             .onItem().transformToUni(entity -> {
                 boolean isNew = false;
                 if (entity == null) {
-                    entity = new MemorySessionEntity();
-                    entity.setSessionId(context.getSessionId());
-                    entity.setUserId(context.getUserId());
-                    entity.setCreatedAt(context.getCreatedAt());
+                    entity = newSessionEntity(context);
                     isNew = true;
                 }
                 
-                entity.setMetadata(context.getMetadata().entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, e -> String.valueOf(e.getValue()))));
-                entity.setUpdatedAt(Instant.now());
+                applyContext(entity, context);
                 
                 if (isNew) {
                     return entity.persist();
@@ -240,6 +282,20 @@ public class MemoryServiceImpl implements MemoryService {
             .replaceWithVoid();
     }
 
+    private static MemorySessionEntity newSessionEntity(MemoryContext context) {
+        MemorySessionEntity entity = new MemorySessionEntity();
+        entity.setSessionId(context.getSessionId());
+        entity.setUserId(context.getUserId());
+        entity.setCreatedAt(context.getCreatedAt());
+        return entity;
+    }
+
+    private static void applyContext(MemorySessionEntity entity, MemoryContext context) {
+        entity.setMetadata(context.getMetadata().entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> String.valueOf(e.getValue()))));
+        entity.setUpdatedAt(Instant.now());
+    }
+
     private Uni<ConversationMemory> createConversationMemory(AgentResponse result) {
         return embeddingService.embedOne(result.getContent())
             .map(vector -> {
@@ -0,0 +1,49 @@
+package tech.kayys.wayang.memory.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryIndexCodecTest {
+
+    @Test
+    void roundTripsMemoryIds() {
+        Set<String> ids = Set.of("mem-1", "mem-2", "ünïcödé-3");
+
+        Set<String> decoded = MemoryIndexCodec.decode(MemoryIndexCodec.encode(ids));
+
+        assertEquals(ids, decoded);
+    }
+
+    @Test
+    void roundTripsLargeBuckets() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            ids.add("memory-" + i + "-" + "x".repeat(i % 200));
+        }
+
+        assertEquals(ids, MemoryIndexCodec.decode(MemoryIndexCodec.encode(ids)));
+    }
+
+    @Test
+    void emptyPayloadDecodesToEmptySet() {
+        assertTrue(MemoryIndexCodec.decode(new byte[0]).isEmpty());
+        assertTrue(MemoryIndexCodec.decode(MemoryIndexCodec.encode(Set.of())).isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> MemoryIndexCodec.decode(new byte[] { 42, 0 }));
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] encoded = MemoryIndexCodec.encode(Set.of("a-fairly-long-memory-id"));
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 3);
+
+        assertThrows(IllegalArgumentException.class, () -> MemoryIndexCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,120 @@
+package tech.kayys.wayang.memory.context;
+
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.memory.model.ConversationMemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryIndexServiceTest {
+
+    private final RedisStandIn standIn = new RedisStandIn();
+
+    @Test
+    void persistsAllChangedBucketsInOnePipelinedBatch() {
+        MemoryIndexService service = service();
+
+        service.buildInvertedIndex("s1", List.of(
+                memory("m1", "alpha beta"),
+                memory("m2", "beta gamma"))).await().indefinitely();
+
+        assertEquals(1, standIn.count("HSET"));
+        assertEquals(Set.of("alpha", "beta", "gamma"), standIn.hashes.get("index:s1").keySet());
+        assertEquals(Set.of("m1", "m2"), MemoryIndexCodec.decode(standIn.hashes.get("index:s1").get("beta")));
+    }
+
+    @Test
+    void unchangedRebuildWritesNothing() {
+        MemoryIndexService service = service();
+        List<ConversationMemory> memories = List.of(memory("m1", "alpha beta"));
+        service.buildInvertedIndex("s1", memories).await().indefinitely();
+        int roundTrips = standIn.roundTrips;
+
+        service.buildInvertedIndex("s1", memories).await().indefinitely();
+
+        assertEquals(roundTrips, standIn.roundTrips);
+        assertEquals(1, standIn.count("HSET"));
+    }
+
+    @Test
+    void restartedServiceReloadsIndexOnFirstSearch() {
+        service().buildInvertedIndex("s1", List.of(
+                memory("m1", "alpha beta"),
+                memory("m2", "beta gamma"))).await().indefinitely();
+
+        MemoryIndexService restarted = service();
+
+        assertEquals(Set.of("m1", "m2"), restarted.searchByKeywords("s1", "beta").await().indefinitely());
+        assertEquals(Set.of("m2"), restarted.searchByKeywords("s1", "gamma").await().indefinitely());
+    }
+
+    @Test
+    void reloadStreamsLargeIndexInPages() {
+        List<ConversationMemory> memories = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            memories.add(memory("m" + i, "token" + i));
+        }
+        service().buildInvertedIndex("s1", memories).await().indefinitely();
+        long scansBefore = standIn.count("HSCAN");
+
+        MemoryIndexService restarted = service();
+
+        assertEquals(2_500, restarted.reloadIndexFromRedis("s1").await().indefinitely());
+        assertEquals(3, standIn.count("HSCAN") - scansBefore);
+        assertEquals(Set.of("m1234"), restarted.searchByKeywords("s1", "token1234").await().indefinitely());
+    }
+
+    @Test
+    void migratesLegacyPerBucketSetsOnce() {
+        standIn.sadd("index:s1:alpha", "m1", "m2");
+        standIn.sadd("index:s1:beta", "m2");
+        standIn.sadd("index:s2:alpha", "m9");
+        MemoryIndexService service = service();
+
+        assertEquals(3, service.migrateLegacyIndex().await().indefinitely());
+
+        assertTrue(standIn.sets.isEmpty());
+        assertEquals(MemoryIndexService.LAYOUT_VERSION, standIn.strings.get(MemoryIndexService.LAYOUT_MARKER_KEY));
+        assertEquals(Set.of("m1", "m2"), MemoryIndexCodec.decode(standIn.hashes.get("index:s1").get("alpha")));
+        assertEquals(Set.of("m9"), service().searchByKeywords("s2", "alpha").await().indefinitely());
+
+        long scans = standIn.count("SCAN");
+        assertEquals(0, service().migrateLegacyIndex().await().indefinitely());
+        assertEquals(scans, standIn.count("SCAN"));
+    }
+
+    @Test
+    void migrationMergesWithBucketsAlreadyInNewLayout() {
+        service().buildInvertedIndex("s1", List.of(memory("m3", "alpha"))).await().indefinitely();
+        standIn.sadd("index:s1:alpha", "m1");
+
+        service().migrateLegacyIndex().await().indefinitely();
+
+        assertEquals(Set.of("m1", "m3"), MemoryIndexCodec.decode(standIn.hashes.get("index:s1").get("alpha")));
+    }
+
+    @Test
+    void migrationPagesThroughManyLegacyKeys() {
+        for (int i = 0; i < 2_200; i++) {
+            standIn.sadd("index:s1:token" + i, "m" + i);
+        }
+
+        assertEquals(2_200, service().migrateLegacyIndex().await().indefinitely());
+
+        assertTrue(standIn.sets.isEmpty());
+        assertEquals(2_200, standIn.hashes.get("index:s1").size());
+    }
+
+    private MemoryIndexService service() {
+        MemoryIndexService service = new MemoryIndexService();
+        service.redis = standIn.redis();
+        return service;
+    }
+
+    private static ConversationMemory memory(String id, String content) {
+        return new ConversationMemory(id, "user", content, null, null, null, null);
+    }
+}
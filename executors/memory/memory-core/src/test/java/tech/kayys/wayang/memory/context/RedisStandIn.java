@@ -0,0 +1,192 @@
+package tech.kayys.wayang.memory.context;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
+import io.vertx.redis.client.impl.RequestImpl;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+
+/**
+ * Single-threaded in-memory Redis answering the commands
+ * {@link MemoryIndexService} sends, decoded from their wire encoding, and
+ * counting round trips.
+ */
+final class RedisStandIn {
+
+    final Map<String, Map<String, byte[]>> hashes = new TreeMap<>();
+    final Map<String, Set<String>> sets = new TreeMap<>();
+    final Map<String, String> strings = new TreeMap<>();
+    final List<String> commands = new ArrayList<>();
+    private final List<String> scanCursors = new ArrayList<>(List.of(""));
+    int roundTrips;
+
+    Redis redis() {
+        Redis redis = Mockito.mock(Redis.class);
+        Mockito.when(redis.send(any(Request.class))).thenAnswer(invocation -> {
+            roundTrips++;
+            return Uni.createFrom().item(execute(invocation.getArgument(0)));
+        });
+        Mockito.when(redis.batch(anyList())).thenAnswer(invocation -> {
+            roundTrips++;
+            List<Request> requests = invocation.getArgument(0);
+            List<Response> responses = new ArrayList<>(requests.size());
+            for (Request request : requests) {
+                responses.add(execute(request));
+            }
+            return Uni.createFrom().item(responses);
+        });
+        return redis;
+    }
+
+    long count(String command) {
+        return commands.stream().filter(command::equals).count();
+    }
+
+    private Response execute(Request request) {
+        List<byte[]> args = decode(request);
+        String command = text(args.get(0)).toUpperCase();
+        commands.add(command);
+        switch (command) {
+            case "HSET": {
+                Map<String, byte[]> hash = hashes.computeIfAbsent(text(args.get(1)), k -> new TreeMap<>());
+                for (int i = 2; i + 1 < args.size(); i += 2) {
+                    hash.put(text(args.get(i)), args.get(i + 1));
+                }
+                return null;
+            }
+            case "HDEL": {
+                Map<String, byte[]> hash = hashes.get(text(args.get(1)));
+                for (int i = 2; hash != null && i < args.size(); i++) {
+                    hash.remove(text(args.get(i)));
+                }
+                return null;
+            }
+            case "HSCAN": {
+                Map<String, byte[]> hash = hashes.getOrDefault(text(args.get(1)), Map.of());
+                List<String> fields = new ArrayList<>(hash.keySet());
+                int offset = Integer.parseInt(text(args.get(2)));
+                int end = Math.min(fields.size(), offset + Integer.parseInt(text(args.get(4))));
+                List<io.vertx.redis.client.Response> page = new ArrayList<>();
+                for (String field : fields.subList(offset, end)) {
+                    page.add(bulk(field.getBytes(StandardCharsets.UTF_8)));
+                    page.add(bulk(hash.get(field)));
+                }
+                return scanReply(end == fields.size() ? 0 : end, page);
+            }
+            case "SCAN": {
+                // The cursor names the last key returned, so keys deleted between
+                // pages do not shift the rest, as with a real SCAN
+                String prefix = text(args.get(3)).replace("*", "");
+                String after = scanCursors.get(Integer.parseInt(text(args.get(1))));
+                boolean fromStart = after.isEmpty();
+                List<String> keys = sets.keySet().stream()
+                        .filter(key -> key.startsWith(prefix) && (fromStart || key.compareTo(after) > 0))
+                        .toList();
+                int end = Math.min(keys.size(), Integer.parseInt(text(args.get(5))));
+                List<io.vertx.redis.client.Response> page = new ArrayList<>();
+                for (String key : keys.subList(0, end)) {
+                    page.add(bulk(key.getBytes(StandardCharsets.UTF_8)));
+                }
+                if (end == keys.size()) {
+                    return scanReply(0, page);
+                }
+                scanCursors.add(keys.get(end - 1));
+                return scanReply(scanCursors.size() - 1, page);
+            }
+            case "SMEMBERS": {
+                List<io.vertx.redis.client.Response> members = new ArrayList<>();
+                for (String member : sets.getOrDefault(text(args.get(1)), Set.of())) {
+                    members.add(bulk(member.getBytes(StandardCharsets.UTF_8)));
+                }
+                return Response.newInstance(multi(members));
+            }
+            case "DEL": {
+                for (int i = 1; i < args.size(); i++) {
+                    String key = text(args.get(i));
+                    hashes.remove(key);
+                    sets.remove(key);
+                    strings.remove(key);
+                }
+                return null;
+            }
+            case "GET": {
+                String value = strings.get(text(args.get(1)));
+                return value == null ? null : Response.newInstance(bulk(value.getBytes(StandardCharsets.UTF_8)));
+            }
+            case "SET":
+                strings.put(text(args.get(1)), text(args.get(2)));
+                return null;
+            default:
+                throw new UnsupportedOperationException(command);
+        }
+    }
+
+    void sadd(String key, String... members) {
+        sets.computeIfAbsent(key, k -> new LinkedHashSet<>()).addAll(List.of(members));
+    }
+
+    private static Response scanReply(int cursor, List<io.vertx.redis.client.Response> page) {
+        return Response.newInstance(multi(List.of(
+                bulk(String.valueOf(cursor).getBytes(StandardCharsets.UTF_8)),
+                multi(page))));
+    }
+
+    /**
+     * Parse the RESP array a request is written to the socket as.
+     */
+    private static List<byte[]> decode(Request request) {
+        byte[] wire = ((RequestImpl) request.getDelegate()).encode().getBytes();
+        int[] pos = { 0 };
+        int count = Integer.parseInt(line(wire, pos).substring(1));
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(line(wire, pos).substring(1));
+            byte[] arg = new byte[length];
+            System.arraycopy(wire, pos[0], arg, 0, length);
+            pos[0] += length + 2;
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static String line(byte[] wire, int[] pos) {
+        int start = pos[0];
+        while (wire[pos[0]] != '\r') {
+            pos[0]++;
+        }
+        String line = new String(wire, start, pos[0] - start, StandardCharsets.US_ASCII);
+        pos[0] += 2;
+        return line;
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static io.vertx.redis.client.Response bulk(byte[] value) {
+        io.vertx.redis.client.Response response = Mockito.mock(io.vertx.redis.client.Response.class);
+        Mockito.when(response.toString()).thenReturn(text(value));
+        Mockito.when(response.toBuffer()).thenReturn(io.vertx.core.buffer.Buffer.buffer(value));
+        return response;
+    }
+
+    private static io.vertx.redis.client.Response multi(List<io.vertx.redis.client.Response> items) {
+        io.vertx.redis.client.Response response = Mockito.mock(io.vertx.redis.client.Response.class);
+        Mockito.when(response.size()).thenReturn(items.size());
+        Mockito.when(response.get(anyInt())).thenAnswer(invocation -> items.get((int) invocation.getArgument(0)));
+        return response;
+    }
+}
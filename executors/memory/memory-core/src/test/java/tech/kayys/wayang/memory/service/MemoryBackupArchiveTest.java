@@ -0,0 +1,156 @@
+package tech.kayys.wayang.memory.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryBackupArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesAndStreamsBackChunks() throws Exception {
+        Path file = tempDir.resolve("backup.wmb");
+        MemoryBackupArchive.Header header = new MemoryBackupArchive.Header("b-1", "user-1", "b-0", 100L);
+
+        try (MemoryBackupArchive.Writer writer = MemoryBackupArchive.create(file, header)) {
+            writer.writeChunk(records("a", 3), 150L);
+            writer.writeChunk(records("b", 2), 120L);
+            MemoryBackupArchive.Summary summary = writer.finish();
+
+            assertEquals(2, summary.chunks());
+            assertEquals(5, summary.records());
+            assertEquals(150L, summary.maxSequence());
+        }
+
+        try (MemoryBackupArchive.Reader reader = MemoryBackupArchive.open(file)) {
+            assertEquals(header, reader.header());
+
+            List<List<byte[]>> chunks = new ArrayList<>();
+            reader.forEach(chunks::add);
+
+            assertEquals(2, chunks.size());
+            assertEquals("a-2", new String(chunks.get(0).get(2), StandardCharsets.UTF_8));
+            assertEquals("b-1", new String(chunks.get(1).get(1), StandardCharsets.UTF_8));
+            assertEquals(5, reader.summary().records());
+            assertEquals(150L, reader.summary().maxSequence());
+        }
+    }
+
+    @Test
+    void detectsCorruptedChunk() throws Exception {
+        Path file = tempDir.resolve("corrupt.wmb");
+        try (MemoryBackupArchive.Writer writer = MemoryBackupArchive.create(file,
+                new MemoryBackupArchive.Header("b-2", "user-1", null, 0L))) {
+            writer.writeChunk(records("x", 10), 1L);
+            writer.finish();
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long position = raf.length() - 30;
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+
+        try (MemoryBackupArchive.Reader reader = MemoryBackupArchive.open(file)) {
+            assertThrows(UncheckedIOException.class, () -> reader.iterator().next());
+        }
+    }
+
+    @Test
+    void verifyReportsTrailerTotals() throws Exception {
+        Path file = writeTwoChunks("verified.wmb");
+
+        MemoryBackupArchive.Summary summary = MemoryBackupArchive.verify(file);
+
+        assertEquals(2, summary.chunks());
+        assertEquals(5, summary.records());
+        assertEquals(150L, summary.maxSequence());
+    }
+
+    @Test
+    void rejectsArchiveTruncatedAtChunkBoundary() throws Exception {
+        Path file = writeTwoChunks("truncated.wmb");
+        // Drop the trailer: END(1) chunks(4) records(8) maxSequence(8)
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 21);
+        }
+
+        assertThrows(IOException.class, () -> MemoryBackupArchive.verify(file));
+        try (MemoryBackupArchive.Reader reader = MemoryBackupArchive.open(file)) {
+            assertThrows(UncheckedIOException.class, () -> reader.forEach(chunk -> {
+            }));
+        }
+    }
+
+    @Test
+    void rejectsTrailerThatDisagreesWithChunks() throws Exception {
+        Path file = writeTwoChunks("mismatch.wmb");
+        // Overwrite the trailer's record count
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() - 16);
+            raf.writeLong(4L);
+        }
+
+        IOException error = assertThrows(IOException.class, () -> MemoryBackupArchive.verify(file));
+        assertTrue(error.getMessage().contains("trailer"));
+        try (MemoryBackupArchive.Reader reader = MemoryBackupArchive.open(file)) {
+            assertThrows(UncheckedIOException.class, () -> reader.forEach(chunk -> {
+            }));
+        }
+    }
+
+    @Test
+    void rejectsDataAfterTrailer() throws Exception {
+        Path file = writeTwoChunks("trailing.wmb");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length());
+            raf.write(1);
+        }
+
+        assertThrows(IOException.class, () -> MemoryBackupArchive.verify(file));
+    }
+
+    @Test
+    void abortDiscardsPartialArchive() throws Exception {
+        Path file = tempDir.resolve("partial.wmb");
+        MemoryBackupArchive.Writer writer = MemoryBackupArchive.create(file,
+                new MemoryBackupArchive.Header("b-3", "user-1", null, 0L));
+        writer.writeChunk(records("p", 1), 1L);
+
+        writer.abort();
+
+        assertFalse(file.toFile().exists());
+    }
+
+    private Path writeTwoChunks(String name) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (MemoryBackupArchive.Writer writer = MemoryBackupArchive.create(file,
+                new MemoryBackupArchive.Header("b-4", "user-1", null, 100L))) {
+            writer.writeChunk(records("a", 3), 150L);
+            writer.writeChunk(records("b", 2), 120L);
+            writer.finish();
+        }
+        return file;
+    }
+
+    private static List<byte[]> records(String prefix, int count) {
+        List<byte[]> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            records.add((prefix + "-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,98 @@
+package tech.kayys.wayang.memory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.common.vertx.VertxContext;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.kayys.wayang.memory.model.MemoryBackup;
+import tech.kayys.wayang.memory.model.MemoryContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MemoryBackupServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String USER = "user-1";
+
+    @TempDir
+    Path tempDir;
+
+    private final Vertx vertx = Vertx.vertx();
+    private final MemoryService memoryService = mock(MemoryService.class);
+    private final Set<String> offContext = ConcurrentHashMap.newKeySet();
+    private final Set<String> restored = ConcurrentHashMap.newKeySet();
+    private MemoryBackupService service;
+
+    @BeforeEach
+    void setUp() {
+        // Reactive Panache fails outside a duplicated context; record every call that would
+        when(memoryService.getContext(anyString(), any())).thenAnswer(invocation -> {
+            String sessionId = invocation.getArgument(0);
+            if (!VertxContext.isOnDuplicatedContext()) {
+                offContext.add("getContext " + sessionId);
+            }
+            return Uni.createFrom().item(context(sessionId));
+        });
+        when(memoryService.storeContexts(anyList())).thenAnswer(invocation -> {
+            List<MemoryContext> contexts = invocation.getArgument(0);
+            if (!VertxContext.isOnDuplicatedContext()) {
+                offContext.add("storeContexts " + contexts.size());
+            }
+            contexts.forEach(context -> restored.add(context.getSessionId()));
+            return Uni.createFrom().voidItem();
+        });
+
+        service = new MemoryBackupService();
+        service.memoryService = memoryService;
+        service.vectorStore = mock(VectorMemoryStore.class);
+        service.objectMapper = new ObjectMapper().findAndRegisterModules();
+        service.vertx = vertx;
+        service.backupDir = Optional.of(tempDir.toString());
+        service.chunkSize = 2;
+        service.fetchConcurrency = 4;
+        service.restoreParallelism = 4;
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void backupAndRestoreReachTheStoreOnDuplicatedContexts() {
+        List<String> sessions = List.of("s-1", "s-2", "s-3", "s-4", "s-5");
+
+        MemoryBackup backup = service.createBackup(USER, sessions).await().atMost(TIMEOUT);
+        long count = service.restoreBackup(backup.getBackupId()).await().atMost(TIMEOUT);
+
+        assertEquals(5, backup.getSessionCount());
+        assertEquals(3, backup.getChunkCount());
+        assertEquals(5L, count);
+        assertEquals(Set.copyOf(sessions), restored);
+        assertTrue(offContext.isEmpty(), offContext.toString());
+    }
+
+    private static MemoryContext context(String sessionId) {
+        Instant now = Instant.parse("2026-03-02T09:00:00Z");
+        return new MemoryContext(sessionId, USER, null, Map.of(), now, now);
+    }
+}
@@ -96,9 +96,9 @@ public class AdvancedMemoryResource {
             @Parameter(description = "Backup ID") @PathParam("backupId") String backupId) {
         
         return backupService.restoreBackup(backupId)
-            .onItem().transform(contexts -> Response.ok(Map.of(
-                "restored", contexts.size(),
-                "contexts", contexts
+            .onItem().transform(restored -> Response.ok(Map.of(
+                "backupId", backupId,
+                "restored", restored
             )).build())
             .onFailure().recoverWithItem(throwable -> 
                 Response.status(Response.Status.INTERNAL_SERVER_ERROR)
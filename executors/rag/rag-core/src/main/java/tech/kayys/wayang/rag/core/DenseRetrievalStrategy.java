@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.kayys.wayang.embedding.EmbeddingRequest;
 import tech.kayys.wayang.embedding.EmbeddingService;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 import tech.kayys.wayang.rag.core.store.VectorSearchHit;
 import tech.kayys.wayang.rag.core.store.VectorStore;
 
@@ -29,15 +30,25 @@ public class DenseRetrievalStrategy implements RetrievalStrategy {
             String query,
             VectorStore<RagChunk> store,
             RetrievalConfig config) {
+        return retrieve(query, null, store, config);
+    }
+
+    @Override
+    public List<ScoredDocument> retrieve(
+            String query,
+            float[] queryVector,
+            VectorStore<RagChunk> store,
+            RetrievalConfig config) {
 
         LOG.debug("Dense retrieval for query: {}", query);
 
         try {
-            // Generate query embedding via Wayang Embedding Service
-            // For now using default model/provider as configured in the service
-            float[] queryVector = embeddingService.embed(EmbeddingRequest.single(query))
-                    .await().indefinitely()
-                    .first();
+            if (queryVector == null) {
+                // Generate query embedding via Wayang Embedding Service
+                // For now using default model/provider as configured in the service
+                queryVector = BlockingSections.await("embedding",
+                        embeddingService.embed(EmbeddingRequest.single(query))).first();
+            }
 
             // Search in internal vector store
             // Note: Namespace is often synonymous with tenantId in this architecture
@@ -62,4 +73,9 @@ public class DenseRetrievalStrategy implements RetrievalStrategy {
             return List.of();
         }
     }
+
+    @Override
+    public boolean usesQueryEmbedding() {
+        return true;
+    }
 }
\ No newline at end of file
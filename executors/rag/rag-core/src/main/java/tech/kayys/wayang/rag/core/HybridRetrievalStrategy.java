@@ -29,11 +29,20 @@ public class HybridRetrievalStrategy implements RetrievalStrategy {
             String query,
             VectorStore<RagChunk> store,
             RetrievalConfig config) {
+        return retrieve(query, null, store, config);
+    }
+
+    @Override
+    public List<ScoredDocument> retrieve(
+            String query,
+            float[] queryVector,
+            VectorStore<RagChunk> store,
+            RetrievalConfig config) {
 
         LOG.debug("Hybrid retrieval for query: {}", query);
 
         // Dense retrieval
-        List<ScoredDocument> denseResults = denseStrategy.retrieve(query, store, config);
+        List<ScoredDocument> denseResults = denseStrategy.retrieve(query, queryVector, store, config);
 
         // Keyword retrieval
         List<ScoredDocument> keywordResults = keywordStrategy.retrieve(query, store, config);
@@ -42,6 +51,11 @@ public class HybridRetrievalStrategy implements RetrievalStrategy {
         return mergeWithRRF(denseResults, keywordResults, config.topK());
     }
 
+    @Override
+    public boolean usesQueryEmbedding() {
+        return true;
+    }
+
     private List<ScoredDocument> mergeWithRRF(
             List<ScoredDocument> list1,
             List<ScoredDocument> list2,
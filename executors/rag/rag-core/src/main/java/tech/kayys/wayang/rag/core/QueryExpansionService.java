@@ -1,15 +1,33 @@
 package tech.kayys.wayang.rag.core;
 
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import tech.kayys.wayang.embedding.EmbeddingRequest;
+import tech.kayys.wayang.embedding.EmbeddingResponse;
+import tech.kayys.wayang.embedding.EmbeddingService;
+import tech.kayys.wayang.rag.core.store.VectorStore;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 
 /**
  * QUERY EXPANSION SERVICE - FULL IMPLEMENTATION
+ *
+ * <p>
+ * Besides generating variants, retrieves for the original query and all of
+ * its variants as one unit: the variants are embedded in a single provider
+ * batch, searched concurrently, and fused into a bounded top-k.
  */
 @ApplicationScoped
 class QueryExpansionService {
@@ -24,6 +42,9 @@ class QueryExpansionService {
             "policy", List.of("rule", "regulation", "guideline"),
             "customer", List.of("client", "buyer", "consumer"));
 
+    @Inject
+    EmbeddingService embeddingService;
+
     public List<String> expand(String query, int numVariations) {
         LOG.debug("Expanding query: {} (variations: {})", query, numVariations);
 
@@ -49,6 +70,99 @@ class QueryExpansionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieve for every query in one round: embed them together, search them
+     * concurrently and fuse the hits into the best {@code topK} by content.
+     *
+     * <p>
+     * {@code queries.get(0)} is the original query and is always awaited. The
+     * remaining variants are dropped if their search has not finished within
+     * {@code latencyBudget} (no budget when {@code null} or non-positive) or if
+     * it fails.
+     */
+    public Uni<List<ScoredDocument>> retrieveAll(
+            List<String> queries,
+            RetrievalStrategy strategy,
+            VectorStore<RagChunk> store,
+            RetrievalConfig config,
+            int topK,
+            Duration latencyBudget) {
+        if (queries.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        boolean budgeted = latencyBudget != null && !latencyBudget.isNegative() && !latencyBudget.isZero();
+        return embedAll(queries, strategy).flatMap(vectors -> {
+            List<Uni<List<ScoredDocument>>> searches = new ArrayList<>(queries.size());
+            for (int i = 0; i < queries.size(); i++) {
+                String query = queries.get(i);
+                float[] vector = vectors.get(i);
+                Uni<List<ScoredDocument>> search = Uni.createFrom()
+                        .item(() -> strategy.retrieve(query, vector, store, config))
+                        .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+                if (i > 0) {
+                    if (budgeted) {
+                        search = search.ifNoItem().after(latencyBudget).recoverWithItem(() -> {
+                            LOG.debug("Dropping query variant over {} ms budget: {}", latencyBudget.toMillis(), query);
+                            return List.of();
+                        });
+                    }
+                    search = search.onFailure().recoverWithItem(failure -> {
+                        LOG.warn("Dropping failed query variant '{}': {}", query, failure.getMessage());
+                        return List.of();
+                    });
+                }
+                searches.add(search);
+            }
+            return Uni.join().all(searches).andFailFast();
+        }).map(results -> fuse(results, topK));
+    }
+
+    /**
+     * Merge per-query hits, keeping each distinct text once at its best score,
+     * and return the {@code topK} highest in descending order. Only
+     * {@code topK} candidates are held at any time.
+     */
+    static List<ScoredDocument> fuse(List<List<ScoredDocument>> results, int topK) {
+        if (topK <= 0) {
+            return List.of();
+        }
+        Map<String, ScoredDocument> best = new HashMap<>();
+        for (List<ScoredDocument> hits : results) {
+            for (ScoredDocument doc : hits) {
+                best.merge(doc.segment().text(), doc, (a, b) -> b.score() > a.score() ? b : a);
+            }
+        }
+        // Min-heap on score: the root is the weakest of the current top-k
+        PriorityQueue<ScoredDocument> heap = new PriorityQueue<>(Math.min(topK, Math.max(1, best.size())),
+                Collections.reverseOrder());
+        for (ScoredDocument doc : best.values()) {
+            if (heap.size() < topK) {
+                heap.offer(doc);
+            } else if (doc.score() > heap.peek().score()) {
+                heap.poll();
+                heap.offer(doc);
+            }
+        }
+        ScoredDocument[] ranked = heap.toArray(new ScoredDocument[0]);
+        Arrays.sort(ranked);
+        return List.of(ranked);
+    }
+
+    private Uni<List<float[]>> embedAll(List<String> queries, RetrievalStrategy strategy) {
+        List<float[]> none = Arrays.asList(new float[queries.size()][]);
+        if (!strategy.usesQueryEmbedding() || embeddingService == null) {
+            return Uni.createFrom().item(none);
+        }
+        return embeddingService.embed(new EmbeddingRequest(queries, null, null, null))
+                .map(EmbeddingResponse::embeddings)
+                .map(vectors -> vectors.size() == queries.size() ? vectors : none)
+                .onFailure().recoverWithItem(failure -> {
+                    // Strategies embed on their own when handed no vector
+                    LOG.warn("Batched query embedding failed, embedding per query: {}", failure.getMessage());
+                    return none;
+                });
+    }
+
     private String expandWithSynonyms(String query) {
         String[] words = query.toLowerCase().split("\\s+");
         StringBuilder expanded = new StringBuilder();
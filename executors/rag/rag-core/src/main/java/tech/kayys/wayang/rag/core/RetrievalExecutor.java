@@ -39,6 +39,7 @@ public class RetrievalExecutor extends AbstractWorkflowExecutor {
             boolean enableReranking,
             boolean enableDiversity,
             boolean enableQueryExpansion,
+            Duration expansionBudget,
             Map<String, Object> filters,
             String storeType,
             String tenantId,
@@ -81,6 +82,9 @@ public class RetrievalExecutor extends AbstractWorkflowExecutor {
     @ConfigProperty(name = "gamelan.rag.retrieval.query-expansion", defaultValue = "false")
     boolean defaultQueryExpansion;
 
+    @ConfigProperty(name = "gamelan.rag.retrieval.expansion-budget-ms", defaultValue = "0")
+    long defaultExpansionBudgetMs;
+
     @Override
     public Uni<NodeExecutionResult> execute(NodeExecutionTask task) {
         LOG.info("Starting retrieval for run: {}, node: {}",
@@ -155,107 +159,88 @@ public class RetrievalExecutor extends AbstractWorkflowExecutor {
         LOG.debug("Performing retrieval for query: '{}' (strategy: {})",
                 retCtx.query(), retCtx.strategy());
 
-        return Uni.createFrom().item(() -> {
-            // Query expansion
-            List<String> queries = new ArrayList<>();
-            queries.add(retCtx.query());
-
-            if (retCtx.enableQueryExpansion()) {
-                queries.addAll(queryExpansion.expand(retCtx.query(), 2));
-                LOG.debug("Expanded to {} query variations", queries.size());
-            }
-
-            // Initial retrieval
-            RetrievalStrategy strategy = strategyFactory.getStrategy(retCtx.strategy());
-            List<ScoredDocument> initialResults = new ArrayList<>();
-
-            for (String query : queries) {
-                VectorStore<RagChunk> store = storeRegistry.getStore(
-                        retCtx.tenantId(),
-                        retCtx.storeType());
-
-                List<ScoredDocument> queryResults = strategy.retrieve(query, store, retCtx.config());
-                initialResults.addAll(queryResults);
-            }
-
-            // Deduplicate by content
-            Map<String, ScoredDocument> deduplicated = new LinkedHashMap<>();
-            for (ScoredDocument doc : initialResults) {
-                String key = doc.segment().text();
-                if (!deduplicated.containsKey(key) ||
-                        deduplicated.get(key).score() < doc.score()) {
-                    deduplicated.put(key, doc);
-                }
-            }
+        // Query expansion
+        List<String> queries = new ArrayList<>();
+        queries.add(retCtx.query());
 
-            List<ScoredDocument> uniqueResults = new ArrayList<>(deduplicated.values());
-            uniqueResults.sort(Comparator.comparingDouble(ScoredDocument::score).reversed());
-            uniqueResults = uniqueResults.stream().limit(retCtx.topK()).collect(Collectors.toList());
-
-            LOG.debug("Retrieved {} unique results after deduplication", uniqueResults.size());
-
-            // Apply filters
-            List<ScoredDocument> filteredResults = applyFilters(uniqueResults, retCtx);
-            LOG.debug("Filtered to {} results", filteredResults.size());
-
-            // Reranking
-            List<ScoredDocument> rerankedResults = filteredResults;
-            boolean wasReranked = false;
+        if (retCtx.enableQueryExpansion()) {
+            queries.addAll(queryExpansion.expand(retCtx.query(), 2));
+            LOG.debug("Expanded to {} query variations", queries.size());
+        }
 
-            if (retCtx.enableReranking() && filteredResults.size() > retCtx.finalK()) {
-                rerankedResults = rerankingPipeline.rerank(
-                        retCtx.query(),
-                        filteredResults,
-                        retCtx.finalK());
-                wasReranked = true;
-                LOG.debug("Reranked to {} results", rerankedResults.size());
-            }
+        // Initial retrieval: one embedding batch, concurrent searches, top-k fusion by content
+        RetrievalStrategy strategy = strategyFactory.getStrategy(retCtx.strategy());
+        VectorStore<RagChunk> store = storeRegistry.getStore(
+                retCtx.tenantId(),
+                retCtx.storeType());
+
+        return queryExpansion.retrieveAll(
+                queries, strategy, store, retCtx.config(), retCtx.topK(), retCtx.expansionBudget())
+                .map(uniqueResults -> {
+                    LOG.debug("Retrieved {} unique results after deduplication", uniqueResults.size());
+
+                    // Apply filters
+                    List<ScoredDocument> filteredResults = applyFilters(uniqueResults, retCtx);
+                    LOG.debug("Filtered to {} results", filteredResults.size());
+
+                    // Reranking
+                    List<ScoredDocument> rerankedResults = filteredResults;
+                    boolean wasReranked = false;
+
+                    if (retCtx.enableReranking() && filteredResults.size() > retCtx.finalK()) {
+                        rerankedResults = rerankingPipeline.rerank(
+                                retCtx.query(),
+                                filteredResults,
+                                retCtx.finalK());
+                        wasReranked = true;
+                        LOG.debug("Reranked to {} results", rerankedResults.size());
+                    }
 
-            // Diversity filtering using MMR
-            List<ScoredDocument> finalResults = rerankedResults;
+                    // Diversity filtering using MMR
+                    List<ScoredDocument> finalResults = rerankedResults;
 
-            if (retCtx.enableDiversity() && rerankedResults.size() > retCtx.finalK()) {
-                finalResults = applyMMR(rerankedResults, retCtx.finalK(), 0.5);
-                LOG.debug("Applied MMR, selected {} diverse results", finalResults.size());
-            }
+                    if (retCtx.enableDiversity() && rerankedResults.size() > retCtx.finalK()) {
+                        finalResults = applyMMR(rerankedResults, retCtx.finalK(), 0.5);
+                        LOG.debug("Applied MMR, selected {} diverse results", finalResults.size());
+                    }
 
-            // Limit to final k
-            finalResults = finalResults.stream()
-                    .limit(retCtx.finalK())
-                    .collect(Collectors.toList());
-
-            // Extract contexts and metadata
-            List<String> contexts = finalResults.stream()
-                    .map(doc -> doc.segment().text())
-                    .collect(Collectors.toList());
-
-            List<Map<String, Object>> metadata = finalResults.stream()
-                    .map(doc -> new HashMap<>(doc.segment().metadata()))
-                    .collect(Collectors.toList());
-
-            // Calculate statistics
-            OptionalDouble avgScore = finalResults.stream()
-                    .mapToDouble(ScoredDocument::score)
-                    .average();
-
-            OptionalDouble maxScore = finalResults.stream()
-                    .mapToDouble(ScoredDocument::score)
-                    .max();
-
-            OptionalDouble minScore = finalResults.stream()
-                    .mapToDouble(ScoredDocument::score)
-                    .min();
-
-            return new RetrievalResult(
-                    uniqueResults.size(),
-                    finalResults.size(),
-                    avgScore.orElse(0.0),
-                    maxScore.orElse(0.0),
-                    minScore.orElse(0.0),
-                    contexts,
-                    metadata,
-                    wasReranked);
-        });
+                    // Limit to final k
+                    finalResults = finalResults.stream()
+                            .limit(retCtx.finalK())
+                            .collect(Collectors.toList());
+
+                    // Extract contexts and metadata
+                    List<String> contexts = finalResults.stream()
+                            .map(doc -> doc.segment().text())
+                            .collect(Collectors.toList());
+
+                    List<Map<String, Object>> metadata = finalResults.stream()
+                            .map(doc -> new HashMap<>(doc.segment().metadata()))
+                            .collect(Collectors.toList());
+
+                    // Calculate statistics
+                    OptionalDouble avgScore = finalResults.stream()
+                            .mapToDouble(ScoredDocument::score)
+                            .average();
+
+                    OptionalDouble maxScore = finalResults.stream()
+                            .mapToDouble(ScoredDocument::score)
+                            .max();
+
+                    OptionalDouble minScore = finalResults.stream()
+                            .mapToDouble(ScoredDocument::score)
+                            .min();
+
+                    return new RetrievalResult(
+                            uniqueResults.size(),
+                            finalResults.size(),
+                            avgScore.orElse(0.0),
+                            maxScore.orElse(0.0),
+                            minScore.orElse(0.0),
+                            contexts,
+                            metadata,
+                            wasReranked);
+                });
     }
 
     private List<ScoredDocument> applyFilters(List<ScoredDocument> results, RetrievalContext retCtx) {
@@ -350,6 +335,9 @@ public class RetrievalExecutor extends AbstractWorkflowExecutor {
         boolean enableQueryExpansion = context.containsKey("enableQueryExpansion")
                 ? (Boolean) context.get("enableQueryExpansion")
                 : defaultQueryExpansion;
+        long expansionBudgetMs = context.containsKey("expansionBudgetMs")
+                ? ((Number) context.get("expansionBudgetMs")).longValue()
+                : defaultExpansionBudgetMs;
 
         Map<String, Object> filters = (Map<String, Object>) context.getOrDefault("filters", Map.of());
         String storeType = (String) context.getOrDefault("storeType", "in-memory");
@@ -360,7 +348,7 @@ public class RetrievalExecutor extends AbstractWorkflowExecutor {
 
         return new RetrievalContext(
                 query, topK, finalK, minScore, strategy,
-                enableReranking, enableDiversity, enableQueryExpansion,
+                enableReranking, enableDiversity, enableQueryExpansion, Duration.ofMillis(expansionBudgetMs),
                 filters, storeType, tenantId, config);
     }
 
@@ -8,4 +8,25 @@ public interface RetrievalStrategy {
             String query,
             VectorStore<RagChunk> store,
             RetrievalConfig config);
-}
\ No newline at end of file
+
+    /**
+     * Retrieve with a query vector embedded by the caller, so several queries
+     * can share one provider batch. {@code queryVector} may be {@code null}, in
+     * which case the strategy embeds the query itself.
+     */
+    default List<ScoredDocument> retrieve(
+            String query,
+            float[] queryVector,
+            VectorStore<RagChunk> store,
+            RetrievalConfig config) {
+        return retrieve(query, store, config);
+    }
+
+    /**
+     * Whether {@link #retrieve(String, float[], VectorStore, RetrievalConfig)}
+     * makes use of a precomputed query vector.
+     */
+    default boolean usesQueryEmbedding() {
+        return false;
+    }
+}
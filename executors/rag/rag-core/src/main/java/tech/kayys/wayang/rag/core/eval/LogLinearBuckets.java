@@ -0,0 +1,93 @@
+package tech.kayys.wayang.rag.core.eval;
+
+/**
+ * Bucket layout for log-linear latency histograms.
+ *
+ * <p>
+ * Values below {@code 2^exactExponent} get one bucket each. Above that, every
+ * power of two is split into {@code 2^subBucketBits} equal sub-buckets, so a
+ * bucket's lower bound is within {@code 1/2^subBucketBits} of any value in it.
+ * Values at or above {@code 2^(maxExponent + 1)} share the last bucket. Counts
+ * kept against the same layout can be merged by adding them bucket by bucket.
+ */
+public final class LogLinearBuckets {
+
+    private final int exactLimit;
+    private final int exactExponent;
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final int maxExponent;
+    private final int buckets;
+
+    /**
+     * @param exactExponent values below {@code 2^exactExponent} are exact
+     * @param subBucketBits log2 of the sub-buckets per power of two; at most
+     *                      {@code exactExponent}
+     * @param maxExponent   highest power of two with its own sub-buckets, at
+     *                      most 62
+     */
+    public LogLinearBuckets(int exactExponent, int subBucketBits, int maxExponent) {
+        if (subBucketBits < 0 || subBucketBits > exactExponent || exactExponent > maxExponent || maxExponent > 62) {
+            throw new IllegalArgumentException("Invalid histogram layout: exactExponent=" + exactExponent
+                    + ", subBucketBits=" + subBucketBits + ", maxExponent=" + maxExponent);
+        }
+        this.exactLimit = 1 << exactExponent;
+        this.exactExponent = exactExponent;
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+        this.maxExponent = maxExponent;
+        this.buckets = exactLimit + (maxExponent + 1 - exactExponent) * subBuckets;
+    }
+
+    public int buckets() {
+        return buckets;
+    }
+
+    /**
+     * Smallest value that lands in the shared last bucket.
+     */
+    public long overflowThreshold() {
+        return 1L << (maxExponent + 1);
+    }
+
+    public int bucket(long value) {
+        if (value < exactLimit) {
+            return (int) Math.max(0L, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > maxExponent) {
+            return buckets - 1;
+        }
+        int sub = (int) (value >>> (exponent - subBucketBits)) & (subBuckets - 1);
+        return exactLimit + (exponent - exactExponent) * subBuckets + sub;
+    }
+
+    public long lowerBound(int bucket) {
+        if (bucket < exactLimit) {
+            return bucket;
+        }
+        int offset = bucket - exactLimit;
+        int exponent = exactExponent + offset / subBuckets;
+        long sub = offset % subBuckets;
+        return (subBuckets + sub) << (exponent - subBucketBits);
+    }
+
+    /**
+     * Nearest-rank percentile of {@code counts} (indexed by bucket, summing
+     * to {@code total}), as the lower bound of its bucket.
+     */
+    public long percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile * total));
+        long seen = 0L;
+        for (int i = 0; i < buckets; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return lowerBound(i);
+            }
+        }
+        return lowerBound(buckets - 1);
+    }
+}
@@ -0,0 +1,84 @@
+package tech.kayys.wayang.rag.core.eval;
+
+/**
+ * Running recall@k, MRR, nDCG and latency totals for an evaluation run.
+ *
+ * <p>
+ * Outcomes are folded in and dropped, so memory does not grow with the query
+ * set. Latencies go into a log-linear histogram: exact below 1024 ms and
+ * within 1/16 of the value above it, which keeps percentiles mergeable across
+ * shards. Not thread-safe; give each worker its own and {@link #merge} them.
+ */
+public final class RagEvalAccumulator {
+
+    static final LogLinearBuckets LATENCY_BUCKETS = new LogLinearBuckets(10, 4, 62);
+
+    private final int topK;
+    private final long[] latencyCounts = new long[LATENCY_BUCKETS.buckets()];
+    private long count;
+    private long hits;
+    private double recallSum;
+    private double mrrSum;
+    private double ndcgSum;
+    private long latencySumMs;
+
+    public RagEvalAccumulator(int topK) {
+        this.topK = topK;
+    }
+
+    public void add(RagEvalOutcome outcome) {
+        double reciprocalRank = outcome.reciprocalRank();
+        count++;
+        if (reciprocalRank > 0.0) {
+            hits++;
+        }
+        recallSum += outcome.recall();
+        mrrSum += reciprocalRank;
+        ndcgSum += outcome.ndcg(topK);
+        latencySumMs += outcome.latencyMs();
+        latencyCounts[LATENCY_BUCKETS.bucket(outcome.latencyMs())]++;
+    }
+
+    public void merge(RagEvalAccumulator other) {
+        count += other.count;
+        hits += other.hits;
+        recallSum += other.recallSum;
+        mrrSum += other.mrrSum;
+        ndcgSum += other.ndcgSum;
+        latencySumMs += other.latencySumMs;
+        for (int i = 0; i < latencyCounts.length; i++) {
+            latencyCounts[i] += other.latencyCounts[i];
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long hitCount() {
+        return hits;
+    }
+
+    public double recallAtK() {
+        return count == 0 ? 0.0 : recallSum / count;
+    }
+
+    public double mrr() {
+        return count == 0 ? 0.0 : mrrSum / count;
+    }
+
+    public double ndcg() {
+        return count == 0 ? 0.0 : ndcgSum / count;
+    }
+
+    public double latencyAvgMs() {
+        return count == 0 ? 0.0 : (double) latencySumMs / count;
+    }
+
+    /**
+     * Nearest-rank percentile, reported as the lower bound of its bucket.
+     */
+    public long latencyPercentileMs(double percentile) {
+        return LATENCY_BUCKETS.percentile(latencyCounts, count, percentile);
+    }
+}
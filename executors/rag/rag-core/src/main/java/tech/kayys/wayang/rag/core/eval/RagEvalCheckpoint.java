@@ -0,0 +1,214 @@
+package tech.kayys.wayang.rag.core.eval;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only record of finished evaluation shards for one run key.
+ *
+ * <p>
+ * A shard is written as a {@code B <shard>} line, one {@code C} line per case
+ * and an {@code S <shard> <cases>} commit line, and forced to disk before it
+ * counts as done. On reopen only committed shards are restored, so a shard cut
+ * short by a crash is evaluated again. The file is removed once the run completes.
+ */
+final class RagEvalCheckpoint implements AutoCloseable {
+
+    private static final char LIST_SEPARATOR = '\u001f';
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<Integer, List<RagEvalOutcome>> committed;
+
+    private RagEvalCheckpoint(Path file, FileChannel channel, Map<Integer, List<RagEvalOutcome>> committed) {
+        this.file = file;
+        this.channel = channel;
+        this.committed = committed;
+    }
+
+    static RagEvalCheckpoint open(Path directory, String runKey) {
+        Path file = directory.resolve(runKey + ".eval.tsv");
+        try {
+            Files.createDirectories(directory);
+            Map<Integer, List<RagEvalOutcome>> committed = new HashMap<>();
+            byte[] existing = Files.exists(file) ? Files.readAllBytes(file) : new byte[0];
+            if (existing.length > 0) {
+                load(new String(existing, StandardCharsets.UTF_8).split("\n"), committed);
+            }
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (existing.length > 0 && existing[existing.length - 1] != '\n') {
+                // Terminate a torn last line so the next record starts cleanly
+                channel.write(ByteBuffer.wrap(new byte[] { '\n' }));
+            }
+            return new RagEvalCheckpoint(file, channel, committed);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open evaluation checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Shards committed by an earlier, interrupted run of the same key.
+     */
+    Map<Integer, List<RagEvalOutcome>> committedShards() {
+        return committed;
+    }
+
+    /**
+     * Record a finished shard; durable once this returns.
+     */
+    void commitShard(int shard, List<RagEvalOutcome> outcomes) {
+        StringBuilder lines = new StringBuilder(outcomes.size() * 64);
+        lines.append("B\t").append(shard).append('\n');
+        for (RagEvalOutcome outcome : outcomes) {
+            lines.append("C\t").append(shard)
+                    .append('\t').append(outcome.index())
+                    .append('\t').append(outcome.latencyMs())
+                    .append('\t').append(escape(outcome.caseId()))
+                    .append('\t').append(escape(outcome.query()))
+                    .append('\t').append(join(outcome.expectedIds()))
+                    .append('\t').append(join(outcome.retrievedIds()))
+                    .append('\n');
+        }
+        lines.append("S\t").append(shard).append('\t').append(outcomes.size()).append('\n');
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        synchronized (this) {
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write evaluation checkpoint " + file, e);
+            }
+        }
+    }
+
+    /**
+     * The run finished; drop its checkpoint so the next run starts fresh.
+     */
+    void complete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove evaluation checkpoint " + file, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close evaluation checkpoint " + file, e);
+        }
+    }
+
+    private static void load(String[] lines, Map<Integer, List<RagEvalOutcome>> committed) {
+        Map<Integer, List<RagEvalOutcome>> pending = new HashMap<>();
+        for (String line : lines) {
+            String[] parts = line.split("\t", -1);
+            try {
+                if (parts.length == 2 && parts[0].equals("B")) {
+                    // Discard case lines left by an attempt that never committed
+                    pending.put(Integer.parseInt(parts[1]), new ArrayList<>());
+                } else if (parts.length == 3 && parts[0].equals("S")) {
+                    int shard = Integer.parseInt(parts[1]);
+                    List<RagEvalOutcome> outcomes = pending.remove(shard);
+                    if (outcomes == null) {
+                        outcomes = List.of();
+                    }
+                    // A commit line only counts if it covers every case line of the shard
+                    if (outcomes.size() == Integer.parseInt(parts[2])) {
+                        committed.put(shard, outcomes);
+                    }
+                } else if (parts.length == 8 && parts[0].equals("C")) {
+                    int shard = Integer.parseInt(parts[1]);
+                    pending.computeIfAbsent(shard, ignored -> new ArrayList<>()).add(new RagEvalOutcome(
+                            Integer.parseInt(parts[2]),
+                            unescape(parts[4]),
+                            unescape(parts[5]),
+                            split(parts[6]),
+                            split(parts[7]),
+                            Long.parseLong(parts[3])));
+                }
+            } catch (NumberFormatException ignored) {
+                // Torn write from an earlier crash
+            }
+        }
+    }
+
+    private static String join(List<String> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                joined.append(LIST_SEPARATOR);
+            }
+            joined.append(escape(ids.get(i)));
+        }
+        return joined.toString();
+    }
+
+    private static List<String> split(String joined) {
+        if (joined.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(joined.split(String.valueOf(LIST_SEPARATOR), -1))
+                .map(RagEvalCheckpoint::unescape)
+                .toList();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case LIST_SEPARATOR -> escaped.append("\\u");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                unescaped.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 't' -> unescaped.append('\t');
+                case 'n' -> unescaped.append('\n');
+                case 'r' -> unescaped.append('\r');
+                case 'u' -> unescaped.append(LIST_SEPARATOR);
+                default -> unescaped.append(next);
+            }
+        }
+        return unescaped.toString();
+    }
+}
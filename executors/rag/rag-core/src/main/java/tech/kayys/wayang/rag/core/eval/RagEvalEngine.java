@@ -0,0 +1,199 @@
+package tech.kayys.wayang.rag.core.eval;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Sharded evaluation runner shared by the eval harness and the retrieval eval
+ * service.
+ *
+ * <p>
+ * The query set is cut into contiguous shards that a bounded pool evaluates in
+ * parallel. Each shard folds its outcomes into its own
+ * {@link RagEvalAccumulator}, merged as shards finish, so no per-query state
+ * is retained unless the caller's sink keeps it. With a checkpoint directory,
+ * finished shards are persisted under the run key and an interrupted run with
+ * the same key resumes from them.
+ */
+public final class RagEvalEngine {
+
+    public static final int DEFAULT_SHARD_SIZE = 64;
+
+    @FunctionalInterface
+    public interface CaseEvaluator<C> {
+        RagEvalOutcome evaluate(int index, C evalCase);
+    }
+
+    private final int parallelism;
+    private final int shardSize;
+    private final Path checkpointDirectory;
+
+    /**
+     * @param parallelism         worker threads; {@code <= 0} uses one per core
+     * @param shardSize           queries per shard and per checkpoint commit
+     * @param checkpointDirectory where partial runs are kept; {@code null}
+     *                            disables resuming
+     */
+    public RagEvalEngine(int parallelism, int shardSize, Path checkpointDirectory) {
+        if (shardSize <= 0) {
+            throw new IllegalArgumentException("shardSize must be > 0");
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.shardSize = shardSize;
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    /**
+     * Evaluate every case and return the merged accumulator. {@code sink}, if
+     * given, sees each outcome once, including those restored from a
+     * checkpoint; it is called from worker threads in no particular order.
+     */
+    public <C> RagEvalAccumulator run(
+            String runKey,
+            List<C> cases,
+            int topK,
+            CaseEvaluator<C> evaluator,
+            Consumer<RagEvalOutcome> sink) {
+        Consumer<RagEvalOutcome> consumer = sink == null ? outcome -> {
+        } : sink;
+        int shards = (cases.size() + shardSize - 1) / shardSize;
+        RagEvalAccumulator total = new RagEvalAccumulator(topK);
+        RagEvalCheckpoint checkpoint = checkpointDirectory == null ? null
+                : RagEvalCheckpoint.open(checkpointDirectory, runKey);
+        try {
+            boolean[] done = new boolean[shards];
+            if (checkpoint != null) {
+                for (Map.Entry<Integer, List<RagEvalOutcome>> entry : checkpoint.committedShards().entrySet()) {
+                    int shard = entry.getKey();
+                    if (shard < 0 || shard >= shards) {
+                        continue;
+                    }
+                    done[shard] = true;
+                    for (RagEvalOutcome outcome : entry.getValue()) {
+                        total.add(outcome);
+                        consumer.accept(outcome);
+                    }
+                }
+            }
+            List<Integer> pending = new ArrayList<>();
+            for (int shard = 0; shard < shards; shard++) {
+                if (!done[shard]) {
+                    pending.add(shard);
+                }
+            }
+            if (!pending.isEmpty()) {
+                runShards(pending, cases, topK, evaluator, consumer, checkpoint, total);
+            }
+            if (checkpoint != null) {
+                checkpoint.complete();
+                checkpoint = null;
+            }
+            return total;
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+    }
+
+    /**
+     * Stable key for a run's checkpoint, derived from everything that affects
+     * its results. Iterable parts are hashed element by element.
+     */
+    public static String runKey(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                if (part instanceof Iterable<?> iterable) {
+                    for (Object element : iterable) {
+                        update(digest, element);
+                    }
+                } else {
+                    update(digest, part);
+                }
+                digest.update((byte) 0x1e);
+            }
+            return HexFormat.of().formatHex(digest.digest()).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private <C> void runShards(
+            List<Integer> pending,
+            List<C> cases,
+            int topK,
+            CaseEvaluator<C> evaluator,
+            Consumer<RagEvalOutcome> sink,
+            RagEvalCheckpoint checkpoint,
+            RagEvalAccumulator total) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, pending.size()), runnable -> {
+            Thread thread = new Thread(runnable, "rag-eval-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<RagEvalAccumulator> completion = new ExecutorCompletionService<>(pool);
+            for (int shard : pending) {
+                completion.submit(() -> evaluateShard(shard, cases, topK, evaluator, sink, checkpoint));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                total.merge(completion.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Evaluation shard failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private <C> RagEvalAccumulator evaluateShard(
+            int shard,
+            List<C> cases,
+            int topK,
+            CaseEvaluator<C> evaluator,
+            Consumer<RagEvalOutcome> sink,
+            RagEvalCheckpoint checkpoint) {
+        int from = shard * shardSize;
+        int to = Math.min(from + shardSize, cases.size());
+        RagEvalAccumulator accumulator = new RagEvalAccumulator(topK);
+        List<RagEvalOutcome> outcomes = checkpoint == null ? null : new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            RagEvalOutcome outcome = evaluator.evaluate(i, cases.get(i));
+            accumulator.add(outcome);
+            sink.accept(outcome);
+            if (outcomes != null) {
+                outcomes.add(outcome);
+            }
+        }
+        if (checkpoint != null) {
+            checkpoint.commitShard(shard, outcomes);
+        }
+        return accumulator;
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0x1f);
+    }
+}
@@ -0,0 +1,78 @@
+package tech.kayys.wayang.rag.core.eval;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of one evaluated query: what was expected, what came back in rank
+ * order, and how long retrieval took. Metrics are derived on demand so only
+ * the ids need to be kept or checkpointed.
+ */
+public record RagEvalOutcome(
+        int index,
+        String caseId,
+        String query,
+        List<String> expectedIds,
+        List<String> retrievedIds,
+        long latencyMs) {
+
+    public RagEvalOutcome {
+        expectedIds = expectedIds == null ? List.of() : List.copyOf(expectedIds);
+        retrievedIds = retrievedIds == null ? List.of() : List.copyOf(retrievedIds);
+        latencyMs = Math.max(0L, latencyMs);
+    }
+
+    public double recall() {
+        Set<String> expected = new HashSet<>(expectedIds);
+        if (expected.isEmpty()) {
+            return 0.0;
+        }
+        long matched = retrievedIds.stream().filter(expected::contains).count();
+        return (double) matched / expected.size();
+    }
+
+    public double reciprocalRank() {
+        Set<String> expected = new HashSet<>(expectedIds);
+        for (int i = 0; i < retrievedIds.size(); i++) {
+            if (expected.contains(retrievedIds.get(i))) {
+                return 1.0 / (i + 1);
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Binary-relevance nDCG over the first {@code k} results; an id retrieved
+     * more than once only counts at its first rank.
+     */
+    public double ndcg(int k) {
+        Set<String> expected = new HashSet<>(expectedIds);
+        if (expected.isEmpty() || k <= 0) {
+            return 0.0;
+        }
+        Set<String> seen = new HashSet<>();
+        double dcg = 0.0;
+        int limit = Math.min(k, retrievedIds.size());
+        for (int i = 0; i < limit; i++) {
+            String id = retrievedIds.get(i);
+            if (expected.contains(id) && seen.add(id)) {
+                dcg += 1.0 / log2(i + 2);
+            }
+        }
+        double idcg = 0.0;
+        int ideal = Math.min(k, expected.size());
+        for (int i = 0; i < ideal; i++) {
+            idcg += 1.0 / log2(i + 2);
+        }
+        return dcg / idcg;
+    }
+
+    public boolean hit() {
+        return reciprocalRank() > 0.0;
+    }
+
+    private static double log2(int value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
@@ -5,6 +5,7 @@ public record RagEvalResult(
         int topK,
         double recallAtK,
         double mrr,
+        double ndcg,
         long latencyP95Ms,
         long latencyAvgMs) {
 }
@@ -4,14 +4,32 @@ import tech.kayys.wayang.rag.core.RagQuery;
 import tech.kayys.wayang.rag.core.RagScoredChunk;
 import tech.kayys.wayang.rag.core.spi.Retriever;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
+/**
+ * Evaluates a {@link Retriever} against a gold query set through
+ * {@link RagEvalEngine}: queries run in parallel shards and, with a checkpoint
+ * directory, an interrupted run picks up where it stopped.
+ */
 public class RagEvaluationHarness {
 
+    private final RagEvalEngine engine;
+
+    public RagEvaluationHarness() {
+        this(0, null);
+    }
+
+    /**
+     * @param parallelism         worker threads; {@code <= 0} uses one per core
+     * @param checkpointDirectory where partial runs are kept; {@code null}
+     *                            disables resuming
+     */
+    public RagEvaluationHarness(int parallelism, Path checkpointDirectory) {
+        this.engine = new RagEvalEngine(parallelism, RagEvalEngine.DEFAULT_SHARD_SIZE, checkpointDirectory);
+    }
+
     public RagEvalResult evaluate(Retriever retriever, List<RagEvalCase> evalCases, int topK) {
         if (retriever == null) {
             throw new IllegalArgumentException("retriever must not be null");
@@ -23,55 +41,34 @@ public class RagEvaluationHarness {
             throw new IllegalArgumentException("topK must be > 0");
         }
 
-        double recallSum = 0.0;
-        double mrrSum = 0.0;
-        List<Long> latenciesMs = new ArrayList<>(evalCases.size());
-
-        for (RagEvalCase evalCase : evalCases) {
-            long started = System.nanoTime();
-            List<RagScoredChunk> results = retriever
-                    .retrieve(new RagQuery(evalCase.query(), topK, 0.0, java.util.Map.of()));
-            long elapsedMs = Math.max(0L, (System.nanoTime() - started) / 1_000_000L);
-            latenciesMs.add(elapsedMs);
+        RagEvalAccumulator accumulator = engine.run(
+                RagEvalEngine.runKey("harness", topK, evalCases),
+                evalCases,
+                topK,
+                (index, evalCase) -> {
+                    long started = System.nanoTime();
+                    List<RagScoredChunk> results = retriever
+                            .retrieve(new RagQuery(evalCase.query(), topK, 0.0, java.util.Map.of()));
+                    long elapsedMs = Math.max(0L, (System.nanoTime() - started) / 1_000_000L);
 
-            Set<String> relevant = new HashSet<>(evalCase.relevantChunkIds());
-            int hits = 0;
-            double reciprocalRank = 0.0;
-            int rank = 0;
-            for (RagScoredChunk result : results) {
-                rank++;
-                String id = result.chunk() == null ? null : result.chunk().id();
-                if (id != null && relevant.contains(id)) {
-                    hits++;
-                    if (reciprocalRank == 0.0) {
-                        reciprocalRank = 1.0 / rank;
+                    List<String> retrievedIds = new ArrayList<>(results.size());
+                    for (RagScoredChunk result : results) {
+                        String id = result.chunk() == null ? null : result.chunk().id();
+                        // Keep the rank slot of chunks without an id
+                        retrievedIds.add(id == null ? "" : id);
                     }
-                }
-            }
-
-            recallSum += ((double) hits / relevant.size());
-            mrrSum += reciprocalRank;
-        }
+                    return new RagEvalOutcome(index, null, evalCase.query(), evalCase.relevantChunkIds(),
+                            retrievedIds, elapsedMs);
+                },
+                null);
 
-        latenciesMs.sort(Comparator.naturalOrder());
-        long p95 = percentile(latenciesMs, 0.95);
-        long avg = (long) latenciesMs.stream().mapToLong(Long::longValue).average().orElse(0.0);
-        int total = evalCases.size();
         return new RagEvalResult(
-                total,
+                evalCases.size(),
                 topK,
-                recallSum / total,
-                mrrSum / total,
-                p95,
-                avg);
-    }
-
-    private static long percentile(List<Long> sortedValues, double percentile) {
-        if (sortedValues.isEmpty()) {
-            return 0L;
-        }
-        int index = (int) Math.ceil(percentile * sortedValues.size()) - 1;
-        int safeIndex = Math.max(0, Math.min(index, sortedValues.size() - 1));
-        return sortedValues.get(safeIndex);
+                accumulator.recallAtK(),
+                accumulator.mrr(),
+                accumulator.ndcg(),
+                accumulator.latencyPercentileMs(0.95),
+                (long) accumulator.latencyAvgMs());
     }
 }
@@ -1,69 +1,189 @@
 package tech.kayys.wayang.rag.core.impl;
 
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
 import tech.kayys.wayang.embedding.EmbeddingException;
 import tech.kayys.wayang.embedding.EmbeddingModelSpec;
 import tech.kayys.wayang.embedding.EmbeddingRequest;
 import tech.kayys.wayang.embedding.EmbeddingResponse;
 import tech.kayys.wayang.embedding.EmbeddingService;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 import tech.kayys.wayang.rag.core.RagChunk;
-import tech.kayys.wayang.rag.core.RagDocument;
 import tech.kayys.wayang.rag.core.store.VectorStore;
+import tech.kayys.wayang.rag.core.store.VectorUpsert;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
+import java.util.stream.Collectors;
 
+/**
+ * Embeds chunks and writes them to the vector store in bulk.
+ *
+ * <p>
+ * {@link #indexChunksAsync(List)} is the non-blocking path: chunks are
+ * embedded in batches of {@code upsertBatchSize} through the reactive
+ * embedding API and each batch is written with one
+ * {@link VectorStore#upsertAll} call on a worker thread, so no caller thread
+ * waits on embedding or storage. {@link #indexChunks(List)} remains for
+ * synchronous callers.
+ */
 public class RagIndexer {
 
+    public static final int DEFAULT_UPSERT_BATCH_SIZE = 256;
+
     private final EmbeddingService embeddingService;
     private final VectorStore<RagChunk> vectorStore;
     private final String namespace;
     private final String embeddingModel;
+    private final int upsertBatchSize;
 
     public RagIndexer(
             EmbeddingService embeddingService,
             VectorStore<RagChunk> vectorStore,
             String namespace,
             String embeddingModel) {
+        this(embeddingService, vectorStore, namespace, embeddingModel, DEFAULT_UPSERT_BATCH_SIZE);
+    }
+
+    public RagIndexer(
+            EmbeddingService embeddingService,
+            VectorStore<RagChunk> vectorStore,
+            String namespace,
+            String embeddingModel,
+            int upsertBatchSize) {
+        if (upsertBatchSize <= 0) {
+            throw new IllegalArgumentException("upsertBatchSize must be > 0");
+        }
         this.embeddingService = embeddingService;
         this.vectorStore = vectorStore;
         this.namespace = namespace;
         this.embeddingModel = embeddingModel;
+        this.upsertBatchSize = upsertBatchSize;
+    }
+
+    /**
+     * Embedded chunks ready to be written, as produced by {@link #embed(List)}.
+     */
+    public record EmbeddedChunks(List<RagChunk> chunks, List<float[]> vectors, int dimension, String version) {
     }
 
     public void indexChunks(List<RagChunk> chunks) {
         if (chunks == null || chunks.isEmpty()) {
             return;
         }
+        for (List<RagChunk> batch : partition(chunks)) {
+            store(embed(batch));
+        }
+    }
+
+    /**
+     * Embed and store chunks without blocking the caller, one bulk upsert per
+     * batch.
+     *
+     * @return number of chunks written
+     */
+    public Uni<Integer> indexChunksAsync(List<RagChunk> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return Uni.createFrom().item(0);
+        }
+        return Multi.createFrom().iterable(partition(chunks))
+                .onItem().transformToUniAndConcatenate(batch -> embedAsync(batch).flatMap(this::storeAsync))
+                .collect().with(Collectors.summingInt(Integer::intValue));
+    }
+
+    /**
+     * Embed chunk texts without writing them, so callers can run embedding
+     * and storage as separate stages.
+     */
+    public EmbeddedChunks embed(List<RagChunk> chunks) {
+        return BlockingSections.await("rag-indexer", embedAsync(chunks));
+    }
+
+    public Uni<EmbeddedChunks> embedAsync(List<RagChunk> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return Uni.createFrom().item(new EmbeddedChunks(List.of(), List.of(), 0, null));
+        }
         List<String> inputs = chunks.stream().map(RagChunk::text).toList();
-        EmbeddingResponse response = embeddingService.embedForTenant(
+        return embeddingService.embedForTenant(
                 namespace,
                 new EmbeddingRequest(inputs, embeddingModel, null, true))
-                .await().indefinitely();
-        validateEmbeddingDimension(response.dimension());
+                .map(response -> toEmbedded(chunks, response));
+    }
 
-        List<float[]> vectors = response.embeddings();
+    public void store(EmbeddedChunks embedded) {
+        List<RagChunk> chunks = embedded.chunks();
+        if (chunks.isEmpty()) {
+            return;
+        }
+        List<VectorUpsert<RagChunk>> entries = new ArrayList<>(chunks.size());
         for (int i = 0; i < chunks.size(); i++) {
             RagChunk chunk = chunks.get(i);
-            float[] vector = vectors.get(i);
-            if (vector.length != response.dimension()) {
-                throw new EmbeddingException(
-                        "Embedding vector size mismatch at index " + i + ": expected "
-                                + response.dimension() + " but got " + vector.length);
-            }
-            vectorStore.upsert(
-                    namespace,
+            entries.add(new VectorUpsert<>(
                     chunk.id(),
-                    vector,
+                    embedded.vectors().get(i),
                     chunk,
                     Map.of(
                             "tenantId", namespace,
                             "embeddingModel", embeddingModel,
-                            "embeddingDimension", response.dimension(),
-                            "embeddingVersion", response.version(),
+                            "embeddingDimension", embedded.dimension(),
+                            "embeddingVersion", embedded.version(),
                             "documentId", chunk.documentId(),
-                            "chunkIndex", chunk.chunkIndex()));
+                            "chunkIndex", chunk.chunkIndex())));
+        }
+        vectorStore.upsertAll(namespace, entries);
+    }
+
+    /**
+     * Bulk upsert off the caller's thread; store backends such as pgvector
+     * block. Concurrent upserts are capped by the {@code vector-store} limit.
+     */
+    public Uni<Integer> storeAsync(EmbeddedChunks embedded) {
+        return BlockingSections.offload("vector-store", () -> {
+            store(embedded);
+            return embedded.chunks().size();
+        });
+    }
+
+    /**
+     * Whether a chunk with this id is still in the store.
+     */
+    public boolean containsChunk(String chunkId) {
+        return vectorStore.contains(namespace, chunkId);
+    }
+
+    /**
+     * Remove chunks from the store in one call.
+     */
+    public int deleteChunks(Collection<String> chunkIds) {
+        return vectorStore.deleteAll(namespace, chunkIds);
+    }
+
+    private EmbeddedChunks toEmbedded(List<RagChunk> chunks, EmbeddingResponse response) {
+        validateEmbeddingDimension(response.dimension());
+        List<float[]> vectors = response.embeddings();
+        for (int i = 0; i < chunks.size(); i++) {
+            float[] vector = vectors.get(i);
+            if (vector.length != response.dimension()) {
+                throw new EmbeddingException(
+                        "Embedding vector size mismatch at index " + i + ": expected "
+                                + response.dimension() + " but got " + vector.length);
+            }
+        }
+        return new EmbeddedChunks(chunks, vectors, response.dimension(), response.version());
+    }
+
+    private List<List<RagChunk>> partition(List<RagChunk> chunks) {
+        if (chunks.size() <= upsertBatchSize) {
+            return List.of(chunks);
+        }
+        List<List<RagChunk>> batches = new ArrayList<>((chunks.size() + upsertBatchSize - 1) / upsertBatchSize);
+        for (int start = 0; start < chunks.size(); start += upsertBatchSize) {
+            batches.add(chunks.subList(start, Math.min(chunks.size(), start + upsertBatchSize)));
         }
+        return batches;
     }
 
     private void validateEmbeddingDimension(int observedDimension) {
@@ -1,5 +1,6 @@
 package tech.kayys.wayang.rag.core.impl;
 
+import io.smallrye.mutiny.Uni;
 import tech.kayys.wayang.rag.core.RagChunk;
 import tech.kayys.wayang.rag.core.RagDocument;
 import tech.kayys.wayang.rag.core.RagQuery;
@@ -46,6 +47,17 @@ public class RagPipeline {
         return chunks;
     }
 
+    /**
+     * Non-blocking variant of {@link #ingest}: parsing and chunking run inline,
+     * embedding and bulk upserts run through {@link RagIndexer#indexChunksAsync}.
+     */
+    public Uni<List<RagChunk>> ingestAsync(
+            String source, String rawText, Map<String, Object> metadata, ChunkingOptions options) {
+        RagDocument document = parser.parse(source, rawText, metadata);
+        List<RagChunk> chunks = chunker.chunk(document, options);
+        return indexer.indexChunksAsync(chunks).replaceWith(chunks);
+    }
+
     public RagResult query(RagQuery query) {
         List<RagScoredChunk> retrieved = retriever.retrieve(query);
         List<RagScoredChunk> reranked = reranker.rerank(query, retrieved, query.topK());
@@ -5,6 +5,7 @@ import tech.kayys.wayang.embedding.EmbeddingModelSpec;
 import tech.kayys.wayang.embedding.EmbeddingRequest;
 import tech.kayys.wayang.embedding.EmbeddingResponse;
 import tech.kayys.wayang.embedding.EmbeddingService;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 import tech.kayys.wayang.rag.core.RagChunk;
 import tech.kayys.wayang.rag.core.RagQuery;
 import tech.kayys.wayang.rag.core.RagScoredChunk;
@@ -37,10 +38,9 @@ public class VectorRetriever implements Retriever {
 
     @Override
     public List<RagScoredChunk> retrieve(RagQuery query) {
-        EmbeddingResponse response = embeddingService.embedForTenant(
+        EmbeddingResponse response = BlockingSections.await("embedding", embeddingService.embedForTenant(
                 namespace,
-                new EmbeddingRequest(List.of(query.text()), embeddingModel, null, true))
-                .await().indefinitely();
+                new EmbeddingRequest(List.of(query.text()), embeddingModel, null, true)));
         validateEmbeddingDimension(response.dimension());
         float[] queryVector = response.first();
         if (queryVector.length != response.dimension()) {
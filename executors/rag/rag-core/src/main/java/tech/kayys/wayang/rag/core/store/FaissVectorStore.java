@@ -49,6 +49,36 @@ public class FaissVectorStore<T> implements VectorStore<T>, AutoCloseable {
         entryMap.put(id, new Entry<>(id, payload, metadata));
     }
 
+    /**
+     * Adds the whole batch to the native index with a single
+     * {@link FaissIndex#addBatch} call.
+     */
+    @Override
+    public void upsertAll(String namespace, List<VectorUpsert<T>> entries) {
+        Objects.requireNonNull(namespace, "namespace must not be null");
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        String[] ids = new String[entries.size()];
+        float[][] vectors = new float[entries.size()][];
+        Map<String, Entry<T>> batch = new LinkedHashMap<>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            VectorUpsert<T> upsert = entries.get(i);
+            Objects.requireNonNull(upsert.id(), "id must not be null");
+            Objects.requireNonNull(upsert.vector(), "vector must not be null");
+            if (upsert.vector().length != dimensions) {
+                throw new IllegalArgumentException(
+                        "Vector dimension mismatch: expected " + dimensions + " but got " + upsert.vector().length);
+            }
+            ids[i] = upsert.id();
+            vectors[i] = upsert.vector();
+            batch.put(upsert.id(), new Entry<>(upsert.id(), upsert.payload(), upsert.metadata()));
+        }
+
+        getOrCreateIndex(namespace).addBatch(ids, vectors);
+        entryMaps.computeIfAbsent(namespace, k -> new ConcurrentHashMap<>()).putAll(batch);
+    }
+
     @Override
     public List<VectorSearchHit<T>> search(
             String namespace,
@@ -107,6 +137,28 @@ public class FaissVectorStore<T> implements VectorStore<T>, AutoCloseable {
         return true;
     }
 
+    @Override
+    public boolean contains(String namespace, String id) {
+        return entryMaps.getOrDefault(namespace, Map.of()).containsKey(id);
+    }
+
+    @Override
+    public int deleteAll(String namespace, Collection<String> ids) {
+        FaissIndex index = indexes.get(namespace);
+        if (index == null || ids == null) {
+            return 0;
+        }
+        Map<String, Entry<T>> entryMap = entryMaps.getOrDefault(namespace, Map.of());
+        int deleted = 0;
+        for (String id : ids) {
+            if (entryMap.remove(id) != null) {
+                deleted++;
+            }
+            index.markForRemoval(id);
+        }
+        return deleted;
+    }
+
     @Override
     public void clear(String namespace) {
         FaissIndex index = indexes.remove(namespace);
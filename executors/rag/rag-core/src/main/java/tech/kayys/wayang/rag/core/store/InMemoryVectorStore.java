@@ -1,7 +1,9 @@
 package tech.kayys.wayang.rag.core.store;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -15,6 +17,29 @@ public class InMemoryVectorStore<T> implements VectorStore<T> {
 
     @Override
     public void upsert(String namespace, String id, float[] vector, T payload, Map<String, Object> metadata) {
+        Entry<T> entry = prepare(namespace, id, vector, payload, metadata);
+        namespaces.computeIfAbsent(namespace, key -> new ConcurrentHashMap<>()).put(id, entry);
+    }
+
+    /**
+     * Validates the whole batch first, then publishes it with a single
+     * {@code putAll}, so a rejected entry leaves the namespace untouched.
+     */
+    @Override
+    public void upsertAll(String namespace, List<VectorUpsert<T>> entries) {
+        Objects.requireNonNull(namespace, "namespace must not be null");
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        Map<String, Entry<T>> batch = new LinkedHashMap<>(entries.size() * 2);
+        for (VectorUpsert<T> upsert : entries) {
+            batch.put(upsert.id(), prepare(namespace, upsert.id(), upsert.vector(), upsert.payload(),
+                    upsert.metadata()));
+        }
+        namespaces.computeIfAbsent(namespace, key -> new ConcurrentHashMap<>()).putAll(batch);
+    }
+
+    private Entry<T> prepare(String namespace, String id, float[] vector, T payload, Map<String, Object> metadata) {
         Objects.requireNonNull(namespace, "namespace must not be null");
         Objects.requireNonNull(id, "id must not be null");
         Objects.requireNonNull(vector, "vector must not be null");
@@ -30,8 +55,7 @@ public class InMemoryVectorStore<T> implements VectorStore<T> {
         }
         Map<String, Object> safeMetadata = metadata == null ? Map.of() : Map.copyOf(metadata);
         validateUpsertContract(namespace, vector.length, safeMetadata);
-        Map<String, Entry<T>> ns = namespaces.computeIfAbsent(namespace, key -> new ConcurrentHashMap<>());
-        ns.put(id, new Entry<>(id, vector, payload, safeMetadata));
+        return new Entry<>(id, vector, payload, safeMetadata);
     }
 
     @Override
@@ -81,6 +105,27 @@ public class InMemoryVectorStore<T> implements VectorStore<T> {
         return ns.remove(id) != null;
     }
 
+    @Override
+    public boolean contains(String namespace, String id) {
+        Map<String, Entry<T>> ns = namespaces.get(namespace);
+        return ns != null && ns.containsKey(id);
+    }
+
+    @Override
+    public int deleteAll(String namespace, Collection<String> ids) {
+        Map<String, Entry<T>> ns = namespaces.get(namespace);
+        if (ns == null || ids == null) {
+            return 0;
+        }
+        int deleted = 0;
+        for (String id : ids) {
+            if (ns.remove(id) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
     @Override
     public void clear(String namespace) {
         namespaces.remove(namespace);
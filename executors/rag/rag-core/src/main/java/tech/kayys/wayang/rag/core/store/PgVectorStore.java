@@ -10,6 +10,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -19,6 +21,12 @@ public class PgVectorStore<T> implements VectorStore<T> {
     private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
     };
 
+    /**
+     * Rows per multi-row INSERT; 5 parameters per row keeps well under the
+     * 32767 bind-parameter limit.
+     */
+    static final int UPSERT_BATCH_ROWS = 500;
+
     private final DataSource dataSource;
     private final PayloadCodec<T> payloadCodec;
     private final ObjectMapper objectMapper;
@@ -111,6 +119,61 @@ public class PgVectorStore<T> implements VectorStore<T> {
         }
     }
 
+    /**
+     * Writes the batch in one transaction as multi-row
+     * {@code INSERT ... ON CONFLICT} statements of up to
+     * {@link #UPSERT_BATCH_ROWS} rows. Duplicate ids within the batch keep the
+     * last entry, since one statement may not update the same row twice.
+     */
+    @Override
+    public void upsertAll(String namespace, List<VectorUpsert<T>> entries) {
+        Objects.requireNonNull(namespace, "namespace must not be null");
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        Map<String, VectorUpsert<T>> unique = new LinkedHashMap<>(entries.size() * 2);
+        for (VectorUpsert<T> entry : entries) {
+            Objects.requireNonNull(entry.id(), "id must not be null");
+            Objects.requireNonNull(entry.vector(), "vector must not be null");
+            Objects.requireNonNull(entry.payload(), "payload must not be null");
+            if (entry.vector().length != dimensions) {
+                throw new IllegalArgumentException(
+                        "Vector dimension mismatch: expected " + dimensions + " but got " + entry.vector().length);
+            }
+            unique.put(entry.id(), entry);
+        }
+        List<VectorUpsert<T>> rows = new ArrayList<>(unique.values());
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (int start = 0; start < rows.size(); start += UPSERT_BATCH_ROWS) {
+                    List<VectorUpsert<T>> slice = rows.subList(start, Math.min(rows.size(), start + UPSERT_BATCH_ROWS));
+                    try (PreparedStatement statement = connection.prepareStatement(bulkUpsertSql(tableName, slice.size()))) {
+                        int parameterIndex = 1;
+                        for (VectorUpsert<T> row : slice) {
+                            statement.setString(parameterIndex++, namespace);
+                            statement.setString(parameterIndex++, row.id());
+                            statement.setString(parameterIndex++, toVectorLiteral(row.vector()));
+                            statement.setString(parameterIndex++, payloadCodec.serialize(row.payload()));
+                            statement.setString(parameterIndex++, toJson(row.metadata()));
+                        }
+                        statement.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to upsert vector batch", e);
+        }
+    }
+
     @Override
     public List<VectorSearchHit<T>> search(
             String namespace,
@@ -190,6 +253,42 @@ public class PgVectorStore<T> implements VectorStore<T> {
         }
     }
 
+    @Override
+    public boolean contains(String namespace, String id) {
+        Objects.requireNonNull(namespace, "namespace must not be null");
+        Objects.requireNonNull(id, "id must not be null");
+
+        String sql = "SELECT 1 FROM %s WHERE namespace = ? AND id = ? LIMIT 1".formatted(tableName);
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, namespace);
+            statement.setString(2, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to look up vector entry", e);
+        }
+    }
+
+    @Override
+    public int deleteAll(String namespace, Collection<String> ids) {
+        Objects.requireNonNull(namespace, "namespace must not be null");
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+
+        String sql = "DELETE FROM %s WHERE namespace = ? AND id = ANY(?)".formatted(tableName);
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, namespace);
+            statement.setArray(2, connection.createArrayOf("text", ids.toArray()));
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to delete vector entries", e);
+        }
+    }
+
     @Override
     public void clear(String namespace) {
         Objects.requireNonNull(namespace, "namespace must not be null");
@@ -204,6 +303,26 @@ public class PgVectorStore<T> implements VectorStore<T> {
         }
     }
 
+    static String bulkUpsertSql(String tableName, int rows) {
+        StringBuilder sql = new StringBuilder(128 + rows * 80);
+        sql.append("INSERT INTO ").append(tableName).append("(namespace, id, embedding, payload, metadata) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?, ?, CAST(? AS vector), CAST(? AS jsonb), CAST(? AS jsonb))");
+        }
+        sql.append("""
+
+                ON CONFLICT(namespace, id)
+                DO UPDATE SET
+                    embedding = EXCLUDED.embedding,
+                    payload = EXCLUDED.payload,
+                    metadata = EXCLUDED.metadata
+                """);
+        return sql.toString();
+    }
+
     static String toVectorLiteral(float[] vector) {
         if (vector == null || vector.length == 0) {
             throw new IllegalArgumentException("vector must not be null or empty");
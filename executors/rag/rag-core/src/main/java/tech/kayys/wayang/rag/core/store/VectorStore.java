@@ -1,5 +1,6 @@
 package tech.kayys.wayang.rag.core.store;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -7,6 +8,17 @@ public interface VectorStore<T> {
 
     void upsert(String namespace, String id, float[] vector, T payload, Map<String, Object> metadata);
 
+    /**
+     * Upsert many entries in one call. Backends override this to write the
+     * whole batch natively; the default falls back to one {@link #upsert} per
+     * entry.
+     */
+    default void upsertAll(String namespace, List<VectorUpsert<T>> entries) {
+        for (VectorUpsert<T> entry : entries) {
+            upsert(namespace, entry.id(), entry.vector(), entry.payload(), entry.metadata());
+        }
+    }
+
     List<VectorSearchHit<T>> search(
             String namespace,
             float[] queryVector,
@@ -16,5 +28,28 @@ public interface VectorStore<T> {
 
     boolean delete(String namespace, String id);
 
+    /**
+     * Whether an entry with this id is stored. Backends that cannot answer
+     * cheaply report {@code true}, so callers never drop data on a guess.
+     */
+    default boolean contains(String namespace, String id) {
+        return true;
+    }
+
+    /**
+     * Delete many entries in one call.
+     *
+     * @return number of entries that existed and were removed
+     */
+    default int deleteAll(String namespace, Collection<String> ids) {
+        int deleted = 0;
+        for (String id : ids) {
+            if (delete(namespace, id)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
     void clear(String namespace);
 }
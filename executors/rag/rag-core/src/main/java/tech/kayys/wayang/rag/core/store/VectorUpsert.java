@@ -0,0 +1,13 @@
+package tech.kayys.wayang.rag.core.store;
+
+import java.util.Map;
+
+/**
+ * One entry of a bulk {@link VectorStore#upsertAll(String, java.util.List)}.
+ */
+public record VectorUpsert<T>(
+        String id,
+        float[] vector,
+        T payload,
+        Map<String, Object> metadata) {
+}
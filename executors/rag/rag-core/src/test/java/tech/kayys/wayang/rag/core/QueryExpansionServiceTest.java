@@ -0,0 +1,112 @@
+package tech.kayys.wayang.rag.core;
+
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.embedding.EmbeddingModuleConfig;
+import tech.kayys.wayang.embedding.EmbeddingProviderRegistry;
+import tech.kayys.wayang.embedding.EmbeddingService;
+import tech.kayys.wayang.embedding.provider.DeterministicHashEmbeddingProvider;
+import tech.kayys.wayang.rag.core.store.InMemoryVectorStore;
+import tech.kayys.wayang.rag.core.store.VectorStore;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryExpansionServiceTest {
+
+    @Test
+    void shouldFuseByContentKeepingBestScoreWithinTopK() {
+        List<ScoredDocument> first = List.of(doc("a", 0.9), doc("b", 0.4), doc("c", 0.3));
+        List<ScoredDocument> second = List.of(doc("b", 0.8), doc("d", 0.2));
+
+        List<ScoredDocument> fused = QueryExpansionService.fuse(List.of(first, second), 2);
+
+        assertEquals(List.of("a", "b"), fused.stream().map(d -> d.segment().text()).toList());
+        assertEquals(0.8, fused.get(1).score(), 1e-9);
+    }
+
+    @Test
+    void shouldHandEveryVariantAPrecomputedVector() {
+        QueryExpansionService service = new QueryExpansionService();
+        service.embeddingService = embeddingService();
+        Set<String> embedded = ConcurrentHashMap.newKeySet();
+        RetrievalStrategy strategy = new FakeStrategy() {
+            @Override
+            public List<ScoredDocument> retrieve(String query, float[] queryVector, VectorStore<RagChunk> store,
+                    RetrievalConfig config) {
+                if (queryVector != null) {
+                    embedded.add(query);
+                }
+                return List.of(doc(query, 0.5));
+            }
+        };
+
+        List<ScoredDocument> results = service.retrieveAll(List.of("q", "q1", "q2"), strategy,
+                new InMemoryVectorStore<>(), RetrievalConfig.defaults(), 10, null)
+                .await().indefinitely();
+
+        assertEquals(3, results.size());
+        assertEquals(Set.of("q", "q1", "q2"), embedded);
+    }
+
+    @Test
+    void shouldDropVariantsOverLatencyBudgetButKeepOriginal() {
+        QueryExpansionService service = new QueryExpansionService();
+        RetrievalStrategy strategy = new FakeStrategy() {
+            @Override
+            public List<ScoredDocument> retrieve(String query, float[] queryVector, VectorStore<RagChunk> store,
+                    RetrievalConfig config) {
+                if (!query.equals("fast")) {
+                    sleep(300);
+                }
+                return List.of(doc(query, 0.5));
+            }
+        };
+
+        List<ScoredDocument> results = service.retrieveAll(List.of("original", "fast", "slow"), strategy,
+                new InMemoryVectorStore<>(), RetrievalConfig.defaults(), 10, Duration.ofMillis(50))
+                .await().indefinitely();
+
+        Set<String> texts = Set.copyOf(results.stream().map(d -> d.segment().text()).toList());
+        assertEquals(Set.of("original", "fast"), texts);
+        assertTrue(results.stream().allMatch(d -> d.score() == 0.5));
+    }
+
+    private static EmbeddingService embeddingService() {
+        EmbeddingModuleConfig config = new EmbeddingModuleConfig();
+        config.setDefaultProvider("hash");
+        config.setDefaultModel("hash-16");
+        return new EmbeddingService(
+                new EmbeddingProviderRegistry(List.of(new DeterministicHashEmbeddingProvider())), config);
+    }
+
+    private static ScoredDocument doc(String text, double score) {
+        return new ScoredDocument(RagChunk.of("doc-" + text, 0, text, Map.of()), score);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private abstract static class FakeStrategy implements RetrievalStrategy {
+
+        @Override
+        public List<ScoredDocument> retrieve(String query, VectorStore<RagChunk> store, RetrievalConfig config) {
+            return retrieve(query, null, store, config);
+        }
+
+        @Override
+        public boolean usesQueryEmbedding() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package tech.kayys.wayang.rag.core.eval;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogLinearBucketsTest {
+
+    @Test
+    void shouldKeepSmallValuesExact() {
+        LogLinearBuckets buckets = new LogLinearBuckets(4, 3, 24);
+
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, buckets.lowerBound(buckets.bucket(value)));
+        }
+        assertEquals(0, buckets.bucket(-5L));
+    }
+
+    @Test
+    void shouldBoundRelativeErrorBySubBucketWidth() {
+        LogLinearBuckets buckets = new LogLinearBuckets(4, 3, 24);
+
+        int previous = -1;
+        for (long value = 16; value < buckets.overflowThreshold(); value += 1 + value / 37) {
+            int bucket = buckets.bucket(value);
+            long lower = buckets.lowerBound(bucket);
+            assertTrue(lower <= value && value - lower <= value / 8, "value=" + value + " lower=" + lower);
+            assertTrue(bucket >= previous);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    void shouldMapEachLowerBoundBackToItsBucket() {
+        LogLinearBuckets buckets = new LogLinearBuckets(10, 4, 62);
+
+        for (int bucket = 0; bucket < buckets.buckets(); bucket++) {
+            assertEquals(bucket, buckets.bucket(buckets.lowerBound(bucket)));
+        }
+        assertEquals(buckets.buckets() - 1, buckets.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldClampOverflowIntoLastBucket() {
+        LogLinearBuckets buckets = new LogLinearBuckets(4, 3, 24);
+
+        // 2^25 ms, about 9.3 hours
+        assertEquals(33_554_432L, buckets.overflowThreshold());
+        assertEquals(buckets.buckets() - 2, buckets.bucket(buckets.lowerBound(buckets.buckets() - 1) - 1));
+        assertEquals(buckets.buckets() - 1, buckets.bucket(buckets.overflowThreshold()));
+        assertEquals(buckets.buckets() - 1, buckets.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    void shouldReportNearestRankPercentile() {
+        LogLinearBuckets buckets = new LogLinearBuckets(10, 4, 62);
+        long[] counts = new long[buckets.buckets()];
+        for (long value = 1; value <= 100; value++) {
+            counts[buckets.bucket(value)]++;
+        }
+
+        assertEquals(95L, buckets.percentile(counts, 100, 0.95));
+        assertEquals(1L, buckets.percentile(counts, 100, 0.0));
+        assertEquals(0L, buckets.percentile(new long[buckets.buckets()], 0, 0.5));
+    }
+
+    @Test
+    void shouldRejectInconsistentLayout() {
+        assertThrows(IllegalArgumentException.class, () -> new LogLinearBuckets(2, 3, 24));
+        assertThrows(IllegalArgumentException.class, () -> new LogLinearBuckets(4, 3, 63));
+    }
+}
@@ -1,14 +1,20 @@
 package tech.kayys.wayang.rag.core.eval;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import tech.kayys.wayang.rag.core.RagChunk;
 import tech.kayys.wayang.rag.core.RagScoredChunk;
 import tech.kayys.wayang.rag.core.spi.Retriever;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RagEvaluationHarnessTest {
@@ -39,10 +45,43 @@ class RagEvaluationHarnessTest {
         assertEquals(2, result.topK());
         assertEquals(0.75, result.recallAtK(), 0.0001);
         assertEquals(0.75, result.mrr(), 0.0001);
+        assertEquals(0.6934, result.ndcg(), 0.0001);
         assertTrue(result.latencyP95Ms() >= 0);
         assertTrue(result.latencyAvgMs() >= 0);
     }
 
+    @Test
+    void shouldResumeInterruptedRunFromCommittedShards(@TempDir Path checkpointDir) throws Exception {
+        List<RagEvalCase> fixtures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            fixtures.add(new RagEvalCase("q-" + i, List.of("c-" + i)));
+        }
+        AtomicInteger calls = new AtomicInteger();
+        Retriever flaky = query -> {
+            if (query.text().equals("q-150")) {
+                throw new IllegalStateException("store unavailable");
+            }
+            return List.of(new RagScoredChunk(chunk("c-" + query.text().substring(2)), 0.9));
+        };
+        Retriever healthy = query -> {
+            calls.incrementAndGet();
+            return List.of(new RagScoredChunk(chunk("c-" + query.text().substring(2)), 0.9));
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> new RagEvaluationHarness(1, checkpointDir).evaluate(flaky, fixtures, 3));
+        RagEvalResult result = new RagEvaluationHarness(2, checkpointDir).evaluate(healthy, fixtures, 3);
+
+        // Shards 0 and 1 (queries 0-127) were committed before the failure
+        assertEquals(72, calls.get());
+        assertEquals(200, result.totalQueries());
+        assertEquals(1.0, result.recallAtK(), 0.0001);
+        assertEquals(1.0, result.ndcg(), 0.0001);
+        try (var files = Files.list(checkpointDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
     private static RagChunk chunk(String id) {
         return new RagChunk(id, "doc", 0, "text", Map.of());
     }
@@ -7,15 +7,19 @@ import tech.kayys.wayang.embedding.EmbeddingService;
 import tech.kayys.wayang.embedding.provider.CharNgramEmbeddingProvider;
 import tech.kayys.wayang.embedding.provider.DeterministicHashEmbeddingProvider;
 import tech.kayys.wayang.embedding.provider.TfIdfHashEmbeddingProvider;
+import tech.kayys.wayang.rag.core.RagChunk;
 import tech.kayys.wayang.rag.core.RagQuery;
 import tech.kayys.wayang.rag.core.RagResult;
 import tech.kayys.wayang.rag.core.spi.ChunkingOptions;
 import tech.kayys.wayang.rag.core.store.InMemoryVectorStore;
 import tech.kayys.wayang.rag.core.store.VectorStore;
+import tech.kayys.wayang.rag.core.store.VectorUpsert;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -58,4 +62,48 @@ class RagPipelineTest {
                 assertFalse(result.chunks().isEmpty());
                 assertTrue(result.answer().contains("payment") || result.answer().contains("Payment"));
         }
+
+        @Test
+        void shouldIndexAsyncWithOneBulkUpsertPerBatch() {
+                EmbeddingProviderRegistry registry = new EmbeddingProviderRegistry(List.of(
+                                new DeterministicHashEmbeddingProvider()));
+                EmbeddingModuleConfig config = new EmbeddingModuleConfig();
+                config.setDefaultProvider("hash");
+                config.setDefaultModel("hash-16");
+                EmbeddingService embeddingService = new EmbeddingService(registry, config);
+
+                CountingStore store = new CountingStore();
+                RagIndexer indexer = new RagIndexer(embeddingService, store, "tenant-a", "hash-16", 2);
+                List<RagChunk> chunks = List.of(
+                                RagChunk.of("doc", 0, "alpha", Map.of()),
+                                RagChunk.of("doc", 1, "beta", Map.of()),
+                                RagChunk.of("doc", 2, "gamma", Map.of()),
+                                RagChunk.of("doc", 3, "delta", Map.of()),
+                                RagChunk.of("doc", 4, "epsilon", Map.of()));
+
+                int written = indexer.indexChunksAsync(chunks).await().indefinitely();
+
+                assertEquals(5, written);
+                assertEquals(3, store.bulkCalls.get());
+                assertEquals(0, store.singleCalls.get());
+                assertEquals(5, store.search("tenant-a", new float[16], 10, -1.0, Map.of()).size());
+        }
+
+        private static final class CountingStore extends InMemoryVectorStore<RagChunk> {
+                private final AtomicInteger bulkCalls = new AtomicInteger();
+                private final AtomicInteger singleCalls = new AtomicInteger();
+
+                @Override
+                public void upsert(String namespace, String id, float[] vector, RagChunk payload,
+                                Map<String, Object> metadata) {
+                        singleCalls.incrementAndGet();
+                        super.upsert(namespace, id, vector, payload, metadata);
+                }
+
+                @Override
+                public void upsertAll(String namespace, List<VectorUpsert<RagChunk>> entries) {
+                        bulkCalls.incrementAndGet();
+                        super.upsertAll(namespace, entries);
+                }
+        }
 }
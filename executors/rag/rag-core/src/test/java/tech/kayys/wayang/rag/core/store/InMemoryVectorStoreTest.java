@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -40,6 +41,17 @@ class InMemoryVectorStoreTest {
 
                 assertTrue(deleted);
                 assertTrue(hits.isEmpty());
+                assertFalse(store.contains("tenant-a", "id-1"));
+        }
+
+        @Test
+        void shouldReportStoredIdsPerNamespace() {
+                InMemoryVectorStore<String> store = new InMemoryVectorStore<>();
+                store.upsert("tenant-a", "id-1", new float[] { 1f, 0f }, "doc-1", Map.of());
+
+                assertTrue(store.contains("tenant-a", "id-1"));
+                assertFalse(store.contains("tenant-a", "id-2"));
+                assertFalse(store.contains("tenant-b", "id-1"));
         }
 
         @Test
@@ -92,4 +104,36 @@ class InMemoryVectorStoreTest {
                                                 0.0,
                                                 Map.of("embeddingVersion", "v2")));
         }
+
+        @Test
+        void shouldUpsertAndDeleteInBulk() {
+                InMemoryVectorStore<String> store = new InMemoryVectorStore<>();
+                store.upsertAll("tenant-a", List.of(
+                                new VectorUpsert<>("id-1", new float[] { 1f, 0f }, "doc-1", Map.of()),
+                                new VectorUpsert<>("id-2", new float[] { 0f, 1f }, "doc-2", Map.of()),
+                                new VectorUpsert<>("id-3", new float[] { 0.7f, 0.7f }, "doc-3", Map.of())));
+
+                assertEquals(3, store.search("tenant-a", new float[] { 1f, 0f }, 5, -1.0, Map.of()).size());
+
+                int deleted = store.deleteAll("tenant-a", List.of("id-1", "id-3", "missing"));
+                List<VectorSearchHit<String>> hits = store.search("tenant-a", new float[] { 1f, 0f }, 5, -1.0, Map.of());
+
+                assertEquals(2, deleted);
+                assertEquals(1, hits.size());
+                assertEquals("doc-2", hits.get(0).payload());
+        }
+
+        @Test
+        void shouldRejectWholeBatchWhenOneEntryIsInvalid() {
+                InMemoryVectorStore<String> store = new InMemoryVectorStore<>();
+                store.upsert("tenant-a", "id-0", new float[] { 1f, 0f }, "doc-0", Map.of());
+
+                assertThrows(
+                                IllegalArgumentException.class,
+                                () -> store.upsertAll("tenant-a", List.of(
+                                                new VectorUpsert<>("id-1", new float[] { 1f, 0f }, "doc-1", Map.of()),
+                                                new VectorUpsert<>("id-2", new float[] { 1f, 0f, 0f }, "doc-2",
+                                                                Map.of()))));
+                assertEquals(1, store.search("tenant-a", new float[] { 1f, 0f }, 5, -1.0, Map.of()).size());
+        }
 }
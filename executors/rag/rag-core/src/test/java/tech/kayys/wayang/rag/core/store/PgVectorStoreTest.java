@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PgVectorStoreTest {
 
@@ -17,4 +18,12 @@ class PgVectorStoreTest {
     void shouldRejectEmptyVectorLiteral() {
         assertThrows(IllegalArgumentException.class, () -> PgVectorStore.toVectorLiteral(new float[] {}));
     }
+
+    @Test
+    void shouldBuildMultiRowUpsert() {
+        String sql = PgVectorStore.bulkUpsertSql("embeddings", 3);
+        assertEquals(15, sql.chars().filter(c -> c == '?').count());
+        assertTrue(sql.startsWith("INSERT INTO embeddings(namespace, id, embedding, payload, metadata) VALUES "));
+        assertTrue(sql.contains("ON CONFLICT(namespace, id)"));
+    }
 }
@@ -1,25 +1,39 @@
 package tech.kayys.wayang.rag.runtime;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.kayys.wayang.rag.core.ChunkingConfig;
 import tech.kayys.wayang.rag.core.RagChunk;
 import tech.kayys.wayang.rag.core.RagDocument;
+import tech.kayys.wayang.rag.core.impl.RagIndexer;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Service for ingesting documents into the owned vector store flow.
- * Handles PDF, text, and batch ingestion, performing text extraction,
- * chunking via {@link NativeRagCoreService}, and recording ingestion metrics.
+ * Handles PDF, text, and batch ingestion as a staged {@link Multi} pipeline
+ * (parse, chunk, embed, upsert) with bounded concurrency per stage, so only a
+ * few documents are in flight at a time and throughput follows the slowest
+ * stage. Every indexed document is checkpointed by a hash of its content,
+ * metadata and chunking; reruns and resumed jobs skip documents whose
+ * checkpoint matches and whose chunks are still in the vector store.
  */
 @ApplicationScoped
 public class DocumentIngestionService {
@@ -32,6 +46,26 @@ public class DocumentIngestionService {
     @Inject
     RagObservabilityMetrics metricsRecorder = new RagObservabilityMetrics();
 
+    @ConfigProperty(name = "rag.runtime.ingestion.checkpoint.path")
+    Optional<String> checkpointPath = Optional.empty();
+
+    @ConfigProperty(name = "rag.runtime.ingestion.skip-unchanged", defaultValue = "true")
+    boolean skipUnchanged = true;
+
+    @ConfigProperty(name = "rag.runtime.ingestion.parse-concurrency", defaultValue = "2")
+    int parseConcurrency = 2;
+
+    @ConfigProperty(name = "rag.runtime.ingestion.chunk-concurrency", defaultValue = "2")
+    int chunkConcurrency = 2;
+
+    @ConfigProperty(name = "rag.runtime.ingestion.embed-concurrency", defaultValue = "4")
+    int embedConcurrency = 4;
+
+    @ConfigProperty(name = "rag.runtime.ingestion.upsert-concurrency", defaultValue = "2")
+    int upsertConcurrency = 2;
+
+    private volatile IngestionCheckpointStore checkpoints;
+
     /**
      * Ingest PDF documents into vector store
      */
@@ -42,48 +76,13 @@ public class DocumentIngestionService {
 
         LOG.info("Ingesting {} PDF documents for tenant: {}", pdfPaths.size(), tenantId);
 
-        return Uni.createFrom().item(() -> {
-            long startTime = System.currentTimeMillis();
-
-            // 1. Load documents
-            List<RagDocument> documents = new ArrayList<>();
-
-            for (Path path : pdfPaths) {
-                Map<String, Object> documentMetadata = new HashMap<>();
-                documentMetadata.put("tenantId", tenantId);
-                documentMetadata.put("source", path.getFileName().toString());
-                documentMetadata.put("collection", metadata.getOrDefault("collection", "default"));
-                documentMetadata.putAll(metadata);
-
-                String content = readPdfText(path);
-                documents.add(RagDocument.of(content, documentMetadata));
-            }
-
-            // 2. Split documents into chunks
-            List<RagChunk> chunks = new ArrayList<>();
-            for (RagDocument document : documents) {
-                chunks.addAll(nativeRagCoreService.ingestText(
-                        tenantId,
-                        document.metadata().get("source") != null ? document.metadata().get("source").toString() : "",
-                        document.content(),
-                        document.metadata(),
-                        ChunkingConfig.defaults()));
-            }
-
-            LOG.info("Split {} documents into {} chunks", documents.size(), chunks.size());
-
-            long duration = System.currentTimeMillis() - startTime;
-
-            LOG.info("Successfully ingested {} chunks in {}ms", chunks.size(), duration);
-            metricsRecorder.recordIngestion(tenantId, documents.size(), chunks.size(), duration);
-
-            return new IngestResult(
-                    true,
-                    documents.size(),
-                    chunks.size(),
-                    duration,
-                    "Successfully ingested documents");
-        });
+        List<IngestItem> items = new ArrayList<>(pdfPaths.size());
+        for (Path path : pdfPaths) {
+            // Text is extracted lazily in the parse stage, not up front
+            items.add(new IngestItem(() -> readPdfText(path), pdfMetadata(tenantId, path, metadata),
+                    ChunkingConfig.defaults()));
+        }
+        return ingest(tenantId, items, "Successfully ingested documents");
     }
 
     /**
@@ -97,40 +96,11 @@ public class DocumentIngestionService {
 
         LOG.info("Ingesting {} text documents for tenant: {}", texts.size(), tenantId);
 
-        return Uni.createFrom().item(() -> {
-            long startTime = System.currentTimeMillis();
-
-            // 1. Create documents
-            List<RagDocument> documents = texts.stream()
-                    .map(text -> {
-                        Map<String, Object> documentMetadata = new HashMap<>();
-                        documentMetadata.put("tenantId", tenantId);
-                        documentMetadata.putAll(metadata);
-                        return RagDocument.of(text, documentMetadata);
-                    })
-                    .toList();
-
-            // 2. Split using owned chunker
-            List<RagChunk> chunks = new ArrayList<>();
-            for (RagDocument document : documents) {
-                chunks.addAll(nativeRagCoreService.ingestText(
-                        tenantId,
-                        document.metadata().get("source") != null ? document.metadata().get("source").toString() : "",
-                        document.content(),
-                        document.metadata(),
-                        chunkingConfig));
-            }
-
-            long duration = System.currentTimeMillis() - startTime;
-            metricsRecorder.recordIngestion(tenantId, documents.size(), chunks.size(), duration);
-
-            return new IngestResult(
-                    true,
-                    documents.size(),
-                    chunks.size(),
-                    duration,
-                    "Successfully ingested text documents");
-        });
+        List<IngestItem> items = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            items.add(new IngestItem(() -> text, textMetadata(tenantId, metadata), chunkingConfig));
+        }
+        return ingest(tenantId, items, "Successfully ingested text documents");
     }
 
     /**
@@ -142,59 +112,226 @@ public class DocumentIngestionService {
 
         LOG.info("Batch ingesting {} sources for tenant: {}", sources.size(), tenantId);
 
-        List<Uni<IngestResult>> unis = sources.stream()
-                .map(source -> {
-                    return switch (source.type()) {
-                        case PDF -> ingestPdfDocuments(
-                                tenantId,
-                                List.of(Path.of(source.path())),
-                                source.metadata());
-                        case TEXT -> ingestTextDocuments(
-                                tenantId,
-                                List.of(source.content()),
-                                source.metadata(),
-                                ChunkingConfig.defaults());
-                        case URL -> ingestFromUrl(tenantId, source.path(), source.metadata());
-                        case MARKDOWN, HTML -> ingestTextDocuments(
-                                tenantId,
-                                List.of(source.content() == null ? "" : source.content()),
-                                source.metadata(),
-                                ChunkingConfig.defaults());
-                    };
+        List<IngestItem> items = new ArrayList<>(sources.size());
+        for (DocumentSource source : sources) {
+            Map<String, String> metadata = source.metadata() == null ? Map.of() : source.metadata();
+            switch (source.type()) {
+                case PDF -> {
+                    Path path = Path.of(source.path());
+                    items.add(new IngestItem(() -> readPdfText(path), pdfMetadata(tenantId, path, metadata),
+                            ChunkingConfig.defaults()));
+                }
+                case TEXT, MARKDOWN, HTML -> items.add(new IngestItem(
+                        () -> source.content() == null ? "" : source.content(),
+                        textMetadata(tenantId, metadata),
+                        ChunkingConfig.defaults()));
+                // TODO: Implement URL scraping and ingestion
+                case URL -> LOG.warn("Skipping URL source {}: URL ingestion not implemented yet", source.path());
+            }
+        }
+        return ingest(tenantId, items, "Batch ingestion completed");
+    }
+
+    @PreDestroy
+    void close() {
+        IngestionCheckpointStore store = checkpoints;
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    private Uni<IngestResult> ingest(String tenantId, List<IngestItem> items, String successMessage) {
+        long startTime = System.currentTimeMillis();
+        IngestionCheckpointStore store = checkpointStore();
+
+        return Multi.createFrom().iterable(items)
+                .onItem().transformToUni(item -> stage(new Work(item), work -> parse(tenantId, work, store)))
+                .merge(Math.max(1, parseConcurrency))
+                .onItem().transformToUni(work -> stage(work, this::chunk))
+                .merge(Math.max(1, chunkConcurrency))
+                .onItem().transformToUni(work -> embed(tenantId, work))
+                .merge(Math.max(1, embedConcurrency))
+                .onItem().transformToUni(work -> stage(work, w -> upsert(tenantId, w, store)))
+                .merge(Math.max(1, upsertConcurrency))
+                .collect().in(Tally::new, Tally::add)
+                .map(tally -> {
+                    long duration = System.currentTimeMillis() - startTime;
+                    LOG.info("Ingested {} documents ({} chunks), skipped {} unchanged, {} failed in {}ms",
+                            tally.documents, tally.chunks, tally.skipped, tally.failed, duration);
+                    metricsRecorder.recordIngestion(tenantId, tally.documents, tally.chunks, duration);
+                    if (tally.failed > 0) {
+                        return new IngestResult(
+                                false,
+                                tally.documents,
+                                tally.chunks,
+                                duration,
+                                tally.failed + " of " + items.size() + " documents failed: " + tally.firstError);
+                    }
+                    return new IngestResult(
+                            true,
+                            tally.documents,
+                            tally.chunks,
+                            duration,
+                            tally.skipped == 0 ? successMessage
+                                    : successMessage + " (" + tally.skipped + " unchanged documents skipped)");
+                });
+    }
+
+    /**
+     * Run one stage on the worker pool. Documents that were skipped or failed
+     * in an earlier stage pass straight through; a failure here is recorded on
+     * the document instead of aborting the whole job.
+     */
+    private static Uni<Work> stage(Work work, Function<Work, Work> step) {
+        if (work.done()) {
+            return Uni.createFrom().item(work);
+        }
+        return Uni.createFrom().item(() -> step.apply(work))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .onFailure().recoverWithItem(failure -> failed(work, failure));
+    }
+
+    private static Work failed(Work work, Throwable failure) {
+        LOG.warn("Ingestion of document {} failed: {}", work.documentLabel(), failure.getMessage());
+        work.failure = failure;
+        return work;
+    }
+
+    private Work parse(String tenantId, Work work, IngestionCheckpointStore store) {
+        IngestItem item = work.item;
+        String source = item.metadata().get("source") != null ? item.metadata().get("source").toString() : "";
+        RagDocument parsed = nativeRagCoreService.parseDocument(source, item.content().get(), item.metadata());
+        work.contentHash = contentHash(parsed.content(), item.chunkingConfig(), item.metadata());
+        // Hash-derived ids make a resumed upsert overwrite rather than duplicate
+        String documentId = "doc-" + work.contentHash.substring(0, 32);
+        if (skipUnchanged && isStillIndexed(tenantId, work.contentHash, documentId, store)) {
+            work.skipped = true;
+            return work;
+        }
+        work.document = new RagDocument(documentId, parsed.content(), parsed.metadata());
+        return work;
+    }
+
+    /**
+     * A checkpoint only proves the document was indexed once; its chunks may
+     * have been deleted since, so the first one is looked up in the store.
+     */
+    private boolean isStillIndexed(String tenantId, String contentHash, String documentId,
+            IngestionCheckpointStore store) {
+        IngestionCheckpointStore.Checkpoint checkpoint = store.get(tenantId, contentHash);
+        if (checkpoint == null) {
+            return false;
+        }
+        if (checkpoint.chunks() == 0 || nativeRagCoreService.isChunkStored(tenantId, documentId + "#0")) {
+            return true;
+        }
+        LOG.info("Re-indexing document {}: checkpointed but no longer in the vector store", documentId);
+        return false;
+    }
+
+    private Work chunk(Work work) {
+        List<RagChunk> chunks = nativeRagCoreService.chunkDocument(work.document, work.item.chunkingConfig());
+        List<RagChunk> stable = new ArrayList<>(chunks.size());
+        for (RagChunk chunk : chunks) {
+            stable.add(new RagChunk(
+                    work.document.id() + "#" + chunk.chunkIndex(),
+                    work.document.id(),
+                    chunk.chunkIndex(),
+                    chunk.text(),
+                    chunk.metadata()));
+        }
+        work.chunks = stable;
+        // The parsed text is no longer needed once chunked
+        work.document = new RagDocument(work.document.id(), "", work.document.metadata());
+        return work;
+    }
+
+    /**
+     * Embedding is already non-blocking, so this stage does not take a worker
+     * thread.
+     */
+    private Uni<Work> embed(String tenantId, Work work) {
+        if (work.done() || work.chunks.isEmpty()) {
+            return Uni.createFrom().item(work);
+        }
+        return Uni.createFrom().deferred(() -> nativeRagCoreService.embedChunks(tenantId, work.chunks))
+                .map(embedded -> {
+                    work.embedded = embedded;
+                    return work;
                 })
-                .toList();
-
-        return Uni.combine().all().unis(unis).combinedWith(results -> {
-            int totalDocs = 0;
-            int totalSegments = 0;
-            long totalDuration = 0;
-
-            for (Object result : results) {
-                IngestResult r = (IngestResult) result;
-                totalDocs += r.documentsIngested();
-                totalSegments += r.segmentsCreated();
-                totalDuration += r.durationMs();
+                .onFailure().recoverWithItem(failure -> failed(work, failure));
+    }
+
+    private Work upsert(String tenantId, Work work, IngestionCheckpointStore store) {
+        if (work.embedded != null) {
+            nativeRagCoreService.storeChunks(tenantId, work.embedded);
+            work.embedded = null;
+        }
+        store.markIndexed(tenantId, work.contentHash, work.document.id(), work.chunks.size());
+        return work;
+    }
+
+    private IngestionCheckpointStore checkpointStore() {
+        IngestionCheckpointStore store = checkpoints;
+        if (store != null) {
+            return store;
+        }
+        synchronized (this) {
+            if (checkpoints == null) {
+                String path = checkpointPath.map(String::trim).orElse("");
+                checkpoints = path.isEmpty()
+                        ? IngestionCheckpointStore.inMemory()
+                        : IngestionCheckpointStore.open(Path.of(path));
             }
+            return checkpoints;
+        }
+    }
 
-            metricsRecorder.recordIngestion(tenantId, totalDocs, totalSegments, totalDuration);
+    private static Map<String, Object> pdfMetadata(String tenantId, Path path, Map<String, String> metadata) {
+        Map<String, Object> documentMetadata = new HashMap<>();
+        documentMetadata.put("tenantId", tenantId);
+        documentMetadata.put("source", path.getFileName().toString());
+        documentMetadata.put("collection", metadata.getOrDefault("collection", "default"));
+        documentMetadata.putAll(metadata);
+        return documentMetadata;
+    }
 
-            return new IngestResult(
-                    true,
-                    totalDocs,
-                    totalSegments,
-                    totalDuration,
-                    "Batch ingestion completed");
-        });
+    private static Map<String, Object> textMetadata(String tenantId, Map<String, String> metadata) {
+        Map<String, Object> documentMetadata = new HashMap<>();
+        documentMetadata.put("tenantId", tenantId);
+        documentMetadata.putAll(metadata);
+        return documentMetadata;
     }
 
-    private Uni<IngestResult> ingestFromUrl(
-            String tenantId,
-            String url,
-            Map<String, String> metadata) {
+    /**
+     * Identity of an indexed document. The metadata, which carries the
+     * collection and source, is part of it, so the same text ingested into
+     * another collection, from another source or with different metadata is
+     * indexed again instead of being skipped as a duplicate.
+     */
+    static String contentHash(String content, ChunkingConfig chunkingConfig, Map<String, Object> metadata) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((chunkingConfig.chunkSize() + ":" + chunkingConfig.chunkOverlap() + ":")
+                    .getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, Object> entry : new TreeMap<>(metadata).entrySet()) {
+                digestField(digest, entry.getKey(), entry.getValue());
+            }
+            digest.update((byte) 0);
+            digest.update(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
-        // TODO: Implement URL scraping and ingestion
-        return Uni.createFrom().item(new IngestResult(
-                true, 0, 0, 0, "URL ingestion not implemented yet"));
+    /**
+     * Length-prefixed so that no two distinct key/value sequences digest the
+     * same bytes.
+     */
+    private static void digestField(MessageDigest digest, String key, Object value) {
+        String text = value == null ? "" : value.toString();
+        digest.update((key.length() + ":" + key + text.length() + ":" + text).getBytes(StandardCharsets.UTF_8));
     }
 
     private String readPdfText(Path path) {
@@ -206,4 +343,55 @@ public class DocumentIngestionService {
         }
     }
 
+    private record IngestItem(Supplier<String> content, Map<String, Object> metadata, ChunkingConfig chunkingConfig) {
+    }
+
+    /**
+     * One document moving through the stages; each stage completes before the
+     * next one reads it.
+     */
+    private static final class Work {
+        final IngestItem item;
+        String contentHash;
+        RagDocument document;
+        List<RagChunk> chunks = List.of();
+        RagIndexer.EmbeddedChunks embedded;
+        boolean skipped;
+        Throwable failure;
+
+        Work(IngestItem item) {
+            this.item = item;
+        }
+
+        boolean done() {
+            return skipped || failure != null;
+        }
+
+        String documentLabel() {
+            Object source = item.metadata().get("source");
+            return source != null ? source.toString() : String.valueOf(contentHash);
+        }
+    }
+
+    private static final class Tally {
+        int documents;
+        int chunks;
+        int skipped;
+        int failed;
+        String firstError;
+
+        void add(Work work) {
+            if (work.failure != null) {
+                failed++;
+                if (firstError == null) {
+                    firstError = work.failure.getMessage();
+                }
+            } else if (work.skipped) {
+                skipped++;
+            } else {
+                documents++;
+                chunks += work.chunks.size();
+            }
+        }
+    }
 }
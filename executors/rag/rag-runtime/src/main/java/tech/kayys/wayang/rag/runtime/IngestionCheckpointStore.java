@@ -0,0 +1,140 @@
+package tech.kayys.wayang.rag.runtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-document ingestion checkpoints keyed by tenant and content hash.
+ *
+ * <p>
+ * Each fully indexed document is appended as one line
+ * ({@code tenant \t contentHash \t documentId \t chunks \t indexedAt}) and
+ * forced to disk before the document counts as done, so an interrupted run
+ * resumes by skipping everything already recorded. A torn last line from a
+ * crash is ignored on load. Without a path, checkpoints live in memory only.
+ */
+final class IngestionCheckpointStore implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionCheckpointStore.class);
+
+    static final String FILE_NAME = "ingestion-checkpoints.tsv";
+
+    record Checkpoint(String tenantId, String contentHash, String documentId, int chunks, long indexedAt) {
+    }
+
+    private final Map<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+    private final FileChannel channel;
+
+    private IngestionCheckpointStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static IngestionCheckpointStore inMemory() {
+        return new IngestionCheckpointStore(null);
+    }
+
+    static IngestionCheckpointStore open(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(FILE_NAME);
+            IngestionCheckpointStore store = new IngestionCheckpointStore(FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+            byte[] existing = Files.readAllBytes(file);
+            if (existing.length > 0) {
+                store.load(new String(existing, StandardCharsets.UTF_8).split("\n"));
+                if (existing[existing.length - 1] != '\n') {
+                    // Terminate a torn last line so the next record starts cleanly
+                    store.channel.write(ByteBuffer.wrap(new byte[] { '\n' }));
+                }
+            }
+            LOG.info("Loaded {} ingestion checkpoints from {}", store.checkpoints.size(), file);
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ingestion checkpoints in " + directory, e);
+        }
+    }
+
+    /**
+     * The checkpoint for this document, or {@code null} if it was never
+     * indexed.
+     */
+    Checkpoint get(String tenantId, String contentHash) {
+        return checkpoints.get(key(tenantId, contentHash));
+    }
+
+    int size() {
+        return checkpoints.size();
+    }
+
+    /**
+     * Record a document as fully indexed; durable once this returns.
+     */
+    void markIndexed(String tenantId, String contentHash, String documentId, int chunks) {
+        Checkpoint checkpoint = new Checkpoint(tenantId, contentHash, documentId, chunks, System.currentTimeMillis());
+        if (channel != null) {
+            String line = clean(tenantId) + '\t' + contentHash + '\t' + clean(documentId) + '\t' + chunks + '\t'
+                    + checkpoint.indexedAt() + '\n';
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            synchronized (this) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to write ingestion checkpoint", e);
+                }
+            }
+        }
+        checkpoints.put(key(tenantId, contentHash), checkpoint);
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close ingestion checkpoint file: {}", e.getMessage());
+        }
+    }
+
+    private void load(String[] lines) {
+        for (String line : lines) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length != 5) {
+                continue;
+            }
+            try {
+                checkpoints.put(key(parts[0], parts[1]), new Checkpoint(
+                        parts[0], parts[1], parts[2], Integer.parseInt(parts[3]), Long.parseLong(parts[4])));
+            } catch (NumberFormatException ignored) {
+                // Torn write from an earlier crash
+            }
+        }
+    }
+
+    private static String key(String tenantId, String contentHash) {
+        return clean(tenantId) + '|' + contentHash;
+    }
+
+    private static String clean(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
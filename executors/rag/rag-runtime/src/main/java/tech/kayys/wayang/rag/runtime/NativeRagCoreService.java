@@ -2,6 +2,7 @@ package tech.kayys.wayang.rag.runtime;
 
 import tech.kayys.wayang.rag.core.*;
 
+import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -61,6 +62,44 @@ public class NativeRagCoreService {
                 return createPipeline(tenantId, GenerationConfig.defaults()).ingest(source, content, metadata, options);
         }
 
+        /**
+         * Parse stage of staged ingestion: normalise raw content into a document.
+         */
+        public RagDocument parseDocument(String source, String content, Map<String, Object> metadata) {
+                return new SimpleTextDocumentParser().parse(source, content, metadata);
+        }
+
+        /**
+         * Chunk stage of staged ingestion.
+         */
+        public List<RagChunk> chunkDocument(RagDocument document, ChunkingConfig chunkingConfig) {
+                return new SlidingWindowChunker().chunk(
+                                document,
+                                new ChunkingOptions(chunkingConfig.chunkSize(), chunkingConfig.chunkOverlap()));
+        }
+
+        /**
+         * Embed stage of staged ingestion; non-blocking, nothing is written yet.
+         */
+        public Uni<RagIndexer.EmbeddedChunks> embedChunks(String tenantId, List<RagChunk> chunks) {
+                return createIndexer(tenantId).embedAsync(chunks);
+        }
+
+        /**
+         * Upsert stage of staged ingestion: one bulk upsert per call.
+         */
+        public void storeChunks(String tenantId, RagIndexer.EmbeddedChunks embedded) {
+                createIndexer(tenantId).store(embedded);
+        }
+
+        /**
+         * Whether a chunk written by staged ingestion is still in the tenant's
+         * store.
+         */
+        public boolean isChunkStored(String tenantId, String chunkId) {
+                return createIndexer(tenantId).containsChunk(chunkId);
+        }
+
         public RagResult query(
                         String tenantId,
                         String query,
@@ -146,12 +185,16 @@ public class NativeRagCoreService {
                                 retrievalOnly);
         }
 
-        private RagPipeline createPipeline(String tenantId, GenerationConfig generationConfig) {
-                RagIndexer indexer = new RagIndexer(
+        private RagIndexer createIndexer(String tenantId) {
+                return new RagIndexer(
                                 embeddingService,
                                 vectorStoreProvider.getStore(),
                                 tenantId,
                                 config.getEmbeddingModel());
+        }
+
+        private RagPipeline createPipeline(String tenantId, GenerationConfig generationConfig) {
+                RagIndexer indexer = createIndexer(tenantId);
 
                 VectorRetriever retriever = new VectorRetriever(
                                 embeddingService,
@@ -169,11 +212,7 @@ public class NativeRagCoreService {
         }
 
         private RagPipeline createRetrievalOnlyPipeline(String tenantId) {
-                RagIndexer indexer = new RagIndexer(
-                                embeddingService,
-                                vectorStoreProvider.getStore(),
-                                tenantId,
-                                config.getEmbeddingModel());
+                RagIndexer indexer = createIndexer(tenantId);
 
                 VectorRetriever retriever = new VectorRetriever(
                                 embeddingService,
@@ -5,20 +5,30 @@ import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 @ApplicationScoped
 public class RagObservabilityMetrics {
 
+    public static final String STAGE_EMBEDDING = "embedding";
+    public static final String STAGE_SEARCH = "search";
+    public static final String STAGE_INGEST = "ingest";
+    /**
+     * Window behind the latency percentiles in {@link #snapshot()}.
+     */
+    public static final Duration SNAPSHOT_WINDOW = Duration.ofMinutes(5);
+
     private final MeterRegistry meterRegistry;
     private final AtomicLong indexLagMs = new AtomicLong(0L);
+    private final RagSloWindows sloWindows = new RagSloWindows(Clock.systemUTC());
 
     public RagObservabilityMetrics() {
         this((MeterRegistry) null);
@@ -46,6 +56,7 @@ public class RagObservabilityMetrics {
     }
 
     public void recordEmbeddingSuccess(String model, int batchSize, long latencyMs) {
+        sloWindows.recordSuccess(STAGE_EMBEDDING, model, latencyMs);
         if (meterRegistry == null) {
             return;
         }
@@ -64,6 +75,7 @@ public class RagObservabilityMetrics {
     }
 
     public void recordEmbeddingFailure(String model) {
+        sloWindows.recordFailure(STAGE_EMBEDDING, model);
         if (meterRegistry == null) {
             return;
         }
@@ -75,6 +87,7 @@ public class RagObservabilityMetrics {
     }
 
     public void recordSearchSuccess(String tenantId, long latencyMs, int resultSize) {
+        sloWindows.recordSuccess(STAGE_SEARCH, tenantId, latencyMs);
         if (meterRegistry == null) {
             return;
         }
@@ -93,6 +106,7 @@ public class RagObservabilityMetrics {
     }
 
     public void recordSearchFailure(String tenantId) {
+        sloWindows.recordFailure(STAGE_SEARCH, tenantId);
         if (meterRegistry == null) {
             return;
         }
@@ -104,6 +118,8 @@ public class RagObservabilityMetrics {
     }
 
     public void recordIngestion(String tenantId, int documentsIngested, int segmentsCreated, long durationMs) {
+        sloWindows.recordSuccess(STAGE_INGEST, tenantId, durationMs);
+        indexLagMs.set(Math.max(0L, durationMs));
         if (meterRegistry == null) {
             return;
         }
@@ -124,16 +140,27 @@ public class RagObservabilityMetrics {
                 .tag("tenant", safe(tenantId))
                 .register(meterRegistry)
                 .record(segmentsCreated);
-        indexLagMs.set(Math.max(0L, durationMs));
     }
 
     public long currentIndexLagMs() {
         return indexLagMs.get();
     }
 
+    /**
+     * Rolling per-stage, per-tenant windows behind SLO percentiles and burn
+     * rates.
+     */
+    public RagSloWindows sloWindows() {
+        return sloWindows;
+    }
+
     public RagSloSnapshot snapshot() {
         if (meterRegistry == null) {
-            return new RagSloSnapshot(0.0, 0.0, 0.0, 0.0, 0.0, indexLagMs.get(), 0, 0, 0, 0);
+            return new RagSloSnapshot(
+                    windowP95Ms(STAGE_EMBEDDING),
+                    windowP95Ms(STAGE_SEARCH),
+                    windowP95Ms(STAGE_INGEST),
+                    0.0, 0.0, indexLagMs.get(), 0, 0, 0, 0);
         }
 
         long embeddingSuccess = sumTimerCount("wayang.rag.embedding.latency");
@@ -142,9 +169,9 @@ public class RagObservabilityMetrics {
         long searchFailure = sumCounterCount("wayang.rag.search.failure.count");
 
         return new RagSloSnapshot(
-                percentile95Ms("wayang.rag.embedding.latency"),
-                percentile95Ms("wayang.rag.search.latency"),
-                percentile95Ms("wayang.rag.ingest.latency"),
+                windowP95Ms(STAGE_EMBEDDING),
+                windowP95Ms(STAGE_SEARCH),
+                windowP95Ms(STAGE_INGEST),
                 failureRate(embeddingFailure, embeddingSuccess),
                 failureRate(searchFailure, searchSuccess),
                 indexLagMs.get(),
@@ -154,23 +181,8 @@ public class RagObservabilityMetrics {
                 searchFailure);
     }
 
-    private double percentile95Ms(String meterName) {
-        return meterRegistry.find(meterName).timers().stream()
-                .mapToDouble(this::timerP95Ms)
-                .max()
-                .orElse(0.0);
-    }
-
-    private double timerP95Ms(Timer timer) {
-        ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
-        if (percentiles != null) {
-            for (ValueAtPercentile percentile : percentiles) {
-                if (Math.abs(percentile.percentile() - 0.95) < 0.0001) {
-                    return percentile.value(TimeUnit.MILLISECONDS);
-                }
-            }
-        }
-        return timer.max(TimeUnit.MILLISECONDS);
+    private double windowP95Ms(String stage) {
+        return sloWindows.window(stage, null, SNAPSHOT_WINDOW).latencyPercentileMs(0.95);
     }
 
     private long sumTimerCount(String meterName) {
@@ -33,6 +33,9 @@ public class RagRuntimeConfig {
     private String embeddingSchemaHistoryPath;
     private String retrievalEvalHistoryPath;
     private int retrievalEvalHistoryMaxEvents = 1000;
+    private int retrievalEvalParallelism;
+    private int retrievalEvalShardSize = 64;
+    private String retrievalEvalCheckpointPath;
     private String sloAlertSnoozePath;
     private boolean retrievalEvalGuardrailEnabled = true;
     private int retrievalEvalGuardrailWindowSize = 20;
@@ -72,6 +75,9 @@ public class RagRuntimeConfig {
     private boolean sloAlertEnabled = true;
     private String sloAlertMinSeverity = "warning";
     private long sloAlertCooldownMs = 300000L;
+    private double sloBurnRateFast = 14.4;
+    private double sloBurnRateSlow = 6.0;
+    private long sloBurnRateMinEvents = 20L;
 
     public String getOpenAiApiKey() {
         return openAiApiKey;
@@ -289,6 +295,30 @@ public class RagRuntimeConfig {
         this.retrievalEvalHistoryMaxEvents = retrievalEvalHistoryMaxEvents;
     }
 
+    public int getRetrievalEvalParallelism() {
+        return retrievalEvalParallelism;
+    }
+
+    public void setRetrievalEvalParallelism(int retrievalEvalParallelism) {
+        this.retrievalEvalParallelism = retrievalEvalParallelism;
+    }
+
+    public int getRetrievalEvalShardSize() {
+        return retrievalEvalShardSize;
+    }
+
+    public void setRetrievalEvalShardSize(int retrievalEvalShardSize) {
+        this.retrievalEvalShardSize = retrievalEvalShardSize;
+    }
+
+    public String getRetrievalEvalCheckpointPath() {
+        return retrievalEvalCheckpointPath;
+    }
+
+    public void setRetrievalEvalCheckpointPath(String retrievalEvalCheckpointPath) {
+        this.retrievalEvalCheckpointPath = retrievalEvalCheckpointPath;
+    }
+
     public String getSloAlertSnoozePath() {
         return sloAlertSnoozePath;
     }
@@ -505,6 +535,30 @@ public class RagRuntimeConfig {
         this.sloIndexLagMs = sloIndexLagMs;
     }
 
+    public double getSloBurnRateFast() {
+        return sloBurnRateFast;
+    }
+
+    public void setSloBurnRateFast(double sloBurnRateFast) {
+        this.sloBurnRateFast = sloBurnRateFast;
+    }
+
+    public double getSloBurnRateSlow() {
+        return sloBurnRateSlow;
+    }
+
+    public void setSloBurnRateSlow(double sloBurnRateSlow) {
+        this.sloBurnRateSlow = sloBurnRateSlow;
+    }
+
+    public long getSloBurnRateMinEvents() {
+        return sloBurnRateMinEvents;
+    }
+
+    public void setSloBurnRateMinEvents(long sloBurnRateMinEvents) {
+        this.sloBurnRateMinEvents = sloBurnRateMinEvents;
+    }
+
     public double getSloCompactionFailureRate() {
         return sloCompactionFailureRate;
     }
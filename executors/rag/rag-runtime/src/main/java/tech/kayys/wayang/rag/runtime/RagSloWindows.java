@@ -0,0 +1,228 @@
+package tech.kayys.wayang.rag.runtime;
+
+import tech.kayys.wayang.rag.core.eval.LogLinearBuckets;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling latency and failure windows per pipeline stage and scope (tenant or
+ * model), used for SLO percentiles and burn rates.
+ *
+ * <p>
+ * Each series keeps two rings of time slots: one-minute slots for the last
+ * hour and five-minute slots out to {@link #HORIZON}. A slot holds event and
+ * failure counts plus a log-linear latency histogram (exact to 16 ms, then 8
+ * sub-buckets per power of two; latencies from 2^25 ms, about 9.3 hours, share
+ * the last bucket), so recording is O(1) and a window is the merge of its
+ * slots. Memory is bounded by the number of series, not by traffic.
+ */
+public final class RagSloWindows {
+
+    public static final Duration HORIZON = Duration.ofHours(6);
+
+    static final int MAX_SERIES = 512;
+    static final String OVERFLOW_SCOPE = "other";
+
+    private static final long FINE_SLOT_MS = Duration.ofMinutes(1).toMillis();
+    private static final int FINE_SLOTS = 60;
+    private static final long COARSE_SLOT_MS = Duration.ofMinutes(5).toMillis();
+    private static final int COARSE_SLOTS = (int) (HORIZON.toMillis() / COARSE_SLOT_MS);
+
+    /**
+     * Coarser than the evaluation histogram: every slot of every series holds
+     * one, so it trades precision for size.
+     */
+    static final LogLinearBuckets LATENCY_BUCKETS = new LogLinearBuckets(4, 3, 24);
+    private static final int BUCKETS = LATENCY_BUCKETS.buckets();
+
+    private final Clock clock;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    public RagSloWindows(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void recordSuccess(String stage, String scope, long latencyMs) {
+        series(stage, scope).record(clock.millis(), Math.max(0L, latencyMs), false);
+    }
+
+    public void recordFailure(String stage, String scope) {
+        series(stage, scope).record(clock.millis(), -1L, true);
+    }
+
+    /**
+     * Scopes that have recorded anything for {@code stage}.
+     */
+    public Set<String> scopes(String stage) {
+        Set<String> scopes = new TreeSet<>();
+        for (Series candidate : series.values()) {
+            if (candidate.stage.equals(stage)) {
+                scopes.add(candidate.scope);
+            }
+        }
+        return scopes;
+    }
+
+    /**
+     * Merge the last {@code length} (at most {@link #HORIZON}) of
+     * {@code stage}, for one scope or, when {@code scope} is {@code null},
+     * across all of them. Windows up to an hour resolve to the minute, longer
+     * ones to five minutes.
+     */
+    public Window window(String stage, String scope, Duration length) {
+        long nowMs = clock.millis();
+        Window window = new Window();
+        for (Series candidate : series.values()) {
+            if (candidate.stage.equals(stage) && (scope == null || candidate.scope.equals(scope))) {
+                candidate.mergeInto(window, nowMs, length.toMillis());
+            }
+        }
+        return window;
+    }
+
+    private Series series(String stage, String scope) {
+        String safeScope = scope == null || scope.isBlank() ? "unknown" : scope;
+        String key = stage + '|' + safeScope;
+        Series existing = series.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (series.size() >= MAX_SERIES) {
+            // Bound memory under scope cardinality blow-ups
+            return series.computeIfAbsent(stage + '|' + OVERFLOW_SCOPE, ignored -> new Series(stage, OVERFLOW_SCOPE));
+        }
+        return series.computeIfAbsent(key, ignored -> new Series(stage, safeScope));
+    }
+
+    /**
+     * Merged view of a time window.
+     */
+    public static final class Window {
+        private final long[] counts = new long[BUCKETS];
+        private long events;
+        private long failures;
+        private long latencies;
+
+        public long events() {
+            return events;
+        }
+
+        public long failures() {
+            return failures;
+        }
+
+        public double failureRatio() {
+            return events == 0 ? 0.0 : (double) failures / events;
+        }
+
+        /**
+         * Share of all events that succeeded slower than {@code thresholdMs}.
+         */
+        public double slowRatio(double thresholdMs) {
+            if (events == 0) {
+                return 0.0;
+            }
+            long slow = 0L;
+            for (int i = BUCKETS - 1; i >= 0 && LATENCY_BUCKETS.lowerBound(i) > thresholdMs; i--) {
+                slow += counts[i];
+            }
+            return (double) slow / events;
+        }
+
+        /**
+         * Nearest-rank latency percentile, as the lower bound of its bucket.
+         */
+        public double latencyPercentileMs(double percentile) {
+            return LATENCY_BUCKETS.percentile(counts, latencies, percentile);
+        }
+    }
+
+    private static final class Series {
+        private final String stage;
+        private final String scope;
+        private final Ring fine = new Ring(FINE_SLOT_MS, FINE_SLOTS);
+        private final Ring coarse = new Ring(COARSE_SLOT_MS, COARSE_SLOTS);
+
+        Series(String stage, String scope) {
+            this.stage = stage;
+            this.scope = scope;
+        }
+
+        synchronized void record(long nowMs, long latencyMs, boolean failure) {
+            fine.record(nowMs, latencyMs, failure);
+            coarse.record(nowMs, latencyMs, failure);
+        }
+
+        synchronized void mergeInto(Window window, long nowMs, long lengthMs) {
+            Ring ring = lengthMs <= FINE_SLOT_MS * FINE_SLOTS ? fine : coarse;
+            ring.mergeInto(window, nowMs, lengthMs);
+        }
+    }
+
+    private static final class Ring {
+        private final long slotMs;
+        private final long[] slotIds;
+        private final long[] events;
+        private final long[] failures;
+        private final int[][] histograms;
+
+        Ring(long slotMs, int slots) {
+            this.slotMs = slotMs;
+            this.slotIds = new long[slots];
+            this.events = new long[slots];
+            this.failures = new long[slots];
+            this.histograms = new int[slots][];
+            Arrays.fill(slotIds, -1L);
+        }
+
+        void record(long nowMs, long latencyMs, boolean failure) {
+            long slot = nowMs / slotMs;
+            int index = (int) (slot % slotIds.length);
+            if (slotIds[index] != slot) {
+                slotIds[index] = slot;
+                events[index] = 0L;
+                failures[index] = 0L;
+                if (histograms[index] != null) {
+                    Arrays.fill(histograms[index], 0);
+                }
+            }
+            events[index]++;
+            if (failure) {
+                failures[index]++;
+                return;
+            }
+            if (histograms[index] == null) {
+                // Allocated on first use so idle slots cost nothing
+                histograms[index] = new int[BUCKETS];
+            }
+            histograms[index][LATENCY_BUCKETS.bucket(latencyMs)]++;
+        }
+
+        void mergeInto(Window window, long nowMs, long lengthMs) {
+            long now = nowMs / slotMs;
+            long slots = Math.max(1L, Math.min(slotIds.length, (lengthMs + slotMs - 1) / slotMs));
+            for (long slot = now - slots + 1; slot <= now; slot++) {
+                int index = (int) (slot % slotIds.length);
+                if (slot < 0 || slotIds[index] != slot) {
+                    continue;
+                }
+                window.events += events[index];
+                window.failures += failures[index];
+                int[] histogram = histograms[index];
+                if (histogram == null) {
+                    continue;
+                }
+                for (int i = 0; i < BUCKETS; i++) {
+                    window.counts[i] += histogram[i];
+                    window.latencies += histogram[i];
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package tech.kayys.wayang.rag.runtime;
 
+import io.smallrye.mutiny.Uni;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import tech.kayys.wayang.rag.core.ChunkingConfig;
 import tech.kayys.wayang.rag.core.RagChunk;
+import tech.kayys.wayang.rag.core.RagDocument;
+import tech.kayys.wayang.rag.core.impl.RagIndexer;
+
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,24 +53,22 @@ class DocumentIngestionServiceTest {
 
     @Test
     void testIngestTextDocuments_Success() {
-        when(nativeRagCoreService.ingestText(anyString(), anyString(), anyString(), anyMap(),
-                any(ChunkingConfig.class)))
-                .thenReturn(List.of(RagChunk.of("doc-1", 0, "chunk", Map.of())));
+        stubStages();
 
         IngestResult result = ingestionService
                 .ingestTextDocuments("tenant", List.of("text"), Map.of("collection", "test"), ChunkingConfig.defaults())
                 .await().indefinitely();
 
         assertNotNull(result);
+        assertTrue(result.success());
         assertEquals(1, result.documentsIngested());
         assertEquals(1, result.segmentsCreated());
+        verify(nativeRagCoreService).storeChunks(eq("tenant"), any(RagIndexer.EmbeddedChunks.class));
     }
 
     @Test
     void testBatchIngest_Success() {
-        when(nativeRagCoreService.ingestText(anyString(), anyString(), anyString(), anyMap(),
-                any(ChunkingConfig.class)))
-                .thenReturn(List.of(RagChunk.of("doc-1", 0, "chunk", Map.of())));
+        stubStages();
 
         IngestResult result = ingestionService.batchIngest(
                 "tenant",
@@ -64,12 +81,154 @@ class DocumentIngestionServiceTest {
     }
 
     @Test
-    void testIngestPdfDocuments_ThrowsForMissingFile() {
-        try {
-            ingestionService.ingestPdfDocuments("tenant", List.of(Path.of("/no/such/file.pdf")), Map.of())
-                    .await().indefinitely();
-        } catch (Exception e) {
-            assertNotNull(e);
+    @SuppressWarnings("unchecked")
+    void testBatchIngestPdfDefaultsCollectionAndSource(@TempDir Path dir) throws IOException {
+        stubStages();
+        Path pdf = writePdf(dir.resolve("guide.pdf"), "hello pdf");
+
+        IngestResult result = ingestionService.batchIngest(
+                "tenant",
+                List.of(new DocumentSource(SourceType.PDF, pdf.toString(), null, Map.of("team", "docs"))))
+                .await().indefinitely();
+
+        ArgumentCaptor<Map<String, Object>> metadata = ArgumentCaptor.forClass(Map.class);
+        verify(nativeRagCoreService).parseDocument(eq("guide.pdf"), anyString(), metadata.capture());
+        assertEquals(1, result.documentsIngested());
+        assertEquals("default", metadata.getValue().get("collection"));
+        assertEquals("guide.pdf", metadata.getValue().get("source"));
+        assertEquals("docs", metadata.getValue().get("team"));
+    }
+
+    @Test
+    void testIngestPdfDocuments_ReportsMissingFile() {
+        IngestResult result = ingestionService
+                .ingestPdfDocuments("tenant", List.of(Path.of("/no/such/file.pdf")), Map.of())
+                .await().indefinitely();
+
+        assertFalse(result.success());
+        assertEquals(0, result.documentsIngested());
+    }
+
+    @Test
+    void testRerunSkipsUnchangedContent() {
+        stubStages();
+        when(nativeRagCoreService.isChunkStored(eq("tenant"), anyString())).thenReturn(true);
+        List<String> texts = List.of("alpha", "beta", "gamma");
+
+        IngestResult first = ingestionService
+                .ingestTextDocuments("tenant", texts, Map.of(), ChunkingConfig.defaults())
+                .await().indefinitely();
+        IngestResult second = ingestionService
+                .ingestTextDocuments("tenant", List.of("alpha", "beta", "gamma", "delta"), Map.of(),
+                        ChunkingConfig.defaults())
+                .await().indefinitely();
+
+        assertEquals(3, first.documentsIngested());
+        assertEquals(1, second.documentsIngested());
+        assertTrue(second.success());
+        verify(nativeRagCoreService, times(4)).embedChunks(eq("tenant"), anyList());
+    }
+
+    @Test
+    void testCheckpointsResumeAcrossRestart(@TempDir Path checkpointDir) {
+        stubStages();
+        when(nativeRagCoreService.isChunkStored(eq("tenant"), anyString())).thenReturn(true);
+        ingestionService.checkpointPath = Optional.of(checkpointDir.toString());
+        ingestionService.ingestTextDocuments("tenant", List.of("one", "two"), Map.of(), ChunkingConfig.defaults())
+                .await().indefinitely();
+        ingestionService.close();
+
+        DocumentIngestionService restarted = new DocumentIngestionService();
+        restarted.nativeRagCoreService = nativeRagCoreService;
+        restarted.checkpointPath = Optional.of(checkpointDir.toString());
+        IngestResult result = restarted
+                .ingestTextDocuments("tenant", List.of("one", "two", "three"), Map.of(), ChunkingConfig.defaults())
+                .await().indefinitely();
+        restarted.close();
+
+        assertEquals(1, result.documentsIngested());
+        verify(nativeRagCoreService, times(3)).embedChunks(eq("tenant"), anyList());
+    }
+
+    @Test
+    void testSameTextWithDifferentMetadataIsIndexedAgain() {
+        stubStages();
+        when(nativeRagCoreService.isChunkStored(eq("tenant"), anyString())).thenReturn(true);
+
+        ingestionService.ingestTextDocuments("tenant", List.of("shared"), Map.of("collection", "a"),
+                ChunkingConfig.defaults()).await().indefinitely();
+        IngestResult otherCollection = ingestionService.ingestTextDocuments("tenant", List.of("shared"),
+                Map.of("collection", "b"), ChunkingConfig.defaults()).await().indefinitely();
+        IngestResult otherSource = ingestionService.batchIngest("tenant", List.of(
+                new DocumentSource(SourceType.TEXT, null, "shared", Map.of("collection", "a", "source", "wiki"))))
+                .await().indefinitely();
+        IngestResult repeated = ingestionService.ingestTextDocuments("tenant", List.of("shared"),
+                Map.of("collection", "a"), ChunkingConfig.defaults()).await().indefinitely();
+
+        assertEquals(1, otherCollection.documentsIngested());
+        assertEquals(1, otherSource.documentsIngested());
+        assertEquals(0, repeated.documentsIngested());
+        verify(nativeRagCoreService, times(3)).embedChunks(eq("tenant"), anyList());
+    }
+
+    @Test
+    void testReindexesCheckpointedDocumentMissingFromStore() {
+        stubStages();
+        when(nativeRagCoreService.isChunkStored(eq("tenant"), anyString())).thenReturn(false);
+
+        ingestionService.ingestTextDocuments("tenant", List.of("alpha"), Map.of(), ChunkingConfig.defaults())
+                .await().indefinitely();
+        IngestResult afterDelete = ingestionService
+                .ingestTextDocuments("tenant", List.of("alpha"), Map.of(), ChunkingConfig.defaults())
+                .await().indefinitely();
+
+        assertEquals(1, afterDelete.documentsIngested());
+        verify(nativeRagCoreService, times(2)).storeChunks(eq("tenant"), any(RagIndexer.EmbeddedChunks.class));
+    }
+
+    @Test
+    void testContentHashCoversMetadata() {
+        ChunkingConfig config = ChunkingConfig.defaults();
+        String base = DocumentIngestionService.contentHash("text", config, Map.of("collection", "a"));
+
+        assertEquals(base, DocumentIngestionService.contentHash("text", config, Map.of("collection", "a")));
+        assertFalse(base.equals(DocumentIngestionService.contentHash("text", config, Map.of("collection", "b"))));
+        assertFalse(base.equals(DocumentIngestionService.contentHash("text", config,
+                Map.of("collection", "a", "source", "x"))));
+        // Field boundaries are unambiguous
+        assertFalse(DocumentIngestionService.contentHash("text", config, Map.of("ab", "c"))
+                .equals(DocumentIngestionService.contentHash("text", config, Map.of("a", "bc"))));
+    }
+
+    private static Path writePdf(Path path, String text) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(72, 700);
+                content.showText(text);
+                content.endText();
+            }
+            document.save(path.toFile());
         }
+        return path;
+    }
+
+    private void stubStages() {
+        when(nativeRagCoreService.parseDocument(anyString(), anyString(), anyMap()))
+                .thenAnswer(invocation -> RagDocument.of(invocation.getArgument(1), invocation.getArgument(2)));
+        when(nativeRagCoreService.chunkDocument(any(RagDocument.class), any(ChunkingConfig.class)))
+                .thenAnswer(invocation -> {
+                    RagDocument document = invocation.getArgument(0);
+                    return List.of(RagChunk.of(document.id(), 0, "chunk", Map.of()));
+                });
+        when(nativeRagCoreService.embedChunks(anyString(), anyList()))
+                .thenAnswer(invocation -> {
+                    List<RagChunk> chunks = invocation.getArgument(1);
+                    return Uni.createFrom().item(new RagIndexer.EmbeddedChunks(
+                            chunks, chunks.stream().map(chunk -> new float[] { 1f }).toList(), 1, "v1"));
+                });
     }
 }
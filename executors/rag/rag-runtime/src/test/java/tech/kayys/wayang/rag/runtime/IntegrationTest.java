@@ -2,6 +2,7 @@ package tech.kayys.wayang.rag.runtime;
 
 import tech.kayys.wayang.rag.core.*;
 
+import io.smallrye.mutiny.Uni;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -16,12 +17,14 @@ import tech.kayys.wayang.rag.core.RagChunk;
 import tech.kayys.wayang.rag.core.RagQuery;
 import tech.kayys.wayang.rag.core.RagResult;
 import tech.kayys.wayang.rag.core.RagScoredChunk;
+import tech.kayys.wayang.rag.core.impl.RagIndexer;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -47,9 +50,17 @@ class IntegrationTest {
                 ingestionService.nativeRagCoreService = nativeRagCoreService;
                 queryService.nativeRagCoreService = nativeRagCoreService;
 
-                when(nativeRagCoreService.ingestText(anyString(), anyString(), anyString(), anyMap(),
-                                any(ChunkingConfig.class)))
+                when(nativeRagCoreService.parseDocument(anyString(), anyString(), anyMap()))
+                                .thenAnswer(invocation -> RagDocument.of(invocation.getArgument(1),
+                                                invocation.getArgument(2)));
+                when(nativeRagCoreService.chunkDocument(any(RagDocument.class), any(ChunkingConfig.class)))
                                 .thenReturn(List.of(RagChunk.of("doc", 0, "chunk", Map.of("source", "s"))));
+                when(nativeRagCoreService.embedChunks(anyString(), anyList()))
+                                .thenAnswer(invocation -> {
+                                        List<RagChunk> chunks = invocation.getArgument(1);
+                                        return Uni.createFrom().item(new RagIndexer.EmbeddedChunks(
+                                                        chunks, List.of(new float[] { 1f }), 1, "v1"));
+                                });
                 when(nativeRagCoreService.query(anyString(), anyString(), any(RetrievalConfig.class),
                                 any(GenerationConfig.class), anyMap()))
                                 .thenReturn(new RagResult(
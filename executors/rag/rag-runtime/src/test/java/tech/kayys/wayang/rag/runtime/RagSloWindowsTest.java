@@ -0,0 +1,91 @@
+package tech.kayys.wayang.rag.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RagSloWindowsTest {
+
+    @Test
+    void shouldReportPercentilesWithinBucketPrecision() {
+        MutableClock clock = new MutableClock();
+        RagSloWindows windows = new RagSloWindows(clock);
+        for (int i = 1; i <= 100; i++) {
+            windows.recordSuccess("search", "tenant-a", i * 10L);
+        }
+
+        double p95 = windows.window("search", "tenant-a", Duration.ofMinutes(5)).latencyPercentileMs(0.95);
+
+        assertTrue(p95 <= 950.0 && p95 >= 950.0 * 0.875, "p95=" + p95);
+        assertEquals(5.0, windows.window("search", null, Duration.ofMinutes(5)).latencyPercentileMs(0.0), 5.0);
+    }
+
+    @Test
+    void shouldExpireSlotsOutsideTheWindow() {
+        MutableClock clock = new MutableClock();
+        RagSloWindows windows = new RagSloWindows(clock);
+        windows.recordSuccess("embedding", "model", 40L);
+        windows.recordFailure("embedding", "model");
+
+        clock.advance(Duration.ofMinutes(10));
+        windows.recordSuccess("embedding", "model", 40L);
+
+        assertEquals(1L, windows.window("embedding", "model", Duration.ofMinutes(5)).events());
+        RagSloWindows.Window hour = windows.window("embedding", "model", Duration.ofHours(1));
+        assertEquals(3L, hour.events());
+        assertEquals(1.0 / 3.0, hour.failureRatio(), 1e-9);
+
+        clock.advance(Duration.ofHours(7));
+        assertEquals(0L, windows.window("embedding", "model", Duration.ofHours(6)).events());
+    }
+
+    @Test
+    void shouldMergeScopesAndCountSlowRequests() {
+        MutableClock clock = new MutableClock();
+        RagSloWindows windows = new RagSloWindows(clock);
+        for (int i = 0; i < 8; i++) {
+            windows.recordSuccess("search", "tenant-a", 100L);
+        }
+        windows.recordSuccess("search", "tenant-b", 5000L);
+        windows.recordFailure("search", "tenant-b");
+
+        RagSloWindows.Window all = windows.window("search", null, Duration.ofHours(6));
+
+        assertEquals(Set.of("tenant-a", "tenant-b"), windows.scopes("search"));
+        assertEquals(10L, all.events());
+        assertEquals(0.1, all.slowRatio(1500.0), 1e-9);
+        assertEquals(0.1, all.failureRatio(), 1e-9);
+        assertEquals(0.0, windows.window("search", "tenant-a", Duration.ofHours(6)).slowRatio(1500.0), 1e-9);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package tech.kayys.wayang.rag.embedding;
 import tech.kayys.wayang.embedding.EmbeddingRequest;
 import tech.kayys.wayang.embedding.EmbeddingResponse;
 import tech.kayys.wayang.embedding.EmbeddingService;
+import tech.kayys.wayang.plugin.execution.BlockingSections;
 
 import java.util.List;
 import java.util.Objects;
@@ -39,7 +40,7 @@ public class OwnedEmbeddingModelAdapter implements RagEmbeddingModel {
         long started = System.currentTimeMillis();
         try {
             EmbeddingRequest request = new EmbeddingRequest(input, modelName, null, true);
-            EmbeddingResponse response = embeddingService.embedForTenant(tenantId, request).await().indefinitely();
+            EmbeddingResponse response = BlockingSections.await("embedding", embeddingService.embedForTenant(tenantId, request));
             metrics.recordEmbeddingSuccess(modelName, input.size(), System.currentTimeMillis() - started);
             return response.embeddings();
         } catch (RuntimeException ex) {
@@ -50,10 +51,9 @@ public class OwnedEmbeddingModelAdapter implements RagEmbeddingModel {
 
     @Override
     public int dimension() {
-        EmbeddingResponse probe = embeddingService.embedForTenant(
+        EmbeddingResponse probe = BlockingSections.await("embedding", embeddingService.embedForTenant(
                 tenantId,
-                new EmbeddingRequest(List.of("dimension-probe"), modelName, null, true))
-                .await().indefinitely();
+                new EmbeddingRequest(List.of("dimension-probe"), modelName, null, true)));
         return probe.dimension();
     }
 
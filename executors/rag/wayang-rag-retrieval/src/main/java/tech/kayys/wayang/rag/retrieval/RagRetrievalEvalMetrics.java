@@ -17,6 +17,7 @@ public class RagRetrievalEvalMetrics {
     private final MeterRegistry meterRegistry;
     private final AtomicLong lastRecallAtKScaled = new AtomicLong(0L);
     private final AtomicLong lastMrrScaled = new AtomicLong(0L);
+    private final AtomicLong lastNdcgScaled = new AtomicLong(0L);
     private final AtomicLong lastLatencyP95MsScaled = new AtomicLong(0L);
     private final AtomicLong lastLatencyAvgMsScaled = new AtomicLong(0L);
     private final AtomicLong lastGuardrailHealthy = new AtomicLong(1L);
@@ -48,6 +49,9 @@ public class RagRetrievalEvalMetrics {
         Gauge.builder("wayang.rag.eval.retrieval.last.mrr", lastMrrScaled,
                         value -> value.get() / 1000.0d)
                 .register(meterRegistry);
+        Gauge.builder("wayang.rag.eval.retrieval.last.ndcg", lastNdcgScaled,
+                        value -> value.get() / 1000.0d)
+                .register(meterRegistry);
         Gauge.builder("wayang.rag.eval.retrieval.last.latency_p95_ms", lastLatencyP95MsScaled,
                         value -> value.get() / 1000.0d)
                 .register(meterRegistry);
@@ -66,6 +70,7 @@ public class RagRetrievalEvalMetrics {
         }
         lastRecallAtKScaled.set(scale(response.recallAtK()));
         lastMrrScaled.set(scale(response.mrr()));
+        lastNdcgScaled.set(scale(response.ndcg()));
         lastLatencyP95MsScaled.set(scale(response.latencyP95Ms()));
         lastLatencyAvgMsScaled.set(scale(response.latencyAvgMs()));
         if (meterRegistry == null) {
@@ -96,6 +101,11 @@ public class RagRetrievalEvalMetrics {
                 .tag("dataset", safe(response.datasetName()))
                 .register(meterRegistry)
                 .record(Math.max(0.0, response.mrr()));
+        DistributionSummary.builder("wayang.rag.eval.retrieval.ndcg")
+                .tag("tenant", safe(response.tenantId()))
+                .tag("dataset", safe(response.datasetName()))
+                .register(meterRegistry)
+                .record(Math.max(0.0, response.ndcg()));
         DistributionSummary.builder("wayang.rag.eval.retrieval.latency_p95_ms")
                 .tag("tenant", safe(response.tenantId()))
                 .tag("dataset", safe(response.datasetName()))
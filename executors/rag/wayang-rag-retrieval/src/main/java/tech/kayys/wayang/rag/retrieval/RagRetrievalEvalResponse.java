@@ -13,6 +13,7 @@ public record RagRetrievalEvalResponse(
         int hitCount,
         double recallAtK,
         double mrr,
+        double ndcg,
         double latencyP95Ms,
         double latencyAvgMs,
         Instant evaluatedAt,
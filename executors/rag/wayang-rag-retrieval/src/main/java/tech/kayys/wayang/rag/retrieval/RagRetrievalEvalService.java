@@ -8,7 +8,11 @@ import tech.kayys.wayang.rag.core.RetrievalConfig;
 import tech.kayys.wayang.rag.core.RagScoredChunk;
 import tech.kayys.wayang.rag.core.RagEvalDataset;
 import tech.kayys.wayang.rag.core.RagEvalQueryCase;
+import tech.kayys.wayang.rag.core.eval.RagEvalAccumulator;
+import tech.kayys.wayang.rag.core.eval.RagEvalEngine;
+import tech.kayys.wayang.rag.core.eval.RagEvalOutcome;
 import tech.kayys.wayang.rag.runtime.NativeRagCoreService;
+import tech.kayys.wayang.rag.runtime.RagRuntimeConfig;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -21,6 +25,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 
 @ApplicationScoped
 public class RagRetrievalEvalService {
@@ -31,6 +36,7 @@ public class RagRetrievalEvalService {
     private final ObjectMapper objectMapper;
     private final RagRetrievalEvalHistoryService historyService;
     private final RagRetrievalEvalMetrics evalMetrics;
+    private final RagRuntimeConfig config;
     private final Clock clock;
 
     @Inject
@@ -38,12 +44,13 @@ public class RagRetrievalEvalService {
             NativeRagCoreService nativeRagCoreService,
             ObjectMapper objectMapper,
             RagRetrievalEvalHistoryService historyService,
-            RagRetrievalEvalMetrics evalMetrics) {
-        this(nativeRagCoreService, objectMapper, Clock.systemUTC(), historyService, evalMetrics);
+            RagRetrievalEvalMetrics evalMetrics,
+            RagRuntimeConfig config) {
+        this(nativeRagCoreService, objectMapper, Clock.systemUTC(), historyService, evalMetrics, config);
     }
 
     RagRetrievalEvalService(NativeRagCoreService nativeRagCoreService, ObjectMapper objectMapper, Clock clock) {
-        this(nativeRagCoreService, objectMapper, clock, null, null);
+        this(nativeRagCoreService, objectMapper, clock, null, null, null);
     }
 
     RagRetrievalEvalService(
@@ -51,11 +58,13 @@ public class RagRetrievalEvalService {
             ObjectMapper objectMapper,
             Clock clock,
             RagRetrievalEvalHistoryService historyService,
-            RagRetrievalEvalMetrics evalMetrics) {
+            RagRetrievalEvalMetrics evalMetrics,
+            RagRuntimeConfig config) {
         this.nativeRagCoreService = Objects.requireNonNull(nativeRagCoreService, "nativeRagCoreService");
         this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper");
         this.historyService = historyService;
         this.evalMetrics = evalMetrics;
+        this.config = config;
         this.clock = Objects.requireNonNull(clock, "clock");
     }
 
@@ -88,48 +97,48 @@ public class RagRetrievalEvalService {
 
         RetrievalConfig retrievalConfig = withThresholds(RetrievalConfig.defaults(), topK, (float) minSimilarity);
 
-        List<RagRetrievalEvalCaseResult> results = new ArrayList<>(queries.size());
-        List<Long> latencies = new ArrayList<>(queries.size());
-        int hits = 0;
-
         for (int i = 0; i < queries.size(); i++) {
             RagEvalQueryCase queryCase = queries.get(i);
             if (queryCase == null || queryCase.query() == null || queryCase.query().isBlank()) {
                 throw new BadRequestException("dataset.queries[" + i + "].query must not be blank");
             }
-
-            Map<String, Object> effectiveFilters = mergeFilters(datasetFilters, requestFilters, queryCase.filters());
-            long startedNanos = System.nanoTime();
-            List<RagScoredChunk> chunks = nativeRagCoreService.retrieve(
-                    tenantId,
-                    queryCase.query(),
-                    retrievalConfig,
-                    effectiveFilters);
-            long latencyMs = Math.max(0L, (System.nanoTime() - startedNanos) / 1_000_000L);
-
-            List<String> retrievedIds = extractRetrievedIds(chunks, matchField);
-            Set<String> expected = normalizeExpectedIds(queryCase.expectedIds());
-            double recall = expected.isEmpty() ? 0.0 : recallAtK(expected, retrievedIds);
-            double rr = reciprocalRank(expected, retrievedIds);
-            if (rr > 0.0) {
-                hits++;
-            }
-
-            results.add(new RagRetrievalEvalCaseResult(
-                    queryCase.id() == null || queryCase.id().isBlank() ? "case-" + (i + 1) : queryCase.id(),
-                    queryCase.query(),
-                    List.copyOf(expected),
-                    retrievedIds,
-                    recall,
-                    rr,
-                    latencyMs));
-            latencies.add(latencyMs);
         }
 
-        double recallAtK = results.stream().mapToDouble(RagRetrievalEvalCaseResult::recall).average().orElse(0.0);
-        double mrr = results.stream().mapToDouble(RagRetrievalEvalCaseResult::reciprocalRank).average().orElse(0.0);
-        double latencyAvgMs = latencies.stream().mapToLong(Long::longValue).average().orElse(0.0);
-        double latencyP95Ms = percentile95(latencies);
+        // Per-case results are part of the response, so they are kept in input order;
+        // the aggregate metrics stream through the engine's accumulators.
+        RagRetrievalEvalCaseResult[] results = new RagRetrievalEvalCaseResult[queries.size()];
+        RagEvalAccumulator accumulator = engine().run(
+                RagEvalEngine.runKey("retrieval", tenantId, dataset.name(), topK, minSimilarity, matchField,
+                        new TreeMap<>(datasetFilters), new TreeMap<>(requestFilters), caseKeys(queries)),
+                queries,
+                topK,
+                (index, queryCase) -> {
+                    Map<String, Object> effectiveFilters = mergeFilters(datasetFilters, requestFilters,
+                            queryCase.filters());
+                    long startedNanos = System.nanoTime();
+                    List<RagScoredChunk> chunks = nativeRagCoreService.retrieve(
+                            tenantId,
+                            queryCase.query(),
+                            retrievalConfig,
+                            effectiveFilters);
+                    long latencyMs = Math.max(0L, (System.nanoTime() - startedNanos) / 1_000_000L);
+                    return new RagEvalOutcome(
+                            index,
+                            queryCase.id() == null || queryCase.id().isBlank() ? "case-" + (index + 1)
+                                    : queryCase.id(),
+                            queryCase.query(),
+                            List.copyOf(normalizeExpectedIds(queryCase.expectedIds())),
+                            extractRetrievedIds(chunks, matchField),
+                            latencyMs);
+                },
+                outcome -> results[outcome.index()] = new RagRetrievalEvalCaseResult(
+                        outcome.caseId(),
+                        outcome.query(),
+                        outcome.expectedIds(),
+                        outcome.retrievedIds(),
+                        outcome.recall(),
+                        outcome.reciprocalRank(),
+                        outcome.latencyMs()));
 
         RagRetrievalEvalResponse response = new RagRetrievalEvalResponse(
                 dataset.name() == null || dataset.name().isBlank() ? "adhoc" : dataset.name(),
@@ -137,14 +146,15 @@ public class RagRetrievalEvalService {
                 topK,
                 minSimilarity,
                 matchField,
-                results.size(),
-                hits,
-                recallAtK,
-                mrr,
-                latencyP95Ms,
-                latencyAvgMs,
+                queries.size(),
+                (int) accumulator.hitCount(),
+                accumulator.recallAtK(),
+                accumulator.mrr(),
+                accumulator.ndcg(),
+                accumulator.latencyPercentileMs(0.95),
+                accumulator.latencyAvgMs(),
                 clock.instant(),
-                List.copyOf(results));
+                List.of(results));
         if (historyService != null) {
             historyService.append(response);
         }
@@ -154,6 +164,26 @@ public class RagRetrievalEvalService {
         return response;
     }
 
+    private RagEvalEngine engine() {
+        if (config == null) {
+            return new RagEvalEngine(0, RagEvalEngine.DEFAULT_SHARD_SIZE, null);
+        }
+        String checkpointPath = config.getRetrievalEvalCheckpointPath();
+        return new RagEvalEngine(
+                config.getRetrievalEvalParallelism(),
+                Math.max(1, config.getRetrievalEvalShardSize()),
+                checkpointPath == null || checkpointPath.isBlank() ? null : Path.of(checkpointPath.trim()));
+    }
+
+    private static List<String> caseKeys(List<RagEvalQueryCase> queries) {
+        List<String> keys = new ArrayList<>(queries.size());
+        for (RagEvalQueryCase queryCase : queries) {
+            keys.add(queryCase.id() + "\t" + queryCase.query() + "\t" + queryCase.expectedIds() + "\t"
+                    + (queryCase.filters() == null ? "{}" : new TreeMap<>(queryCase.filters())));
+        }
+        return keys;
+    }
+
     private RagEvalDataset resolveDataset(RagRetrievalEvalRequest request) {
         if (request == null) {
             throw new BadRequestException("request body is required");
@@ -276,23 +306,6 @@ public class RagRetrievalEvalService {
         return scoredChunk.chunk().documentId();
     }
 
-    private static double recallAtK(Set<String> expected, List<String> retrievedIds) {
-        if (expected.isEmpty()) {
-            return 0.0;
-        }
-        long matched = retrievedIds.stream().filter(expected::contains).count();
-        return (double) matched / expected.size();
-    }
-
-    private static double reciprocalRank(Set<String> expected, List<String> retrievedIds) {
-        for (int i = 0; i < retrievedIds.size(); i++) {
-            if (expected.contains(retrievedIds.get(i))) {
-                return 1.0 / (i + 1);
-            }
-        }
-        return 0.0;
-    }
-
     private static int resolveTopK(Integer requestTopK, Integer datasetTopK) {
         int value = requestTopK != null ? requestTopK
                 : (datasetTopK != null ? datasetTopK : RetrievalConfig.defaults().topK());
@@ -333,15 +346,4 @@ public class RagRetrievalEvalService {
         }
         return null;
     }
-
-    private static double percentile95(List<Long> latenciesMs) {
-        if (latenciesMs == null || latenciesMs.isEmpty()) {
-            return 0.0;
-        }
-        List<Long> sorted = new ArrayList<>(latenciesMs);
-        sorted.sort(Long::compareTo);
-        int index = (int) Math.ceil(0.95d * sorted.size()) - 1;
-        int bounded = Math.max(0, Math.min(index, sorted.size() - 1));
-        return sorted.get(bounded);
-    }
 }
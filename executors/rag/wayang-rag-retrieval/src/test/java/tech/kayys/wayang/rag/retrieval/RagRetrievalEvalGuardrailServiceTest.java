@@ -96,6 +96,7 @@ class RagRetrievalEvalGuardrailServiceTest {
                                 4,
                                 recall,
                                 mrr,
+                                mrr,
                                 p95,
                                 avg,
                                 at,
@@ -94,6 +94,7 @@ class RagRetrievalEvalHistoryServiceTest {
                                 8,
                                 recall,
                                 mrr,
+                                mrr,
                                 p95,
                                 avg,
                                 evaluatedAt,
@@ -26,6 +26,7 @@ class RagRetrievalEvalMetricsTest {
                 8,
                 0.7,
                 0.6,
+                0.65,
                 55.0,
                 32.0,
                 Instant.parse("2026-01-01T00:00:00Z"),
@@ -37,6 +38,7 @@ class RagRetrievalEvalMetricsTest {
         assertEquals(10.0, registry.find("wayang.rag.eval.retrieval.query.count").counter().count());
         assertEquals(8.0, registry.find("wayang.rag.eval.retrieval.hit.count").counter().count());
         assertEquals(0.7, registry.find("wayang.rag.eval.retrieval.last.recall_at_k").gauge().value(), 1e-6);
+        assertEquals(0.65, registry.find("wayang.rag.eval.retrieval.last.ndcg").gauge().value(), 1e-6);
 
         RagRetrievalEvalGuardrailStatus guardrail = new RagRetrievalEvalGuardrailStatus(
                 true,
@@ -65,6 +65,9 @@ class RagRetrievalEvalServiceTest {
                 assertEquals(1, response.hitCount());
                 assertEquals(0.5, response.recallAtK(), 1e-9);
                 assertEquals(0.25, response.mrr(), 1e-9);
+                assertEquals(0.3154649, response.ndcg(), 1e-6);
+                assertEquals(List.of("c1", "c2"),
+                                response.results().stream().map(RagRetrievalEvalCaseResult::caseId).toList());
                 assertTrue(response.latencyP95Ms() >= 0.0);
                 assertEquals(Instant.parse("2026-01-01T00:00:00Z"), response.evaluatedAt());
         }
@@ -5,12 +5,14 @@ import jakarta.inject.Inject;
 import tech.kayys.wayang.rag.runtime.RagRuntimeConfig;
 import tech.kayys.wayang.rag.runtime.RagObservabilityMetrics;
 import tech.kayys.wayang.rag.runtime.RagObservabilityMetrics.RagSloSnapshot;
+import tech.kayys.wayang.rag.runtime.RagSloWindows;
 import tech.kayys.wayang.rag.embedding.EmbeddingSchemaHistoryCompactorJob;
 import tech.kayys.wayang.rag.embedding.EmbeddingSchemaHistoryCompactorStatus;
 import tech.kayys.wayang.rag.retrieval.RagRetrievalEvalGuardrailService;
 import tech.kayys.wayang.rag.retrieval.RagRetrievalEvalGuardrailStatus;
 import tech.kayys.wayang.rag.retrieval.RagRetrievalEvalGuardrailBreach;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +20,15 @@ import java.util.List;
 @ApplicationScoped
 public class RagSloAdminService {
 
+    /**
+     * Share of requests a p95 latency target allows to be slower than it.
+     */
+    private static final double LATENCY_BUDGET = 0.05;
+    private static final Duration FAST_SHORT_WINDOW = Duration.ofMinutes(5);
+    private static final Duration FAST_LONG_WINDOW = Duration.ofHours(1);
+    private static final Duration SLOW_SHORT_WINDOW = Duration.ofMinutes(30);
+    private static final Duration SLOW_LONG_WINDOW = Duration.ofHours(6);
+
     private final RagRuntimeConfig config;
     private final RagObservabilityMetrics metrics;
     private final EmbeddingSchemaHistoryCompactorJob compactorJob;
@@ -106,11 +117,85 @@ public class RagSloAdminService {
                 "index_lag_ms",
                 snapshot.indexLagMs(),
                 thresholds.indexLagMs());
+        evaluateBurnRateBreaches(breaches, RagObservabilityMetrics.STAGE_EMBEDDING,
+                thresholds.embeddingLatencyP95Ms(), thresholds.embeddingFailureRate());
+        evaluateBurnRateBreaches(breaches, RagObservabilityMetrics.STAGE_SEARCH,
+                thresholds.searchLatencyP95Ms(), thresholds.searchFailureRate());
+        evaluateBurnRateBreaches(breaches, RagObservabilityMetrics.STAGE_INGEST,
+                thresholds.ingestLatencyP95Ms(), 0.0);
         evaluateCompactorBreaches(breaches, thresholds, compactorStatus);
         evaluateEvalGuardrailBreaches(breaches, evalGuardrailStatus);
         return breaches;
     }
 
+    /**
+     * Multi-window burn-rate check per scope: a breach needs both the short
+     * and the long window burning budget faster than the configured rate, so
+     * a brief spike does not page and a recovered incident stops paging once
+     * the short window clears.
+     */
+    private void evaluateBurnRateBreaches(
+            List<RagSloBreach> breaches,
+            String stage,
+            double latencyTargetMs,
+            double failureBudget) {
+        RagSloWindows windows = metrics.sloWindows();
+        for (String scope : windows.scopes(stage)) {
+            double fast = burnRate(windows, stage, scope, FAST_SHORT_WINDOW, FAST_LONG_WINDOW,
+                    latencyTargetMs, failureBudget);
+            double slow = burnRate(windows, stage, scope, SLOW_SHORT_WINDOW, SLOW_LONG_WINDOW,
+                    latencyTargetMs, failureBudget);
+            if (fast > config.getSloBurnRateFast()) {
+                breaches.add(burnRateBreach(stage + "_burn_rate_fast", scope, fast, config.getSloBurnRateFast(),
+                        "critical", FAST_SHORT_WINDOW, FAST_LONG_WINDOW));
+            } else if (slow > config.getSloBurnRateSlow()) {
+                breaches.add(burnRateBreach(stage + "_burn_rate_slow", scope, slow, config.getSloBurnRateSlow(),
+                        "warning", SLOW_SHORT_WINDOW, SLOW_LONG_WINDOW));
+            }
+        }
+    }
+
+    private double burnRate(
+            RagSloWindows windows,
+            String stage,
+            String scope,
+            Duration shortWindow,
+            Duration longWindow,
+            double latencyTargetMs,
+            double failureBudget) {
+        RagSloWindows.Window recent = windows.window(stage, scope, shortWindow);
+        if (recent.events() < config.getSloBurnRateMinEvents()) {
+            return 0.0;
+        }
+        return Math.min(
+                burnRate(recent, latencyTargetMs, failureBudget),
+                burnRate(windows.window(stage, scope, longWindow), latencyTargetMs, failureBudget));
+    }
+
+    private static double burnRate(RagSloWindows.Window window, double latencyTargetMs, double failureBudget) {
+        double latencyBurn = latencyTargetMs > 0.0 ? window.slowRatio(latencyTargetMs) / LATENCY_BUDGET : 0.0;
+        double failureBurn = failureBudget > 0.0 ? window.failureRatio() / failureBudget : 0.0;
+        return Math.max(latencyBurn, failureBurn);
+    }
+
+    private static RagSloBreach burnRateBreach(
+            String metric,
+            String scope,
+            double observed,
+            double threshold,
+            String severity,
+            Duration shortWindow,
+            Duration longWindow) {
+        return new RagSloBreach(
+                metric,
+                observed,
+                threshold,
+                severity,
+                "Error budget for scope=" + scope + " burning at " + String.format("%.1f", observed)
+                        + "x over " + shortWindow.toMinutes() + "m and " + longWindow.toMinutes()
+                        + "m windows (threshold=" + threshold + ", severity=" + severity + ")");
+    }
+
     private void evaluateCompactorBreaches(
             List<RagSloBreach> breaches,
             RagSloThresholds thresholds,
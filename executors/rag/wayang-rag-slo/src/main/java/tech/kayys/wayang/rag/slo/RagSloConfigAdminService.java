@@ -121,6 +121,10 @@ public class RagSloConfigAdminService {
                 mp,
                 "wayang.rag.slo.alert.cooldown-ms",
                 config.getSloAlertCooldownMs()));
+        config.setSloBurnRateFast(readDouble(mp, "wayang.rag.slo.burn-rate.fast", config.getSloBurnRateFast()));
+        config.setSloBurnRateSlow(readDouble(mp, "wayang.rag.slo.burn-rate.slow", config.getSloBurnRateSlow()));
+        config.setSloBurnRateMinEvents(readLong(mp, "wayang.rag.slo.burn-rate.min-events",
+                config.getSloBurnRateMinEvents()));
         return status();
     }
 
@@ -0,0 +1,143 @@
+package tech.kayys.wayang.rag.slo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.kayys.wayang.rag.runtime.RagObservabilityMetrics;
+import tech.kayys.wayang.rag.runtime.RagObservabilityMetrics.RagSloSnapshot;
+import tech.kayys.wayang.rag.runtime.RagRuntimeConfig;
+import tech.kayys.wayang.rag.runtime.RagSloWindows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RagSloAdminServiceTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final RagSloWindows windows = new RagSloWindows(clock);
+    private RagSloAdminService service;
+
+    @BeforeEach
+    void setUp() {
+        RagObservabilityMetrics metrics = mock(RagObservabilityMetrics.class);
+        when(metrics.sloWindows()).thenReturn(windows);
+        when(metrics.snapshot()).thenReturn(new RagSloSnapshot(0.0, 0.0, 0.0, 0.0, 0.0, 0L, 0L, 0L, 0L, 0L));
+        service = new RagSloAdminService(new RagRuntimeConfig(), metrics);
+    }
+
+    @Test
+    void shouldPageOnFastFailureBurnForTheBurningScopeOnly() {
+        record("tenant-a", 30, 0, 0L);
+        record("tenant-b", 0, 30, 100L);
+
+        List<RagSloBreach> breaches = burnRateBreaches();
+
+        assertEquals(1, breaches.size());
+        RagSloBreach breach = breaches.get(0);
+        assertEquals("search_burn_rate_fast", breach.metric());
+        assertEquals("critical", breach.severity());
+        assertEquals(20.0, breach.observed(), 1e-9);
+        assertTrue(breach.message().contains("scope=tenant-a"), breach.message());
+    }
+
+    @Test
+    void shouldWarnOnSlowFailureBurn() {
+        // 40% failures against a 5% budget burns at 8x: above slow (6), below fast (14.4)
+        record("tenant-a", 40, 60, 100L);
+
+        List<RagSloBreach> breaches = burnRateBreaches();
+
+        assertEquals(1, breaches.size());
+        assertEquals("search_burn_rate_slow", breaches.get(0).metric());
+        assertEquals("warning", breaches.get(0).severity());
+        assertEquals(8.0, breaches.get(0).observed(), 1e-9);
+    }
+
+    @Test
+    void shouldBurnLatencyBudgetOnSlowSuccesses() {
+        // Half the requests miss the 1500 ms target, whose budget is 5%: 10x
+        record("tenant-a", 0, 50, 100L);
+        record("tenant-a", 0, 50, 3000L);
+
+        List<RagSloBreach> breaches = burnRateBreaches();
+
+        assertEquals(1, breaches.size());
+        assertEquals("search_burn_rate_slow", breaches.get(0).metric());
+        assertEquals(10.0, breaches.get(0).observed(), 1e-9);
+    }
+
+    @Test
+    void shouldIgnoreScopesBelowMinimumEvents() {
+        record("tenant-a", 10, 0, 0L);
+
+        assertTrue(burnRateBreaches().isEmpty());
+    }
+
+    @Test
+    void shouldNotPageOnBriefSpikeAgainstHealthyHistory() {
+        record("tenant-a", 0, 2000, 100L);
+        clock.advance(Duration.ofMinutes(50));
+        record("tenant-a", 30, 0, 0L);
+
+        assertTrue(burnRateBreaches().isEmpty());
+    }
+
+    @Test
+    void shouldStopPagingOnceShortWindowRecovers() {
+        record("tenant-a", 30, 0, 0L);
+        clock.advance(Duration.ofMinutes(20));
+        record("tenant-a", 0, 30, 100L);
+
+        List<RagSloBreach> breaches = burnRateBreaches();
+
+        // The 5 minute window is clean, so no page; the 30 minute one still warns
+        assertEquals(1, breaches.size());
+        assertEquals("search_burn_rate_slow", breaches.get(0).metric());
+    }
+
+    private void record(String scope, int failures, int successes, long latencyMs) {
+        for (int i = 0; i < failures; i++) {
+            windows.recordFailure(RagObservabilityMetrics.STAGE_SEARCH, scope);
+        }
+        for (int i = 0; i < successes; i++) {
+            windows.recordSuccess(RagObservabilityMetrics.STAGE_SEARCH, scope, latencyMs);
+        }
+    }
+
+    private List<RagSloBreach> burnRateBreaches() {
+        return service.status().breaches().stream()
+                .filter(breach -> breach.metric().contains("_burn_rate_"))
+                .toList();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,12 +1,40 @@
 package tech.kayys.wayang.runtime.standalone.repository;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.arc.properties.IfBuildProperty;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 import tech.kayys.gamelan.engine.callback.CallbackRegistration;
 import tech.kayys.gamelan.engine.execution.ExecutionToken;
 import tech.kayys.gamelan.engine.repository.WorkflowRunRepository;
@@ -17,24 +45,105 @@ import tech.kayys.gamelan.engine.workflow.WorkflowRun;
 import tech.kayys.gamelan.engine.workflow.WorkflowRunId;
 import tech.kayys.gamelan.engine.workflow.WorkflowRunSnapshot;
 
+/**
+ * In-memory run store for standalone mode.
+ *
+ * <p>
+ * Runs are indexed by tenant, definition and status as they are persisted or
+ * updated, newest first, so {@link #query} reads one index and
+ * {@link #countActiveRuns} reads a per-tenant counter instead of scanning the
+ * whole history. Each store moves a run between indexes atomically, starting
+ * from what the run was last indexed under rather than from the run object,
+ * which callers mutate. {@link #withLock} serializes actions per run through
+ * an asynchronous lock per run id, created on demand and dropped once nobody
+ * holds or waits for it. The lock is taken on subscription and released when
+ * the action's {@link Uni} terminates. A nested {@code withLock} on the same
+ * run from within the action runs at once instead of queueing behind itself.
+ *
+ * <p>
+ * With {@code wayang.runtime.run-store.persistent}, runs, tokens and callbacks
+ * are also written to a {@link RunJournal} under
+ * {@code wayang.runtime.run-store.dir} and restored from it on startup.
+ * {@code persist}, {@code update} and the {@code store*} methods then complete
+ * once the change is on disk, back on the caller's Vert.x context or a worker
+ * thread rather than on the journal's writer. Run records carry the run's
+ * sequence number, so {@link #query} keeps its order across a restart.
+ * Records that no longer deserialize are quarantined by the journal rather
+ * than dropped.
+ */
 @ApplicationScoped
 @IfBuildProperty(name = "quarkus.datasource.db-kind", stringValue = "h2")
 public class InMemoryWorkflowRunRepository implements WorkflowRunRepository {
 
+    private static final Logger LOG = Logger.getLogger(InMemoryWorkflowRunRepository.class);
+
+    private static final String LOCK_CONTEXT_PREFIX = "run-lock:";
+    private static final Set<RunStatus> ACTIVE_STATUSES = Set.of(
+            RunStatus.RUNNING, RunStatus.PENDING, RunStatus.SUSPENDED);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "wayang.runtime.run-store.persistent", defaultValue = "false")
+    boolean persistent;
+
+    @ConfigProperty(name = "wayang.runtime.run-store.dir", defaultValue = "${wayang.home}/runs")
+    String storeDir;
+
+    @ConfigProperty(name = "wayang.runtime.run-store.snapshot-every", defaultValue = "10000")
+    int snapshotEvery;
+
     private final Map<String, WorkflowRun> runs = new ConcurrentHashMap<>();
     private final Map<String, ExecutionToken> tokens = new ConcurrentHashMap<>();
     private final Map<String, CallbackRegistration> callbacks = new ConcurrentHashMap<>();
 
+    private final Map<String, Indexed> indexed = new ConcurrentHashMap<>();
+    private final Map<IndexKey, NavigableSet<Ref>> indexes = new ConcurrentHashMap<>();
+    private final Map<TenantId, AtomicLong> activeCounts = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, RunLock> runLocks = new ConcurrentHashMap<>();
+    private ObjectMapper codec;
+    private RunJournal journal;
+
+    @PostConstruct
+    void open() {
+        if (!persistent) {
+            return;
+        }
+        // Engine types are not annotated for Jackson, so map their fields directly
+        codec = objectMapper.copy()
+                .setVisibility(PropertyAccessor.ALL, Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, Visibility.ANY)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        RunJournal opened = new RunJournal(Path.of(storeDir), snapshotEvery, this::journalState);
+        try {
+            long replayed = opened.recover(this::replay);
+            journal = opened;
+            LOG.infof("Restored %d workflow runs from %s (%d records)", runs.size(), storeDir, replayed);
+            if (opened.quarantined() > 0) {
+                LOG.errorf("%d unreadable run store records were moved to quarantine in %s",
+                        opened.quarantined(), storeDir);
+            }
+        } catch (IOException e) {
+            LOG.errorf(e, "Run store at %s is unavailable; keeping runs in memory only", storeDir);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
     @Override
     public Uni<WorkflowRun> persist(WorkflowRun run) {
-        runs.put(run.getId().value(), run);
-        return Uni.createFrom().item(run);
+        return durable(store(run)).replaceWith(run);
     }
 
     @Override
     public Uni<WorkflowRun> update(WorkflowRun run) {
-        runs.put(run.getId().value(), run);
-        return Uni.createFrom().item(run);
+        return durable(store(run)).replaceWith(run);
     }
 
     @Override
@@ -53,13 +162,61 @@ public class InMemoryWorkflowRunRepository implements WorkflowRunRepository {
 
     @Override
     public <T> Uni<T> withLock(WorkflowRunId runId, Function<WorkflowRun, Uni<T>> action) {
-        WorkflowRun run = runs.get(runId.value());
+        String id = runId.value();
+        String held = LOCK_CONTEXT_PREFIX + id;
+        return Uni.createFrom().context(context -> {
+            if (context.contains(held)) {
+                // Already inside this run's lock on this subscription
+                return locked(id, action);
+            }
+            CompletableFuture<Void> released = new CompletableFuture<>();
+            CompletableFuture<Void> previous = acquire(id, released);
+            return Uni.createFrom().completionStage(previous)
+                    .onItem().invoke(ignored -> context.put(held, Boolean.TRUE))
+                    .onItem().transformToUni(ignored -> locked(id, action))
+                    .onTermination().invoke(() -> {
+                        context.delete(held);
+                        release(id, released);
+                    });
+        });
+    }
+
+    private <T> Uni<T> locked(String runId, Function<WorkflowRun, Uni<T>> action) {
+        WorkflowRun run = runs.get(runId);
         if (run == null) {
-            return Uni.createFrom().failure(new IllegalStateException("Run not found: " + runId.value()));
+            return Uni.createFrom().failure(new IllegalStateException("Run not found: " + runId));
         }
         return action.apply(run);
     }
 
+    /**
+     * Queue behind the current holder of {@code runId}'s lock; the returned
+     * future completes when it is released.
+     */
+    private CompletableFuture<Void> acquire(String runId, CompletableFuture<Void> released) {
+        CompletableFuture<?>[] previous = new CompletableFuture<?>[1];
+        runLocks.compute(runId, (ignored, lock) -> {
+            RunLock current = lock != null ? lock : new RunLock();
+            previous[0] = current.tail;
+            current.tail = released;
+            current.users++;
+            return current;
+        });
+        return previous[0].thenApply(ignored -> null);
+    }
+
+    private void release(String runId, CompletableFuture<Void> released) {
+        released.complete(null);
+        runLocks.computeIfPresent(runId, (ignored, lock) -> --lock.users == 0 ? null : lock);
+    }
+
+    /**
+     * Number of runs with a lock currently held or awaited.
+     */
+    int lockedRuns() {
+        return runLocks.size();
+    }
+
     @Override
     public Uni<WorkflowRunSnapshot> snapshot(WorkflowRunId runId, TenantId tenantId) {
         return findById(runId, tenantId).map(run -> run != null ? run.createSnapshot() : null);
@@ -68,29 +225,37 @@ public class InMemoryWorkflowRunRepository implements WorkflowRunRepository {
     @Override
     public Uni<List<WorkflowRun>> query(TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status,
             int page, int size) {
-        return Uni.createFrom().item(runs.values().stream()
-                .filter(r -> r.getTenantId().equals(tenantId))
-                .filter(r -> definitionId == null || r.getDefinitionId().equals(definitionId))
-                .filter(r -> status == null || r.getStatus() == status)
-                .skip((long) page * size)
-                .limit(size)
-                .toList());
+        NavigableSet<Ref> refs = indexes.get(new IndexKey(tenantId, definitionId, status));
+        if (refs == null || size <= 0) {
+            return Uni.createFrom().item(List.of());
+        }
+        List<WorkflowRun> result = new ArrayList<>(size);
+        long skip = (long) Math.max(0, page) * size;
+        Iterator<Ref> iterator = refs.iterator();
+        while (iterator.hasNext() && result.size() < size) {
+            WorkflowRun run = runs.get(iterator.next().runId());
+            if (run == null) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(run);
+        }
+        return Uni.createFrom().item(result);
     }
 
     @Override
     public Uni<Long> countActiveRuns(TenantId tenantId) {
-        return Uni.createFrom().item(runs.values().stream()
-                .filter(r -> r.getTenantId().equals(tenantId))
-                .filter(r -> r.getStatus() == RunStatus.RUNNING
-                        || r.getStatus() == RunStatus.PENDING
-                        || r.getStatus() == RunStatus.SUSPENDED)
-                .count());
+        AtomicLong count = activeCounts.get(tenantId);
+        return Uni.createFrom().item(count == null ? 0L : count.get());
     }
 
     @Override
     public Uni<Void> storeToken(ExecutionToken token) {
         tokens.put(token.value(), token);
-        return Uni.createFrom().voidItem();
+        return durable(append(RunJournal.Kind.TOKEN, token.value(), token));
     }
 
     @Override
@@ -101,11 +266,200 @@ public class InMemoryWorkflowRunRepository implements WorkflowRunRepository {
     @Override
     public Uni<Void> storeCallback(CallbackRegistration callback) {
         callbacks.put(callback.callbackToken(), callback);
-        return Uni.createFrom().voidItem();
+        return durable(append(RunJournal.Kind.CALLBACK, callback.callbackToken(), callback));
     }
 
     @Override
     public Uni<Boolean> validateCallback(WorkflowRunId runId, String token) {
         return Uni.createFrom().item(callbacks.containsKey(token));
     }
+
+    private CompletableFuture<Void> store(WorkflowRun run) {
+        String runId = run.getId().value();
+        AtomicReference<CompletableFuture<Void>> written = new AtomicReference<>();
+        // Appending while the run's index entry is held keeps its records in order
+        index(runId, run, 0L, seq -> written.set(append(RunJournal.Kind.RUN, runId, new RunRecord(seq, run))));
+        return written.get();
+    }
+
+    /**
+     * Index a replayed run at the sequence number it was first persisted with.
+     */
+    private void restore(String runId, byte[] payload) throws IOException {
+        RunRecord record = codec.readValue(payload, RunRecord.class);
+        if (record.run == null) {
+            // Written before run records carried their sequence number
+            record = new RunRecord(0L, codec.readValue(payload, WorkflowRun.class));
+        }
+        sequence.accumulateAndGet(record.seq, Math::max);
+        index(runId, record.run, record.seq, seq -> {
+        });
+    }
+
+    /**
+     * Move {@code run} from the indexes it was last stored under to those of
+     * its current tenant, definition and status. The run's fields are read
+     * once; {@code indexed.compute} holds the run's entry for the whole move,
+     * so concurrent stores of one run apply one after the other. A run seen
+     * for the first time takes {@code firstSeq}, or the next sequence number
+     * when that is 0.
+     */
+    private void index(String runId, WorkflowRun run, long firstSeq, LongConsumer whileHeld) {
+        TenantId tenantId = run.getTenantId();
+        WorkflowDefinitionId definitionId = run.getDefinitionId();
+        RunStatus status = run.getStatus();
+        indexed.compute(runId, (ignored, previous) -> {
+            runs.put(runId, run);
+            long seq = previous != null ? previous.seq() : firstSeq > 0 ? firstSeq : sequence.incrementAndGet();
+            Indexed current = new Indexed(seq, tenantId, definitionId, status);
+            if (!current.equals(previous)) {
+                move(runId, previous, current);
+            }
+            whileHeld.accept(seq);
+            return current;
+        });
+    }
+
+    private void move(String runId, Indexed previous, Indexed current) {
+        Ref ref = new Ref(current.seq(), runId);
+        if (previous != null) {
+            for (IndexKey key : previous.keys()) {
+                NavigableSet<Ref> refs = indexes.get(key);
+                if (refs != null) {
+                    refs.remove(ref);
+                }
+            }
+            if (previous.active()) {
+                activeCounts.get(previous.tenantId()).decrementAndGet();
+            }
+        }
+        for (IndexKey key : current.keys()) {
+            indexes.computeIfAbsent(key, ignored -> new ConcurrentSkipListSet<>(Ref.NEWEST_FIRST)).add(ref);
+        }
+        if (current.active()) {
+            activeCounts.computeIfAbsent(current.tenantId(), ignored -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private CompletableFuture<Void> append(RunJournal.Kind kind, String key, Object value) {
+        if (journal == null) {
+            return null;
+        }
+        try {
+            return journal.append(new RunJournal.Entry(kind, key, codec.writeValueAsBytes(value)));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Wait for {@code written} without running the caller's continuation on
+     * the journal's writer thread, which would hold up every later batch.
+     */
+    private static Uni<Void> durable(CompletableFuture<Void> written) {
+        if (written == null) {
+            return Uni.createFrom().voidItem();
+        }
+        Context context = Vertx.currentContext();
+        Executor resume = context != null
+                ? task -> context.runOnContext(ignored -> task.run())
+                : Infrastructure.getDefaultWorkerPool();
+        return Uni.createFrom().completionStage(written).emitOn(resume);
+    }
+
+    private void replay(RunJournal.Entry entry) throws IOException {
+        // An unreadable record fails here and the journal quarantines it
+        switch (entry.kind()) {
+            case RUN -> restore(entry.key(), entry.payload());
+            case TOKEN -> tokens.put(entry.key(), codec.readValue(entry.payload(), ExecutionToken.class));
+            case CALLBACK -> callbacks.put(entry.key(), codec.readValue(entry.payload(), CallbackRegistration.class));
+        }
+    }
+
+    private List<RunJournal.Entry> journalState() {
+        List<RunJournal.Entry> entries = new ArrayList<>(runs.size() + tokens.size() + callbacks.size());
+        // A run not indexed yet is being stored; its record goes to the new log
+        Map<String, RunRecord> records = new HashMap<>();
+        indexed.forEach((runId, entry) -> {
+            WorkflowRun run = runs.get(runId);
+            if (run != null) {
+                records.put(runId, new RunRecord(entry.seq(), run));
+            }
+        });
+        snapshotInto(entries, RunJournal.Kind.RUN, records);
+        snapshotInto(entries, RunJournal.Kind.TOKEN, tokens);
+        snapshotInto(entries, RunJournal.Kind.CALLBACK, callbacks);
+        return entries;
+    }
+
+    /**
+     * Serialize every value; one that fails aborts the compaction, since a
+     * snapshot without it would outlive the log records that still hold it.
+     */
+    private void snapshotInto(List<RunJournal.Entry> entries, RunJournal.Kind kind, Map<String, ?> values) {
+        values.forEach((key, value) -> {
+            try {
+                entries.add(new RunJournal.Entry(kind, key, codec.writeValueAsBytes(value)));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException("Cannot snapshot " + kind + " " + key, e);
+            }
+        });
+    }
+
+    /**
+     * Journal form of a run: the run and the sequence number that orders it.
+     */
+    private static final class RunRecord {
+        private long seq;
+        private WorkflowRun run;
+
+        private RunRecord() {
+        }
+
+        RunRecord(long seq, WorkflowRun run) {
+            this.seq = seq;
+            this.run = run;
+        }
+    }
+
+    /**
+     * Tail of one run's lock queue and how many callers hold or await it.
+     * Only touched inside {@code runLocks.compute}.
+     */
+    private static final class RunLock {
+        private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+        private int users;
+    }
+
+    /**
+     * Index lookup key; a {@code null} definition or status matches any.
+     */
+    private record IndexKey(TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status) {
+    }
+
+    /**
+     * Index entry ordered by first-persist sequence, i.e. creation order.
+     */
+    private record Ref(long seq, String runId) {
+        static final Comparator<Ref> NEWEST_FIRST = Comparator.comparingLong(Ref::seq).reversed()
+                .thenComparing(Ref::runId);
+    }
+
+    /**
+     * What a run was last indexed under, so an update can move it.
+     */
+    private record Indexed(long seq, TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status) {
+
+        boolean active() {
+            return ACTIVE_STATUSES.contains(status);
+        }
+
+        List<IndexKey> keys() {
+            return List.of(
+                    new IndexKey(tenantId, null, null),
+                    new IndexKey(tenantId, definitionId, null),
+                    new IndexKey(tenantId, null, status),
+                    new IndexKey(tenantId, definitionId, status));
+        }
+    }
 }
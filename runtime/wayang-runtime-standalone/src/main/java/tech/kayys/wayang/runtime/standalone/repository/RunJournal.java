@@ -0,0 +1,399 @@
+package tech.kayys.wayang.runtime.standalone.repository;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.jboss.logging.Logger;
+
+/**
+ * Append-only write-ahead log with periodic compacted snapshots.
+ *
+ * <p>
+ * Every change is appended to {@code wal-<generation>.log} as a length and
+ * CRC32 framed record. A single writer thread drains whatever is queued,
+ * writes it in one go and fsyncs once per batch (group commit); a change's
+ * future completes only after that fsync. If a batch fails part way, the log
+ * is truncated back to where the batch started, or the writer moves on to a
+ * new generation when that fails too, so later records never land behind a
+ * torn one. Once {@code snapshotEvery} records have been written, the writer
+ * serializes the full state, rotates to a new generation, writes the state to
+ * {@code snapshot-<generation>.bin} through a temp file and an atomic rename,
+ * and drops older files; if any of that fails the older files stay. Recovery
+ * loads the newest snapshot, replays the logs of that generation onwards and
+ * stops at the first torn or corrupt record. A record the caller cannot apply
+ * is copied to {@code quarantine.log}, which is never replayed or compacted,
+ * and logged as an error. Records are idempotent puts, so replaying a record
+ * the snapshot already holds is harmless.
+ */
+class RunJournal implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(RunJournal.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("(wal|snapshot)-(\\d+)\\.(log|bin)");
+    private static final String QUARANTINE = "quarantine.log";
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    enum Kind {
+        RUN,
+        TOKEN,
+        CALLBACK
+    }
+
+    record Entry(Kind kind, String key, byte[] payload) {
+    }
+
+    interface Replay {
+        void apply(Entry entry) throws IOException;
+    }
+
+    private record Pending(Entry entry, CompletableFuture<Void> done) {
+    }
+
+    private final Path dir;
+    private final int snapshotEvery;
+    private final Supplier<List<Entry>> state;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private FileChannel wal;
+    private long generation;
+    private long walRecords;
+    private long quarantined;
+    private Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * @param state full current state, written out on compaction
+     */
+    RunJournal(Path dir, int snapshotEvery, Supplier<List<Entry>> state) {
+        this.dir = dir;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        this.state = state;
+    }
+
+    /**
+     * Replay the stored state and start accepting appends.
+     *
+     * @return number of records replayed
+     */
+    long recover(Replay replay) throws IOException {
+        Files.createDirectories(dir);
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    // Left over from a compaction that did not finish
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                Matcher matcher = FILE_NAME.matcher(name);
+                if (matcher.matches()) {
+                    (matcher.group(1).equals("wal") ? logs : snapshots).put(Long.parseLong(matcher.group(2)), file);
+                }
+            }
+        }
+        long base = snapshots.isEmpty() ? 0L : snapshots.lastKey();
+        long replayed = 0L;
+        if (!snapshots.isEmpty()) {
+            replayed += read(snapshots.lastEntry().getValue(), replay);
+        }
+        for (Path log : logs.tailMap(base, true).values()) {
+            replayed += read(log, replay);
+        }
+        generation = Math.max(base, logs.isEmpty() ? 0L : logs.lastKey()) + 1;
+        wal = openWal(generation);
+        writer = new Thread(this::drain, "standalone-run-journal");
+        writer.setDaemon(true);
+        writer.start();
+        return replayed;
+    }
+
+    /**
+     * Records set aside during {@link #recover} because they could not be applied.
+     */
+    long quarantined() {
+        return quarantined;
+    }
+
+    /**
+     * Queue a change; the future completes once it is durable.
+     */
+    CompletableFuture<Void> append(Entry entry) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (closed) {
+            done.completeExceptionally(new IllegalStateException("Run journal is closed"));
+            return done;
+        }
+        queue.add(new Pending(entry, done));
+        return done;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (wal != null) {
+                wal.close();
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to close run journal", e);
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100L, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+                batch.forEach(pending -> pending.done().complete(null));
+                walRecords += batch.size();
+                if (walRecords >= snapshotEvery) {
+                    compactQuietly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                LOG.error("Run journal write failed", e);
+                batch.forEach(pending -> pending.done().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Pending pending : batch) {
+            frame(pending.entry(), bytes);
+        }
+        if (wal == null) {
+            // A failed write could not be undone and no new generation could be opened
+            wal = openWal(++generation);
+            walRecords = 0L;
+        }
+        long start = wal.size();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                wal.write(buffer);
+            }
+            wal.force(false);
+        } catch (IOException | RuntimeException e) {
+            discardFrom(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop what a failed batch left past {@code start}, so the torn record does
+     * not hide the ones written after it from recovery.
+     */
+    private void discardFrom(long start) {
+        try {
+            wal.truncate(start);
+            wal.force(false);
+            return;
+        } catch (IOException | RuntimeException e) {
+            LOG.warnf(e, "Could not truncate run journal generation %d; moving to the next one", generation);
+        }
+        try {
+            wal.close();
+        } catch (IOException e) {
+            // The file is abandoned either way
+        }
+        wal = null;
+        try {
+            wal = openWal(++generation);
+            walRecords = 0L;
+        } catch (IOException e) {
+            LOG.error("Could not open a new run journal generation", e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            // The log stays authoritative; compaction is retried after the next batch
+            LOG.error("Run journal compaction failed", e);
+        }
+    }
+
+    private void compact() throws IOException {
+        // Serialize first: every record already in the log is in the state, and
+        // if the state cannot be written nothing has been rotated yet
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Entry entry : state.get()) {
+            frame(entry, bytes);
+        }
+        if (wal != null) {
+            wal.close();
+            wal = null;
+        }
+        wal = openWal(++generation);
+        walRecords = 0L;
+
+        Path target = dir.resolve("snapshot-" + generation + ".bin");
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        syncDir();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && Long.parseLong(matcher.group(2)) < generation) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        LOG.debugf("Compacted run journal into generation %d", generation);
+    }
+
+    private FileChannel openWal(long gen) throws IOException {
+        FileChannel channel = openLog(dir.resolve("wal-" + gen + ".log"));
+        syncDir();
+        return channel;
+    }
+
+    /**
+     * Open a log for appending; overridden in tests to inject I/O failures.
+     */
+    FileChannel openLog(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void syncDir() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can sync a directory; the rename is still atomic
+        }
+    }
+
+    private void quarantine(Path file, Entry entry, Exception cause) throws IOException {
+        LOG.errorf(cause, "Unreadable %s record %s in %s; moved to %s", entry.kind(), entry.key(), file, QUARANTINE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frame(entry, bytes);
+        try (FileChannel channel = FileChannel.open(dir.resolve(QUARANTINE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        quarantined++;
+    }
+
+    private static void frame(Entry entry, ByteArrayOutputStream out) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(entry.payload().length + 32);
+        try (DataOutputStream data = new DataOutputStream(body)) {
+            data.writeByte(entry.kind().ordinal());
+            data.writeUTF(entry.key());
+            data.write(entry.payload());
+        }
+        byte[] record = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(record.length);
+        header.writeInt((int) crc.getValue());
+        out.write(record);
+    }
+
+    private long read(Path file, Replay replay) throws IOException {
+        long records = 0L;
+        try (InputStream stream = Files.newInputStream(file);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (true) {
+                byte[] record;
+                int expectedCrc;
+                try {
+                    int length = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        LOG.warnf("Corrupt record length in %s after %d records; ignoring the rest", file, records);
+                        return records;
+                    }
+                    record = in.readNBytes(length);
+                    if (record.length < length) {
+                        throw new EOFException();
+                    }
+                } catch (EOFException e) {
+                    // Clean end of file, or a record cut short by a crash
+                    return records;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(record);
+                if ((int) crc.getValue() != expectedCrc) {
+                    // A torn write from a crash; nothing after it was acknowledged
+                    LOG.warnf("Checksum mismatch in %s after %d records; ignoring the rest", file, records);
+                    return records;
+                }
+                Entry entry;
+                try (DataInputStream body = new DataInputStream(new ByteArrayInputStream(record))) {
+                    Kind kind = Kind.values()[body.readUnsignedByte()];
+                    String key = body.readUTF();
+                    entry = new Entry(kind, key, body.readAllBytes());
+                }
+                try {
+                    replay.apply(entry);
+                    records++;
+                } catch (IOException | RuntimeException e) {
+                    quarantine(file, entry, e);
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,10 @@
 package tech.kayys.wayang.runtime.standalone.scheduler;
 
-import io.quarkus.scheduler.Scheduled;
 import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,9 +22,20 @@ import tech.kayys.gamelan.registry.ExecutorRegistry;
 import tech.kayys.gamelan.scheduler.WorkflowScheduler;
 import tech.kayys.wayang.runtime.standalone.service.StandaloneExecutionTimelineService;
 
+/**
+ * In-process scheduler for standalone mode.
+ *
+ * <p>
+ * Tasks and pending retries are indexed per run, so cancelling a run only
+ * touches that run's entries. Retries wait in a hashed timing wheel with a
+ * {@value #RETRY_TICK_MS} ms tick and fire within one tick of their delay.
+ */
 @ApplicationScoped
 public class InMemoryWorkflowScheduler implements WorkflowScheduler {
 
+    static final long RETRY_TICK_MS = 50L;
+    private static final int RETRY_WHEEL_SLOTS = 512;
+
     @Inject
     TaskDispatcherAggregator taskDispatcher;
 
@@ -38,13 +48,14 @@ public class InMemoryWorkflowScheduler implements WorkflowScheduler {
     @Inject
     StandaloneExecutionTimelineService executionTimelineService;
 
-    private final Map<String, RetryEntry> retryQueue = new ConcurrentHashMap<>();
-    private final Map<String, NodeExecutionTask> activeTasks = new ConcurrentHashMap<>();
+    private final RetryTimingWheel retryWheel = new RetryTimingWheel(
+            RETRY_TICK_MS, RETRY_WHEEL_SLOTS, System.currentTimeMillis());
+    private final Map<String, RunTasks> runs = new ConcurrentHashMap<>();
 
     @Override
     public Uni<Void> scheduleTask(NodeExecutionTask task) {
-        String taskKey = task.runId().value() + ":" + task.nodeId().value() + ":" + task.attempt();
-        activeTasks.put(taskKey, task);
+        String taskKey = task.nodeId().value() + ":" + task.attempt();
+        runTasks(task.runId()).active().put(taskKey, task);
 
         return resolveExecutor(task)
                 .flatMap((Optional<ExecutorInfo> executorOpt) -> {
@@ -79,16 +90,29 @@ public class InMemoryWorkflowScheduler implements WorkflowScheduler {
 
     @Override
     public Uni<Void> scheduleRetry(WorkflowRunId runId, NodeId nodeId, Duration delay) {
-        String key = runId.value() + ":" + nodeId.value();
-        retryQueue.put(key, new RetryEntry(runId, nodeId, Instant.now().plus(delay)));
+        Map<String, RetryTimingWheel.Handle> retries = runTasks(runId).retries();
+        String key = nodeId.value();
+        RetryTimingWheel.Handle handle = retryWheel.schedule(delay, fired -> {
+            retries.remove(key, fired);
+            eventPublisher.publishRetry(runId, nodeId)
+                    .subscribe().with(v -> {
+                    }, err -> {
+                    });
+        });
+        // A newer retry for the same node replaces the pending one
+        RetryTimingWheel.Handle previous = retries.put(key, handle);
+        if (previous != null) {
+            previous.cancel();
+        }
         return Uni.createFrom().voidItem();
     }
 
     @Override
     public Uni<Void> cancelTasksForRun(WorkflowRunId runId) {
-        String runPrefix = runId.value() + ":";
-        activeTasks.keySet().removeIf(k -> k.startsWith(runPrefix));
-        retryQueue.keySet().removeIf(k -> k.startsWith(runPrefix));
+        RunTasks removed = runs.remove(runId.value());
+        if (removed != null) {
+            removed.retries().values().forEach(RetryTimingWheel.Handle::cancel);
+        }
         return Uni.createFrom().voidItem();
     }
 
@@ -104,23 +128,21 @@ public class InMemoryWorkflowScheduler implements WorkflowScheduler {
 
     @Override
     public Uni<Long> getScheduledTasksCount() {
-        return Uni.createFrom().item((long) activeTasks.size() + retryQueue.size());
+        long active = 0L;
+        for (RunTasks run : runs.values()) {
+            active += run.active().size();
+        }
+        return Uni.createFrom().item(active + retryWheel.pending());
     }
 
-    @Scheduled(every = "1s")
-    void processRetries() {
-        Instant now = Instant.now();
-        retryQueue.entrySet().removeIf(entry -> {
-            RetryEntry retry = entry.getValue();
-            if (retry.executeAt().isAfter(now)) {
-                return false;
-            }
-            eventPublisher.publishRetry(retry.runId(), retry.nodeId())
-                    .subscribe().with(v -> {
-                    }, err -> {
-                    });
-            return true;
-        });
+    @PreDestroy
+    void shutdown() {
+        retryWheel.stop();
+    }
+
+    private RunTasks runTasks(WorkflowRunId runId) {
+        return runs.computeIfAbsent(runId.value(),
+                ignored -> new RunTasks(new ConcurrentHashMap<>(), new ConcurrentHashMap<>()));
     }
 
     private Uni<Void> handleDispatchFailure(NodeExecutionTask task, Throwable failure) {
@@ -135,6 +157,8 @@ public class InMemoryWorkflowScheduler implements WorkflowScheduler {
         return scheduleRetry(task.runId(), task.nodeId(), delay);
     }
 
-    private record RetryEntry(WorkflowRunId runId, NodeId nodeId, Instant executeAt) {
+    private record RunTasks(
+            Map<String, NodeExecutionTask> active,
+            Map<String, RetryTimingWheel.Handle> retries) {
     }
 }
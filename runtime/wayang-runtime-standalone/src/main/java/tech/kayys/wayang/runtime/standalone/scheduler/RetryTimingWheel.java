@@ -0,0 +1,187 @@
+package tech.kayys.wayang.runtime.standalone.scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.jboss.logging.Logger;
+
+/**
+ * Hashed timing wheel for delayed actions such as node retries.
+ *
+ * <p>
+ * Each slot holds a doubly linked list of timeouts together with the number
+ * of whole revolutions left before they fire, so scheduling, cancelling and
+ * firing are O(1) per timeout and a tick only touches its own slot. A daemon
+ * worker advances the wheel once per tick; actions run on that thread, receive
+ * their own handle, and must not block.
+ */
+final class RetryTimingWheel {
+
+    private static final Logger LOG = Logger.getLogger(RetryTimingWheel.class);
+
+    /**
+     * Cancellation handle for a scheduled action.
+     */
+    interface Handle {
+        /**
+         * @return {@code false} when the action already fired or was cancelled
+         */
+        boolean cancel();
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final Timeout[] slots;
+    private final Object lock = new Object();
+    private long currentTick;
+    private int pending;
+    private Thread worker;
+    private volatile boolean stopped;
+
+    RetryTimingWheel(long tickMs, int slotCount, long startMs) {
+        if (tickMs <= 0 || slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("tickMs must be positive and slotCount a power of two");
+        }
+        this.tickMs = tickMs;
+        this.mask = slotCount - 1;
+        this.slots = new Timeout[slotCount];
+        this.currentTick = startMs / tickMs;
+    }
+
+    Handle schedule(Duration delay, Consumer<Handle> action) {
+        return scheduleAt(System.currentTimeMillis() + Math.max(0L, delay.toMillis()), action);
+    }
+
+    Handle scheduleAt(long dueMs, Consumer<Handle> action) {
+        synchronized (lock) {
+            long dueTick = Math.max(currentTick + 1, Math.floorDiv(dueMs + tickMs - 1, tickMs));
+            Timeout timeout = new Timeout(action, (dueTick - currentTick - 1) / slots.length);
+            timeout.slot = (int) (dueTick & mask);
+            timeout.next = slots[timeout.slot];
+            if (timeout.next != null) {
+                timeout.next.prev = timeout;
+            }
+            slots[timeout.slot] = timeout;
+            pending++;
+            startWorkerIfNeeded();
+            return timeout;
+        }
+    }
+
+    int pending() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
+
+    /**
+     * Advance to {@code nowMs} and run every action that came due.
+     *
+     * @return number of actions fired
+     */
+    int expire(long nowMs) {
+        List<Timeout> due = new ArrayList<>();
+        synchronized (lock) {
+            long targetTick = nowMs / tickMs;
+            while (currentTick < targetTick) {
+                currentTick++;
+                int slot = (int) (currentTick & mask);
+                Timeout timeout = slots[slot];
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    if (timeout.rounds == 0) {
+                        unlink(timeout);
+                        due.add(timeout);
+                    } else {
+                        timeout.rounds--;
+                    }
+                    timeout = next;
+                }
+                if (pending == 0) {
+                    // Nothing left anywhere: skip the idle ticks
+                    currentTick = targetTick;
+                }
+            }
+        }
+        for (Timeout timeout : due) {
+            try {
+                timeout.action.accept(timeout);
+            } catch (RuntimeException e) {
+                // One failing action must not stop the others
+                LOG.warn("Timing wheel action failed", e);
+            }
+        }
+        return due.size();
+    }
+
+    void stop() {
+        stopped = true;
+        synchronized (lock) {
+            if (worker != null) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private void startWorkerIfNeeded() {
+        if (worker != null || stopped) {
+            return;
+        }
+        worker = new Thread(this::run, "standalone-retry-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void run() {
+        while (!stopped) {
+            long now = System.currentTimeMillis();
+            long nextTickMs = (now / tickMs + 1) * tickMs;
+            LockSupport.parkNanos(Math.max(1L, nextTickMs - now) * 1_000_000L);
+            if (Thread.interrupted() && stopped) {
+                return;
+            }
+            expire(System.currentTimeMillis());
+        }
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        pending--;
+    }
+
+    private final class Timeout implements Handle {
+        private final Consumer<Handle> action;
+        private long rounds;
+        private int slot;
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(Consumer<Handle> action, long rounds) {
+            this.action = action;
+            this.rounds = rounds;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (lock) {
+                if (slot < 0) {
+                    return false;
+                }
+                unlink(this);
+                return true;
+            }
+        }
+    }
+}
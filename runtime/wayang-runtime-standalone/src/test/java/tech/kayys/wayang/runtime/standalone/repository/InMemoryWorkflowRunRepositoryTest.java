@@ -0,0 +1,397 @@
+package tech.kayys.wayang.runtime.standalone.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objenesis.ObjenesisStd;
+import tech.kayys.gamelan.engine.callback.CallbackRegistration;
+import tech.kayys.gamelan.engine.execution.ExecutionToken;
+import tech.kayys.gamelan.engine.node.NodeId;
+import tech.kayys.gamelan.engine.run.RunStatus;
+import tech.kayys.gamelan.engine.tenant.TenantId;
+import tech.kayys.gamelan.engine.workflow.WorkflowDefinitionId;
+import tech.kayys.gamelan.engine.workflow.WorkflowRun;
+import tech.kayys.gamelan.engine.workflow.WorkflowRunId;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryWorkflowRunRepositoryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Set<RunStatus> ACTIVE = Set.of(RunStatus.RUNNING, RunStatus.PENDING, RunStatus.SUSPENDED);
+    private static final RunStatus FINISHED = Stream.of(RunStatus.values())
+            .filter(status -> !ACTIVE.contains(status))
+            .findFirst()
+            .orElseThrow();
+    private static final List<RunStatus> STATUSES = List.of(
+            RunStatus.RUNNING, RunStatus.PENDING, RunStatus.SUSPENDED, FINISHED);
+    private static final TenantId TENANT_A = TenantId.of("tenant-a");
+    private static final TenantId TENANT_B = TenantId.of("tenant-b");
+    private static final WorkflowDefinitionId ORDERS = WorkflowDefinitionId.of("orders");
+    private static final WorkflowDefinitionId REFUNDS = WorkflowDefinitionId.of("refunds");
+
+    @TempDir
+    Path dir;
+
+    private final InMemoryWorkflowRunRepository repository = new InMemoryWorkflowRunRepository();
+    private final Map<String, MutableRun> states = new ConcurrentHashMap<>();
+
+    @Test
+    void nestedLocksOnDifferentRunsDoNotDeadlock() {
+        MutableRun outer = persist("outer", TENANT_A, ORDERS, RunStatus.RUNNING);
+        for (int i = 0; i < 200; i++) {
+            MutableRun inner = persist("inner-" + i, TENANT_A, ORDERS, RunStatus.RUNNING);
+            String result = repository.withLock(outer.id, ignored -> repository.withLock(inner.id,
+                    run -> Uni.createFrom().item(run.getId().value())))
+                    .await().atMost(TIMEOUT);
+            assertEquals("inner-" + i, result);
+        }
+        assertEquals(0, repository.lockedRuns());
+    }
+
+    @Test
+    void nestedLockOnSameRunRunsInline() {
+        MutableRun run = persist("run-1", TENANT_A, ORDERS, RunStatus.RUNNING);
+
+        String result = repository.withLock(run.id, outer -> repository.withLock(run.id,
+                inner -> Uni.createFrom().item("nested")))
+                .await().atMost(TIMEOUT);
+
+        assertEquals("nested", result);
+        assertEquals(0, repository.lockedRuns());
+    }
+
+    @Test
+    void lockSerializesActionsOnOneRun() throws Exception {
+        MutableRun run = persist("run-1", TENANT_A, ORDERS, RunStatus.RUNNING);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        runConcurrently(8, 50, (thread, i) -> repository.withLock(run.id, locked -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            // Hop threads inside the critical section so holders overlap if the lock leaks
+            return Uni.createFrom().item(locked)
+                    .emitOn(Infrastructure.getDefaultWorkerPool())
+                    .invoke(ignored -> {
+                        completed.incrementAndGet();
+                        inside.decrementAndGet();
+                    });
+        }).await().atMost(TIMEOUT));
+
+        assertEquals(1, maxInside.get());
+        assertEquals(400, completed.get());
+        assertEquals(0, repository.lockedRuns());
+    }
+
+    @Test
+    void updateMovesRunBetweenIndexes() {
+        MutableRun run = persist("run-1", TENANT_A, ORDERS, RunStatus.RUNNING);
+        assertEquals(1L, repository.countActiveRuns(TENANT_A).await().indefinitely());
+
+        run.definitionId = REFUNDS;
+        run.status = FINISHED;
+        repository.update(run.mock).await().indefinitely();
+
+        assertEquals(List.of(), ids(TENANT_A, ORDERS, null));
+        assertEquals(List.of(), ids(TENANT_A, null, RunStatus.RUNNING));
+        assertEquals(List.of("run-1"), ids(TENANT_A, REFUNDS, FINISHED));
+        assertEquals(List.of("run-1"), ids(TENANT_A, null, null));
+        assertEquals(0L, repository.countActiveRuns(TENANT_A).await().indefinitely());
+    }
+
+    @Test
+    void queryReturnsNewestFirstAndPages() {
+        for (int i = 0; i < 5; i++) {
+            persist("run-" + i, TENANT_A, ORDERS, RunStatus.RUNNING);
+        }
+        // Updates keep a run's place, which is set when it is first persisted
+        repository.update(states.get("run-1").mock).await().indefinitely();
+
+        assertEquals(List.of("run-4", "run-3"), ids(TENANT_A, ORDERS, RunStatus.RUNNING, 0, 2));
+        assertEquals(List.of("run-2", "run-1"), ids(TENANT_A, ORDERS, RunStatus.RUNNING, 1, 2));
+        assertEquals(List.of("run-0"), ids(TENANT_A, ORDERS, RunStatus.RUNNING, 2, 2));
+    }
+
+    @Test
+    void concurrentLockedUpdatesKeepIndexesAndCountsConsistent() throws Exception {
+        List<MutableRun> all = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            all.add(persist("run-" + i, i % 2 == 0 ? TENANT_A : TENANT_B, ORDERS, RunStatus.PENDING));
+        }
+
+        runConcurrently(8, 500, (thread, i) -> {
+            Random random = new Random(thread * 10_007L + i);
+            MutableRun target = all.get(random.nextInt(all.size()));
+            RunStatus status = STATUSES.get(random.nextInt(STATUSES.size()));
+            WorkflowDefinitionId definitionId = random.nextBoolean() ? ORDERS : REFUNDS;
+            repository.withLock(target.id, run -> {
+                target.status = status;
+                target.definitionId = definitionId;
+                return repository.update(run);
+            }).await().atMost(TIMEOUT);
+        });
+
+        for (TenantId tenantId : List.of(TENANT_A, TENANT_B)) {
+            long active = all.stream()
+                    .filter(run -> run.tenantId.equals(tenantId) && ACTIVE.contains(run.status))
+                    .count();
+            assertEquals(active, repository.countActiveRuns(tenantId).await().indefinitely());
+            for (WorkflowDefinitionId definitionId : new WorkflowDefinitionId[] { null, ORDERS, REFUNDS }) {
+                for (RunStatus status : new RunStatus[] { null, RunStatus.RUNNING, RunStatus.PENDING,
+                        RunStatus.SUSPENDED, FINISHED }) {
+                    assertEquals(expected(all, tenantId, definitionId, status),
+                            ids(tenantId, definitionId, status, 0, 100),
+                            tenantId + "/" + definitionId + "/" + status);
+                }
+            }
+        }
+    }
+
+    @Test
+    void restoresRunsTokensAndCallbacksAfterRestart() throws Exception {
+        WorkflowRunId runId = WorkflowRunId.of("run-1");
+        NodeId nodeId = NodeId.of("node-1");
+        WorkflowRun run = engineObject(WorkflowRun.class, Map.of(
+                WorkflowRunId.class, runId,
+                TenantId.class, TENANT_A,
+                WorkflowDefinitionId.class, ORDERS,
+                RunStatus.class, RunStatus.RUNNING));
+        ExecutionToken token = ExecutionToken.create(runId, nodeId, 1, Duration.ofMinutes(5));
+        CallbackRegistration callback = engineObject(CallbackRegistration.class, Map.of(
+                WorkflowRunId.class, runId,
+                NodeId.class, nodeId,
+                String.class, "callback-1"));
+
+        InMemoryWorkflowRunRepository store = persistent();
+        store.persist(run).await().indefinitely();
+        store.storeToken(token).await().indefinitely();
+        store.storeCallback(callback).await().indefinitely();
+        store.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            // Three records with snapshot-every=2 compacts through the real serialization
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("snapshot-")));
+        }
+        InMemoryWorkflowRunRepository restarted = persistent();
+        try {
+            WorkflowRun restored = restarted.findById(runId, TENANT_A).await().indefinitely();
+            assertEquals(runId, restored.getId());
+            assertEquals(ORDERS, restored.getDefinitionId());
+            assertEquals(RunStatus.RUNNING, restored.getStatus());
+            assertEquals(List.of("run-1"), restarted.query(TENANT_A, ORDERS, RunStatus.RUNNING, 0, 10)
+                    .await().indefinitely().stream().map(found -> found.getId().value()).toList());
+            assertEquals(1L, restarted.countActiveRuns(TENANT_A).await().indefinitely());
+            assertTrue(restarted.validateToken(token).await().indefinitely());
+            assertTrue(restarted.validateCallback(runId, callback.callbackToken()).await().indefinitely());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void restartKeepsQueryOrderAcrossCompactions() throws Exception {
+        InMemoryWorkflowRunRepository store = persistent();
+        List<String> newestFirst = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            String runId = "run-" + i;
+            store.persist(engineRun(runId)).await().indefinitely();
+            newestFirst.add(0, runId);
+        }
+        // Stored again after newer runs: keeps its place, and lands in the latest log
+        store.update(engineRun("run-3")).await().indefinitely();
+        store.close();
+
+        InMemoryWorkflowRunRepository restarted = persistent();
+        try {
+            assertEquals(newestFirst, runIds(restarted));
+
+            restarted.persist(engineRun("run-new")).await().indefinitely();
+            newestFirst.add(0, "run-new");
+            assertEquals(newestFirst, runIds(restarted));
+        } finally {
+            restarted.close();
+        }
+    }
+
+    private static WorkflowRun engineRun(String runId) throws Exception {
+        return engineObject(WorkflowRun.class, Map.of(
+                WorkflowRunId.class, WorkflowRunId.of(runId),
+                TenantId.class, TENANT_A,
+                WorkflowDefinitionId.class, ORDERS,
+                RunStatus.class, RunStatus.RUNNING));
+    }
+
+    private static List<String> runIds(InMemoryWorkflowRunRepository store) {
+        return store.query(TENANT_A, ORDERS, RunStatus.RUNNING, 0, 100).await().indefinitely().stream()
+                .map(run -> run.getId().value())
+                .toList();
+    }
+
+    private InMemoryWorkflowRunRepository persistent() {
+        InMemoryWorkflowRunRepository store = new InMemoryWorkflowRunRepository();
+        store.objectMapper = new ObjectMapper().findAndRegisterModules();
+        store.persistent = true;
+        store.storeDir = dir.toString();
+        store.snapshotEvery = 2;
+        store.open();
+        return store;
+    }
+
+    /**
+     * Build a real engine object without depending on its constructors, which
+     * the repository never calls: a record through its canonical constructor,
+     * a class field by field, each value picked by its declared type.
+     */
+    private static <T> T engineObject(Class<T> type, Map<Class<?>, Object> values) throws Exception {
+        Map<Class<?>, Object> byType = new HashMap<>(Map.of(
+                Instant.class, Instant.parse("2026-03-02T09:00:00Z"),
+                Duration.class, Duration.ofMinutes(5),
+                Map.class, new HashMap<>(),
+                List.class, new ArrayList<>(),
+                Set.class, new HashSet<>()));
+        byType.putAll(values);
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] types = new Class<?>[components.length];
+            Object[] args = new Object[components.length];
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                args[i] = valueOf(types[i], byType);
+            }
+            Constructor<T> constructor = type.getDeclaredConstructor(types);
+            constructor.setAccessible(true);
+            return constructor.newInstance(args);
+        }
+        T instance = new ObjenesisStd().newInstance(type);
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                Object value = valueOf(field.getType(), byType);
+                if (!Modifier.isStatic(field.getModifiers()) && value != null) {
+                    field.setAccessible(true);
+                    field.set(instance, value);
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static Object valueOf(Class<?> type, Map<Class<?>, Object> byType) {
+        if (byType.containsKey(type)) {
+            return byType.get(type);
+        }
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    private MutableRun persist(String runId, TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status) {
+        MutableRun run = new MutableRun(runId, tenantId, definitionId, status);
+        states.put(runId, run);
+        repository.persist(run.mock).await().indefinitely();
+        return run;
+    }
+
+    private List<String> ids(TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status) {
+        return ids(tenantId, definitionId, status, 0, 100);
+    }
+
+    private List<String> ids(TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status,
+            int page, int size) {
+        return repository.query(tenantId, definitionId, status, page, size).await().indefinitely().stream()
+                .map(run -> run.getId().value())
+                .toList();
+    }
+
+    /**
+     * Full scan of the runs' current state, newest first, as the indexes should answer.
+     */
+    private static List<String> expected(List<MutableRun> all, TenantId tenantId,
+            WorkflowDefinitionId definitionId, RunStatus status) {
+        List<String> result = new ArrayList<>();
+        for (int i = all.size() - 1; i >= 0; i--) {
+            MutableRun run = all.get(i);
+            if (run.tenantId.equals(tenantId)
+                    && (definitionId == null || run.definitionId.equals(definitionId))
+                    && (status == null || run.status == status)) {
+                result.add(run.id.value());
+            }
+        }
+        return result;
+    }
+
+    private static void runConcurrently(int threads, int perThread, Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        task.run(thread, i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(TIMEOUT.toSeconds() * 3, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(int thread, int iteration);
+    }
+
+    /**
+     * Run whose tenant, definition and status change in place, as engine runs do.
+     */
+    private static final class MutableRun {
+        final WorkflowRunId id;
+        final TenantId tenantId;
+        volatile WorkflowDefinitionId definitionId;
+        volatile RunStatus status;
+        final WorkflowRun mock = mock(WorkflowRun.class);
+
+        MutableRun(String runId, TenantId tenantId, WorkflowDefinitionId definitionId, RunStatus status) {
+            this.id = WorkflowRunId.of(runId);
+            this.tenantId = tenantId;
+            this.definitionId = definitionId;
+            this.status = status;
+            when(mock.getId()).thenReturn(id);
+            when(mock.getTenantId()).thenReturn(tenantId);
+            when(mock.getDefinitionId()).thenAnswer(invocation -> this.definitionId);
+            when(mock.getStatus()).thenAnswer(invocation -> this.status);
+        }
+    }
+}
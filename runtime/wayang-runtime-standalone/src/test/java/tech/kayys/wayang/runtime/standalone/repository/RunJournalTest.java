@@ -0,0 +1,331 @@
+package tech.kayys.wayang.runtime.standalone.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAcknowledgedRecordsAfterRestart() throws Exception {
+        Map<String, String> state = new LinkedHashMap<>();
+        RunJournal journal = open(state, 1_000);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            state.put("run-" + (i % 10), "v" + i);
+            writes.add(journal.append(entry("run-" + (i % 10), "v" + i)));
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+        journal.close();
+
+        Map<String, String> restored = new LinkedHashMap<>();
+        open(restored, 1_000).close();
+
+        assertEquals(state, restored);
+    }
+
+    @Test
+    void ignoresTornTailFromCrash() throws Exception {
+        Map<String, String> state = new LinkedHashMap<>();
+        RunJournal journal = open(state, 1_000);
+        journal.append(entry("run-1", "done")).join();
+        journal.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            Path wal = files.filter(file -> file.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+            // Half a record header, as a crash mid-write would leave
+            Files.write(wal, new byte[] { 0, 0, 0 }, StandardOpenOption.APPEND);
+        }
+
+        Map<String, String> restored = new LinkedHashMap<>();
+        open(restored, 1_000).close();
+
+        assertEquals(Map.of("run-1", "done"), restored);
+    }
+
+    @Test
+    void compactsIntoSnapshotAndDropsOldLogs() throws Exception {
+        Map<String, String> state = new LinkedHashMap<>();
+        RunJournal journal = open(state, 5);
+        for (int i = 0; i < 12; i++) {
+            state.put("run-" + (i % 3), "v" + i);
+            journal.append(entry("run-" + (i % 3), "v" + i)).join();
+        }
+        journal.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).sorted().toList();
+            assertTrue(names.stream().anyMatch(name -> name.startsWith("snapshot-")), names.toString());
+            assertEquals(1L, names.stream().filter(name -> name.startsWith("snapshot-")).count(), names.toString());
+        }
+        Map<String, String> restored = new LinkedHashMap<>();
+        open(restored, 5).close();
+
+        assertEquals(state, restored);
+    }
+
+    @Test
+    void failedWriteMidBatchDoesNotHideLaterRecords() throws Exception {
+        Faults faults = new Faults();
+        Map<String, String> state = new LinkedHashMap<>();
+        RunJournal journal = open(state, 1_000, faults);
+        journal.append(entry("run-1", "kept")).join();
+
+        faults.tearNextWrite = true;
+        CompletableFuture<Void> failed = journal.append(entry("run-2", "lost"));
+        assertThrows(CompletionException.class, failed::join);
+        journal.append(entry("run-3", "written after the failure")).join();
+        journal.close();
+
+        Map<String, String> restored = new LinkedHashMap<>();
+        open(restored, 1_000).close();
+
+        assertEquals(Map.of("run-1", "kept", "run-3", "written after the failure"), restored);
+        assertEquals(List.of("wal-1.log", "wal-2.log"), files());
+    }
+
+    @Test
+    void failedWriteThatCannotBeTruncatedMovesToNextGeneration() throws Exception {
+        Faults faults = new Faults();
+        Map<String, String> state = new LinkedHashMap<>();
+        RunJournal journal = open(state, 1_000, faults);
+        journal.append(entry("run-1", "kept")).join();
+
+        faults.tearNextWrite = true;
+        faults.failTruncate = true;
+        assertThrows(CompletionException.class, journal.append(entry("run-2", "lost"))::join);
+        faults.failTruncate = false;
+        journal.append(entry("run-3", "written after the failure")).join();
+        journal.close();
+
+        Map<String, String> restored = new LinkedHashMap<>();
+        open(restored, 1_000).close();
+
+        assertEquals(Map.of("run-1", "kept", "run-3", "written after the failure"), restored);
+        assertEquals(List.of("wal-1.log", "wal-2.log", "wal-3.log"), files());
+    }
+
+    @Test
+    void failedSnapshotKeepsOlderGenerations() throws Exception {
+        Map<String, String> state = new LinkedHashMap<>();
+        RunJournal journal = new RunJournal(dir, 2, () -> {
+            throw new UncheckedIOException(new IOException("value cannot be serialized"));
+        });
+        journal.recover(entry -> state.put(entry.key(), text(entry)));
+        for (int i = 0; i < 5; i++) {
+            state.put("run-" + i, "v" + i);
+            journal.append(entry("run-" + i, "v" + i)).join();
+        }
+        journal.close();
+
+        assertEquals(List.of("wal-1.log"), files());
+        Map<String, String> restored = new LinkedHashMap<>();
+        open(restored, 1_000).close();
+
+        assertEquals(state, restored);
+    }
+
+    @Test
+    void quarantinesRecordsThatCannotBeApplied() throws Exception {
+        RunJournal journal = open(new LinkedHashMap<>(), 1_000);
+        journal.append(entry("run-1", "good")).join();
+        journal.append(entry("run-2", "bad")).join();
+        journal.append(entry("run-3", "good")).join();
+        journal.close();
+
+        Map<String, String> restored = new LinkedHashMap<>();
+        RunJournal reopened = new RunJournal(dir, 1_000, List::of);
+        long replayed = reopened.recover(entry -> {
+            if (text(entry).equals("bad")) {
+                throw new IOException("unreadable");
+            }
+            restored.put(entry.key(), text(entry));
+        });
+        reopened.close();
+
+        assertEquals(2, replayed);
+        assertEquals(1, reopened.quarantined());
+        assertEquals(Map.of("run-1", "good", "run-3", "good"), restored);
+        assertTrue(Files.size(dir.resolve("quarantine.log")) > 0);
+    }
+
+    private RunJournal open(Map<String, String> state, int snapshotEvery) throws Exception {
+        return open(state, snapshotEvery, null);
+    }
+
+    private RunJournal open(Map<String, String> state, int snapshotEvery, Faults faults) throws Exception {
+        Supplier<List<RunJournal.Entry>> snapshot = () -> {
+            synchronized (state) {
+                return state.entrySet().stream()
+                        .map(e -> entry(e.getKey(), e.getValue()))
+                        .toList();
+            }
+        };
+        RunJournal journal = faults == null
+                ? new RunJournal(dir, snapshotEvery, snapshot)
+                : new RunJournal(dir, snapshotEvery, snapshot) {
+                    @Override
+                    FileChannel openLog(Path file) throws IOException {
+                        return new FlakyChannel(super.openLog(file), faults);
+                    }
+                };
+        journal.recover(entry -> state.put(entry.key(), text(entry)));
+        return journal;
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static String text(RunJournal.Entry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+
+    private static RunJournal.Entry entry(String key, String value) {
+        return new RunJournal.Entry(RunJournal.Kind.RUN, key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class Faults {
+        volatile boolean tearNextWrite;
+        volatile boolean failTruncate;
+    }
+
+    /**
+     * Log channel that can write half a buffer and then fail, as a full disk
+     * or an I/O error part way through a batch would.
+     */
+    private static final class FlakyChannel extends FileChannel {
+        private final FileChannel delegate;
+        private final Faults faults;
+
+        FlakyChannel(FileChannel delegate, Faults faults) {
+            this.delegate = delegate;
+            this.faults = faults;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (faults.tearNextWrite) {
+                faults.tearNextWrite = false;
+                ByteBuffer half = src.duplicate();
+                half.limit(half.position() + Math.max(1, half.remaining() / 2));
+                delegate.write(half);
+                throw new IOException("No space left on device");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (faults.failTruncate) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
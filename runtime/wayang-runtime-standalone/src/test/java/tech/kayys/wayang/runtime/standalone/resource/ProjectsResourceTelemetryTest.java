@@ -13,6 +13,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProjectsResourceTelemetryTest {
 
@@ -181,4 +182,65 @@ class ProjectsResourceTelemetryTest {
             }
         }
     }
+
+    @Test
+    void getExecutionTelemetryServesRollupMaintainedOnAppend() throws Exception {
+        String previousUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", tempDir.toString());
+        try {
+            for (int i = 0; i < 3; i++) {
+                ProjectsFileStore.appendExecutionEvent(
+                        "project-1",
+                        "exec-1",
+                        "NODE_COMPLETED",
+                        "RUNNING",
+                        "node done",
+                        Map.of("telemetry", Map.of(
+                                "tasksExecuted", i + 1,
+                                "executorTelemetry", Map.of("delegationAttempts", 1))));
+            }
+            ProjectsFileStore.appendExecutionEvent(
+                    "project-1", "exec-2", "NODE_COMPLETED", "RUNNING", "other run",
+                    Map.of("telemetry", Map.of("tasksExecuted", 100)));
+            Path rollupFile = tempDir.resolve(".wayang").resolve("logs").resolve("server")
+                    .resolve("cloud-project-execution-telemetry.json");
+            assertTrue(Files.exists(rollupFile));
+
+            ProjectsService resource = new ProjectsService();
+            Response response = resource.getExecutionTelemetry(
+                    "project-1", "exec-1", null, null, null, null, "minute", null, null, false);
+            assertEquals(200, response.getStatus());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> payload = (Map<String, Object>) response.getEntity();
+            assertEquals(3, payload.get("eventCount"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> counters = (Map<String, Object>) payload.get("counters");
+            assertEquals(6L, counters.get("tasksExecuted"));
+            assertEquals(3L, counters.get("delegationAttempts"));
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> grouped = (List<Map<String, Object>>) payload.get("grouped");
+            long bucketed = grouped.stream().mapToLong(item -> ((Number) item.get("eventCount")).longValue()).sum();
+            assertEquals(3L, bucketed);
+
+            // Rewriting the events file behind the store's back invalidates the rollup
+            List<Map<String, Object>> events = ProjectsFileStore.readExecutionEvents();
+            events.remove(0);
+            Files.writeString(
+                    tempDir.resolve(".wayang").resolve("logs").resolve("server")
+                            .resolve("cloud-project-execution-events.json"),
+                    OBJECT_MAPPER.writeValueAsString(events));
+            Response rebuilt = resource.getExecutionTelemetry(
+                    "project-1", "exec-1", null, null, null, null, null, null, null, false);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> rebuiltPayload = (Map<String, Object>) rebuilt.getEntity();
+            assertEquals(2, rebuiltPayload.get("eventCount"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> rebuiltCounters = (Map<String, Object>) rebuiltPayload.get("counters");
+            assertEquals(5L, rebuiltCounters.get("tasksExecuted"));
+        } finally {
+            if (previousUserHome != null) {
+                System.setProperty("user.home", previousUserHome);
+            }
+        }
+    }
 }
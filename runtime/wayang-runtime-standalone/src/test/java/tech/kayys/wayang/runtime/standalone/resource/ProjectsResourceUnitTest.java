@@ -126,6 +126,59 @@ class ProjectsResourceUnitTest {
                 assertEquals(304, second.getStatus());
         }
 
+        @Test
+        void shouldReturnOnlyNewEventsInDeltaSnapshot() throws Exception {
+                Response created = resource.createProject(Map.of("projectName", "Snapshot Project"));
+                @SuppressWarnings("unchecked")
+                Map<String, Object> project = (Map<String, Object>) created.getEntity();
+                String projectId = String.valueOf(project.get("projectId"));
+
+                Response execute = resource.createExecution(projectId, "community", Map.of(
+                                "name", "snapshot-run",
+                                "spec", Map.of("specVersion", "1.0.0", "workflow", Map.of("nodes", List.of()))));
+                assertEquals(202, execute.getStatus());
+                @SuppressWarnings("unchecked")
+                Map<String, Object> startPayload = (Map<String, Object>) execute.getEntity();
+                String executionId = String.valueOf(startPayload.get("executionId"));
+
+                Response full = resource.getExecutionSnapshot(projectId, executionId, false, 200, null);
+                assertEquals(200, full.getStatus());
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fullPayload = (Map<String, Object>) full.getEntity();
+                assertEquals(false, fullPayload.get("delta"));
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> fullEvents = (List<Map<String, Object>>) fullPayload.get("events");
+                int cursor = ((Number) fullPayload.get("nextCursor")).intValue();
+                assertEquals(fullEvents.size(), cursor);
+                assertEquals("RUNNING", String.valueOf(((Map<?, ?>) fullPayload.get("status")).get("status")));
+
+                ProjectsFileStore.appendExecutionEvent(
+                                projectId, executionId, "NODE_COMPLETED", "RUNNING", "node done",
+                                Map.of("telemetry", Map.of("tasksExecuted", 3)));
+
+                Response delta = resource.getExecutionSnapshot(projectId, executionId, false, 200, cursor);
+                assertEquals(200, delta.getStatus());
+                @SuppressWarnings("unchecked")
+                Map<String, Object> deltaPayload = (Map<String, Object>) delta.getEntity();
+                assertEquals(true, deltaPayload.get("delta"));
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> deltaEvents = (List<Map<String, Object>>) deltaPayload.get("events");
+                assertEquals(1, deltaEvents.size());
+                assertEquals("NODE_COMPLETED", deltaEvents.get(0).get("type"));
+                assertEquals(cursor + 1, deltaPayload.get("nextCursor"));
+                assertEquals(false, deltaPayload.get("hasMore"));
+                @SuppressWarnings("unchecked")
+                Map<String, Object> telemetry = (Map<String, Object>) deltaPayload.get("telemetry");
+                assertEquals(1, telemetry.get("eventCount"));
+                assertEquals(3L, ((Map<?, ?>) telemetry.get("counters")).get("tasksExecuted"));
+
+                Response stale = resource.getExecutionSnapshot(projectId, executionId, false, 200, cursor + 100);
+                @SuppressWarnings("unchecked")
+                Map<String, Object> stalePayload = (Map<String, Object>) stale.getEntity();
+                assertEquals(true, stalePayload.get("reset"));
+                assertEquals(cursor + 1, stalePayload.get("totalEventCount"));
+        }
+
         @Test
         void shouldRejectExecutionRequestWithoutSpec() {
                 Response created = resource.createProject(Map.of("projectName", "No-Spec Project"));
@@ -0,0 +1,66 @@
+package tech.kayys.wayang.runtime.standalone.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryTimingWheelTest {
+
+    @Test
+    void firesWithinOneTickAndNeverEarly() {
+        RetryTimingWheel wheel = new RetryTimingWheel(50L, 8, 0L);
+        List<Long> fired = new ArrayList<>();
+        wheel.scheduleAt(120L, handle -> fired.add(120L));
+        wheel.scheduleAt(130L, handle -> fired.add(130L));
+
+        assertEquals(0, wheel.expire(119L));
+        assertTrue(fired.isEmpty());
+
+        assertEquals(2, wheel.expire(150L));
+        assertEquals(2, fired.size());
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    void cancelledActionDoesNotRun() {
+        RetryTimingWheel wheel = new RetryTimingWheel(50L, 8, 0L);
+        AtomicInteger runs = new AtomicInteger();
+        RetryTimingWheel.Handle handle = wheel.scheduleAt(100L, ignored -> runs.incrementAndGet());
+
+        assertTrue(handle.cancel());
+        assertFalse(handle.cancel());
+        assertEquals(0, wheel.pending());
+
+        wheel.expire(1_000L);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void deadlineSeveralRevolutionsAheadWaitsItsRounds() {
+        // 8 slots x 50 ms = 400 ms per revolution
+        RetryTimingWheel wheel = new RetryTimingWheel(50L, 8, 0L);
+        AtomicInteger runs = new AtomicInteger();
+        RetryTimingWheel.Handle[] seen = new RetryTimingWheel.Handle[1];
+        RetryTimingWheel.Handle handle = wheel.scheduleAt(1_250L, fired -> {
+            seen[0] = fired;
+            runs.incrementAndGet();
+        });
+
+        for (long now = 0L; now < 1_250L; now += 10L) {
+            wheel.expire(now);
+        }
+        assertEquals(0, runs.get());
+
+        wheel.expire(1_250L);
+        assertEquals(1, runs.get());
+        assertSame(handle, seen[0]);
+        assertFalse(handle.cancel());
+    }
+}